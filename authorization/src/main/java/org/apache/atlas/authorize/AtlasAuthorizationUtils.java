@@ -31,8 +31,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import javax.servlet.http.HttpServletRequest;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 
 public class AtlasAuthorizationUtils {
@@ -62,6 +65,21 @@ public class AtlasAuthorizationUtils {
         }
     }
 
+    /**
+     * Verifies access to a number of entities with a single call to the authorizer; throws on the first request not allowed.
+     */
+    public static void verifyAccess(List<AtlasEntityAccessRequest> requests, Function<AtlasEntityAccessRequest, String> errorMsg) throws AtlasBaseException {
+        boolean[] results = isAccessAllowed(requests);
+
+        for (int i = 0; i < results.length; i++) {
+            if (! results[i]) {
+                AtlasEntityAccessRequest request = requests.get(i);
+
+                throw new AtlasBaseException(AtlasErrorCode.UNAUTHORIZED_ACCESS, request.getUser(), errorMsg.apply(request));
+            }
+        }
+    }
+
     public static boolean isAccessAllowed(AtlasAdminAccessRequest request) {
         boolean ret      = false;
         String  userName = getCurrentUserName();
@@ -104,6 +122,30 @@ public class AtlasAuthorizationUtils {
         return ret;
     }
 
+    public static boolean[] isAccessAllowed(List<AtlasEntityAccessRequest> requests) {
+        boolean[] ret      = new boolean[requests.size()];
+        String    userName = getCurrentUserName();
+
+        if (StringUtils.isNotEmpty(userName)) {
+            try {
+                AtlasAuthorizer authorizer = AtlasAuthorizerFactory.getAtlasAuthorizer();
+                Set<String>     userGroups = getCurrentUserGroups();
+
+                for (AtlasEntityAccessRequest request : requests) {
+                    request.setUser(userName, userGroups);
+                }
+
+                ret = authorizer.isAccessAllowed(requests);
+            } catch (AtlasAuthorizationException e) {
+                LOG.error("Unable to obtain AtlasAuthorizer", e);
+            }
+        } else {
+            Arrays.fill(ret, true);
+        }
+
+        return ret;
+    }
+
     public static boolean isAccessAllowed(AtlasTypeAccessRequest request) {
         boolean ret      = false;
         String  userName = getCurrentUserName();
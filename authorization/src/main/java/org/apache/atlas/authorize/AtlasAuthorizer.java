@@ -18,6 +18,7 @@
 
 package org.apache.atlas.authorize;
 
+import java.util.List;
 
 public interface AtlasAuthorizer {
     /**
@@ -46,6 +47,21 @@ public interface AtlasAuthorizer {
      */
     boolean isAccessAllowed(AtlasEntityAccessRequest request) throws AtlasAuthorizationException;
 
+    /**
+     * authorize operations on a number of entities
+     * @param requests
+     * @return result for each request, in the order of requests
+     * @throws AtlasAuthorizationException
+     */
+    default boolean[] isAccessAllowed(List<AtlasEntityAccessRequest> requests) throws AtlasAuthorizationException {
+        boolean[] ret = new boolean[requests.size()];
+
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = isAccessAllowed(requests.get(i));
+        }
+
+        return ret;
+    }
 
 
     /**
@@ -109,6 +109,10 @@ public class AtlasEntityAccessRequest extends AtlasAccessRequest {
         return entityClassifications;
     }
 
+    public AtlasTypeRegistry getTypeRegistry() {
+        return typeRegistry;
+    }
+
     public Set<String> getEntityTypeAndAllSuperTypes() {
         final Set<String> ret;
 
@@ -20,11 +20,21 @@ package org.apache.atlas.authorize.simple;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.authorize.AtlasAdminAccessRequest;
@@ -34,23 +44,44 @@ import org.apache.atlas.authorize.AtlasEntityAccessRequest;
 import org.apache.atlas.authorize.AtlasTypeAccessRequest;
 import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.*;
 import org.apache.atlas.utils.AtlasJson;
+import org.apache.atlas.utils.LruCache;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Authorizer that uses roles and permissions in a JSON policy file.
+ *
+ * Values in permissions are compiled when the policy is loaded: '*' and '.*' match any value, values without regex
+ * meta-characters are matched case-insensitively without a regex, and other values are precompiled into patterns.
+ * Decisions on entity access are cached, keyed by the request details they depend on; the cache is dropped along with
+ * the compiled policy when the policy is loaded again.
+ */
 public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasSimpleAuthorizer.class);
 
+    public static final String DECISION_CACHE_SIZE_PROPERTY = "atlas.authorizer.simple.decision.cache.size";
+    public static final int    DEFAULT_DECISION_CACHE_SIZE  = 10000;
+
     private final static String WILDCARD_ASTERISK = "*";
+    private final static String WILDCARD_REGEX    = ".*";
+    private final static String REGEX_META_CHARS  = "\\.[]{}()<>*+-=!?^$|";
+    private final static char   KEY_SEPARATOR     = '\u0001';
 
-    private AtlasSimpleAuthzPolicy authzPolicy;
+    private volatile CompiledPolicy policy;
 
 
     public AtlasSimpleAuthorizer() {
     }
 
+    @VisibleForTesting
+    AtlasSimpleAuthorizer(AtlasSimpleAuthzPolicy authzPolicy, int decisionCacheSize) {
+        this.policy = new CompiledPolicy(authzPolicy, decisionCacheSize);
+    }
+
     @Override
     public void init() {
         LOG.info("==> SimpleAtlasAuthorizer.init()");
@@ -58,9 +89,14 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         InputStream inputStream = null;
 
         try {
-            inputStream = ApplicationProperties.getFileAsInputStream(ApplicationProperties.get(), "atlas.authorizer.simple.authz.policy.file", "atlas-simple-authz-policy.json");
+            Configuration configuration = ApplicationProperties.get();
+
+            inputStream = ApplicationProperties.getFileAsInputStream(configuration, "atlas.authorizer.simple.authz.policy.file", "atlas-simple-authz-policy.json");
+
+            AtlasSimpleAuthzPolicy authzPolicy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
 
-            authzPolicy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+            // decisions cached for the earlier policy, if any, are dropped along with it
+            policy = new CompiledPolicy(authzPolicy, configuration.getInt(DECISION_CACHE_SIZE_PROPERTY, DEFAULT_DECISION_CACHE_SIZE));
         } catch (IOException | AtlasException e) {
             LOG.error("SimpleAtlasAuthorizer.init(): initialization failed", e);
 
@@ -82,7 +118,7 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
     public void cleanUp() {
         LOG.info("==> SimpleAtlasAuthorizer.cleanUp()");
 
-        authzPolicy = null;
+        policy = null;
 
         LOG.info("<== SimpleAtlasAuthorizer.cleanUp()");
     }
@@ -95,16 +131,17 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
         boolean ret = false;
 
-        Set<String> roles = getRoles(request.getUser(), request.getUserGroups());
+        CompiledPolicy policy = this.policy;
+        Set<String>    roles  = getRoles(policy, request.getUser(), request.getUserGroups());
 
         for (String role : roles) {
-            List<AtlasAdminPermission> permissions = getAdminPermissionsForRole(role);
+            List<AdminPermission> permissions = policy.adminPermissions.get(role);
 
             if (permissions != null) {
                 final String action = request.getAction() != null ? request.getAction().getType() : null;
 
-                for (AtlasAdminPermission permission : permissions) {
-                    if (isMatch(action, permission.getPrivileges())) {
+                for (AdminPermission permission : permissions) {
+                    if (permission.privileges.isMatch(action)) {
                         ret = true;
 
                         break;
@@ -128,20 +165,21 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
         boolean ret = false;
 
-        Set<String> roles = getRoles(request.getUser(), request.getUserGroups());
+        CompiledPolicy policy = this.policy;
+        Set<String>    roles  = getRoles(policy, request.getUser(), request.getUserGroups());
 
         for (String role : roles) {
-            List<AtlasTypePermission> permissions = getTypePermissionsForRole(role);
+            List<TypePermission> permissions = policy.typePermissions.get(role);
 
             if (permissions != null) {
                 final String action       = request.getAction() != null ? request.getAction().getType() : null;
                 final String typeCategory = request.getTypeDef() != null ? request.getTypeDef().getCategory().name() : null;
                 final String typeName     = request.getTypeDef() != null ? request.getTypeDef().getName() : null;
 
-                for (AtlasTypePermission permission : permissions) {
-                    if (isMatch(action, permission.getPrivileges()) &&
-                        isMatch(typeCategory, permission.getTypeCategories()) &&
-                        isMatch(typeName, permission.getTypeNames())) {
+                for (TypePermission permission : permissions) {
+                    if (permission.privileges.isMatch(action) &&
+                        permission.typeCategories.isMatch(typeCategory) &&
+                        permission.typeNames.isMatch(typeName)) {
                         ret = true;
 
                         break;
@@ -163,26 +201,85 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({})", request);
         }
 
+        boolean ret = isAccessAllowed(this.policy, request, null);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {}", request, ret);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public boolean[] isAccessAllowed(List<AtlasEntityAccessRequest> requests) throws AtlasAuthorizationException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({} requests)", requests.size());
+        }
+
+        CompiledPolicy policy      = this.policy; // all requests are evaluated with the same policy
+        boolean[]      ret         = new boolean[requests.size()];
+        Set<String>    roles       = null;
+        String         rolesUser   = null;
+        Set<String>    rolesGroups = null;
+
+        for (int i = 0; i < ret.length; i++) {
+            AtlasEntityAccessRequest request = requests.get(i);
+
+            // requests are usually for the same user; roles are looked up again only when the user changes
+            if (roles == null || !Objects.equals(rolesUser, request.getUser()) || !Objects.equals(rolesGroups, request.getUserGroups())) {
+                rolesUser   = request.getUser();
+                rolesGroups = request.getUserGroups();
+                roles       = getRoles(policy, rolesUser, rolesGroups);
+            }
+
+            ret[i] = isAccessAllowed(policy, request, roles);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({} requests)", requests.size());
+        }
+
+        return ret;
+    }
+
+    private boolean isAccessAllowed(CompiledPolicy policy, AtlasEntityAccessRequest request, Set<String> roles) {
+        final String cacheKey = policy != null && policy.decisionCache != null ? getDecisionCacheKey(policy, request) : null;
+
+        if (cacheKey != null) {
+            final Boolean cached;
+
+            synchronized (policy.decisionCache) {
+                cached = policy.decisionCache.get(cacheKey);
+            }
+
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         final String      action         = request.getAction() != null ? request.getAction().getType() : null;
         final Set<String> entityTypes    = request.getEntityTypeAndAllSuperTypes();
         final String      entityId       = request.getEntityId();
         final String      classification = request.getClassification() != null ? request.getClassification().getTypeName() : null;
         final String      attribute      = request.getAttributeName();
         final Set<String> entClsToAuthz  = new HashSet<>(request.getEntityClassifications());
-        final Set<String> roles          = getRoles(request.getUser(), request.getUserGroups());
         boolean hasEntityAccess          = false;
         boolean hasClassificationsAccess = false;
 
+        if (roles == null) {
+            roles = getRoles(policy, request.getUser(), request.getUserGroups());
+        }
+
         for (String role : roles) {
-            List<AtlasEntityPermission> permissions = getEntityPermissionsForRole(role);
+            List<EntityPermission> permissions = policy.entityPermissions.get(role);
 
             if (permissions != null) {
-                for (AtlasEntityPermission permission : permissions) {
+                for (EntityPermission permission : permissions) {
                     // match entity-type/entity-id/attribute
-                    if (isMatchAny(entityTypes, permission.getEntityTypes()) && isMatch(entityId, permission.getEntityIds()) && isMatch(attribute, permission.getAttributes())) {
+                    if (permission.entityTypes.isMatchAny(entityTypes) && permission.entityIds.isMatch(entityId) && permission.attributes.isMatch(attribute)) {
                         // match permission/classification
                         if (!hasEntityAccess) {
-                            if (isMatch(action, permission.getPrivileges()) && isMatch(classification, permission.getClassifications())) {
+                            if (permission.privileges.isMatch(action) && permission.classifications.isMatch(classification)) {
                                 hasEntityAccess = true;
                             }
                         }
@@ -191,7 +288,7 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
                         for (Iterator<String> iter = entClsToAuthz.iterator(); iter.hasNext();) {
                             String entityClassification = iter.next();
 
-                            if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getClassifications())) {
+                            if (permission.classifications.isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification))) {
                                 iter.remove();
                             }
                         }
@@ -204,37 +301,67 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
                     }
                 }
             }
+
+            if (hasEntityAccess && hasClassificationsAccess) {
+                break;
+            }
         }
 
         boolean ret = hasEntityAccess && hasClassificationsAccess;
 
-        if (LOG.isDebugEnabled()) {
-            if (!ret) {
-                LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz);
+        if (cacheKey != null) {
+            synchronized (policy.decisionCache) {
+                policy.decisionCache.put(cacheKey, ret);
             }
+        }
 
-            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {}", request, ret);
+        if (!ret && LOG.isDebugEnabled()) {
+            LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz);
         }
 
         return ret;
     }
 
+    // key of details the decision depends on; entity-id is left out when no permission in the policy restricts it
+    private static String getDecisionCacheKey(CompiledPolicy policy, AtlasEntityAccessRequest request) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(request.getUser()).append(KEY_SEPARATOR);
+
+        if (request.getUserGroups() != null) {
+            sb.append(new TreeSet<>(request.getUserGroups()));
+        }
+
+        sb.append(KEY_SEPARATOR).append(request.getAction() != null ? request.getAction().getType() : null)
+          .append(KEY_SEPARATOR).append(request.getEntity() != null ? request.getEntityType() : null)
+          // super-types of entity and classification types are looked up in the type registry, which can change
+          .append(KEY_SEPARATOR).append(request.getTypeRegistry() != null ? request.getTypeRegistry().getVersion() : -1)
+          .append(KEY_SEPARATOR).append(request.getClassification() != null ? request.getClassification().getTypeName() : null)
+          .append(KEY_SEPARATOR).append(request.getAttributeName())
+          .append(KEY_SEPARATOR).append(new TreeSet<>(request.getEntityClassifications()));
 
-    private Set<String> getRoles(String userName, Set<String> userGroups) {
+        if (!policy.isEntityIdUnrestricted) {
+            sb.append(KEY_SEPARATOR).append(request.getEntityId());
+        }
+
+        return sb.toString();
+    }
+
+    private Set<String> getRoles(CompiledPolicy policy, String userName, Set<String> userGroups) {
         Set<String> ret = new HashSet<>();
 
-        if (authzPolicy != null) {
-            if (userName != null && authzPolicy.getUserRoles() != null) {
-                List<String> userRoles = authzPolicy.getUserRoles().get(userName);
+        if (policy != null) {
+            if (userName != null) {
+                List<String> userRoles = policy.userRoles.get(userName);
 
                 if (userRoles != null) {
                     ret.addAll(userRoles);
                 }
             }
 
-            if (userGroups != null && authzPolicy.getGroupRoles() != null) {
+            if (userGroups != null) {
                 for (String groupName : userGroups) {
-                    List<String> groupRoles = authzPolicy.getGroupRoles().get(groupName);
+                    List<String> groupRoles = policy.groupRoles.get(groupName);
 
                     if (groupRoles != null) {
                         ret.addAll(groupRoles);
@@ -250,97 +377,187 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         return ret;
     }
 
-    private List<AtlasAdminPermission> getAdminPermissionsForRole(String roleName) {
-        List<AtlasAdminPermission> ret = null;
+    /**
+     * policy with permission values compiled into matchers, and the cache of decisions made with the policy
+     */
+    private static final class CompiledPolicy {
+        final Map<String, List<String>>           userRoles;
+        final Map<String, List<String>>           groupRoles;
+        final Map<String, List<AdminPermission>>  adminPermissions  = new HashMap<>();
+        final Map<String, List<TypePermission>>   typePermissions   = new HashMap<>();
+        final Map<String, List<EntityPermission>> entityPermissions = new HashMap<>();
+        final LruCache<String, Boolean>           decisionCache;
+        final boolean                             isEntityIdUnrestricted;
+
+        CompiledPolicy(AtlasSimpleAuthzPolicy authzPolicy, int decisionCacheSize) {
+            boolean isEntityIdUnrestricted = true;
+
+            if (authzPolicy != null && authzPolicy.getRoles() != null) {
+                for (Map.Entry<String, AtlasAuthzRole> entry : authzPolicy.getRoles().entrySet()) {
+                    AtlasAuthzRole role = entry.getValue();
+
+                    if (role == null) {
+                        continue;
+                    }
 
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+                    if (role.getAdminPermissions() != null) {
+                        List<AdminPermission> permissions = new ArrayList<>();
 
-            ret = role != null ? role.getAdminPermissions() : null;
-        }
+                        for (AtlasAdminPermission permission : role.getAdminPermissions()) {
+                            permissions.add(new AdminPermission(permission));
+                        }
 
-        return ret;
-    }
+                        adminPermissions.put(entry.getKey(), permissions);
+                    }
+
+                    if (role.getTypePermissions() != null) {
+                        List<TypePermission> permissions = new ArrayList<>();
 
-    private List<AtlasTypePermission> getTypePermissionsForRole(String roleName) {
-        List<AtlasTypePermission> ret = null;
+                        for (AtlasTypePermission permission : role.getTypePermissions()) {
+                            permissions.add(new TypePermission(permission));
+                        }
 
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+                        typePermissions.put(entry.getKey(), permissions);
+                    }
 
-            ret = role != null ? role.getTypePermissions() : null;
-        }
+                    if (role.getEntityPermissions() != null) {
+                        List<EntityPermission> permissions = new ArrayList<>();
 
-        return ret;
+                        for (AtlasEntityPermission permission : role.getEntityPermissions()) {
+                            EntityPermission entityPermission = new EntityPermission(permission);
+
+                            if (!entityPermission.entityIds.isMatchAll) {
+                                isEntityIdUnrestricted = false;
+                            }
+
+                            permissions.add(entityPermission);
+                        }
+
+                        entityPermissions.put(entry.getKey(), permissions);
+                    }
+                }
+            }
+
+            this.userRoles              = authzPolicy != null && authzPolicy.getUserRoles() != null ? authzPolicy.getUserRoles() : Collections.<String, List<String>>emptyMap();
+            this.groupRoles             = authzPolicy != null && authzPolicy.getGroupRoles() != null ? authzPolicy.getGroupRoles() : Collections.<String, List<String>>emptyMap();
+            this.decisionCache          = decisionCacheSize > 0 ? new LruCache<String, Boolean>(decisionCacheSize, 0) : null;
+            this.isEntityIdUnrestricted = isEntityIdUnrestricted;
+
+            LOG.info("SimpleAtlasAuthorizer: compiled policy with {} roles; decisionCacheSize={}, isEntityIdUnrestricted={}",
+                     authzPolicy != null && authzPolicy.getRoles() != null ? authzPolicy.getRoles().size() : 0, decisionCacheSize, isEntityIdUnrestricted);
+        }
     }
 
-    private List<AtlasEntityPermission> getEntityPermissionsForRole(String roleName) {
-        List<AtlasEntityPermission> ret = null;
+    private static final class AdminPermission {
+        final ValueMatcher privileges;
 
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+        AdminPermission(AtlasAdminPermission permission) {
+            this.privileges = new ValueMatcher(permission.getPrivileges());
+        }
+    }
 
-            ret = role != null ? role.getEntityPermissions() : null;
+    private static final class TypePermission {
+        final ValueMatcher privileges;
+        final ValueMatcher typeCategories;
+        final ValueMatcher typeNames;
+
+        TypePermission(AtlasTypePermission permission) {
+            this.privileges     = new ValueMatcher(permission.getPrivileges());
+            this.typeCategories = new ValueMatcher(permission.getTypeCategories());
+            this.typeNames      = new ValueMatcher(permission.getTypeNames());
         }
+    }
 
-        return ret;
+    private static final class EntityPermission {
+        final ValueMatcher privileges;
+        final ValueMatcher entityTypes;
+        final ValueMatcher entityIds;
+        final ValueMatcher classifications;
+        final ValueMatcher attributes;
+
+        EntityPermission(AtlasEntityPermission permission) {
+            this.privileges      = new ValueMatcher(permission.getPrivileges());
+            this.entityTypes     = new ValueMatcher(permission.getEntityTypes());
+            this.entityIds       = new ValueMatcher(permission.getEntityIds());
+            this.classifications = new ValueMatcher(permission.getClassifications());
+            this.attributes      = new ValueMatcher(permission.getAttributes());
+        }
     }
 
-    private boolean isMatch(String value, List<String> patterns) {
-        boolean ret = false;
+    /**
+     * Values of a permission: a value matches if it is equal, ignoring case, to one of the values or if it matches one of
+     * the values as a regex. A null value matches any; no value matches an empty list.
+     */
+    @VisibleForTesting
+    static final class ValueMatcher {
+        final boolean       isMatchAll;
+        final Set<String>   literals = new HashSet<>(); // in lower-case
+        final List<Pattern> patterns = new ArrayList<>();
+
+        ValueMatcher(List<String> values) {
+            boolean isMatchAll = false;
+
+            if (values != null) {
+                for (String value : values) {
+                    if (value == null) {
+                        continue;
+                    }
+
+                    if (StringUtils.equals(value, WILDCARD_ASTERISK) || StringUtils.equals(value, WILDCARD_REGEX)) {
+                        isMatchAll = true;
+
+                        continue;
+                    }
 
-        if (value == null) {
-            ret = true;
-        } if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String pattern : patterns) {
-                if (isMatch(value, pattern)) {
-                    ret = true;
+                    literals.add(value.toLowerCase(Locale.ROOT));
 
-                    break;
+                    if (StringUtils.containsAny(value, REGEX_META_CHARS)) {
+                        try {
+                            patterns.add(Pattern.compile(value));
+                        } catch (PatternSyntaxException excp) {
+                            LOG.warn("SimpleAtlasAuthorizer: invalid regex {} in policy; will be matched only as a literal value", value);
+                        }
+                    }
                 }
             }
-        }
 
-        if (!ret && LOG.isDebugEnabled()) {
-            LOG.debug("<== isMatch({}, {}): {}", value, patterns, ret);
+            this.isMatchAll = isMatchAll;
         }
 
-        return ret;
-    }
-
-    private boolean isMatchAny(Set<String> values, List<String> patterns) {
-        boolean ret = false;
+        boolean isMatch(String value) {
+            boolean ret = value == null || isMatchAll || literals.contains(value.toLowerCase(Locale.ROOT));
 
-        if (CollectionUtils.isEmpty(values)) {
-            ret = true;
-        }if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String value : values) {
-                if (isMatch(value, patterns)) {
-                    ret = true;
+            if (!ret) {
+                for (Pattern pattern : patterns) {
+                    if (pattern.matcher(value).matches()) {
+                        ret = true;
 
-                    break;
+                        break;
+                    }
                 }
             }
-        }
 
-        if (!ret && LOG.isDebugEnabled()) {
-            LOG.debug("<== isMatchAny({}, {}): {}", values, patterns, ret);
+            if (!ret && LOG.isDebugEnabled()) {
+                LOG.debug("<== isMatch({}, {}): {}", value, literals, ret);
+            }
+
+            return ret;
         }
 
-        return ret;
-    }
+        boolean isMatchAny(Set<String> values) {
+            boolean ret = CollectionUtils.isEmpty(values);
 
-    private boolean isMatch(String value, String pattern) {
-        boolean ret;
+            if (!ret) {
+                for (String value : values) {
+                    if (isMatch(value)) {
+                        ret = true;
 
-        if (value == null) {
-            ret = true;
-        } else {
-            ret = StringUtils.equalsIgnoreCase(value, pattern) || value.matches(pattern);
-        }
+                        break;
+                    }
+                }
+            }
 
-        return ret;
+            return ret;
+        }
     }
 }
-
-
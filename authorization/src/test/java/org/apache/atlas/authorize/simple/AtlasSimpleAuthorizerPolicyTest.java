@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import org.apache.atlas.authorize.AtlasEntityAccessRequest;
+import org.apache.atlas.authorize.AtlasPrivilege;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasAuthzRole;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasEntityPermission;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasSimpleAuthorizerPolicyTest {
+    @Test
+    public void testValueMatcher() {
+        AtlasSimpleAuthorizer.ValueMatcher matcher = new AtlasSimpleAuthorizer.ValueMatcher(Arrays.asList("hive_table", "db1\\..*", "[invalid"));
+
+        assertFalse(matcher.isMatchAll);
+        assertTrue(matcher.isMatch(null));
+        assertTrue(matcher.isMatch("HIVE_TABLE"));
+        assertTrue(matcher.isMatch("db1.t1"));
+        assertTrue(matcher.isMatch("[invalid"));
+        assertFalse(matcher.isMatch("db2.t1"));
+        assertTrue(matcher.isMatchAny(Collections.<String>emptySet()));
+        assertTrue(matcher.isMatchAny(new HashSet<>(Arrays.asList("hive_db", "hive_table"))));
+
+        assertTrue(new AtlasSimpleAuthorizer.ValueMatcher(Collections.singletonList("*")).isMatch("anything"));
+        assertTrue(new AtlasSimpleAuthorizer.ValueMatcher(Collections.singletonList(".*")).isMatchAll);
+        assertFalse(new AtlasSimpleAuthorizer.ValueMatcher(Collections.<String>emptyList()).isMatch("anything"));
+    }
+
+    @Test
+    public void testEntityAccess() throws Exception {
+        AtlasSimpleAuthorizer authorizer = new AtlasSimpleAuthorizer(createPolicy(), 100);
+
+        assertTrue(authorizer.isAccessAllowed(createRequest(null, AtlasPrivilege.ENTITY_READ, "db1.t1", "user1")));
+        assertFalse(authorizer.isAccessAllowed(createRequest(null, AtlasPrivilege.ENTITY_READ, "db2.t1", "user1")));
+        assertFalse(authorizer.isAccessAllowed(createRequest(null, AtlasPrivilege.ENTITY_UPDATE, "db1.t1", "user1")));
+        assertTrue(authorizer.isAccessAllowed(createRequest(null, AtlasPrivilege.ENTITY_UPDATE, "db2.t1", "admin")));
+        assertFalse(authorizer.isAccessAllowed(createRequest(null, AtlasPrivilege.ENTITY_READ, "db1.t1", "unknown")));
+    }
+
+    @Test
+    public void testDecisionCache() throws Exception {
+        CountingTypeRegistry  typeRegistry = new CountingTypeRegistry();
+        AtlasSimpleAuthorizer authorizer   = new AtlasSimpleAuthorizer(createPolicy(), 100);
+
+        assertTrue(authorizer.isAccessAllowed(createRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, "db1.t1", "user1")));
+        assertTrue(authorizer.isAccessAllowed(createRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, "db1.t1", "user1")));
+        assertEquals(typeRegistry.entityTypeLookups.get(), 1);
+
+        // decisions depend on entity-id, as the policy restricts it
+        assertFalse(authorizer.isAccessAllowed(createRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, "db2.t1", "user1")));
+        assertEquals(typeRegistry.entityTypeLookups.get(), 2);
+
+        // no decision cache
+        authorizer = new AtlasSimpleAuthorizer(createPolicy(), 0);
+
+        assertTrue(authorizer.isAccessAllowed(createRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, "db1.t1", "user1")));
+        assertTrue(authorizer.isAccessAllowed(createRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, "db1.t1", "user1")));
+        assertEquals(typeRegistry.entityTypeLookups.get(), 4);
+    }
+
+    @Test
+    public void testBulkAccess() throws Exception {
+        AtlasSimpleAuthorizer authorizer = new AtlasSimpleAuthorizer(createPolicy(), 100);
+
+        boolean[] results = authorizer.isAccessAllowed(Arrays.asList(createRequest(null, AtlasPrivilege.ENTITY_READ, "db1.t1", "user1"),
+                                                                     createRequest(null, AtlasPrivilege.ENTITY_READ, "db2.t1", "user1"),
+                                                                     createRequest(null, AtlasPrivilege.ENTITY_DELETE, "db2.t1", "admin"),
+                                                                     createRequest(null, AtlasPrivilege.ENTITY_DELETE, "db2.t1", "user1")));
+
+        assertEquals(results.length, 4);
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertTrue(results[2]);
+        assertFalse(results[3]);
+    }
+
+    private static AtlasEntityAccessRequest createRequest(AtlasTypeRegistry typeRegistry, AtlasPrivilege action, String qualifiedName, String user) {
+        AtlasEntityHeader        entity = new AtlasEntityHeader("hive_table", Collections.<String, Object>singletonMap("qualifiedName", qualifiedName));
+        AtlasEntityAccessRequest ret    = new AtlasEntityAccessRequest(typeRegistry, action, entity);
+
+        ret.setUser(user, Collections.<String>emptySet());
+
+        return ret;
+    }
+
+    private static AtlasSimpleAuthzPolicy createPolicy() {
+        List<String>                anyValue  = Collections.singletonList("*");
+        AtlasEntityPermission       readDb1   = new AtlasEntityPermission(Collections.singletonList("entity-read"), Collections.singletonList("hive_table"),
+                                                                          Collections.singletonList("db1\\..*"), anyValue, anyValue);
+        AtlasEntityPermission       all       = new AtlasEntityPermission(anyValue, anyValue, anyValue, anyValue, anyValue);
+        Map<String, AtlasAuthzRole> roles     = new HashMap<>();
+        Map<String, List<String>>   userRoles = new HashMap<>();
+        AtlasSimpleAuthzPolicy      ret       = new AtlasSimpleAuthzPolicy();
+
+        roles.put("ROLE_READER", new AtlasAuthzRole(null, Collections.singletonList(readDb1), null));
+        roles.put("ROLE_ADMIN", new AtlasAuthzRole(null, Collections.singletonList(all), null));
+
+        userRoles.put("user1", Collections.singletonList("ROLE_READER"));
+        userRoles.put("admin", Collections.singletonList("ROLE_ADMIN"));
+
+        ret.setRoles(roles);
+        ret.setUserRoles(userRoles);
+
+        return ret;
+    }
+
+    private static class CountingTypeRegistry extends AtlasTypeRegistry {
+        final AtomicInteger entityTypeLookups = new AtomicInteger();
+
+        @Override
+        public AtlasEntityType getEntityTypeByName(String name) {
+            entityTypeLookups.incrementAndGet();
+
+            return super.getEntityTypeByName(name);
+        }
+    }
+}
@@ -81,6 +81,11 @@ public final class Constants {
     public static final String MODIFICATION_TIMESTAMP_PROPERTY_KEY =
         INTERNAL_PROPERTY_KEY_PREFIX + "modificationTimestamp";
 
+    /**
+     * Hash of the attributes of an entity as of its last full update; removed when the entity is modified otherwise.
+     */
+    public static final String ENTITY_CONTENT_HASH_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "contentHash";
+
     /**
      * search backing index name.
      */
@@ -123,6 +128,44 @@ public final class Constants {
     public static final String CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "isPropagated";
     public static final String CLASSIFICATION_LABEL                           = "classifiedAs";
 
+    /**
+     * Properties of tag propagation task vertices.
+     */
+    public static final String TASK_GUID_PROPERTY_KEY                 = INTERNAL_PROPERTY_KEY_PREFIX + "task.guid";
+    public static final String TASK_TYPE_PROPERTY_KEY                 = INTERNAL_PROPERTY_KEY_PREFIX + "task.type";
+    public static final String TASK_STATUS_PROPERTY_KEY               = INTERNAL_PROPERTY_KEY_PREFIX + "task.status";
+    public static final String TASK_ENTITY_GUID_PROPERTY_KEY          = INTERNAL_PROPERTY_KEY_PREFIX + "task.entityGuid";
+    public static final String TASK_CLASSIFICATION_NAME_PROPERTY_KEY  = INTERNAL_PROPERTY_KEY_PREFIX + "task.classificationName";
+    public static final String TASK_CLASSIFICATION_ID_PROPERTY_KEY    = INTERNAL_PROPERTY_KEY_PREFIX + "task.classificationVertexId";
+    public static final String TASK_PROPAGATED_GUIDS_PROPERTY_KEY     = INTERNAL_PROPERTY_KEY_PREFIX + "task.propagatedGuids";
+    public static final String TASK_CREATED_BY_PROPERTY_KEY           = INTERNAL_PROPERTY_KEY_PREFIX + "task.createdBy";
+    public static final String TASK_CREATE_TIME_PROPERTY_KEY          = INTERNAL_PROPERTY_KEY_PREFIX + "task.createTime";
+    public static final String TASK_UPDATE_TIME_PROPERTY_KEY          = INTERNAL_PROPERTY_KEY_PREFIX + "task.updateTime";
+    public static final String TASK_TOTAL_COUNT_PROPERTY_KEY          = INTERNAL_PROPERTY_KEY_PREFIX + "task.totalCount";
+    public static final String TASK_PROCESSED_COUNT_PROPERTY_KEY      = INTERNAL_PROPERTY_KEY_PREFIX + "task.processedCount";
+    public static final String TASK_ERROR_MESSAGE_PROPERTY_KEY        = INTERNAL_PROPERTY_KEY_PREFIX + "task.errorMessage";
+
+    /**
+     * Edge from a tag propagation task vertex to each vertex holding a chunk of the task's propagated guids.
+     */
+    public static final String TASK_PROPAGATED_GUIDS_LABEL = INTERNAL_PROPERTY_KEY_PREFIX + "task.propagatedGuids";
+
+    /**
+     * Properties of the vertex metrics counters are checkpointed to.
+     */
+    public static final String METRICS_NAME_PROPERTY_KEY           = INTERNAL_PROPERTY_KEY_PREFIX + "metrics.name";
+    public static final String METRICS_DATA_PROPERTY_KEY           = INTERNAL_PROPERTY_KEY_PREFIX + "metrics.data";
+    public static final String METRICS_UPDATE_TIME_PROPERTY_KEY    = INTERNAL_PROPERTY_KEY_PREFIX + "metrics.updateTime";
+    public static final String METRICS_RECONCILE_TIME_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "metrics.reconcileTime";
+
+    /**
+     * Properties of the vertex with the state of bootstrap type-def loading.
+     */
+    public static final String TYPES_BOOTSTRAP_NAME_PROPERTY_KEY            = INTERNAL_PROPERTY_KEY_PREFIX + "typesBootstrap.name";
+    public static final String TYPES_BOOTSTRAP_FILES_PROPERTY_KEY           = INTERNAL_PROPERTY_KEY_PREFIX + "typesBootstrap.files";
+    public static final String TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY        = INTERNAL_PROPERTY_KEY_PREFIX + "typesBootstrap.snapshot";
+    public static final String TYPES_BOOTSTRAP_SNAPSHOT_DIGEST_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "typesBootstrap.snapshotDigest";
+
     private Constants() {
     }
 
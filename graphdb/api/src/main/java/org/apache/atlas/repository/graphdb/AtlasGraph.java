@@ -293,6 +293,21 @@ public interface AtlasGraph<V, E> {
      */
     Object executeGremlinScript(String query, boolean isPath) throws AtlasBaseException;
 
+    /**
+     * Executes a Gremlin script with the given bindings, returns an object with the result.
+     * Query parameters should be passed as bindings, instead of being formatted into the script text, so that
+     * the compiled form of the script can be reused across calls.
+     *
+     * @param query
+     * @param bindings values for the variables referenced in the script
+     * @param isPath whether this is a path query
+     *
+     * @return the result from executing the script
+     *
+     * @throws AtlasBaseException
+     */
+    Object executeGremlinScript(String query, Map<String, Object> bindings, boolean isPath) throws AtlasBaseException;
+
     /**
      * Executes a Gremlin script using a ScriptEngineManager provided by consumer, returns an object with the result.
      * This is useful for scenarios where an operation executes large number of queries.
@@ -308,6 +323,13 @@ public interface AtlasGraph<V, E> {
      */
     Object executeGremlinScript(ScriptEngine scriptEngine, Map<? extends  String, ? extends  Object> bindings, String query, boolean isPath) throws ScriptException;
 
+    /**
+     * Get counters of the Gremlin script engine, like compiled-script cache hits/misses and time spent compiling.
+     *
+     * @return counter name to value map
+     */
+    Map<String, Long> getGremlinScriptEngineMetrics();
+
 
     /**
      * Convenience method to check whether the given property is
@@ -43,6 +43,31 @@ public interface AtlasIndexQuery<V, E> {
      */
     Iterator<Result<V, E>> vertices(int offset, int limit);
 
+    /**
+     * Gets a forward-only cursor over the query results, starting at the given offset. Results are fetched from the
+     * index pageSize at a time, as the cursor advances; each result is fetched only once.
+     * @param offset starting offset
+     * @param pageSize number of results to fetch from the index at a time
+     * @return
+     */
+    Cursor<V, E> cursor(int offset, int pageSize);
+
+    /**
+     * Forward-only cursor over the results of an index query.
+     *
+     * @param <V>
+     * @param <E>
+     */
+    interface Cursor<V, E> extends Iterator<Result<V, E>> {
+
+        /**
+         * Gets the offset, in the query results, of the result to be returned by the next call to next(); the query
+         * can be resumed later from this offset.
+         */
+        int getPosition();
+
+    }
+
     /**
      * Query result from an index query.
      *
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.utils;
+
+import com.google.common.base.Preconditions;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery.Result;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * AtlasIndexQuery.Cursor that reads the query results a page at a time, using offset/limit of the index query; the
+ * next page is fetched only after all results of the current page are consumed, and at the offset right after it.
+ */
+public final class PagedIndexQueryCursor<V, E> implements AtlasIndexQuery.Cursor<V, E> {
+    private final AtlasIndexQuery<V, E>  query;
+    private final int                    pageSize;
+    private       int                    position;
+    private       Iterator<Result<V, E>> page          = Collections.emptyIterator();
+    private       int                    pageRemaining = 0;
+    private       boolean                isLastPage    = false;
+
+    public PagedIndexQueryCursor(AtlasIndexQuery<V, E> query, int offset, int pageSize) {
+        Preconditions.checkArgument(offset >= 0, "Index offset should be greater than or equals to 0");
+        Preconditions.checkArgument(pageSize > 0, "Index page size should be greater than 0");
+
+        this.query    = query;
+        this.position = offset;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!page.hasNext() && !isLastPage) {
+            page          = query.vertices(position, pageSize);
+            pageRemaining = pageSize;
+        }
+
+        boolean ret = page.hasNext();
+
+        if (!ret) {
+            isLastPage = true;
+        }
+
+        return ret;
+    }
+
+    @Override
+    public Result<V, E> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Result<V, E> ret = page.next();
+
+        position++;
+        pageRemaining--;
+
+        // a page with fewer results than requested is the last one; no need to query the index again
+        if (!page.hasNext() && pageRemaining > 0) {
+            isLastPage = true;
+        }
+
+        return ret;
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.utils;
+
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class PagedIndexQueryCursorTest {
+    @Test
+    public void resultsAreReadOncePageByPage() {
+        TestIndexQuery                         query  = new TestIndexQuery(25);
+        AtlasIndexQuery.Cursor<Object, Object> cursor = new PagedIndexQueryCursor<>(query, 3, 10);
+        List<Double>                           scores = new ArrayList<>();
+
+        while (cursor.hasNext()) {
+            scores.add(cursor.next().getScore());
+        }
+
+        assertEquals(scores.size(), 22);
+        assertEquals(scores.get(0), 3.0);
+        assertEquals(scores.get(21), 24.0);
+        assertEquals(cursor.getPosition(), 25);
+
+        // pages at offsets 3, 13, 23; the last page is short - so the index isn't queried again
+        assertEquals(query.offsets.toString(), "[3, 13, 23]");
+        assertFalse(cursor.hasNext());
+        assertEquals(query.offsets.size(), 3);
+    }
+
+    @Test
+    public void cursorResumesAtPosition() {
+        TestIndexQuery                         query  = new TestIndexQuery(25);
+        AtlasIndexQuery.Cursor<Object, Object> cursor = new PagedIndexQueryCursor<>(query, 0, 10);
+
+        for (int i = 0; i < 7; i++) {
+            cursor.next();
+        }
+
+        AtlasIndexQuery.Cursor<Object, Object> resumed = new PagedIndexQueryCursor<>(query, cursor.getPosition(), 10);
+
+        assertEquals(resumed.next().getScore(), 7.0);
+    }
+
+    // index query with 'size' results; score of each result is its offset
+    private static class TestIndexQuery implements AtlasIndexQuery<Object, Object> {
+        private final int           size;
+        private final List<Integer> offsets = new ArrayList<>();
+
+        TestIndexQuery(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Result<Object, Object>> vertices() {
+            return vertices(0, size);
+        }
+
+        @Override
+        public Iterator<Result<Object, Object>> vertices(int offset, int limit) {
+            List<Result<Object, Object>> ret = new ArrayList<>();
+
+            offsets.add(offset);
+
+            for (int i = offset; i < Math.min(offset + limit, size); i++) {
+                final double score = i;
+
+                ret.add(new Result<Object, Object>() {
+                    @Override
+                    public AtlasVertex<Object, Object> getVertex() {
+                        return null;
+                    }
+
+                    @Override
+                    public double getScore() {
+                        return score;
+                    }
+                });
+            }
+
+            return ret.iterator();
+        }
+
+        @Override
+        public Cursor<Object, Object> cursor(int offset, int pageSize) {
+            return new PagedIndexQueryCursor<>(this, offset, pageSize);
+        }
+    }
+}
@@ -46,11 +46,7 @@ import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.graphdb.GremlinVersion;
 import org.apache.atlas.repository.graphdb.janus.query.AtlasJanusGraphQuery;
 import org.apache.atlas.repository.graphdb.utils.IteratorToIterableAdapter;
-import org.apache.tinkerpop.gremlin.groovy.CompilerCustomizerProvider;
-import org.apache.tinkerpop.gremlin.groovy.DefaultImportCustomizerProvider;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
-import org.apache.tinkerpop.gremlin.process.traversal.P;
-import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ImmutablePath;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
@@ -66,6 +62,7 @@ import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -93,6 +90,8 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
 
     private final Set<String> multiProperties;
 
+    private final AtlasJanusScriptEnginePool scriptEnginePool = new AtlasJanusScriptEnginePool();
+
     public AtlasJanusGraph() {
         //determine multi-properties once at startup
         JanusGraphManagement mgmt = null;
@@ -310,50 +309,27 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
 
     @Override
     public GremlinGroovyScriptEngine getGremlinScriptEngine() {
-        Set<String> extraImports = new HashSet<String>();
-        extraImports.add(java.util.function.Function.class.getName());
-
-        Set<String> extraStaticImports = new HashSet<String>();
-        extraStaticImports.add(P.class.getName() + ".*");
-        extraStaticImports.add(__.class.getName() + ".*");
-        CompilerCustomizerProvider provider = new DefaultImportCustomizerProvider(extraImports, extraStaticImports);
-
-        GremlinGroovyScriptEngine scriptEngine = new GremlinGroovyScriptEngine(provider);
-
-        return scriptEngine;
+        return scriptEnginePool.borrow();
     }
 
     @Override
     public void releaseGremlinScriptEngine(ScriptEngine scriptEngine) {
-        if (scriptEngine instanceof GremlinGroovyScriptEngine) {
-            try {
-                ((GremlinGroovyScriptEngine)scriptEngine).close();
-            } catch (Exception e) {
-                // ignore
-            }
-        }
+        scriptEnginePool.release(scriptEngine);
     }
 
     @Override
     public Object executeGremlinScript(String query, boolean isPath) throws AtlasBaseException {
-        Object result = executeGremlinScript(query);
-        return convertGremlinValue(result);
+        return executeGremlinScript(query, Collections.<String, Object>emptyMap(), isPath);
     }
 
-    private Object executeGremlinScript(String gremlinQuery) throws AtlasBaseException {
-        GremlinGroovyScriptEngine scriptEngine = getGremlinScriptEngine();
+    @Override
+    public Object executeGremlinScript(String query, Map<String, Object> bindings, boolean isPath) throws AtlasBaseException {
+        ScriptEngine scriptEngine = getGremlinScriptEngine();
 
         try {
-            Bindings bindings = scriptEngine.createBindings();
-
-            bindings.put("graph", getGraph());
-            bindings.put("g", getGraph().traversal());
-
-            Object result = scriptEngine.eval(gremlinQuery, bindings);
-
-            return result;
+            return executeGremlinScript(scriptEngine, bindings, query, isPath);
         } catch (ScriptException e) {
-            throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e, gremlinQuery);
+            throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e, query);
         } finally {
             releaseGremlinScriptEngine(scriptEngine);
         }
@@ -365,13 +341,22 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
             throws ScriptException {
         Bindings bindings = scriptEngine.createBindings();
 
-        bindings.putAll(userBindings);
+        if (userBindings != null) {
+            bindings.putAll(userBindings);
+        }
+
+        bindings.put("graph", getGraph());
         bindings.put("g", getGraph().traversal());
 
-        Object result = scriptEngine.eval(query, bindings);
+        Object result = scriptEnginePool.eval(scriptEngine, query, bindings);
         return convertGremlinValue(result);
     }
 
+    @Override
+    public Map<String, Long> getGremlinScriptEngineMetrics() {
+        return scriptEnginePool.getMetrics();
+    }
+
     @Override
     public GroovyExpression generatePersisentToLogicalConversionExpression(GroovyExpression expr, AtlasType type) {
         //nothing special needed, value is stored in required type
@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.janus;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.groovy.CompilerCustomizerProvider;
+import org.apache.tinkerpop.gremlin.groovy.DefaultImportCustomizerProvider;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of long-lived Gremlin script engines. Each pooled engine keeps a LRU cache of compiled scripts,
+ * keyed by the script text; callers are expected to pass query parameters as bindings so that the same script
+ * text - and hence the same compiled class - is reused across requests.
+ */
+public class AtlasJanusScriptEnginePool {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasJanusScriptEnginePool.class);
+
+    public static final String POOL_SIZE_PROPERTY         = "atlas.graph.gremlin.script.engine.pool.size";
+    public static final String POOL_MAX_WAIT_MS_PROPERTY  = "atlas.graph.gremlin.script.engine.pool.max.wait.ms";
+    public static final String SCRIPT_CACHE_SIZE_PROPERTY = "atlas.graph.gremlin.script.cache.size";
+    public static final String MAX_COMPILATIONS_PROPERTY  = "atlas.graph.gremlin.script.engine.max.compilations";
+
+    public static final int  DEFAULT_POOL_SIZE         = Runtime.getRuntime().availableProcessors() * 2;
+    public static final long DEFAULT_POOL_MAX_WAIT_MS  = 1000;
+    public static final int  DEFAULT_SCRIPT_CACHE_SIZE = 500;
+    public static final int  DEFAULT_MAX_COMPILATIONS  = 5000;
+
+    public static final String METRIC_SCRIPT_CACHE_HITS      = "scriptCacheHits";
+    public static final String METRIC_SCRIPT_CACHE_MISSES    = "scriptCacheMisses";
+    public static final String METRIC_SCRIPT_COMPILE_TIME_MS = "scriptCompileTimeMs";
+    public static final String METRIC_ENGINES_CREATED        = "enginesCreated";
+    public static final String METRIC_ENGINES_IDLE           = "enginesIdle";
+    public static final String METRIC_ENGINES_OVERFLOW       = "enginesOverflow";
+    public static final String METRIC_ENGINES_RETIRED        = "enginesRetired";
+
+    private final int                               poolSize;
+    private final long                              maxWaitMs;
+    private final int                               scriptCacheSize;
+    private final int                               maxCompilations;
+    private final BlockingQueue<PooledScriptEngine> idleEngines;
+    private final AtomicInteger                     engineCount   = new AtomicInteger();
+    private final AtomicLong                        cacheHits     = new AtomicLong();
+    private final AtomicLong                        cacheMisses   = new AtomicLong();
+    private final AtomicLong                        compileTimeMs = new AtomicLong();
+    private final AtomicLong                        overflowCount = new AtomicLong();
+    private final AtomicLong                        retiredCount  = new AtomicLong();
+
+    public AtlasJanusScriptEnginePool() {
+        this(getConfiguration());
+    }
+
+    public AtlasJanusScriptEnginePool(Configuration config) {
+        this(config != null ? config.getInt(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE) : DEFAULT_POOL_SIZE,
+             config != null ? config.getLong(POOL_MAX_WAIT_MS_PROPERTY, DEFAULT_POOL_MAX_WAIT_MS) : DEFAULT_POOL_MAX_WAIT_MS,
+             config != null ? config.getInt(SCRIPT_CACHE_SIZE_PROPERTY, DEFAULT_SCRIPT_CACHE_SIZE) : DEFAULT_SCRIPT_CACHE_SIZE,
+             config != null ? config.getInt(MAX_COMPILATIONS_PROPERTY, DEFAULT_MAX_COMPILATIONS) : DEFAULT_MAX_COMPILATIONS);
+    }
+
+    public AtlasJanusScriptEnginePool(int poolSize, long maxWaitMs, int scriptCacheSize, int maxCompilations) {
+        this.poolSize        = Math.max(1, poolSize);
+        this.maxWaitMs       = Math.max(0, maxWaitMs);
+        this.scriptCacheSize = Math.max(0, scriptCacheSize);
+        this.maxCompilations = Math.max(1, maxCompilations);
+        this.idleEngines     = new ArrayBlockingQueue<>(this.poolSize);
+
+        LOG.info("AtlasJanusScriptEnginePool: poolSize={}, maxWaitMs={}, scriptCacheSize={}, maxCompilations={}", this.poolSize, this.maxWaitMs, this.scriptCacheSize, this.maxCompilations);
+    }
+
+    /**
+     * Borrow an engine from the pool. When all pooled engines are in use and none is returned within the configured
+     * wait time, a transient engine is created; it will be closed on release.
+     *
+     * @return script engine; must be returned with release()
+     */
+    public GremlinGroovyScriptEngine borrow() {
+        GremlinGroovyScriptEngine ret = idleEngines.poll();
+
+        if (ret == null) {
+            if (engineCount.incrementAndGet() <= poolSize) {
+                ret = new PooledScriptEngine(scriptCacheSize);
+            } else {
+                engineCount.decrementAndGet();
+
+                try {
+                    ret = idleEngines.poll(maxWaitMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+
+                if (ret == null) {
+                    overflowCount.incrementAndGet();
+
+                    LOG.warn("AtlasJanusScriptEnginePool: no engine available after {}ms; creating a transient engine. Consider increasing {}", maxWaitMs, POOL_SIZE_PROPERTY);
+
+                    ret = createEngine();
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public void release(ScriptEngine scriptEngine) {
+        if (scriptEngine instanceof PooledScriptEngine) {
+            PooledScriptEngine pooledEngine = (PooledScriptEngine) scriptEngine;
+
+            // every compilation loads new classes into the engine's class loader; retire the engine after a while
+            // so that scripts with literals in their text don't grow the metaspace unbounded
+            if (pooledEngine.compileCount >= maxCompilations) {
+                retiredCount.incrementAndGet();
+                engineCount.decrementAndGet();
+
+                close(scriptEngine);
+            } else if (!idleEngines.offer(pooledEngine)) { // should not happen, as only pooled engines are offered
+                engineCount.decrementAndGet();
+
+                close(scriptEngine);
+            }
+        } else {
+            close(scriptEngine);
+        }
+    }
+
+    /**
+     * Evaluates the given script. For pooled engines the compiled form of the script is cached and reused.
+     */
+    public Object eval(ScriptEngine scriptEngine, String script, Bindings bindings) throws ScriptException {
+        final Object ret;
+
+        if (scriptEngine instanceof PooledScriptEngine) {
+            ret = ((PooledScriptEngine) scriptEngine).getCompiledScript(script).eval(bindings);
+        } else {
+            ret = scriptEngine.eval(script, bindings);
+        }
+
+        return ret;
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_SCRIPT_CACHE_HITS, cacheHits.get());
+        ret.put(METRIC_SCRIPT_CACHE_MISSES, cacheMisses.get());
+        ret.put(METRIC_SCRIPT_COMPILE_TIME_MS, compileTimeMs.get());
+        ret.put(METRIC_ENGINES_CREATED, (long) engineCount.get());
+        ret.put(METRIC_ENGINES_IDLE, (long) idleEngines.size());
+        ret.put(METRIC_ENGINES_OVERFLOW, overflowCount.get());
+        ret.put(METRIC_ENGINES_RETIRED, retiredCount.get());
+
+        return ret;
+    }
+
+    public static GremlinGroovyScriptEngine createEngine() {
+        return new GremlinGroovyScriptEngine(getCompilerCustomizerProvider());
+    }
+
+    private static CompilerCustomizerProvider getCompilerCustomizerProvider() {
+        Set<String> extraImports = new HashSet<String>();
+        extraImports.add(java.util.function.Function.class.getName());
+
+        Set<String> extraStaticImports = new HashSet<String>();
+        extraStaticImports.add(P.class.getName() + ".*");
+        extraStaticImports.add(__.class.getName() + ".*");
+
+        return new DefaultImportCustomizerProvider(extraImports, extraStaticImports);
+    }
+
+    private static void close(ScriptEngine scriptEngine) {
+        if (scriptEngine instanceof GremlinGroovyScriptEngine) {
+            try {
+                ((GremlinGroovyScriptEngine) scriptEngine).close();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    private static Configuration getConfiguration() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; script engine pool will use default configuration", excp);
+
+            return null;
+        }
+    }
+
+    private class PooledScriptEngine extends GremlinGroovyScriptEngine {
+        private final Map<String, CompiledScript> compiledScripts;
+        private       int                         compileCount = 0;
+
+        PooledScriptEngine(final int cacheSize) {
+            super(getCompilerCustomizerProvider());
+
+            this.compiledScripts = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+
+        CompiledScript getCompiledScript(String script) throws ScriptException {
+            CompiledScript ret;
+
+            synchronized (compiledScripts) {
+                ret = compiledScripts.get(script);
+            }
+
+            if (ret != null) {
+                cacheHits.incrementAndGet();
+            } else {
+                cacheMisses.incrementAndGet();
+
+                long startTime = System.currentTimeMillis();
+
+                ret = compile(script);
+
+                compileCount++;
+
+                compileTimeMs.addAndGet(System.currentTimeMillis() - startTime);
+
+                synchronized (compiledScripts) {
+                    compiledScripts.put(script, ret);
+                }
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("compiled gremlin script in {}ms: {}", System.currentTimeMillis() - startTime, script);
+                }
+            }
+
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graphdb.janus;
+
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.testng.annotations.Test;
+
+import javax.script.Bindings;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class AtlasJanusScriptEnginePoolTest {
+
+    @Test
+    public void testCompiledScriptIsReused() throws Exception {
+        AtlasJanusScriptEnginePool pool   = new AtlasJanusScriptEnginePool(1, 0, 10, 100);
+        GremlinGroovyScriptEngine  engine = pool.borrow();
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                Bindings bindings = engine.createBindings();
+
+                bindings.put("x", i);
+
+                assertEquals(pool.eval(engine, "x + 1", bindings), i + 1);
+            }
+        } finally {
+            pool.release(engine);
+        }
+
+        Map<String, Long> metrics = pool.getMetrics();
+
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_SCRIPT_CACHE_MISSES).longValue(), 1);
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_SCRIPT_CACHE_HITS).longValue(), 4);
+    }
+
+    @Test
+    public void testEngineIsReturnedToPool() {
+        AtlasJanusScriptEnginePool pool    = new AtlasJanusScriptEnginePool(1, 0, 10, 100);
+        GremlinGroovyScriptEngine  engine1 = pool.borrow();
+
+        pool.release(engine1);
+
+        GremlinGroovyScriptEngine engine2 = pool.borrow();
+
+        assertSame(engine2, engine1);
+
+        // pool is exhausted; a transient engine is handed out
+        GremlinGroovyScriptEngine engine3 = pool.borrow();
+
+        assertNotSame(engine3, engine2);
+
+        pool.release(engine3);
+        pool.release(engine2);
+
+        Map<String, Long> metrics = pool.getMetrics();
+
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_ENGINES_CREATED).longValue(), 1);
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_ENGINES_IDLE).longValue(), 1);
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_ENGINES_OVERFLOW).longValue(), 1);
+    }
+
+    @Test
+    public void testEngineIsRetiredAfterMaxCompilations() throws Exception {
+        AtlasJanusScriptEnginePool pool   = new AtlasJanusScriptEnginePool(1, 0, 10, 2);
+        GremlinGroovyScriptEngine  engine = pool.borrow();
+
+        pool.eval(engine, "1", engine.createBindings());
+        pool.eval(engine, "2", engine.createBindings());
+        pool.release(engine);
+
+        Map<String, Long> metrics = pool.getMetrics();
+
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_ENGINES_RETIRED).longValue(), 1);
+        assertEquals(metrics.get(AtlasJanusScriptEnginePool.METRIC_ENGINES_IDLE).longValue(), 0);
+        assertNotSame(pool.borrow(), engine);
+    }
+}
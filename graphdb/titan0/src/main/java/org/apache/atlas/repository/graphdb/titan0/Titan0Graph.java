@@ -275,6 +275,24 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
         return convertGremlinScriptResult(isPath, result);
     }
 
+    @Override
+    public Object executeGremlinScript(String query, Map<String, Object> bindings, boolean isPath) throws AtlasBaseException {
+        ScriptEngine engine = getGremlinScriptEngine();
+
+        try {
+            return executeGremlinScript(engine, bindings, query, isPath);
+        } catch (ScriptException e) {
+            throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, query);
+        } finally {
+            releaseGremlinScriptEngine(engine);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getGremlinScriptEngineMetrics() {
+        return Collections.emptyMap();
+    }
+
     private Object convertGremlinScriptResult(boolean isPath, Object result) {
         if (isPath) {
             List<Object> path = convertPathQueryResultToList(result);
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import com.google.common.base.Preconditions;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.graphdb.utils.PagedIndexQueryCursor;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Iterators;
@@ -77,6 +78,11 @@ public class Titan0IndexQuery implements AtlasIndexQuery<Titan0Vertex, Titan0Edg
         return Iterators.transform(results, function);
     }
 
+    @Override
+    public Cursor<Titan0Vertex, Titan0Edge> cursor(int offset, int pageSize) {
+        return new PagedIndexQueryCursor<>(this, offset, pageSize);
+    }
+
     private final class ResultImpl implements AtlasIndexQuery.Result<Titan0Vertex, Titan0Edge> {
         private TitanIndexQuery.Result<Vertex> wrappedResult;
 
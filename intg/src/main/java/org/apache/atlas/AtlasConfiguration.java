@@ -35,8 +35,11 @@ public enum AtlasConfiguration {
 
     NOTIFICATION_MESSAGE_MAX_LENGTH_BYTES("atlas.notification.message.max.length.bytes", (1000 * 1000)),
     NOTIFICATION_MESSAGE_COMPRESSION_ENABLED("atlas.notification.message.compression.enabled", true),
+    NOTIFICATION_MESSAGE_FORMAT("atlas.notification.message.format", "json"),
     NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS("atlas.notification.split.message.segments.wait.time.seconds", 15 * 60),
     NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS("atlas.notification.split.message.buffer.purge.interval.seconds", 5 * 60),
+    NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES("atlas.notification.split.message.buffer.max.bytes", 256L * 1024 * 1024),
+    NOTIFICATION_SPLIT_MESSAGE_MAX_BYTES("atlas.notification.split.message.max.bytes", 64L * 1024 * 1024),
 
     //search configuration
     SEARCH_MAX_LIMIT("atlas.search.maxlimit", 10000),
@@ -49,6 +49,7 @@ public class SearchParameters implements Serializable {
     private boolean includeSubClassifications       = true;
     private int     limit;
     private int     offset;
+    private String  continuationToken;
 
     private FilterCriteria entityFilters;
     private FilterCriteria tagFilters;
@@ -189,6 +190,21 @@ public class SearchParameters implements Serializable {
         this.offset = offset;
     }
 
+    /**
+     * @return token returned with the previous page of results, to continue the search from where that page ended
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * When set, the search continues after the results already returned, instead of skipping 'offset' results
+     * @param continuationToken
+     */
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     /**
      * Entity attribute filters for the type (if type name is specified)
      * @return
@@ -246,6 +262,7 @@ public class SearchParameters implements Serializable {
                 includeClassificationAttributes == that.includeClassificationAttributes &&
                 limit == that.limit &&
                 offset == that.offset &&
+                Objects.equals(continuationToken, that.continuationToken) &&
                 Objects.equals(query, that.query) &&
                 Objects.equals(typeName, that.typeName) &&
                 Objects.equals(classification, that.classification) &&
@@ -257,7 +274,7 @@ public class SearchParameters implements Serializable {
     @Override
     public int hashCode() {
         return Objects.hash(query, typeName, classification, excludeDeletedEntities, includeClassificationAttributes, 
-                            limit, offset, entityFilters, tagFilters, attributes);
+                            limit, offset, continuationToken, entityFilters, tagFilters, attributes);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -273,6 +290,7 @@ public class SearchParameters implements Serializable {
         sb.append(", includeClassificationAttributes=").append(includeClassificationAttributes);
         sb.append(", limit=").append(limit);
         sb.append(", offset=").append(offset);
+        sb.append(", continuationToken=").append(continuationToken);
         sb.append(", entityFilters=").append(entityFilters);
         sb.append(", tagFilters=").append(tagFilters);
         sb.append(", attributes=").append(attributes);
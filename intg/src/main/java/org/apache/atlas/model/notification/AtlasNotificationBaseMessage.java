@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import org.apache.atlas.AtlasConfiguration;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64InputStream;
 import org.apache.commons.codec.binary.StringUtils;
 import org.apache.commons.compress.utils.IOUtils;
 import org.slf4j.Logger;
@@ -35,6 +36,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -50,11 +52,32 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_
 public class AtlasNotificationBaseMessage {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasNotificationBaseMessage.class);
 
-    public static final int     MESSAGE_MAX_LENGTH_BYTES    = AtlasConfiguration.NOTIFICATION_MESSAGE_MAX_LENGTH_BYTES.getInt() - 512; // 512 bytes for envelop;
-    public static final boolean MESSAGE_COMPRESSION_ENABLED = AtlasConfiguration.NOTIFICATION_MESSAGE_COMPRESSION_ENABLED.getBoolean();
+    public static final int           MESSAGE_MAX_LENGTH_BYTES    = AtlasConfiguration.NOTIFICATION_MESSAGE_MAX_LENGTH_BYTES.getInt() - 512; // 512 bytes for envelop;
+    public static final boolean       MESSAGE_COMPRESSION_ENABLED = AtlasConfiguration.NOTIFICATION_MESSAGE_COMPRESSION_ENABLED.getBoolean();
+    public static final MessageFormat MESSAGE_FORMAT              = MessageFormat.fromString(AtlasConfiguration.NOTIFICATION_MESSAGE_FORMAT.getString());
 
     public enum CompressionKind { NONE, GZIP };
 
+    /**
+     * Format in which notification messages are written. Consumers read messages in all formats, hence JSON format
+     * should be used until consumers are upgraded to read Smile format.
+     */
+    public enum MessageFormat {
+        JSON, SMILE;
+
+        public static MessageFormat fromString(String str) {
+            for (MessageFormat format : values()) {
+                if (format.name().equalsIgnoreCase(str)) {
+                    return format;
+                }
+            }
+
+            LOG.warn("invalid notification message format '{}'. Using {}", str, JSON);
+
+            return JSON;
+        }
+    }
+
     private MessageVersion  version            = null;
     private String          msgId              = null;
     private CompressionKind msgCompressionKind = CompressionKind.NONE;
@@ -176,6 +199,32 @@ public class AtlasNotificationBaseMessage {
         return getStringUtf8(bytes);
     }
 
+    /**
+     * @return stream of the bytes decoded from the given base64 encoded bytes - uncompressed, for GZIP compressionKind
+     */
+    public static InputStream getDecodedStream(byte[] encodedBytes, CompressionKind compressionKind) throws IOException {
+        InputStream ret = new Base64InputStream(new ByteArrayInputStream(encodedBytes));
+
+        if (CompressionKind.GZIP.equals(compressionKind)) {
+            ret = new GZIPInputStream(ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return stream of the given bytes - uncompressed, for GZIP compressionKind
+     */
+    public static InputStream getUncompressedStream(byte[] bytes, CompressionKind compressionKind) throws IOException {
+        InputStream ret = new ByteArrayInputStream(bytes);
+
+        if (CompressionKind.GZIP.equals(compressionKind)) {
+            ret = new GZIPInputStream(ret);
+        }
+
+        return ret;
+    }
+
     public static byte[] gzipCompress(byte[] content) {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 
@@ -36,7 +36,8 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.PROPERTY)
 public class AtlasNotificationStringMessage extends AtlasNotificationBaseMessage {
-    private String message = null;
+    private String message      = null;
+    private byte[] messageBytes = null; // used instead of message in Smile format, which carries binary data without encoding
 
     public AtlasNotificationStringMessage() {
         super(MessageVersion.CURRENT_VERSION);
@@ -72,6 +73,12 @@ public class AtlasNotificationStringMessage extends AtlasNotificationBaseMessage
         this.message = new String(encodedBytes, offset, length);
     }
 
+    public AtlasNotificationStringMessage(String msgId, CompressionKind compressionKind, int msgSplitIdx, int msgSplitCount, byte[] messageBytes) {
+        super(MessageVersion.CURRENT_VERSION, msgId, compressionKind, msgSplitIdx, msgSplitCount);
+
+        this.messageBytes = messageBytes;
+    }
+
     public void setMessage(String message) {
         this.message = message;
     }
@@ -79,4 +86,12 @@ public class AtlasNotificationStringMessage extends AtlasNotificationBaseMessage
     public String getMessage() {
         return message;
     }
+
+    public void setMessageBytes(byte[] messageBytes) {
+        this.messageBytes = messageBytes;
+    }
+
+    public byte[] getMessageBytes() {
+        return messageBytes;
+    }
 }
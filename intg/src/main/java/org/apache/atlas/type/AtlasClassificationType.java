@@ -225,13 +225,18 @@ public class AtlasClassificationType extends AtlasStructType {
         classificationDef.setSubTypes(subTypes);
     }
 
+    // on incremental resolution, a super-type that is not re-resolved already lists the sub-type; it must not be modified
     private void addSubType(AtlasClassificationType subType) {
-        subTypes.add(subType.getTypeName());
+        if (!subTypes.contains(subType.getTypeName())) {
+            subTypes.add(subType.getTypeName());
+        }
     }
 
     private void addToAllSubTypes(AtlasClassificationType subType) {
-        allSubTypes.add(subType.getTypeName());
-        typeAndAllSubTypes.add(subType.getTypeName());
+        if (!allSubTypes.contains(subType.getTypeName())) {
+            allSubTypes.add(subType.getTypeName());
+            typeAndAllSubTypes.add(subType.getTypeName());
+        }
     }
 
     public Set<String> getSuperTypes() {
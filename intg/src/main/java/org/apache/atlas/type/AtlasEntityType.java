@@ -463,13 +463,18 @@ public class AtlasEntityType extends AtlasStructType {
         }
     }
 
+    // on incremental resolution, a super-type that is not re-resolved already lists the sub-type; it must not be modified
     private void addSubType(AtlasEntityType subType) {
-        subTypes.add(subType.getTypeName());
+        if (!subTypes.contains(subType.getTypeName())) {
+            subTypes.add(subType.getTypeName());
+        }
     }
 
     private void addToAllSubTypes(AtlasEntityType subType) {
-        allSubTypes.add(subType.getTypeName());
-        typeAndAllSubTypes.add(subType.getTypeName());
+        if (!allSubTypes.contains(subType.getTypeName())) {
+            allSubTypes.add(subType.getTypeName());
+            typeAndAllSubTypes.add(subType.getTypeName());
+        }
     }
 
     private void getTypeHierarchyInfo(AtlasTypeRegistry              typeRegistry,
@@ -21,12 +21,14 @@ package org.apache.atlas.type;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
 import org.apache.atlas.utils.AtlasJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
 
@@ -150,4 +152,24 @@ public abstract class AtlasType {
     public static <T> T fromV1Json(String jsonStr, TypeReference<T> type) {
         return AtlasJson.fromV1Json(jsonStr, type);
     }
+
+    public static <T> AtlasNotificationBaseMessage fromV1NotificationJson(String jsonStr, TypeReference<T> messageType) {
+        return AtlasJson.fromV1NotificationJson(jsonStr, messageType);
+    }
+
+    public static <T> AtlasNotificationBaseMessage fromV1Notification(InputStream inputStream, TypeReference<T> messageType) throws IOException {
+        return AtlasJson.fromV1Notification(inputStream, messageType);
+    }
+
+    public static byte[] toV1Smile(Object obj) {
+        return AtlasJson.toV1Smile(obj);
+    }
+
+    public static boolean isV1Smile(byte[] bytes) {
+        return AtlasJson.isV1Smile(bytes);
+    }
+
+    public static boolean isV1Smile(CharSequence str) {
+        return AtlasJson.isV1Smile(str);
+    }
 }
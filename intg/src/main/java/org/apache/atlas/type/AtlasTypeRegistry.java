@@ -25,7 +25,9 @@ import org.apache.atlas.model.typedef.AtlasEntityDef;
 import org.apache.atlas.model.typedef.AtlasEnumDef;
 import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -33,11 +35,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Singleton;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -45,6 +54,11 @@ import java.util.concurrent.locks.ReentrantLock;
 import static org.apache.atlas.model.typedef.AtlasBaseTypeDef.*;
 /**
  * registry for all types defined in Atlas.
+ *
+ * Types are held in a RegistryData snapshot, published through a volatile reference. An update builds a new snapshot
+ * in an AtlasTransientTypeRegistry, under the update lock, and publishes it on commit with the next version; published
+ * snapshots are not modified afterwards. Hence readers don't take any lock; a reader that makes several calls and
+ * needs them to see the same types should use getSnapshot().
  */
 @Singleton
 @Component
@@ -52,8 +66,8 @@ public class AtlasTypeRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeRegistry.class);
     private static final int    DEFAULT_LOCK_MAX_WAIT_TIME_IN_SECONDS = 15;
 
-    protected       RegistryData                   registryData;
-    private   final TypeRegistryUpdateSynchronizer updateSynchronizer;
+    protected volatile RegistryData                   registryData;
+    private   final    TypeRegistryUpdateSynchronizer updateSynchronizer;
 
     public AtlasTypeRegistry() {
         registryData       = new RegistryData();
@@ -62,10 +76,29 @@ public class AtlasTypeRegistry {
 
     // used only by AtlasTransientTypeRegistry
     protected AtlasTypeRegistry(AtlasTypeRegistry other) {
-        registryData       = new RegistryData();
+        registryData       = new RegistryData(other.registryData);
         updateSynchronizer = other.updateSynchronizer;
     }
 
+    // used only by getSnapshot()
+    private AtlasTypeRegistry(RegistryData registryData, TypeRegistryUpdateSynchronizer updateSynchronizer) {
+        this.registryData       = registryData;
+        this.updateSynchronizer = updateSynchronizer;
+    }
+
+    /**
+     * @return registry with the types as of now, not affected by later updates; updates through the returned registry
+     * are applied to this registry
+     */
+    public AtlasTypeRegistry getSnapshot() {
+        return new AtlasTypeRegistry(registryData, updateSynchronizer);
+    }
+
+    /**
+     * @return version of the types in the registry; incremented on every committed update
+     */
+    public long getVersion() { return registryData.version; }
+
     public Collection<String> getAllTypeNames() { return registryData.allTypes.getAllTypeNames(); }
 
     public Collection<AtlasType> getAllTypes() { return registryData.allTypes.getAllTypes(); }
@@ -222,13 +255,13 @@ public class AtlasTypeRegistry {
 
 
     static class RegistryData {
-        final TypeCache                                                       allTypes;
-        final TypeDefCache<AtlasEnumDef, AtlasEnumType>                       enumDefs;
-        final TypeDefCache<AtlasStructDef, AtlasStructType>                   structDefs;
-        final TypeDefCache<AtlasClassificationDef, AtlasClassificationType>   classificationDefs;
-        final TypeDefCache<AtlasEntityDef, AtlasEntityType>                   entityDefs;
-        final TypeDefCache<AtlasRelationshipDef, AtlasRelationshipType>       relationshipDefs;
-        final TypeDefCache<? extends AtlasBaseTypeDef, ? extends AtlasType>[] allDefCaches;
+        final TypeCache                                                     allTypes;
+        final TypeDefCache<AtlasEnumDef, AtlasEnumType>                     enumDefs;
+        final TypeDefCache<AtlasStructDef, AtlasStructType>                 structDefs;
+        final TypeDefCache<AtlasClassificationDef, AtlasClassificationType> classificationDefs;
+        final TypeDefCache<AtlasEntityDef, AtlasEntityType>                 entityDefs;
+        final TypeDefCache<AtlasRelationshipDef, AtlasRelationshipType>     relationshipDefs;
+        long                                                                version = 0; // set before the snapshot is published
 
         RegistryData() {
             allTypes           = new TypeCache();
@@ -237,11 +270,20 @@ public class AtlasTypeRegistry {
             classificationDefs = new TypeDefCache<>(allTypes);
             entityDefs         = new TypeDefCache<>(allTypes);
             relationshipDefs   = new TypeDefCache<>(allTypes);
-            allDefCaches       = new TypeDefCache[] { enumDefs, structDefs, classificationDefs, entityDefs, relationshipDefs };
 
             init();
         }
 
+        // copy with the same type-defs and types, in new caches; types are shared with the other, hence are not resolved again
+        RegistryData(RegistryData other) {
+            allTypes           = new TypeCache(other.allTypes);
+            enumDefs           = new TypeDefCache<>(other.enumDefs, allTypes);
+            structDefs         = new TypeDefCache<>(other.structDefs, allTypes);
+            classificationDefs = new TypeDefCache<>(other.classificationDefs, allTypes);
+            entityDefs         = new TypeDefCache<>(other.entityDefs, allTypes);
+            relationshipDefs   = new TypeDefCache<>(other.relationshipDefs, allTypes);
+        }
+
         void init() {
             allTypes.addType(new AtlasBuiltInTypes.AtlasBooleanType());
             allTypes.addType(new AtlasBuiltInTypes.AtlasByteType());
@@ -258,35 +300,11 @@ public class AtlasTypeRegistry {
         }
 
         AtlasBaseTypeDef getTypeDefByName(String name) {
-            AtlasBaseTypeDef ret = null;
-
-            if (name != null) {
-                for (TypeDefCache typeDefCache : allDefCaches) {
-                    ret = typeDefCache.getTypeDefByName(name);
-
-                    if (ret != null) {
-                        break;
-                    }
-                }
-            }
-
-            return ret;
+            return allTypes.getTypeDefByName(name);
         }
 
         AtlasBaseTypeDef getTypeDefByGuid(String guid) {
-            AtlasBaseTypeDef ret = null;
-
-            if (guid != null) {
-                for (TypeDefCache typeDefCache : allDefCaches) {
-                    ret = typeDefCache.getTypeDefByGuid(guid);
-
-                    if (ret != null) {
-                        break;
-                    }
-                }
-            }
-
-            return ret;
+            return allTypes.getTypeDefByGuid(guid);
         }
 
         void updateGuid(String typeName, String guid) {
@@ -331,42 +349,84 @@ public class AtlasTypeRegistry {
         }
     }
 
+    /**
+     * Registry to make updates in, copied from the registry being updated.
+     *
+     * Types are resolved incrementally: the types copied from the parent registry are already resolved, and are shared
+     * with it - hence must not be modified. On a change, only the changed types and the types that depend on them are
+     * created again and resolved; a type depends on the types of its attributes, its super-types, end-types of its
+     * relationships, entity-types of a classification - and, as the resolved state of these types lists it, its
+     * sub-types and its relationships. Dependents are followed transitively.
+     *
+     * With VERIFY_RESOLUTION_PROPERTY set to true, which is done in tests, the result of each incremental resolution is
+     * compared with a full resolution of all types.
+     */
     public static class AtlasTransientTypeRegistry extends AtlasTypeRegistry {
-        private List<AtlasBaseTypeDef> addedTypes   = new ArrayList<>();
-        private List<AtlasBaseTypeDef> updatedTypes = new ArrayList<>();
-        private List<AtlasBaseTypeDef> deletedTypes = new ArrayList<>();
+        public static final String VERIFY_RESOLUTION_PROPERTY = "atlas.types.verify.incremental.resolution";
 
+        private List<AtlasBaseTypeDef> addedTypes             = new ArrayList<>();
+        private List<AtlasBaseTypeDef> updatedTypes           = new ArrayList<>();
+        private List<AtlasBaseTypeDef> deletedTypes           = new ArrayList<>();
+        private Set<String>            changedTypeNames       = new HashSet<>(); // since last resolution
+        private boolean                isFullResolutionNeeded = false;
+        private boolean                isVerifyResolution     = Boolean.getBoolean(VERIFY_RESOLUTION_PROPERTY);
 
-        private AtlasTransientTypeRegistry(AtlasTypeRegistry parent) throws AtlasBaseException {
-            super(parent);
-
-            addTypesWithNoRefResolve(parent.getAllEnumDefs());
-            addTypesWithNoRefResolve(parent.getAllStructDefs());
-            addTypesWithNoRefResolve(parent.getAllClassificationDefs());
-            addTypesWithNoRefResolve(parent.getAllEntityDefs());
-            addTypesWithNoRefResolve(parent.getAllRelationshipDefs());
 
-            addedTypes.clear();
-            updatedTypes.clear();
-            deletedTypes.clear();
+        private AtlasTransientTypeRegistry(AtlasTypeRegistry parent) {
+            super(parent);
         }
 
         private void resolveReferences() throws AtlasBaseException {
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            Set<String>     typeNames = isFullResolutionNeeded ? new HashSet<>(getAllTypeDefNames()) : getTypeNamesToResolve();
+            List<AtlasType> types     = new ArrayList<>(typeNames.size());
+
+            // types shared with the parent registry are not modified; types to resolve are replaced with new instances
+            for (String typeName : typeNames) {
+                AtlasType type = recreateType(registryData.getTypeDefByName(typeName));
+
+                if (type != null) {
+                    types.add(type);
+                }
+            }
+
+            changedTypeNames.clear();
+
+            isFullResolutionNeeded = true; // until the resolution completes; types might be resolved partially on failure
+
+            for (AtlasType type : types) {
                 type.resolveReferences(this);
             }
 
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            for (AtlasType type : types) {
                 type.resolveReferencesPhase2(this);
             }
 
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            for (AtlasType type : types) {
                 type.resolveReferencesPhase3(this);
             }
+
+            isFullResolutionNeeded = false;
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("AtlasTypeRegistry.resolveReferences(): resolved {} of {} types", types.size(), getAllTypeDefNames().size());
+            }
+
+            if (isVerifyResolution) {
+                verifyResolution();
+            }
         }
 
         public void clear() {
             registryData.clear();
+
+            changedTypeNames.clear();
+
+            isFullResolutionNeeded = true;
+        }
+
+        // used by tests, to verify incremental resolution without setting VERIFY_RESOLUTION_PROPERTY
+        void setVerifyResolution(boolean isVerifyResolution) {
+            this.isVerifyResolution = isVerifyResolution;
         }
 
         public void addType(AtlasBaseTypeDef typeDef) throws AtlasBaseException {
@@ -556,6 +616,8 @@ public class AtlasTypeRegistry {
         }
 
         private void removeTypeByNameWithNoRefResolve(AtlasBaseTypeDef typeDef) {
+            markChanged(typeDef.getName());
+
             switch (typeDef.getCategory()) {
                 case ENUM:
                     registryData.enumDefs.removeTypeDefByName(typeDef.getName());
@@ -577,6 +639,9 @@ public class AtlasTypeRegistry {
         }
 
         private void removeTypeByGuidWithNoRefResolve(AtlasBaseTypeDef typeDef) {
+            markChanged(typeDef.getName());
+            markChanged(getTypeDefName(registryData.getTypeDefByGuid(typeDef.getGuid())));
+
             switch (typeDef.getCategory()) {
                 case ENUM:
                     registryData.enumDefs.removeTypeDefByGuid(typeDef.getGuid());
@@ -605,6 +670,8 @@ public class AtlasTypeRegistry {
             if (guid != null) {
                 AtlasBaseTypeDef typeDef = getTypeDefByGuid(guid);
 
+                markChanged(getTypeDefName(typeDef));
+
                 registryData.removeByGuid(guid);
 
                 resolveReferences();
@@ -627,6 +694,8 @@ public class AtlasTypeRegistry {
             if (name != null) {
                 AtlasBaseTypeDef typeDef = getTypeDefByName(name);
 
+                markChanged(name);
+
                 registryData.removeByName(name);
 
                 resolveReferences();
@@ -658,6 +727,8 @@ public class AtlasTypeRegistry {
                     throw new AtlasBaseException(AtlasErrorCode.TYPE_ALREADY_EXISTS, typeDef.getName());
                 }
 
+                markChanged(typeDef.getName());
+
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
 
@@ -731,7 +802,9 @@ public class AtlasTypeRegistry {
             }
 
             if (guid != null && typeDef != null) {
-                // ignore
+                markChanged(getTypeDefName(registryData.getTypeDefByGuid(guid)));
+                markChanged(typeDef.getName());
+
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
 
@@ -774,6 +847,9 @@ public class AtlasTypeRegistry {
             }
 
             if (name != null && typeDef != null) {
+                markChanged(name);
+                markChanged(typeDef.getName());
+
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
 
@@ -827,6 +903,339 @@ public class AtlasTypeRegistry {
                         (typeDefs == null ? 0 : typeDefs.size()));
             }
         }
+
+        // records the type to be resolved again, along with the types that list it in their resolved state: super-types
+        // list it as sub-type, and end-types of a relationship have its attributes
+        private void markChanged(String typeName) {
+            if (typeName == null) {
+                return;
+            }
+
+            changedTypeNames.add(typeName);
+
+            AtlasType type = registryData.allTypes.getTypeByName(typeName);
+
+            if (type instanceof AtlasEntityType) {
+                changedTypeNames.addAll(((AtlasEntityType) type).getAllSuperTypes());
+            } else if (type instanceof AtlasClassificationType) {
+                changedTypeNames.addAll(((AtlasClassificationType) type).getAllSuperTypes());
+            } else if (type instanceof AtlasRelationshipType) {
+                changedTypeNames.addAll(getReferencedTypeNames(((AtlasRelationshipType) type).getRelationshipDef()));
+            }
+        }
+
+        // changed types and the types that depend on them, transitively
+        private Set<String> getTypeNamesToResolve() {
+            Map<String, Set<String>> dependents = new HashMap<>();
+
+            for (AtlasBaseTypeDef typeDef : getAllTypeDefs()) {
+                for (String referencedTypeName : getReferencedTypeNames(typeDef)) {
+                    addDependent(dependents, referencedTypeName, typeDef.getName());
+
+                    // end-types have the attributes added by the relationship
+                    if (typeDef instanceof AtlasRelationshipDef) {
+                        addDependent(dependents, typeDef.getName(), referencedTypeName);
+                    }
+                }
+            }
+
+            Set<String>   ret   = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>(changedTypeNames);
+
+            // super-types of a changed type list it as sub-type
+            for (String typeName : changedTypeNames) {
+                addAllSuperTypeNames(registryData.getTypeDefByName(typeName), queue, new HashSet<String>());
+            }
+
+            while (!queue.isEmpty()) {
+                String typeName = queue.poll();
+
+                if (ret.add(typeName)) {
+                    Set<String> typeDependents = dependents.get(typeName);
+
+                    if (typeDependents != null) {
+                        queue.addAll(typeDependents);
+                    }
+                }
+            }
+
+            ret.retainAll(getAllTypeDefNames()); // removed types are not resolved
+
+            return ret;
+        }
+
+        private void addAllSuperTypeNames(AtlasBaseTypeDef typeDef, Collection<String> superTypeNames, Set<String> visitedTypeNames) {
+            final Set<String> typeDefSuperTypes;
+
+            if (typeDef instanceof AtlasEntityDef) {
+                typeDefSuperTypes = ((AtlasEntityDef) typeDef).getSuperTypes();
+            } else if (typeDef instanceof AtlasClassificationDef) {
+                typeDefSuperTypes = ((AtlasClassificationDef) typeDef).getSuperTypes();
+            } else {
+                typeDefSuperTypes = null;
+            }
+
+            if (CollectionUtils.isNotEmpty(typeDefSuperTypes)) {
+                for (String superTypeName : typeDefSuperTypes) {
+                    if (visitedTypeNames.add(superTypeName)) { // guard against circular references, reported on resolution
+                        superTypeNames.add(superTypeName);
+
+                        addAllSuperTypeNames(registryData.getTypeDefByName(superTypeName), superTypeNames, visitedTypeNames);
+                    }
+                }
+            }
+        }
+
+        private static void addDependent(Map<String, Set<String>> dependents, String typeName, String dependentTypeName) {
+            Set<String> typeDependents = dependents.get(typeName);
+
+            if (typeDependents == null) {
+                typeDependents = new HashSet<>();
+
+                dependents.put(typeName, typeDependents);
+            }
+
+            typeDependents.add(dependentTypeName);
+        }
+
+        private static Set<String> getReferencedTypeNames(AtlasBaseTypeDef typeDef) {
+            Set<String> ret = new HashSet<>();
+
+            if (typeDef instanceof AtlasStructDef) {
+                for (AtlasAttributeDef attributeDef : ((AtlasStructDef) typeDef).getAttributeDefs()) {
+                    ret.addAll(AtlasTypeUtil.getReferencedTypeNames(attributeDef.getTypeName()));
+                }
+            }
+
+            if (typeDef instanceof AtlasEntityDef) {
+                ret.addAll(((AtlasEntityDef) typeDef).getSuperTypes());
+            } else if (typeDef instanceof AtlasClassificationDef) {
+                AtlasClassificationDef classificationDef = (AtlasClassificationDef) typeDef;
+
+                ret.addAll(classificationDef.getSuperTypes());
+
+                if (classificationDef.getEntityTypes() != null) {
+                    ret.addAll(classificationDef.getEntityTypes());
+                }
+            } else if (typeDef instanceof AtlasRelationshipDef) {
+                AtlasRelationshipDef relationshipDef = (AtlasRelationshipDef) typeDef;
+
+                if (relationshipDef.getEndDef1() != null) {
+                    ret.add(relationshipDef.getEndDef1().getType());
+                }
+
+                if (relationshipDef.getEndDef2() != null) {
+                    ret.add(relationshipDef.getEndDef2().getType());
+                }
+            }
+
+            ret.remove(null);
+
+            return ret;
+        }
+
+        private List<AtlasBaseTypeDef> getAllTypeDefs() {
+            List<AtlasBaseTypeDef> ret = new ArrayList<>();
+
+            ret.addAll(getAllEnumDefs());
+            ret.addAll(getAllStructDefs());
+            ret.addAll(getAllClassificationDefs());
+            ret.addAll(getAllEntityDefs());
+            ret.addAll(getAllRelationshipDefs());
+
+            return ret;
+        }
+
+        private Set<String> getAllTypeDefNames() {
+            Set<String> ret = new HashSet<>();
+
+            ret.addAll(getAllEnumDefNames());
+            ret.addAll(getAllStructDefNames());
+            ret.addAll(getAllClassificationDefNames());
+            ret.addAll(getAllEntityDefNames());
+            ret.addAll(registryData.relationshipDefs.getAllNames());
+
+            return ret;
+        }
+
+        private static String getTypeDefName(AtlasBaseTypeDef typeDef) {
+            return typeDef != null ? typeDef.getName() : null;
+        }
+
+        // replaces the type with a new, unresolved, instance
+        private AtlasType recreateType(AtlasBaseTypeDef typeDef) {
+            AtlasType ret = null;
+
+            if (typeDef instanceof AtlasEnumDef) {
+                AtlasEnumType enumType = new AtlasEnumType((AtlasEnumDef) typeDef);
+
+                registryData.enumDefs.addType((AtlasEnumDef) typeDef, enumType);
+
+                ret = enumType;
+            } else if (typeDef instanceof AtlasClassificationDef) {
+                AtlasClassificationType classificationType = new AtlasClassificationType((AtlasClassificationDef) typeDef);
+
+                registryData.classificationDefs.addType((AtlasClassificationDef) typeDef, classificationType);
+
+                ret = classificationType;
+            } else if (typeDef instanceof AtlasEntityDef) {
+                AtlasEntityType entityType = new AtlasEntityType((AtlasEntityDef) typeDef);
+
+                registryData.entityDefs.addType((AtlasEntityDef) typeDef, entityType);
+
+                ret = entityType;
+            } else if (typeDef instanceof AtlasRelationshipDef) {
+                AtlasRelationshipType relationshipType = new AtlasRelationshipType((AtlasRelationshipDef) typeDef);
+
+                registryData.relationshipDefs.addType((AtlasRelationshipDef) typeDef, relationshipType);
+
+                ret = relationshipType;
+            } else if (typeDef instanceof AtlasStructDef) {
+                AtlasStructType structType = new AtlasStructType((AtlasStructDef) typeDef);
+
+                registryData.structDefs.addType((AtlasStructDef) typeDef, structType);
+
+                ret = structType;
+            }
+
+            return ret;
+        }
+
+        // compares the types with a full resolution of all type-defs; also verifies that types refer only to types in this registry
+        private void verifyResolution() throws AtlasBaseException {
+            AtlasTransientTypeRegistry expected = new AtlasTransientTypeRegistry(new AtlasTypeRegistry());
+
+            expected.setVerifyResolution(false);
+            expected.addTypesWithNoRefResolve(getAllTypeDefs());
+            expected.resolveReferences();
+
+            List<String> errors = new ArrayList<>();
+
+            if (!getAllTypeDefNames().equals(expected.getAllTypeDefNames())) {
+                errors.add("types: found=" + new TreeSet<>(getAllTypeDefNames()) + "; expected=" + new TreeSet<>(expected.getAllTypeDefNames()));
+            }
+
+            for (String typeName : getAllTypeDefNames()) {
+                AtlasType type          = registryData.allTypes.getTypeByName(typeName);
+                AtlasType expectedType  = expected.registryData.allTypes.getTypeByName(typeName);
+                String    resolved      = getResolvedState(type);
+                String    expectedState = expectedType != null ? getResolvedState(expectedType) : null;
+
+                if (!StringUtils.equals(resolved, expectedState)) {
+                    errors.add(typeName + ": found=" + resolved + "; expected=" + expectedState);
+                }
+
+                addStaleReferences(type, errors);
+            }
+
+            if (!errors.isEmpty()) {
+                throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "incremental resolution of types differs from full resolution: " + errors);
+            }
+        }
+
+        private static String getResolvedState(AtlasType type) {
+            Map<String, Object> ret = new TreeMap<>();
+
+            if (type instanceof AtlasStructType) {
+                AtlasStructType     structType = (AtlasStructType) type;
+                Map<String, String> attributes = new TreeMap<>();
+
+                for (AtlasAttribute attribute : structType.getAllAttributes().values()) {
+                    attributes.put(attribute.getName(), getAttributeState(attribute));
+                }
+
+                ret.put("attributes", attributes);
+                ret.put("uniqAttributes", new TreeSet<>(structType.getUniqAttributes().keySet()));
+            }
+
+            if (type instanceof AtlasEntityType) {
+                AtlasEntityType          entityType             = (AtlasEntityType) type;
+                Map<String, String>      relationshipAttributes = new TreeMap<>();
+                Map<String, Set<String>> relationshipTypes      = new TreeMap<>();
+
+                for (AtlasAttribute attribute : entityType.getRelationshipAttributes().values()) {
+                    relationshipAttributes.put(attribute.getName(), getAttributeState(attribute));
+                }
+
+                for (Map.Entry<String, List<AtlasRelationshipType>> entry : entityType.getRelationshipAttributesType().entrySet()) {
+                    Set<String> typeNames = new TreeSet<>();
+
+                    for (AtlasRelationshipType relationshipType : entry.getValue()) {
+                        typeNames.add(relationshipType.getTypeName());
+                    }
+
+                    relationshipTypes.put(entry.getKey(), typeNames);
+                }
+
+                ret.put("allSuperTypes", new TreeSet<>(entityType.getAllSuperTypes()));
+                ret.put("subTypes", new TreeSet<>(entityType.getSubTypes()));
+                ret.put("allSubTypes", new TreeSet<>(entityType.getAllSubTypes()));
+                ret.put("typeAndAllSubTypes", new TreeSet<>(entityType.getTypeAndAllSubTypes()));
+                ret.put("relationshipAttributes", relationshipAttributes);
+                ret.put("relationshipAttributesType", relationshipTypes);
+            } else if (type instanceof AtlasClassificationType) {
+                AtlasClassificationType classificationType = (AtlasClassificationType) type;
+
+                ret.put("allSuperTypes", new TreeSet<>(classificationType.getAllSuperTypes()));
+                ret.put("subTypes", new TreeSet<>(classificationType.getSubTypes()));
+                ret.put("allSubTypes", new TreeSet<>(classificationType.getAllSubTypes()));
+                ret.put("entityTypes", new TreeSet<>(classificationType.getEntityTypes()));
+            } else if (type instanceof AtlasRelationshipType) {
+                AtlasRelationshipType relationshipType = (AtlasRelationshipType) type;
+
+                ret.put("end1Type", relationshipType.getEnd1Type().getTypeName());
+                ret.put("end2Type", relationshipType.getEnd2Type().getTypeName());
+            }
+
+            return ret.toString();
+        }
+
+        private static String getAttributeState(AtlasAttribute attribute) {
+            AtlasAttribute inverseRef = attribute.getInverseRefAttribute();
+
+            return attribute.getTypeName() + "/" + attribute.getDefinedInType().getTypeName() +
+                   "/" + attribute.getRelationshipEdgeLabel() + "/" + attribute.getRelationshipEdgeDirection() +
+                   "/" + (inverseRef != null ? inverseRef.getQualifiedName() : null);
+        }
+
+        // types referred to by the given type must be the ones in this registry, not earlier instances of them
+        private void addStaleReferences(AtlasType type, List<String> errors) {
+            if (type instanceof AtlasStructType) {
+                List<AtlasAttribute> attributes = new ArrayList<>(((AtlasStructType) type).getAllAttributes().values());
+
+                if (type instanceof AtlasEntityType) {
+                    AtlasEntityType entityType = (AtlasEntityType) type;
+
+                    attributes.addAll(entityType.getRelationshipAttributes().values());
+
+                    for (List<AtlasRelationshipType> relationshipTypes : entityType.getRelationshipAttributesType().values()) {
+                        for (AtlasRelationshipType relationshipType : relationshipTypes) {
+                            addStaleReference(type, relationshipType, errors);
+                        }
+                    }
+                } else if (type instanceof AtlasRelationshipType) {
+                    addStaleReference(type, ((AtlasRelationshipType) type).getEnd1Type(), errors);
+                    addStaleReference(type, ((AtlasRelationshipType) type).getEnd2Type(), errors);
+                }
+
+                for (AtlasAttribute attribute : attributes) {
+                    addStaleReference(type, attribute.getAttributeType(), errors);
+                    addStaleReference(type, attribute.getDefinedInType(), errors);
+                }
+            }
+        }
+
+        private void addStaleReference(AtlasType type, AtlasType referencedType, List<String> errors) {
+            if (referencedType instanceof AtlasArrayType) {
+                addStaleReference(type, ((AtlasArrayType) referencedType).getElementType(), errors);
+            } else if (referencedType instanceof AtlasMapType) {
+                addStaleReference(type, ((AtlasMapType) referencedType).getKeyType(), errors);
+                addStaleReference(type, ((AtlasMapType) referencedType).getValueType(), errors);
+            } else if (referencedType != null && registryData.getTypeDefByName(referencedType.getTypeName()) != null &&
+                       registryData.allTypes.getTypeByName(referencedType.getTypeName()) != referencedType) {
+                errors.add(type.getTypeName() + ": refers to an earlier instance of type " + referencedType.getTypeName());
+            }
+        }
     }
 
     static class TypeRegistryUpdateSynchronizer {
@@ -889,6 +1298,8 @@ public class AtlasTypeRegistry {
                                 new Exception().fillInStackTrace());
                     } else if (typeRegistryUpdateLock.getHoldCount() == 1) {
                         if (ttr != null && commitUpdates) {
+                            ttr.registryData.version = typeRegistry.registryData.version + 1;
+
                             typeRegistry.registryData = ttr.registryData;
                         }
                     }
@@ -913,18 +1324,28 @@ public class AtlasTypeRegistry {
     }
 }
 
+/**
+ * Types of all categories, by name and guid; also has type-defs of all categories, so that a type-def can be looked up
+ * by name or guid without knowing its category.
+ */
 class TypeCache {
-    private final Map<String, AtlasType> typeGuidMap;
-    private final Map<String, AtlasType> typeNameMap;
+    private final Map<String, AtlasType>        typeGuidMap;
+    private final Map<String, AtlasType>        typeNameMap;
+    private final Map<String, AtlasBaseTypeDef> typeDefGuidMap;
+    private final Map<String, AtlasBaseTypeDef> typeDefNameMap;
 
     public TypeCache() {
-        typeGuidMap = new ConcurrentHashMap<>();
-        typeNameMap = new ConcurrentHashMap<>();
+        typeGuidMap    = new ConcurrentHashMap<>();
+        typeNameMap    = new ConcurrentHashMap<>();
+        typeDefGuidMap = new ConcurrentHashMap<>();
+        typeDefNameMap = new ConcurrentHashMap<>();
     }
 
     public TypeCache(TypeCache other) {
-        typeGuidMap = new ConcurrentHashMap<>(other.typeGuidMap);
-        typeNameMap = new ConcurrentHashMap<>(other.typeNameMap);
+        typeGuidMap    = new ConcurrentHashMap<>(other.typeGuidMap);
+        typeNameMap    = new ConcurrentHashMap<>(other.typeNameMap);
+        typeDefGuidMap = new ConcurrentHashMap<>(other.typeDefGuidMap);
+        typeDefNameMap = new ConcurrentHashMap<>(other.typeDefNameMap);
     }
 
     public void addType(AtlasType type) {
@@ -939,10 +1360,12 @@ class TypeCache {
         if (typeDef != null && type != null) {
             if (StringUtils.isNotEmpty(typeDef.getGuid())) {
                 typeGuidMap.put(typeDef.getGuid(), type);
+                typeDefGuidMap.put(typeDef.getGuid(), typeDef);
             }
 
             if (StringUtils.isNotEmpty(typeDef.getName())) {
                 typeNameMap.put(typeDef.getName(), type);
+                typeDefNameMap.put(typeDef.getName(), typeDef);
             }
         }
     }
@@ -969,35 +1392,53 @@ class TypeCache {
         return name != null ? typeNameMap.get(name) : null;
     }
 
+    public AtlasBaseTypeDef getTypeDefByGuid(String guid) {
+        return guid != null ? typeDefGuidMap.get(guid) : null;
+    }
+
+    public AtlasBaseTypeDef getTypeDefByName(String name) {
+        return name != null ? typeDefNameMap.get(name) : null;
+    }
+
     public void updateGuid(String typeName, String currGuid, String newGuid) {
         if (currGuid != null) {
             typeGuidMap.remove(currGuid);
+            typeDefGuidMap.remove(currGuid);
         }
 
         if (typeName != null && newGuid != null) {
-            AtlasType type = typeNameMap.get(typeName);
+            AtlasType        type    = typeNameMap.get(typeName);
+            AtlasBaseTypeDef typeDef = typeDefNameMap.get(typeName);
 
             if (type != null) {
                 typeGuidMap.put(newGuid, type);
             }
+
+            if (typeDef != null) {
+                typeDefGuidMap.put(newGuid, typeDef);
+            }
         }
     }
 
     public void removeTypeByGuid(String guid) {
         if (guid != null) {
             typeGuidMap.remove(guid);
+            typeDefGuidMap.remove(guid);
         }
     }
 
     public void removeTypeByName(String name) {
         if (name != null) {
             typeNameMap.remove(name);
+            typeDefNameMap.remove(name);
         }
     }
 
     public void clear() {
         typeGuidMap.clear();
         typeNameMap.clear();
+        typeDefGuidMap.clear();
+        typeDefNameMap.clear();
     }
 }
 
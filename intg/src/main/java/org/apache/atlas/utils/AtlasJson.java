@@ -24,7 +24,14 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasFullTextResult;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
+import org.apache.atlas.model.notification.AtlasNotificationMessage;
+import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.apache.atlas.model.notification.EntityNotification;
 import org.apache.atlas.model.notification.EntityNotification.EntityNotificationType;
 import org.apache.atlas.model.notification.HookNotification;
@@ -33,6 +40,7 @@ import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV
 import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.model.notification.MessageVersion;
 import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
 import org.apache.atlas.v1.model.instance.AtlasSystemAttributes;
 import org.apache.atlas.v1.model.instance.Id;
@@ -47,6 +55,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -68,9 +77,12 @@ public class AtlasJson {
     private static final ObjectMapper mapperV1Search = new ObjectMapper()
             .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
 
-    static {
-        SimpleModule atlasSerDeModule = new SimpleModule("AtlasSerDe", new Version(1, 0, 0, null));
+    private static final SimpleModule atlasSerDeModule = new SimpleModule("AtlasSerDe", new Version(1, 0, 0, null));
+
+    // data written by Smile generator starts with this header; JSON can't start with ':'
+    private static final byte[] SMILE_HEADER = new byte[] { ':', ')', '\n' };
 
+    static {
         atlasSerDeModule.addSerializer(Referenceable.class, new ReferenceableSerializer());
         atlasSerDeModule.addDeserializer(Referenceable.class, new ReferenceableDeserializer());
         atlasSerDeModule.addSerializer(Struct.class, new StructSerializer());
@@ -183,6 +195,108 @@ public class AtlasJson {
         return fromJson(jsonStr, type);
     }
 
+    /**
+     * Reads a notification message in a single pass over the json: envelope fields are read as they appear, and the
+     * message is bound to messageType directly from the parser.
+     *
+     * @return AtlasNotificationStringMessage for split/compressed messages, AtlasNotificationMessage otherwise; null if
+     * the json is not a versioned notification message (older style messages) or is not valid
+     */
+    public static <T> AtlasNotificationBaseMessage fromV1NotificationJson(String jsonStr, TypeReference<T> messageType) {
+        AtlasNotificationBaseMessage ret = null;
+
+        if (jsonStr != null) {
+            try (JsonParser parser = mapper.getFactory().createParser(jsonStr)) {
+                ret = readNotificationMessage(parser, messageType);
+            } catch (IOException e) {
+                LOG.error("AtlasJson.fromV1NotificationJson()", e);
+
+                ret = null;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Reads a notification message written as JSON or Smile - detected from the first bytes of the stream.
+     */
+    public static <T> AtlasNotificationBaseMessage fromV1Notification(InputStream inputStream, TypeReference<T> messageType) throws IOException {
+        AtlasNotificationBaseMessage ret = null;
+
+        if (inputStream != null) {
+            PushbackInputStream stream       = new PushbackInputStream(inputStream, SMILE_HEADER.length);
+            byte[]              header       = new byte[SMILE_HEADER.length];
+            int                 headerLength = 0;
+
+            while (headerLength < header.length) {
+                int count = stream.read(header, headerLength, header.length - headerLength);
+
+                if (count == -1) {
+                    break;
+                }
+
+                headerLength += count;
+            }
+
+            stream.unread(header, 0, headerLength);
+
+            ObjectMapper objectMapper = isV1Smile(header) ? SmileMapperHolder.MAPPER : mapper;
+
+            try (JsonParser parser = objectMapper.getFactory().createParser(stream)) {
+                ret = readNotificationMessage(parser, messageType);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return the object serialized in Smile, the binary JSON format - which is smaller and faster to read than JSON
+     */
+    public static byte[] toV1Smile(Object obj) {
+        byte[] ret;
+
+        try {
+            ret = SmileMapperHolder.MAPPER.writeValueAsBytes(obj);
+        } catch (IOException e) {
+            LOG.error("AtlasJson.toV1Smile()", e);
+
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    public static boolean isV1Smile(byte[] bytes) {
+        if (bytes == null || bytes.length < SMILE_HEADER.length) {
+            return false;
+        }
+
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (bytes[i] != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // for Smile data held in a string, one char per byte
+    public static boolean isV1Smile(CharSequence str) {
+        if (str == null || str.length() < SMILE_HEADER.length) {
+            return false;
+        }
+
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (str.charAt(i) != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public static String toV1SearchJson(Object obj) {
         String ret;
         try {
@@ -332,87 +446,286 @@ public class AtlasJson {
         }
     }
 
+    private static <T> AtlasNotificationBaseMessage readNotificationMessage(JsonParser parser, TypeReference<T> messageType) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        MessageVersion  version         = null;
+        String          msgId           = null;
+        CompressionKind compressionKind = CompressionKind.NONE;
+        int             msgSplitIdx     = 1;
+        int             msgSplitCount   = 1;
+        String          msgSourceIP     = null;
+        String          msgCreatedBy    = null;
+        long            msgCreationTime = 0;
+        String          strMessage      = null;
+        byte[]          bytesMessage    = null;
+        T               message         = null;
+        TokenBuffer     messageTokens   = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String    fieldName  = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+
+            if (valueToken == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch (fieldName) {
+                case NOTIFICATION_KEY_VERSION:
+                    version = parser.readValueAs(MessageVersion.class);
+                    break;
+
+                case NOTIFICATION_KEY_MSG_ID:
+                    msgId = parser.getText();
+                    break;
+
+                case NOTIFICATION_KEY_MSG_COMPRESSION_KIND:
+                    compressionKind = CompressionKind.valueOf(parser.getText());
+                    break;
+
+                case NOTIFICATION_KEY_MSG_SPLIT_IDX:
+                    msgSplitIdx = parser.getValueAsInt();
+                    break;
+
+                case NOTIFICATION_KEY_MSG_SPLIT_COUNT:
+                    msgSplitCount = parser.getValueAsInt();
+                    break;
+
+                case NOTIFICATION_KEY_MSG_SOURCE_IP:
+                    msgSourceIP = parser.getText();
+                    break;
+
+                case NOTIFICATION_KEY_MSG_CREATED_BY:
+                    msgCreatedBy = parser.getText();
+                    break;
+
+                case NOTIFICATION_KEY_MSG_CREATION_TIME:
+                    msgCreationTime = parser.getValueAsLong();
+                    break;
+
+                case NOTIFICATION_KEY_MESSAGE:
+                    if (valueToken == JsonToken.VALUE_STRING) { // split/compressed message
+                        strMessage = parser.getText();
+                    } else if (version != null) {
+                        message = parser.readValueAs(messageType);
+                    } else { // version not seen yet; hold the tokens, to bind once the json is known to be a notification message
+                        messageTokens = new TokenBuffer(parser);
+
+                        messageTokens.copyCurrentStructure(parser);
+                    }
+                    break;
+
+                case NOTIFICATION_KEY_MESSAGE_BYTES: // split/compressed message, in Smile format
+                    bytesMessage = parser.getBinaryValue();
+                    break;
+
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        if (version == null) {
+            return null;
+        }
+
+        final AtlasNotificationBaseMessage ret;
+
+        if (strMessage != null) {
+            ret = new AtlasNotificationStringMessage(strMessage, msgId, compressionKind, msgSplitIdx, msgSplitCount);
+        } else if (bytesMessage != null) {
+            ret = new AtlasNotificationStringMessage(msgId, compressionKind, msgSplitIdx, msgSplitCount, bytesMessage);
+        } else {
+            if (messageTokens != null) {
+                try (JsonParser messageParser = messageTokens.asParser(parser.getCodec())) {
+                    message = messageParser.readValueAs(messageType);
+                }
+            }
+
+            AtlasNotificationMessage<T> notificationMessage = new AtlasNotificationMessage<>();
+
+            notificationMessage.setMsgId(msgId);
+            notificationMessage.setMsgCompressed(compressionKind);
+            notificationMessage.setMsgSplitIdx(msgSplitIdx);
+            notificationMessage.setMsgSplitCount(msgSplitCount);
+            notificationMessage.setMsgSourceIP(msgSourceIP);
+            notificationMessage.setMsgCreatedBy(msgCreatedBy);
+            notificationMessage.setMsgCreationTime(msgCreationTime);
+            notificationMessage.setMessage(message);
+
+            ret = notificationMessage;
+        }
+
+        ret.setVersion(version);
+
+        return ret;
+    }
+
+    /*
+     * 'type' is the first field in messages written by Atlas hooks: it is read ahead, and rest of the object is bound to
+     * the type specific class from the parser. When 'type' is not the first field, the object is read into a tree first.
+     */
     static class HookNotificationDeserializer extends JsonDeserializer<HookNotification> {
         @Override
         public HookNotification deserialize(JsonParser parser, DeserializationContext context) throws IOException {
-            HookNotification     ret              = null;
-            ObjectCodec          mapper           = parser.getCodec();
-            TreeNode             root             = mapper.readTree(parser);
-            JsonNode             typeNode         = root != null ? (JsonNode) root.get("type") : null;
-            String               strType          = typeNode != null ? typeNode.asText() : null;
-            HookNotificationType notificationType = strType != null ? HookNotificationType.valueOf(strType) : null;
-
-            if (notificationType != null) {
-                switch (notificationType) {
-                    case TYPE_CREATE:
-                    case TYPE_UPDATE:
-                        ret = mapper.treeToValue(root, TypeRequest.class);
-                        break;
-
-                    case ENTITY_CREATE:
-                        ret = mapper.treeToValue(root, EntityCreateRequest.class);
-                        break;
-
-                    case ENTITY_PARTIAL_UPDATE:
-                        ret = mapper.treeToValue(root, EntityPartialUpdateRequest.class);
-                        break;
-
-                    case ENTITY_FULL_UPDATE:
-                        ret = mapper.treeToValue(root, EntityUpdateRequest.class);
-                        break;
-
-                    case ENTITY_DELETE:
-                        ret = mapper.treeToValue(root, EntityDeleteRequest.class);
-                        break;
-
-                    case ENTITY_CREATE_V2:
-                        ret = mapper.treeToValue(root, EntityCreateRequestV2.class);
-                        break;
-
-                    case ENTITY_PARTIAL_UPDATE_V2:
-                        ret = mapper.treeToValue(root, EntityPartialUpdateRequestV2.class);
-                        break;
-
-                    case ENTITY_FULL_UPDATE_V2:
-                        ret = mapper.treeToValue(root, EntityUpdateRequestV2.class);
-                        break;
-
-                    case ENTITY_DELETE_V2:
-                        ret = mapper.treeToValue(root, EntityDeleteRequestV2.class);
-                        break;
+            HookNotification ret = null;
+
+            if (isFirstField(parser, NOTIFICATION_KEY_TYPE)) {
+                HookNotificationType notificationType = readTypeField(parser, HookNotificationType.class);
+
+                if (notificationType != null) {
+                    ret = readValue(parser, getHookNotificationClass(notificationType));
+
+                    ret.setType(notificationType);
+                } else {
+                    skipRemainingFields(parser);
+                }
+            } else {
+                ObjectCodec          mapper           = parser.getCodec();
+                TreeNode             root             = mapper.readTree(parser);
+                JsonNode             typeNode         = root != null ? (JsonNode) root.get(NOTIFICATION_KEY_TYPE) : null;
+                String               strType          = typeNode != null ? typeNode.asText() : null;
+                HookNotificationType notificationType = strType != null ? HookNotificationType.valueOf(strType) : null;
+
+                if (notificationType != null) {
+                    ret = mapper.treeToValue(root, getHookNotificationClass(notificationType));
                 }
             }
 
             return ret;
         }
+
+        private static Class<? extends HookNotification> getHookNotificationClass(HookNotificationType notificationType) {
+            switch (notificationType) {
+                case TYPE_CREATE:
+                case TYPE_UPDATE:
+                    return TypeRequest.class;
+
+                case ENTITY_CREATE:
+                    return EntityCreateRequest.class;
+
+                case ENTITY_PARTIAL_UPDATE:
+                    return EntityPartialUpdateRequest.class;
+
+                case ENTITY_FULL_UPDATE:
+                    return EntityUpdateRequest.class;
+
+                case ENTITY_DELETE:
+                    return EntityDeleteRequest.class;
+
+                case ENTITY_CREATE_V2:
+                    return EntityCreateRequestV2.class;
+
+                case ENTITY_PARTIAL_UPDATE_V2:
+                    return EntityPartialUpdateRequestV2.class;
+
+                case ENTITY_FULL_UPDATE_V2:
+                    return EntityUpdateRequestV2.class;
+
+                case ENTITY_DELETE_V2:
+                    return EntityDeleteRequestV2.class;
+            }
+
+            throw new IllegalArgumentException("unknown hook notification type " + notificationType);
+        }
     }
 
     static class EntityNotificationDeserializer extends JsonDeserializer<EntityNotification> {
         @Override
         public EntityNotification deserialize(JsonParser parser, DeserializationContext context) throws IOException {
-            EntityNotification     ret              = null;
-            ObjectCodec            mapper           = parser.getCodec();
-            TreeNode               root             = mapper.readTree(parser);
-            JsonNode               typeNode         = root != null ? (JsonNode) root.get("type") : null;
-            String                 strType          = typeNode != null ? typeNode.asText() : null;
-            EntityNotificationType notificationType = strType != null ? EntityNotificationType.valueOf(strType) : EntityNotificationType.ENTITY_NOTIFICATION_V1;
-
-            if (root != null) {
-                switch (notificationType) {
-                    case ENTITY_NOTIFICATION_V1:
-                        ret = mapper.treeToValue(root, EntityNotificationV1.class);
-                        break;
-
-                    case ENTITY_NOTIFICATION_V2:
-                        ret = mapper.treeToValue(root, EntityNotificationV2.class);
-                        break;
+            EntityNotification ret = null;
+
+            if (isFirstField(parser, NOTIFICATION_KEY_TYPE)) {
+                EntityNotificationType notificationType = readTypeField(parser, EntityNotificationType.class);
+
+                if (notificationType == null) {
+                    notificationType = EntityNotificationType.ENTITY_NOTIFICATION_V1;
+                }
+
+                ret = readValue(parser, getEntityNotificationClass(notificationType));
+
+                ret.setType(notificationType);
+            } else {
+                ObjectCodec            mapper           = parser.getCodec();
+                TreeNode               root             = mapper.readTree(parser);
+                JsonNode               typeNode         = root != null ? (JsonNode) root.get(NOTIFICATION_KEY_TYPE) : null;
+                String                 strType          = typeNode != null ? typeNode.asText() : null;
+                EntityNotificationType notificationType = strType != null ? EntityNotificationType.valueOf(strType) : EntityNotificationType.ENTITY_NOTIFICATION_V1;
+
+                if (root != null) {
+                    ret = mapper.treeToValue(root, getEntityNotificationClass(notificationType));
                 }
             }
 
             return ret;
         }
+
+        private static Class<? extends EntityNotification> getEntityNotificationClass(EntityNotificationType notificationType) {
+            switch (notificationType) {
+                case ENTITY_NOTIFICATION_V2:
+                    return EntityNotificationV2.class;
+
+                case ENTITY_NOTIFICATION_V1:
+                default:
+                    return EntityNotificationV1.class;
+            }
+        }
+    }
+
+    // moves the parser to the first field name; returns true if it is the given field
+    private static boolean isFirstField(JsonParser parser, String fieldName) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+
+        return parser.nextToken() == JsonToken.FIELD_NAME && fieldName.equals(parser.getCurrentName());
+    }
+
+    // reads the value of the current field, and moves the parser to the next field
+    private static <E extends Enum<E>> E readTypeField(JsonParser parser, Class<E> enumClass) throws IOException {
+        JsonToken valueToken = parser.nextToken();
+        String    strType    = valueToken == JsonToken.VALUE_NULL ? null : parser.getText();
+
+        parser.nextToken();
+
+        return strType != null ? Enum.valueOf(enumClass, strType) : null;
+    }
+
+    private static void skipRemainingFields(JsonParser parser) throws IOException {
+        while (parser.getCurrentToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+            parser.nextToken();
+        }
     }
 
+    // binds the remaining fields of the current object, starting at the current field, to the given class
+    private static <T> T readValue(JsonParser parser, Class<T> type) throws IOException {
+        final T ret;
+
+        if (parser.getCurrentToken() == JsonToken.END_OBJECT) { // no more fields
+            ret = parser.getCodec().treeToValue(mapper.createObjectNode(), type);
+        } else {
+            ret = parser.getCodec().readValue(parser, type);
+        }
+
+        return ret;
+    }
+
+    private static final String NOTIFICATION_KEY_TYPE                 = "type";
+    private static final String NOTIFICATION_KEY_VERSION              = "version";
+    private static final String NOTIFICATION_KEY_MSG_ID               = "msgId";
+    private static final String NOTIFICATION_KEY_MSG_COMPRESSION_KIND = "msgCompressionKind";
+    private static final String NOTIFICATION_KEY_MSG_SPLIT_IDX        = "msgSplitIdx";
+    private static final String NOTIFICATION_KEY_MSG_SPLIT_COUNT      = "msgSplitCount";
+    private static final String NOTIFICATION_KEY_MSG_SOURCE_IP        = "msgSourceIP";
+    private static final String NOTIFICATION_KEY_MSG_CREATED_BY       = "msgCreatedBy";
+    private static final String NOTIFICATION_KEY_MSG_CREATION_TIME    = "msgCreationTime";
+    private static final String NOTIFICATION_KEY_MESSAGE              = "message";
+    private static final String NOTIFICATION_KEY_MESSAGE_BYTES        = "messageBytes";
+
     private static final String V1_KEY_$TYPENAME          = "$typeName$";
     private static final String V1_KEY_$ID                = "$id$";
     private static final String V1_KEY_$SYSTEM_ATTRIBUTES = "$systemAttributes$";
@@ -532,4 +845,11 @@ public class AtlasJson {
             }
         }
     }
+
+    // created on first use - so that jackson-dataformat-smile is needed only in processes that use Smile format
+    private static class SmileMapperHolder {
+        static final ObjectMapper MAPPER = new ObjectMapper(new SmileFactory().configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true))
+                                                .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+                                                .registerModule(atlasSerDeModule);
+    }
 }
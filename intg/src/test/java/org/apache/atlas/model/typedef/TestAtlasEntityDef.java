@@ -78,7 +78,7 @@ public class TestAtlasEntityDef {
 
     @Test
     public void testEntityDefAddSuperType() {
-        AtlasEntityDef entityDef = ModelTestUtil.newEntityDef();
+        AtlasEntityDef entityDef = new AtlasEntityDef(ModelTestUtil.newEntityDef()); // copy, as registered type-defs are not to be modified
 
         String newSuperType = "newType-abcd-1234";
         entityDef.addSuperType(newSuperType);
@@ -90,7 +90,7 @@ public class TestAtlasEntityDef {
 
     @Test
     public void testEntityDefRemoveElement() {
-        AtlasEntityDef entityDef = ModelTestUtil.newEntityDefWithSuperTypes();
+        AtlasEntityDef entityDef = new AtlasEntityDef(ModelTestUtil.newEntityDefWithSuperTypes()); // copy, as registered type-defs are not to be modified
 
         for (String superType : entityDef.getSuperTypes()) {
             entityDef.removeSuperType(superType);
@@ -100,7 +100,7 @@ public class TestAtlasEntityDef {
 
     @Test
     public void testEntityDefSetSuperTypes() {
-        AtlasEntityDef entityDef = ModelTestUtil.newEntityDefWithSuperTypes();
+        AtlasEntityDef entityDef = new AtlasEntityDef(ModelTestUtil.newEntityDefWithSuperTypes()); // copy, as registered type-defs are not to be modified
 
         Set<String> oldSuperTypes = entityDef.getSuperTypes();
         Set<String> newSuperTypes = new HashSet<>();
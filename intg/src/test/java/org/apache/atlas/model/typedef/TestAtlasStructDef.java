@@ -66,7 +66,7 @@ public class TestAtlasStructDef {
 
     @Test
     public void testStructDefAddAttribute() {
-        AtlasStructDef structDef = ModelTestUtil.newStructDef();
+        AtlasStructDef structDef = new AtlasStructDef(ModelTestUtil.newStructDef()); // copy, as registered type-defs are not to be modified
 
         structDef.addAttribute(new AtlasAttributeDef("newAttribute", AtlasBaseTypeDef.ATLAS_TYPE_INT));
         assertTrue(structDef.hasAttribute("newAttribute"));
@@ -74,7 +74,7 @@ public class TestAtlasStructDef {
 
     @Test
     public void testStructDefRemoveAttribute() {
-        AtlasStructDef structDef = ModelTestUtil.newStructDef();
+        AtlasStructDef structDef = new AtlasStructDef(ModelTestUtil.newStructDef()); // copy, as registered type-defs are not to be modified
 
         String attrName = structDef.getAttributeDefs().get(0).getName();
         assertTrue(structDef.hasAttribute(attrName));
@@ -85,7 +85,7 @@ public class TestAtlasStructDef {
 
     @Test
     public void testStructDefSetAttributeDefs() {
-        AtlasStructDef structDef = ModelTestUtil.newStructDef();
+        AtlasStructDef structDef = new AtlasStructDef(ModelTestUtil.newStructDef()); // copy, as registered type-defs are not to be modified
 
         List<AtlasAttributeDef> oldAttributes = structDef.getAttributeDefs();
         List<AtlasAttributeDef> newttributes = ModelTestUtil.newAttributeDefsWithAllBuiltInTypes("newAttributes");
@@ -71,7 +71,7 @@ public class TestAtlasStructType {
         multiValuedAttribMax.setCardinality(Cardinality.LIST);
         multiValuedAttribMax.setValuesMaxCount(MULTI_VAL_ATTR_MAX_COUNT);
 
-        AtlasStructDef structDef = ModelTestUtil.newStructDef();
+        AtlasStructDef structDef = new AtlasStructDef(ModelTestUtil.newStructDef()); // copy, as registered type-defs are not to be modified
 
         structDef.addAttribute(multiValuedAttribMinMax);
         structDef.addAttribute(multiValuedAttribMin);
@@ -186,7 +186,7 @@ public class TestAtlasStructType {
         AtlasAttributeDef invalidMultiValuedAttrib = new AtlasAttributeDef("invalidAttributeDef", ATLAS_TYPE_INT);
         invalidMultiValuedAttrib.setCardinality(Cardinality.LIST);
 
-        AtlasStructDef invalidStructDef = ModelTestUtil.newStructDef();
+        AtlasStructDef invalidStructDef = new AtlasStructDef(ModelTestUtil.newStructDef()); // copy, as registered type-defs are not to be modified
         invalidStructDef.addAttribute(invalidMultiValuedAttrib);
 
         try {
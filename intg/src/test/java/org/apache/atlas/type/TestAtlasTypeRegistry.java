@@ -22,20 +22,28 @@ import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.typedef.*;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.testng.Assert.*;
 
 public class TestAtlasTypeRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TestAtlasTypeRegistry.class);
 
     /*
      *             L0
@@ -498,6 +506,233 @@ public class TestAtlasTypeRegistry {
         }
     }
 
+    @Test
+    public void testTypeDefLookupAcrossCategories() {
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        AtlasEnumDef      enumDef      = new AtlasEnumDef("testLookupEnum");
+        AtlasEntityDef    entityDef    = new AtlasEntityDef("testLookupEntity");
+
+        assertEquals(typeRegistry.getVersion(), 0);
+
+        addType(typeRegistry, enumDef);
+        addType(typeRegistry, entityDef);
+
+        assertEquals(typeRegistry.getVersion(), 2);
+        assertEquals(typeRegistry.getTypeDefByName(enumDef.getName()), enumDef);
+        assertEquals(typeRegistry.getTypeDefByName(entityDef.getName()), entityDef);
+        assertNull(typeRegistry.getTypeDefByName("testLookupUnknown"));
+
+        AtlasTransientTypeRegistry ttr = null;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.updateGuid(entityDef.getName(), "testLookupEntity-guid");
+        } catch (AtlasBaseException excp) {
+            fail("failed to update guid", excp);
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+        }
+
+        assertEquals(typeRegistry.getTypeDefByGuid("testLookupEntity-guid").getName(), entityDef.getName());
+        assertNull(typeRegistry.getTypeDefByGuid("testLookupEnum-guid"));
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.removeTypeByGuid("testLookupEntity-guid");
+        } catch (AtlasBaseException excp) {
+            fail("failed to remove type", excp);
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+        }
+
+        assertNull(typeRegistry.getTypeDefByName(entityDef.getName()));
+        assertNull(typeRegistry.getTypeDefByGuid("testLookupEntity-guid"));
+        assertEquals(typeRegistry.getTypeDefByName(enumDef.getName()), enumDef);
+    }
+
+    /*
+     * an update resolves only the changed types and the types that depend on them; other types are shared with the
+     * registry being updated. Each resolution is verified against a full resolution
+     */
+    @Test
+    public void testIncrementalResolution() throws AtlasBaseException {
+        AtlasTypeRegistry      typeRegistry = new AtlasTypeRegistry();
+        AtlasEnumDef           enum1        = new AtlasEnumDef("incrEnum1");
+        AtlasStructDef         struct1      = new AtlasStructDef("incrStruct1");
+        AtlasEntityDef         ent0         = new AtlasEntityDef("incrEnt0");
+        AtlasEntityDef         ent1         = new AtlasEntityDef("incrEnt1");
+        AtlasEntityDef         ent2         = new AtlasEntityDef("incrEnt2");
+        AtlasEntityDef         unrelated    = new AtlasEntityDef("incrUnrelated");
+        AtlasClassificationDef cls0         = new AtlasClassificationDef("incrCls0");
+        AtlasClassificationDef cls1         = new AtlasClassificationDef("incrCls1");
+
+        enum1.addElement(new AtlasEnumDef.AtlasEnumElementDef("V1", null, 1));
+        struct1.addAttribute(new AtlasAttributeDef("e", enum1.getName()));
+        ent1.addSuperType(ent0.getName());
+        ent1.addAttribute(new AtlasAttributeDef("s", struct1.getName()));
+        ent2.addAttribute(new AtlasAttributeDef("ent1s", AtlasBaseTypeDef.getArrayTypeName(ent1.getName())));
+        cls0.setEntityTypes(new HashSet<>(Arrays.asList(ent0.getName())));
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEnumDefs().add(enum1);
+        typesDef.getStructDefs().add(struct1);
+        typesDef.getEntityDefs().addAll(Arrays.asList(ent0, ent1, ent2, unrelated));
+        typesDef.getClassificationDefs().addAll(Arrays.asList(cls0, cls1));
+
+        update(typeRegistry, typesDef, false);
+
+        // new classification with no references: no other type is resolved again
+        AtlasTypeRegistry before = typeRegistry.getSnapshot();
+
+        typesDef = new AtlasTypesDef();
+
+        typesDef.getClassificationDefs().add(new AtlasClassificationDef("incrCls2"));
+
+        update(typeRegistry, typesDef, false);
+
+        for (String typeName : before.getAllTypeNames()) {
+            assertSame(typeRegistry.getType(typeName), before.getType(typeName), typeName);
+        }
+
+        // new sub-type: super-types, types that refer to them and classifications restricted to them are resolved again
+        AtlasEntityDef ent3 = new AtlasEntityDef("incrEnt3");
+
+        ent3.addSuperType(ent1.getName());
+
+        before   = typeRegistry.getSnapshot();
+        typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(ent3);
+
+        update(typeRegistry, typesDef, false);
+
+        for (String typeName : Arrays.asList(ent0.getName(), ent1.getName(), ent2.getName(), cls0.getName())) {
+            assertNotSame(typeRegistry.getType(typeName), before.getType(typeName), typeName);
+        }
+
+        for (String typeName : Arrays.asList(enum1.getName(), struct1.getName(), unrelated.getName(), cls1.getName())) {
+            assertSame(typeRegistry.getType(typeName), before.getType(typeName), typeName);
+        }
+
+        validateAllSubTypes(typeRegistry, ent0.getName(), new HashSet<>(Arrays.asList(ent1.getName(), ent3.getName())));
+        validateAllSubTypes(before, ent0.getName(), new HashSet<>(Arrays.asList(ent1.getName())));
+        assertTrue(typeRegistry.getClassificationTypeByName(cls0.getName()).getEntityTypes().contains(ent3.getName()));
+
+        // update of a struct: types that refer to it, and their sub-types, are resolved again; super-types are not
+        AtlasStructDef struct1Updated = new AtlasStructDef(struct1);
+
+        struct1Updated.addAttribute(new AtlasAttributeDef("i", AtlasBaseTypeDef.ATLAS_TYPE_INT));
+
+        before   = typeRegistry.getSnapshot();
+        typesDef = new AtlasTypesDef();
+
+        typesDef.getStructDefs().add(struct1Updated);
+
+        update(typeRegistry, typesDef, true);
+
+        for (String typeName : Arrays.asList(struct1.getName(), ent1.getName(), ent2.getName(), ent3.getName())) {
+            assertNotSame(typeRegistry.getType(typeName), before.getType(typeName), typeName);
+        }
+
+        for (String typeName : Arrays.asList(ent0.getName(), cls0.getName(), enum1.getName())) {
+            assertSame(typeRegistry.getType(typeName), before.getType(typeName), typeName);
+        }
+
+        assertEquals(typeRegistry.getStructTypeByName(struct1.getName()).getAllAttributes().keySet(), new HashSet<>(Arrays.asList("e", "i")));
+
+        // removal of a sub-type: its super-types are resolved again
+        before = typeRegistry.getSnapshot();
+
+        AtlasTransientTypeRegistry ttr    = null;
+        boolean                    commit = false;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.setVerifyResolution(true);
+            ttr.removeTypeByName(ent3.getName());
+
+            commit = true;
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, commit);
+        }
+
+        validateAllSubTypes(typeRegistry, ent0.getName(), new HashSet<>(Arrays.asList(ent1.getName())));
+        validateAllSubTypes(before, ent0.getName(), new HashSet<>(Arrays.asList(ent1.getName(), ent3.getName())));
+        assertFalse(typeRegistry.getClassificationTypeByName(cls0.getName()).getEntityTypes().contains(ent3.getName()));
+    }
+
+    /*
+     * readers take a snapshot and check that it is consistent - entity type count matches the snapshot version - while
+     * a writer adds one entity type in each update; reports the read throughput
+     */
+    @Test
+    public void testConcurrentReadsDuringUpdates() throws Exception {
+        final int               numOfReaders = 4;
+        final int               numOfUpdates = 50;
+        final AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        final AtomicBoolean     isWriterDone = new AtomicBoolean(false);
+        final AtomicLong        readCount    = new AtomicLong();
+        ExecutorService         executor     = Executors.newFixedThreadPool(numOfReaders);
+        List<Future<String>>    readers      = new ArrayList<>();
+
+        for (int i = 0; i < numOfReaders; i++) {
+            readers.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    long reads = 0;
+
+                    do {
+                        AtlasTypeRegistry snapshot   = typeRegistry.getSnapshot();
+                        long              version    = snapshot.getVersion();
+                        int               typeCount  = snapshot.getAllEntityDefs().size();
+                        String            latestType = "testConcurrentEntity-" + (version - 1);
+
+                        if (typeCount != version) {
+                            return "version " + version + " has " + typeCount + " entity types";
+                        }
+
+                        if (version > 0 && (snapshot.getTypeDefByName(latestType) == null || snapshot.getEntityTypeByName(latestType) == null)) {
+                            return "version " + version + " doesn't have " + latestType;
+                        }
+
+                        reads++;
+                    } while (!isWriterDone.get());
+
+                    readCount.addAndGet(reads);
+
+                    return null;
+                }
+            }));
+        }
+
+        long startTime = System.nanoTime();
+
+        try {
+            for (int i = 0; i < numOfUpdates; i++) {
+                assertTrue(addType(typeRegistry, new AtlasEntityDef("testConcurrentEntity-" + i)));
+            }
+        } finally {
+            isWriterDone.set(true);
+        }
+
+        for (Future<String> reader : readers) {
+            assertNull(reader.get(60, TimeUnit.SECONDS));
+        }
+
+        long timeTakenMs = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), 1);
+
+        executor.shutdown();
+
+        assertEquals(typeRegistry.getVersion(), numOfUpdates);
+
+        LOG.info("testConcurrentReadsDuringUpdates: {} updates, {} snapshot reads by {} readers in {} ms ({} reads/sec)",
+                 numOfUpdates, readCount.get(), numOfReaders, timeTakenMs, readCount.get() * 1000 / timeTakenMs);
+    }
+
     /* create 2 entity types: L0 and L1, with L0 as superType of L1
      * add entity type L2, with L0, L1 and L2 as super-types - this should fail due to L2 self-referencing itself in super-types
      * verify that after the update failure, the registry still has correct super-type/sub-type information for L0 and L1
@@ -575,6 +810,27 @@ public class TestAtlasTypeRegistry {
         validateAllSubTypes(typeRegistry, "L1", new HashSet<String>());
     }
 
+    private void update(AtlasTypeRegistry typeRegistry, AtlasTypesDef typesDef, boolean isUpdate) throws AtlasBaseException {
+        AtlasTransientTypeRegistry ttr    = null;
+        boolean                    commit = false;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.setVerifyResolution(true);
+
+            if (isUpdate) {
+                ttr.updateTypes(typesDef);
+            } else {
+                ttr.addTypes(typesDef);
+            }
+
+            commit = true;
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, commit);
+        }
+    }
+
     private boolean addType(AtlasTypeRegistry typeRegistry, AtlasBaseTypeDef typeDef) {
         boolean                    ret = false;
         AtlasTransientTypeRegistry ttr = null;
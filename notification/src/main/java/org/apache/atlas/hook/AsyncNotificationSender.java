@@ -0,0 +1,475 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.NotificationException;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.NotificationInterface.NotificationType;
+import org.apache.atlas.notification.NotificationInterface.SendCallback;
+import org.apache.atlas.type.AtlasType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends hook notifications from a background thread, so that the thread running the hook doesn't wait for the
+ * messaging system. Messages are added to a bounded queue, from which the sender thread sends them in batches;
+ * completion is notified via callback, and failed batches are retried by the sender thread.
+ *
+ * When the queue is full, messages are handled per the configured policy: BLOCK waits for space up to a timeout,
+ * DROP discards the message, SPILL writes the message to the spill file. Messages that could not be sent after
+ * retries, and messages that time out waiting for space in the queue, are written to the spill file as well - if one
+ * is configured. Spilled messages are sent once the messaging system becomes available again.
+ *
+ * The spill file has one message per line. JSON messages are written as-is, as they don't contain line breaks; Smile
+ * messages carry raw bytes, which can include line breaks, hence are written base64 encoded, with a prefix that can't
+ * start a JSON message.
+ */
+class AsyncNotificationSender {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncNotificationSender.class);
+
+    private static final long   POLL_INTERVAL_MS   = 100;
+    private static final String REPLAY_FILE_SUFFIX = ".replay";
+    private static final String SMILE_SPILL_PREFIX = "smile:";
+
+    enum QueueFullPolicy { BLOCK, DROP, SPILL }
+
+    private final    NotificationInterface            notificationInterface;
+    private final    BlockingQueue<QueuedMessage>     queue;
+    private final    int                              batchSize;
+    private final    QueueFullPolicy                  queueFullPolicy;
+    private final    long                             blockTimeoutMs;
+    private final    long                             retryIntervalMs;
+    private final    File                             spillFile;
+    private final    File                             replayFile;
+    private final    FailedMessagesLogger             failedMessagesLogger;
+    private final    Thread                           senderThread;
+    private final    ConcurrentLinkedQueue<SendBatch> retryBatches     = new ConcurrentLinkedQueue<>();
+    private final    AtomicInteger                    inFlightBatches  = new AtomicInteger();
+    private final    AtomicLong                       queuedCount      = new AtomicLong();
+    private final    AtomicLong                       sentCount        = new AtomicLong();
+    private final    AtomicLong                       failedCount      = new AtomicLong();
+    private final    AtomicLong                       spilledCount     = new AtomicLong();
+    private final    AtomicLong                       droppedCount     = new AtomicLong();
+    private final    Object                           spillLock        = new Object();
+    private volatile boolean                          isAvailable      = true;
+    private volatile boolean                          isStopped        = false;
+    private volatile long                             shutdownDeadline = Long.MAX_VALUE;
+    private          BufferedReader                   replayReader;
+
+    /**
+     * @param spillFile             file to write messages that could not be sent to; null to not spill messages
+     * @param failedMessagesLogger  logger for messages that could not be sent nor spilled; can be null
+     */
+    AsyncNotificationSender(NotificationInterface notificationInterface, int queueSize, int batchSize, QueueFullPolicy queueFullPolicy,
+                            long blockTimeoutMs, long retryIntervalMs, File spillFile, FailedMessagesLogger failedMessagesLogger) {
+        this.notificationInterface = notificationInterface;
+        this.queue                 = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize             = Math.max(batchSize, 1);
+        this.queueFullPolicy       = queueFullPolicy;
+        this.blockTimeoutMs        = blockTimeoutMs;
+        this.retryIntervalMs       = retryIntervalMs;
+        this.spillFile             = spillFile;
+        this.replayFile            = spillFile != null ? new File(spillFile.getPath() + REPLAY_FILE_SUFFIX) : null;
+        this.failedMessagesLogger  = failedMessagesLogger;
+        this.senderThread          = new Thread(new Sender(), "atlas-hook-notification-sender");
+
+        senderThread.setDaemon(true);
+    }
+
+    void start() {
+        senderThread.start();
+    }
+
+    /**
+     * Stops accepting messages and waits up to the given time for queued messages to be sent; messages not sent by
+     * then are spilled.
+     */
+    void stop(long timeoutMs) {
+        shutdownDeadline = System.currentTimeMillis() + timeoutMs;
+        isStopped        = true;
+
+        try {
+            senderThread.join(timeoutMs + POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        LOG.info("Stopped hook notification sender: {}", getCounters());
+    }
+
+    /**
+     * Adds the messages to the queue; the calling thread waits only if the queue is full and policy is BLOCK.
+     */
+    void send(List<HookNotification> messages, int maxRetries) {
+        for (HookNotification message : messages) {
+            QueuedMessage queuedMessage = new QueuedMessage(message, maxRetries);
+            boolean       isQueued      = false;
+
+            if (!isStopped) {
+                if (queueFullPolicy == QueueFullPolicy.BLOCK) {
+                    try {
+                        isQueued = queue.offer(queuedMessage, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else {
+                    isQueued = queue.offer(queuedMessage);
+                }
+            }
+
+            if (isQueued) {
+                queuedCount.incrementAndGet();
+            } else if (queueFullPolicy != QueueFullPolicy.DROP && spillFile != null) {
+                List<String> msgJsons = new ArrayList<>();
+
+                AbstractNotification.createNotificationMessages(message, msgJsons);
+
+                spill(msgJsons);
+            } else {
+                long count = droppedCount.incrementAndGet();
+
+                if (count == 1 || count % 1000 == 0) {
+                    LOG.warn("Hook notification queue is full: message dropped. Total dropped messages: {}", count);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of messages queued, sent, failed after retries, spilled and dropped so far
+     */
+    Map<String, Long> getCounters() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put("queued", queuedCount.get());
+        ret.put("sent", sentCount.get());
+        ret.put("failed", failedCount.get());
+        ret.put("spilled", spilledCount.get());
+        ret.put("dropped", droppedCount.get());
+
+        return ret;
+    }
+
+    private void sendBatch(final SendBatch batch) {
+        batch.attempts++;
+
+        inFlightBatches.incrementAndGet();
+
+        notificationInterface.sendAsync(NotificationType.HOOK, batch.messages, new SendCallback() {
+            @Override
+            public void onCompletion(NotificationException exception) {
+                try {
+                    onBatchCompletion(batch, exception);
+                } finally {
+                    inFlightBatches.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // called from threads of the messaging system: must not block
+    private void onBatchCompletion(SendBatch batch, NotificationException exception) {
+        if (exception == null) {
+            sentCount.addAndGet(batch.messages.size());
+
+            isAvailable = true;
+
+            return;
+        }
+
+        List<String> failedMessages = exception.getFailedMessages() != null && !exception.getFailedMessages().isEmpty() ? exception.getFailedMessages() : batch.messages;
+
+        sentCount.addAndGet(batch.messages.size() - failedMessages.size());
+
+        isAvailable = false;
+
+        if (batch.attempts < batch.maxRetries && System.currentTimeMillis() < shutdownDeadline) {
+            LOG.error("Failed to send {} notifications - attempt #{}; error={}", failedMessages.size(), batch.attempts, exception.getMessage());
+
+            retryBatches.add(new SendBatch(failedMessages, batch.maxRetries, batch.attempts, System.currentTimeMillis() + retryIntervalMs));
+        } else {
+            failedCount.addAndGet(failedMessages.size());
+
+            if (spillFile != null) {
+                spill(failedMessages);
+            } else {
+                if (failedMessagesLogger != null) {
+                    for (String msg : failedMessages) {
+                        failedMessagesLogger.log(msg);
+                    }
+                }
+
+                LOG.error("Failed to send {} notifications after {} attempts. Quitting", failedMessages.size(), batch.attempts, exception);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void spill(List<String> messages) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile, true), StandardCharsets.UTF_8))) {
+                for (String message : messages) {
+                    writer.write(toSpillLine(message));
+                    writer.newLine();
+                }
+
+                spilledCount.addAndGet(messages.size());
+            } catch (IOException e) {
+                LOG.error("Failed to write {} notifications to spill file {}", messages.size(), spillFile, e);
+
+                if (failedMessagesLogger != null) {
+                    for (String msg : messages) {
+                        failedMessagesLogger.log(msg);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the next batch of spilled messages, if any; spilled messages are sent only while sends are succeeding.
+     * The spill file is renamed before being read, so that messages that fail again are spilled to a new file. If the
+     * process stops before the renamed file is completely read, the file is read from the beginning on next start.
+     */
+    private void replaySpilledMessages() throws IOException {
+        if (spillFile == null || !isAvailable) {
+            return;
+        }
+
+        if (replayReader == null) {
+            synchronized (spillLock) {
+                if (!replayFile.exists()) {
+                    if (spillFile.length() == 0 || !spillFile.renameTo(replayFile)) {
+                        return;
+                    }
+                }
+            }
+
+            LOG.info("Sending notifications from spill file {}", replayFile);
+
+            replayReader = new BufferedReader(new InputStreamReader(new FileInputStream(replayFile), StandardCharsets.UTF_8));
+        }
+
+        List<String> messages = new ArrayList<>(batchSize);
+        boolean      isEof    = false;
+
+        while (messages.size() < batchSize) {
+            String line = replayReader.readLine();
+
+            if (line == null) {
+                isEof = true;
+
+                break;
+            }
+
+            if (!line.isEmpty()) {
+                messages.add(fromSpillLine(line));
+            }
+        }
+
+        if (isEof) {
+            replayReader.close();
+
+            replayReader = null;
+
+            if (!replayFile.delete()) {
+                LOG.warn("Failed to delete {}", replayFile);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            sendBatch(new SendBatch(messages, 1, 0, 0)); // on failure, messages are spilled again
+        }
+    }
+
+    // Smile messages hold one char per byte
+    private static String toSpillLine(String message) {
+        if (AtlasType.isV1Smile(message)) {
+            return SMILE_SPILL_PREFIX + Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        return message;
+    }
+
+    private static String fromSpillLine(String line) {
+        if (line.startsWith(SMILE_SPILL_PREFIX)) {
+            return new String(Base64.getDecoder().decode(line.substring(SMILE_SPILL_PREFIX.length())), StandardCharsets.ISO_8859_1);
+        }
+
+        return line;
+    }
+
+    private void sendDueRetries() {
+        long now = System.currentTimeMillis();
+
+        for (int count = retryBatches.size(); count > 0; count--) {
+            SendBatch batch = retryBatches.poll();
+
+            if (batch == null) {
+                break;
+            }
+
+            if (batch.nextAttemptTime <= now) {
+                sendBatch(batch);
+            } else {
+                retryBatches.add(batch);
+            }
+        }
+    }
+
+    private boolean isDone() {
+        if (!isStopped) {
+            return false;
+        }
+
+        if (System.currentTimeMillis() >= shutdownDeadline) {
+            return true;
+        }
+
+        return queue.isEmpty() && retryBatches.isEmpty() && inFlightBatches.get() == 0;
+    }
+
+    // spills messages left in queue at shutdown
+    private void spillRemaining() {
+        List<String> messages = new ArrayList<>();
+
+        for (QueuedMessage queuedMessage = queue.poll(); queuedMessage != null; queuedMessage = queue.poll()) {
+            AbstractNotification.createNotificationMessages(queuedMessage.message, messages);
+        }
+
+        for (SendBatch batch = retryBatches.poll(); batch != null; batch = retryBatches.poll()) {
+            messages.addAll(batch.messages);
+        }
+
+        if (!messages.isEmpty()) {
+            if (spillFile != null) {
+                spill(messages);
+            } else {
+                droppedCount.addAndGet(messages.size());
+
+                LOG.error("{} notifications not sent before shutdown", messages.size());
+            }
+        }
+    }
+
+    private class Sender implements Runnable {
+        @Override
+        public void run() {
+            List<QueuedMessage> queuedMessages = new ArrayList<>(batchSize);
+
+            while (!isDone()) {
+                try {
+                    sendDueRetries();
+
+                    if (!isStopped) {
+                        replaySpilledMessages();
+                    }
+
+                    QueuedMessage first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+                    if (first == null) {
+                        continue;
+                    }
+
+                    queuedMessages.add(first);
+
+                    queue.drainTo(queuedMessages, batchSize - 1);
+
+                    List<String> messages   = new ArrayList<>(queuedMessages.size());
+                    int          maxRetries = 0;
+
+                    for (QueuedMessage queuedMessage : queuedMessages) {
+                        AbstractNotification.createNotificationMessages(queuedMessage.message, messages);
+
+                        maxRetries = Math.max(maxRetries, queuedMessage.maxRetries);
+                    }
+
+                    sendBatch(new SendBatch(messages, maxRetries, 0, 0));
+                } catch (InterruptedException e) {
+                    LOG.info("Hook notification sender interrupted");
+
+                    break;
+                } catch (Throwable t) {
+                    LOG.error("Hook notification sender: failed to send {} messages", queuedMessages.size(), t);
+
+                    failedCount.addAndGet(queuedMessages.size());
+                } finally {
+                    queuedMessages.clear();
+                }
+            }
+
+            spillRemaining();
+
+            if (replayReader != null) {
+                try {
+                    replayReader.close();
+                } catch (IOException e) {
+                    LOG.warn("Failed to close {}", replayFile, e);
+                }
+            }
+        }
+    }
+
+    private static class QueuedMessage {
+        final HookNotification message;
+        final int              maxRetries;
+
+        QueuedMessage(HookNotification message, int maxRetries) {
+            this.message    = message;
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    private static class SendBatch {
+        final List<String> messages;
+        final int          maxRetries;
+        final long         nextAttemptTime;
+        int                attempts;
+
+        SendBatch(List<String> messages, int maxRetries, int attempts, long nextAttemptTime) {
+            this.messages        = messages;
+            this.maxRetries      = maxRetries;
+            this.attempts        = attempts;
+            this.nextAttemptTime = nextAttemptTime;
+        }
+    }
+}
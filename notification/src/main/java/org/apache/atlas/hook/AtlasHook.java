@@ -33,9 +33,12 @@ import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -60,6 +63,17 @@ public abstract class AtlasHook {
     public static final String ATLAS_NOTIFICATION_LOG_FAILED_MESSAGES_ENABLED_KEY =
             "atlas.notification.log.failed.messages";
 
+    public static final String ATLAS_NOTIFICATION_ASYNCHRONOUS                 = "atlas.notification.hook.asynchronous";
+    public static final String ATLAS_NOTIFICATION_ASYNC_QUEUE_SIZE             = "atlas.notification.hook.async.queue.size";
+    public static final String ATLAS_NOTIFICATION_ASYNC_BATCH_SIZE             = "atlas.notification.hook.async.batch.size";
+    public static final String ATLAS_NOTIFICATION_ASYNC_QUEUE_FULL_POLICY      = "atlas.notification.hook.async.queue.full.policy";
+    public static final String ATLAS_NOTIFICATION_ASYNC_BLOCK_TIMEOUT_MS       = "atlas.notification.hook.async.block.timeout.ms";
+    public static final String ATLAS_NOTIFICATION_ASYNC_SPILL_FILE             = "atlas.notification.hook.async.spill.file";
+    public static final String ATLAS_NOTIFICATION_ASYNC_SHUTDOWN_TIMEOUT_MS    = "atlas.notification.hook.async.shutdown.timeout.ms";
+    public static final String ATLAS_HOOK_SPILL_FILE_DEFAULT_NAME              = "atlas_hook_spilled_messages.json";
+
+    private static AsyncNotificationSender asyncSender;
+
     static {
         try {
             atlasProperties = ApplicationProperties.get();
@@ -94,6 +108,10 @@ public abstract class AtlasHook {
 
         notificationInterface.setCurrentUser(currentUser);
 
+        if (atlasProperties.getBoolean(ATLAS_NOTIFICATION_ASYNCHRONOUS, false)) {
+            startAsyncSender();
+        }
+
         LOG.info("Created Atlas Hook");
     }
 
@@ -115,7 +133,21 @@ public abstract class AtlasHook {
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification> messages, int maxRetries) {
-        notifyEntitiesInternal(messages, maxRetries, notificationInterface, logFailedMessages, failedMessagesLogger);
+        if (asyncSender != null) {
+            if (messages != null && !messages.isEmpty()) {
+                asyncSender.send(messages, maxRetries);
+            }
+        } else {
+            notifyEntitiesInternal(messages, maxRetries, notificationInterface, logFailedMessages, failedMessagesLogger);
+        }
+    }
+
+    /**
+     * @return number of messages queued, sent, failed, spilled and dropped by the asynchronous sender; empty if
+     *         notifications are sent synchronously
+     */
+    public static Map<String, Long> getAsyncNotificationCounters() {
+        return asyncSender != null ? asyncSender.getCounters() : Collections.<String, Long>emptyMap();
     }
 
     @VisibleForTesting
@@ -126,7 +158,6 @@ public abstract class AtlasHook {
             return;
         }
 
-        final String message = messages.toString();
         int numRetries = 0;
         while (true) {
             try {
@@ -151,7 +182,7 @@ public abstract class AtlasHook {
                         }
                     }
                     LOG.error("Failed to notify atlas for entity {} after {} retries. Quitting",
-                            message, maxRetries, e);
+                            messages, maxRetries, e);
                     return;
                 }
             }
@@ -215,6 +246,40 @@ public abstract class AtlasHook {
         }
     }
 
+    private static void startAsyncSender() {
+        int        queueSize         = atlasProperties.getInt(ATLAS_NOTIFICATION_ASYNC_QUEUE_SIZE, 10000);
+        int        batchSize         = atlasProperties.getInt(ATLAS_NOTIFICATION_ASYNC_BATCH_SIZE, 100);
+        String     queueFullPolicy   = atlasProperties.getString(ATLAS_NOTIFICATION_ASYNC_QUEUE_FULL_POLICY, AsyncNotificationSender.QueueFullPolicy.BLOCK.name());
+        long       blockTimeoutMs    = atlasProperties.getLong(ATLAS_NOTIFICATION_ASYNC_BLOCK_TIMEOUT_MS, 1000);
+        String     spillFileName     = atlasProperties.getString(ATLAS_NOTIFICATION_ASYNC_SPILL_FILE, ATLAS_HOOK_SPILL_FILE_DEFAULT_NAME);
+        final long shutdownTimeoutMs = atlasProperties.getLong(ATLAS_NOTIFICATION_ASYNC_SHUTDOWN_TIMEOUT_MS, 10000);
+        File       spillFile         = null;
+
+        if (StringUtils.isNotEmpty(spillFileName)) {
+            spillFile = new File(spillFileName);
+
+            if (!spillFile.isAbsolute()) {
+                spillFile = new File(System.getProperty("java.io.tmpdir"), spillFileName);
+            }
+        }
+
+        asyncSender = new AsyncNotificationSender(notificationInterface, queueSize, batchSize,
+                                                  AsyncNotificationSender.QueueFullPolicy.valueOf(queueFullPolicy.toUpperCase()),
+                                                  blockTimeoutMs, notificationRetryInterval, spillFile, failedMessagesLogger);
+
+        asyncSender.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread("atlas-hook-notification-sender-shutdown") {
+            @Override
+            public void run() {
+                asyncSender.stop(shutdownTimeoutMs);
+            }
+        });
+
+        LOG.info("Hook notifications will be sent asynchronously: queueSize={}, batchSize={}, queueFullPolicy={}, spillFile={}",
+                 queueSize, batchSize, queueFullPolicy, spillFile);
+    }
+
     private static boolean isLoginKeytabBased() {
         boolean ret = false;
 
@@ -75,7 +75,13 @@ public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
                             record.topic(), record.partition(), record.offset(), record.key(), record.value());
                 }
 
-                T message = deserializer.deserialize(record.value().toString());
+                final T message;
+
+                if (record.value() instanceof byte[]) {
+                    message = deserializer.deserialize((byte[]) record.value());
+                } else {
+                    message = deserializer.deserialize(record.value().toString());
+                }
 
                 if (message == null) {
                     continue;
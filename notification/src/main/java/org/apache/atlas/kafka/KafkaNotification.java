@@ -28,6 +28,7 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationConverter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -42,6 +43,7 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Kafka specific access point to the Atlas notification framework.
@@ -90,9 +92,9 @@ public class KafkaNotification extends AbstractNotification implements Service {
 
         //Override default configs
         properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
-        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, NotificationMessageSerializer.class.getName());
         properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArrayDeserializer");
         properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
         boolean oldApiCommitEnableFlag = kafkaConf.getBoolean("auto.commit.enable", false);
@@ -222,6 +224,45 @@ public class KafkaNotification extends AbstractNotification implements Service {
     }
 
 
+    @Override
+    protected void sendInternalAsync(NotificationType type, List<String> messages, SendCallback callback) {
+        try {
+            if (producer == null) {
+                createProducer();
+            }
+
+            sendInternalToProducerAsync(producer, type, messages, callback);
+        } catch (Exception e) {
+            callback.onCompletion(new NotificationException(e, messages));
+        }
+    }
+
+    @VisibleForTesting
+    void sendInternalToProducerAsync(Producer p, NotificationType type, List<String> messages, SendCallback callback) {
+        if (messages.isEmpty()) {
+            callback.onCompletion(null);
+
+            return;
+        }
+
+        String       topic   = TOPIC_MAP.get(type);
+        BatchContext context = new BatchContext(messages.size(), callback);
+
+        for (final String message : messages) {
+            ProducerRecord record = new ProducerRecord(topic, message);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Sending message for topic {}: {}", topic, message);
+            }
+
+            try {
+                p.send(record, context.newCallback(message));
+            } catch (Exception e) { // send() throws when metadata isn't available within max.block.ms, or the producer is closed
+                context.onCompletion(message, e);
+            }
+        }
+    }
+
     public KafkaConsumer getKafkaConsumer(Properties consumerProperties, NotificationType type, boolean autoCommitEnabled) {
         if(this.consumer == null) {
             try {
@@ -285,4 +326,54 @@ public class KafkaNotification extends AbstractNotification implements Service {
             return message;
         }
     }
+
+    /**
+     * Tracks completion of messages sent in a sendAsync() call; the callback is invoked after the last message completes.
+     */
+    private static class BatchContext {
+        private final AtomicInteger pending;
+        private final SendCallback  callback;
+        private final List<String>  failedMessages = new ArrayList<>();
+        private       Exception     lastFailureException;
+
+        BatchContext(int count, SendCallback callback) {
+            this.pending  = new AtomicInteger(count);
+            this.callback = callback;
+        }
+
+        Callback newCallback(final String message) {
+            return new Callback() {
+                @Override
+                public void onCompletion(RecordMetadata response, Exception exception) {
+                    if (exception == null && LOG.isDebugEnabled()) {
+                        LOG.debug("Sent message for topic - {}, partition - {}, offset - {}", response.topic(), response.partition(), response.offset());
+                    }
+
+                    BatchContext.this.onCompletion(message, exception);
+                }
+            };
+        }
+
+        void onCompletion(String message, Exception exception) {
+            if (exception != null) {
+                synchronized (failedMessages) {
+                    failedMessages.add(message);
+
+                    lastFailureException = exception;
+                }
+            }
+
+            if (pending.decrementAndGet() == 0) {
+                NotificationException failure = null;
+
+                synchronized (failedMessages) {
+                    if (lastFailureException != null) {
+                        failure = new NotificationException(lastFailureException, new ArrayList<>(failedMessages));
+                    }
+                }
+
+                callback.onCompletion(failure);
+            }
+        }
+    }
 }
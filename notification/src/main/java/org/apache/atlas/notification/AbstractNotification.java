@@ -23,6 +23,7 @@ import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.notification.AtlasNotificationMessage;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MessageFormat;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.model.notification.MessageVersion;
 import org.apache.commons.configuration.Configuration;
@@ -32,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.net.Inet4Address;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -39,6 +41,7 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MESSAGE_COMPRESSION_ENABLED;
+import static org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MESSAGE_FORMAT;
 import static org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MESSAGE_MAX_LENGTH_BYTES;
 
 /**
@@ -94,6 +97,11 @@ public abstract class AbstractNotification implements NotificationInterface {
         send(type, Arrays.asList(messages));
     }
 
+    @Override
+    public void sendAsync(NotificationType type, List<String> messages, SendCallback callback) {
+        sendInternalAsync(type, messages, callback);
+    }
+
     @Override
     public void setCurrentUser(String user) {
         currentUser = user;
@@ -110,6 +118,27 @@ public abstract class AbstractNotification implements NotificationInterface {
      */
     protected abstract void sendInternal(NotificationType type, List<String> messages) throws NotificationException;
 
+    /**
+     * Send the given messages without waiting for them to be delivered. Sends synchronously, unless overridden.
+     *
+     * @param type      the message type
+     * @param messages  the array of messages to send
+     * @param callback  callback to be notified of completion
+     */
+    protected void sendInternalAsync(NotificationType type, List<String> messages, SendCallback callback) {
+        NotificationException failure = null;
+
+        try {
+            sendInternal(type, messages);
+        } catch (NotificationException e) {
+            failure = e;
+        } catch (Exception e) {
+            failure = new NotificationException(e, messages);
+        }
+
+        callback.onCompletion(failure);
+    }
+
 
     // ----- utility methods -------------------------------------------------
 
@@ -145,6 +174,33 @@ public abstract class AbstractNotification implements NotificationInterface {
      * @return the message as a JSON string
      */
     public static void createNotificationMessages(Object message, List<String> msgJsonList) {
+        createNotificationMessages(message, msgJsonList, MESSAGE_FORMAT);
+    }
+
+    /**
+     * Get the notification messages, in the given format, for the given object. Large messages are compressed and/or
+     * split into multiple messages.
+     *
+     * @param message  the message in object form
+     * @param msgList  list to add the messages to
+     * @param format   format of the messages; Smile messages are added as strings with one char per byte
+     */
+    public static void createNotificationMessages(Object message, List<String> msgList, MessageFormat format) {
+        if (format == MessageFormat.SMILE) {
+            createSmileNotificationMessages(message, msgList);
+        } else {
+            createJsonNotificationMessages(message, msgList);
+        }
+    }
+
+    /**
+     * @return bytes of the given message, created by createNotificationMessages(): UTF-8 encoded for JSON messages
+     */
+    public static byte[] getMessageBytes(String message) {
+        return AtlasType.isV1Smile(message) ? message.getBytes(StandardCharsets.ISO_8859_1) : AtlasNotificationBaseMessage.getBytesUtf8(message);
+    }
+
+    private static void createJsonNotificationMessages(Object message, List<String> msgJsonList) {
         AtlasNotificationMessage<?> notificationMsg = new AtlasNotificationMessage<>(CURRENT_MESSAGE_VERSION, message, getHostAddress(), getCurrentUser());
         String                      msgJson         = AtlasType.toV1Json(notificationMsg);
 
@@ -214,6 +270,51 @@ public abstract class AbstractNotification implements NotificationInterface {
         }
     }
 
+    // compressed and split messages carry the bytes as-is; unlike JSON messages, these are not base64 encoded
+    private static void createSmileNotificationMessages(Object message, List<String> msgList) {
+        AtlasNotificationMessage<?> notificationMsg = new AtlasNotificationMessage<>(CURRENT_MESSAGE_VERSION, message, getHostAddress(), getCurrentUser());
+        byte[]                      msgBytes        = AtlasType.toV1Smile(notificationMsg);
+
+        if (msgBytes.length <= MESSAGE_MAX_LENGTH_BYTES) {
+            msgList.add(new String(msgBytes, StandardCharsets.ISO_8859_1));
+
+            return;
+        }
+
+        String          msgId           = getNextMessageId();
+        CompressionKind compressionKind = CompressionKind.NONE;
+
+        if (MESSAGE_COMPRESSION_ENABLED) {
+            byte[] compressedBytes = AtlasNotificationBaseMessage.gzipCompress(msgBytes);
+
+            LOG.info("Compressed large message: msgID={}, uncompressed={} bytes, compressed={} bytes", msgId, msgBytes.length, compressedBytes.length);
+
+            compressionKind = CompressionKind.GZIP;
+            msgBytes        = compressedBytes;
+        }
+
+        int splitCount = msgBytes.length / MESSAGE_MAX_LENGTH_BYTES;
+
+        if ((msgBytes.length % MESSAGE_MAX_LENGTH_BYTES) != 0) {
+            splitCount++;
+        }
+
+        for (int i = 0, offset = 0; i < splitCount; i++) {
+            int    length     = Math.min(MESSAGE_MAX_LENGTH_BYTES, msgBytes.length - offset);
+            byte[] splitBytes = splitCount == 1 ? msgBytes : Arrays.copyOfRange(msgBytes, offset, offset + length);
+
+            AtlasNotificationStringMessage splitMsg = new AtlasNotificationStringMessage(msgId, compressionKind, i, splitCount, splitBytes);
+
+            msgList.add(new String(AtlasType.toV1Smile(splitMsg), StandardCharsets.ISO_8859_1));
+
+            offset += length;
+        }
+
+        if (splitCount > 1) {
+            LOG.info("Split large message: msgID={}, splitCount={}, length={} bytes", msgId, splitCount, msgBytes.length);
+        }
+    }
+
     private static String getNextMessageId() {
         String nextMsgIdPrefix = msgIdPrefix;
         int    nextMsgIdSuffix = msgIdSuffix.getAndIncrement();
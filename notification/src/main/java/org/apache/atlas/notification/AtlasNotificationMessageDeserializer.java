@@ -19,7 +19,6 @@
 package org.apache.atlas.notification;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationMessage;
@@ -30,13 +29,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES;
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS;
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_MAX_BYTES;
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS;
 
 /**
@@ -56,12 +56,11 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     private final Logger                                     notificationLogger;
 
 
-    private final Map<String, SplitMessageAggregator> splitMsgBuffer = new HashMap<>();
-    private final long                                splitMessageBufferPurgeIntervalMs;
-    private final long                                splitMessageSegmentsWaitTimeMs;
-    private long                                      splitMessagesLastPurgeTime    = System.currentTimeMillis();
-    private final AtomicLong                          messageCountTotal             = new AtomicLong(0);
-    private final AtomicLong                          messageCountSinceLastInterval = new AtomicLong(0);
+    private final SplitMessageBuffer splitMsgBuffer;
+    private final long               splitMessageBufferPurgeIntervalMs;
+    private long                     splitMessagesLastPurgeTime    = System.currentTimeMillis();
+    private final AtomicLong         messageCountTotal             = new AtomicLong(0);
+    private final AtomicLong         messageCountSinceLastInterval = new AtomicLong(0);
     // ----- Constructors ----------------------------------------------------
 
     /**
@@ -84,11 +83,22 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
                                                 Logger notificationLogger,
                                                 long splitMessageSegmentsWaitTimeMs,
                                                 long splitMessageBufferPurgeIntervalMs) {
+        this(messageType, notificationMessageType, expectedVersion, notificationLogger,
+             new SplitMessageBuffer(NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES.getLong(), NOTIFICATION_SPLIT_MESSAGE_MAX_BYTES.getLong(), splitMessageSegmentsWaitTimeMs),
+             splitMessageBufferPurgeIntervalMs);
+    }
+
+    public AtlasNotificationMessageDeserializer(TypeReference<T> messageType,
+                                                TypeReference<AtlasNotificationMessage<T>> notificationMessageType,
+                                                MessageVersion expectedVersion,
+                                                Logger notificationLogger,
+                                                SplitMessageBuffer splitMsgBuffer,
+                                                long splitMessageBufferPurgeIntervalMs) {
         this.messageType                       = messageType;
         this.notificationMessageType           = notificationMessageType;
         this.expectedVersion                   = expectedVersion;
         this.notificationLogger                = notificationLogger;
-        this.splitMessageSegmentsWaitTimeMs    = splitMessageSegmentsWaitTimeMs;
+        this.splitMsgBuffer                    = splitMsgBuffer;
         this.splitMessageBufferPurgeIntervalMs = splitMessageBufferPurgeIntervalMs;
     }
 
@@ -100,179 +110,155 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
         return notificationMessageType;
     }
 
+    public Map<String, Long> getSplitMessageMetrics() {
+        return splitMsgBuffer.getMetrics();
+    }
+
     // ----- MessageDeserializer ---------------------------------------------
     @Override
     public T deserialize(String messageJson) {
-        final T ret;
-
-        messageCountTotal.incrementAndGet();
-        messageCountSinceLastInterval.incrementAndGet();
-
-        AtlasNotificationBaseMessage msg = AtlasType.fromV1Json(messageJson, AtlasNotificationBaseMessage.class);
-
-        if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
-            ret = AtlasType.fromV1Json(messageJson, messageType);
-        } else  {
-            String msgJson = messageJson;
-
-            if (msg.getMsgSplitCount() > 1) { // multi-part message
-                AtlasNotificationStringMessage splitMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
-
-                checkVersion(splitMsg, msgJson);
-
-                String msgId = splitMsg.getMsgId();
+        return deserializeJson(messageJson);
+    }
 
-                if (StringUtils.isEmpty(msgId)) {
-                    LOG.error("Received multi-part message with no message ID. Ignoring message");
+    @Override
+    public T deserialize(byte[] messageBytes) {
+        if (!AtlasType.isV1Smile(messageBytes)) {
+            return deserializeJson(AtlasNotificationBaseMessage.getStringUtf8(messageBytes));
+        }
 
-                    msg = null;
-                } else {
-                    final int splitIdx   = splitMsg.getMsgSplitIdx();
-                    final int splitCount = splitMsg.getMsgSplitCount();
+        onMessageReceived();
 
-                    final SplitMessageAggregator splitMsgs;
+        AtlasNotificationBaseMessage msg = readNotificationMessage(messageBytes, false, CompressionKind.NONE);
+        final T                      ret;
 
-                    if (splitIdx == 0) {
-                        splitMsgs = new SplitMessageAggregator(splitMsg);
+        if (msg == null || msg.getVersion() == null) {
+            LOG.error("Received Smile message of {} bytes with no version. Ignoring message", messageBytes.length);
 
-                        splitMsgBuffer.put(splitMsgs.getMsgId(), splitMsgs);
-                    } else {
-                        splitMsgs = splitMsgBuffer.get(msgId);
-                    }
+            ret = null;
+        } else {
+            ret = getMessage(msg, "(Smile message of " + messageBytes.length + " bytes)");
+        }
 
-                    if (splitMsgs == null) {
-                        LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
+        purgeStaleMessagesIfNeeded();
 
-                        msg = null;
-                    } else if (splitMsgs.getTotalSplitCount() <= splitIdx) {
-                        LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
+        return ret;
+    }
 
-                        msg = null;
-                    } else {
-                        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
+    private T deserializeJson(String messageJson) {
+        final T ret;
 
-                        boolean isReady = splitMsgs.add(splitMsg);
+        onMessageReceived();
 
-                        if (isReady) { // last message
-                            splitMsgBuffer.remove(msgId);
+        // envelope and message are read in a single pass; the message is bound to messageType only for messages that are not split/compressed
+        AtlasNotificationBaseMessage msg = AtlasType.fromV1NotificationJson(messageJson, messageType);
 
-                            boolean isValidMessage = true;
+        if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
+            ret = AtlasType.fromV1Json(messageJson, messageType);
+        } else  {
+            ret = getMessage(msg, messageJson);
+        }
 
-                            StringBuilder sb = new StringBuilder();
+        purgeStaleMessagesIfNeeded();
 
-                            for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
-                                splitMsg = splitMsgs.get(i);
+        return ret;
+    }
 
-                                if (splitMsg == null) {
-                                    LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
+    // returns the message from the given notification message; for split/compressed messages, after reassembly/uncompression
+    private T getMessage(AtlasNotificationBaseMessage msg, String messageJson) {
+        final T ret;
 
-                                    isValidMessage = false;
+        if (msg.getMsgSplitCount() > 1 && msg instanceof AtlasNotificationStringMessage) { // multi-part message
+            AtlasNotificationStringMessage splitMsg = (AtlasNotificationStringMessage) msg;
 
-                                    break;
-                                }
+            checkVersion(splitMsg, messageJson);
 
-                                sb.append(splitMsg.getMessage());
-                            }
+            String msgId = splitMsg.getMsgId();
 
-                            if (isValidMessage) {
-                                msgJson = sb.toString();
+            if (StringUtils.isEmpty(msgId)) {
+                LOG.error("Received multi-part message with no message ID. Ignoring message");
 
-                                if (CompressionKind.GZIP.equals(splitMsg.getMsgCompressionKind())) {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+                msg = null;
+            } else {
+                SplitMessageAggregator splitMsgs = splitMsgBuffer.add(splitMsg, System.currentTimeMillis());
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+                if (splitMsgs != null) { // last message
+                    int missingSplitIdx = splitMsgs.getFirstMissingSplitIdx();
 
-                                    LOG.info("Received msgID={}: splitCount={}, compressed={} bytes, uncompressed={} bytes", msgId, splitCount, encodedBytes.length, bytes.length);
-                                } else {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64(encodedBytes);
+                    if (missingSplitIdx != -1) {
+                        LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, missingSplitIdx + 1, splitMsgs.getTotalSplitCount());
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+                        msg = null;
+                    } else {
+                        byte[] encodedBytes = splitMsgs.getEncodedBytes();
 
-                                    LOG.info("Received msgID={}: splitCount={}, length={} bytes", msgId, splitCount, bytes.length);
-                                }
+                        msg = readNotificationMessage(encodedBytes, !splitMsgs.isBinary(), splitMsgs.getCompressionKind());
 
-                                msg = AtlasType.fromV1Json(msgJson, AtlasNotificationBaseMessage.class);
-                            } else {
-                                msg = null;
-                            }
-                        } else { // more messages to arrive
-                            msg = null;
-                        }
+                        LOG.info("Received msgID={}: splitCount={}, compressionKind={}, length={} bytes", msgId, splitMsgs.getTotalSplitCount(), splitMsgs.getCompressionKind(), encodedBytes.length);
                     }
+                } else { // more messages to arrive, or the split was ignored
+                    msg = null;
                 }
             }
+        } else if (msg instanceof AtlasNotificationStringMessage && CompressionKind.GZIP.equals(msg.getMsgCompressionKind())) {
+            AtlasNotificationStringMessage compressedMsg = (AtlasNotificationStringMessage) msg;
 
-            if (msg != null) {
-                if (CompressionKind.GZIP.equals(msg.getMsgCompressionKind())) {
-                    AtlasNotificationStringMessage compressedMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
-
-                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(compressedMsg.getMessage());
-                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+            boolean isBinary     = compressedMsg.getMessageBytes() != null;
+            byte[]  encodedBytes = isBinary ? compressedMsg.getMessageBytes() : AtlasNotificationBaseMessage.getBytesUtf8(compressedMsg.getMessage());
 
-                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+            msg = readNotificationMessage(encodedBytes, !isBinary, CompressionKind.GZIP);
 
-                    LOG.info("Received msgID={}: compressed={} bytes, uncompressed={} bytes", compressedMsg.getMsgId(), encodedBytes.length, bytes.length);
-                }
+            LOG.info("Received msgID={}: compressed={} bytes", compressedMsg.getMsgId(), encodedBytes.length);
+        }
 
-                AtlasNotificationMessage<T> atlasNotificationMessage = AtlasType.fromV1Json(msgJson, notificationMessageType);
+        if (msg instanceof AtlasNotificationMessage) {
+            AtlasNotificationMessage<T> atlasNotificationMessage = (AtlasNotificationMessage<T>) msg;
 
-                checkVersion(atlasNotificationMessage, msgJson);
+            checkVersion(atlasNotificationMessage, messageJson);
 
-                ret = atlasNotificationMessage.getMessage();
-            } else {
-                ret = null;
+            ret = atlasNotificationMessage.getMessage();
+        } else {
+            if (msg != null) {
+                LOG.error("Received msgID={}: unexpected message content. Ignoring message", msg.getMsgId());
             }
+
+            ret = null;
         }
 
+        return ret;
+    }
+
+    private void onMessageReceived() {
+        messageCountTotal.incrementAndGet();
+        messageCountSinceLastInterval.incrementAndGet();
+    }
 
+    private void purgeStaleMessagesIfNeeded() {
         long now                = System.currentTimeMillis();
         long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
 
         if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
-            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
+            splitMsgBuffer.purgeExpired(now);
 
-            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0));
+            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}, splitMessages={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0), splitMsgBuffer.getMetrics());
 
             splitMessagesLastPurgeTime = now;
         }
-
-        return ret;
     }
 
-    @VisibleForTesting
-    static void purgeStaleMessages(Map<String, SplitMessageAggregator> splitMsgBuffer, long now, long maxWaitTime) {
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("==> purgeStaleMessages(bufferedMessageCount=" + splitMsgBuffer.size() + ")");
-        }
-
-        List<SplitMessageAggregator> evictionList = null;
+    // decodes the message from the reassembled/compressed bytes as a stream - without creating intermediate Strings
+    private AtlasNotificationBaseMessage readNotificationMessage(byte[] bytes, boolean isBase64Encoded, CompressionKind compressionKind) {
+        AtlasNotificationBaseMessage ret;
 
-        for (SplitMessageAggregator aggregrator : splitMsgBuffer.values()) {
-            long waitTime = now - aggregrator.getFirstSplitTimestamp();
+        try (InputStream stream = isBase64Encoded ? AtlasNotificationBaseMessage.getDecodedStream(bytes, compressionKind)
+                                                  : AtlasNotificationBaseMessage.getUncompressedStream(bytes, compressionKind)) {
+            ret = AtlasType.fromV1Notification(stream, messageType);
+        } catch (IOException e) {
+            LOG.error("failed to read notification message of {} bytes, compressionKind={}", bytes.length, compressionKind, e);
 
-            if (waitTime < maxWaitTime) {
-                continue;
-            }
-
-            if(evictionList == null) {
-                evictionList = new ArrayList<>();
-            }
-
-             evictionList.add(aggregrator);
+            ret = null;
         }
 
-        if(evictionList != null) {
-            for (SplitMessageAggregator aggregrator : evictionList) {
-                LOG.error("evicting notification msgID={}, totalSplitCount={}, receivedSplitCount={}", aggregrator.getMsgId(), aggregrator.getTotalSplitCount(), aggregrator.getReceivedSplitCount());
-                splitMsgBuffer.remove(aggregrator.getMsgId());
-            }
-        }
-
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("<== purgeStaleMessages(bufferedMessageCount=" + splitMsgBuffer.size() + ")");
-        }
+        return ret;
     }
 
     // ----- helper methods --------------------------------------------------
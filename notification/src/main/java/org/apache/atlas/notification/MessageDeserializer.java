@@ -30,4 +30,13 @@ public interface MessageDeserializer<T> {
      * @return  the message deserialized from the given JSON
      */
     T deserialize(String json);
+
+    /**
+     * Get a message of type T from the given message bytes - UTF-8 encoded JSON, or Smile.
+     *
+     * @param bytes  the message bytes
+     *
+     * @return  the message deserialized from the given bytes
+     */
+    T deserialize(byte[] bytes);
 }
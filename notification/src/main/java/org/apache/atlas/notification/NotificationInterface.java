@@ -59,6 +59,16 @@ public interface NotificationInterface {
         }
     }
 
+    /**
+     * Callback for sendAsync().
+     */
+    interface SendCallback {
+        /**
+         * @param exception null if all messages were sent; otherwise the failure, with the messages that were not sent
+         */
+        void onCompletion(NotificationException exception);
+    }
+
     /**
      *
      * @param user Name of the user under which the processes is running
@@ -98,6 +108,16 @@ public interface NotificationInterface {
      */
     <T> void send(NotificationType type, List<T> messages) throws NotificationException;
 
+    /**
+     * Send the given messages, without waiting for them to be delivered. The callback is invoked once all messages
+     * are either delivered or failed, possibly from a thread of the messaging system; it must not block.
+     *
+     * @param type      the message type
+     * @param messages  serialized messages to send, as created by AbstractNotification.createNotificationMessages()
+     * @param callback  callback to be notified of completion
+     */
+    void sendAsync(NotificationType type, List<String> messages, SendCallback callback);
+
     /**
      * Shutdown any notification producers and consumers associated with this interface instance.
      */
@@ -18,54 +18,137 @@
 package org.apache.atlas.notification;
 
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits of a multi-part message received so far. Each split is held as raw bytes: the message bytes as-is for binary
+ * (Smile format) splits, and the base64 encoded string as single byte chars otherwise.
+ */
 public class SplitMessageAggregator {
-    private final String                           msgId;
-    private final AtlasNotificationStringMessage[] splitMessagesBuffer;
-    private final long                             firstSplitTimestamp;
+    private final String          msgId;
+    private final byte[][]        splits;
+    private final long            firstSplitTimestamp;
+    private       CompressionKind compressionKind;
+    private       boolean         isBinary;
+    private       int             receivedSplitCount = 0;
+    private       long            sizeBytes          = 0;
 
     public SplitMessageAggregator(AtlasNotificationStringMessage message) {
-        msgId               = message.getMsgId();
-        splitMessagesBuffer = new AtlasNotificationStringMessage[message.getMsgSplitCount()];
-        firstSplitTimestamp = System.currentTimeMillis();
+        this(message.getMsgId(), message.getMsgSplitCount(), System.currentTimeMillis());
 
         add(message);
     }
 
+    public SplitMessageAggregator(String msgId, int splitCount, long firstSplitTimestamp) {
+        this.msgId               = msgId;
+        this.splits              = new byte[splitCount][];
+        this.firstSplitTimestamp = firstSplitTimestamp;
+    }
+
     public String getMsgId() {
         return msgId;
     }
 
     public long getTotalSplitCount() {
-        return splitMessagesBuffer.length;
+        return splits.length;
     }
 
     public long getReceivedSplitCount() {
-        long ret = 0;
+        return receivedSplitCount;
+    }
+
+    public long getFirstSplitTimestamp() {
+        return firstSplitTimestamp;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public CompressionKind getCompressionKind() {
+        return compressionKind;
+    }
+
+    /**
+     * @return true if the splits carry the message bytes as-is (Smile format), instead of base64 encoded strings
+     */
+    public boolean isBinary() {
+        return isBinary;
+    }
+
+    /**
+     * @return true if the given split is the last one of the message
+     */
+    public boolean add(AtlasNotificationStringMessage message) {
+        int splitIdx = message.getMsgSplitIdx();
+
+        if (splitIdx >= 0 && splitIdx < splits.length) {
+            byte[] bytes = getSplitBytes(message);
 
-        for (AtlasNotificationStringMessage split : splitMessagesBuffer) {
-            if (split != null) {
-                ret++;
+            if (splitIdx == 0) {
+                compressionKind = message.getMsgCompressionKind();
+                isBinary        = message.getMessageBytes() != null;
             }
+
+            if (splits[splitIdx] != null) {
+                sizeBytes -= splits[splitIdx].length;
+            } else if (bytes != null) {
+                receivedSplitCount++;
+            }
+
+            if (bytes != null) {
+                sizeBytes += bytes.length;
+            }
+
+            splits[splitIdx] = bytes;
         }
 
-        return ret;
+        return splitIdx == (message.getMsgSplitCount() - 1);
     }
 
-    public long getFirstSplitTimestamp() {
-        return firstSplitTimestamp;
+    /**
+     * @return index of the first split not yet received; -1 if all splits are received
+     */
+    public int getFirstMissingSplitIdx() {
+        for (int i = 0; i < splits.length; i++) {
+            if (splits[i] == null) {
+                return i;
+            }
+        }
+
+        return -1;
     }
 
-    public boolean add(AtlasNotificationStringMessage message) {
-        if (message.getMsgSplitIdx() < splitMessagesBuffer.length) {
-            splitMessagesBuffer[message.getMsgSplitIdx()] = message;
+    /**
+     * @return the message reassembled from the splits in a single buffer - base64 encoded, unless isBinary(); null if a
+     * split is missing
+     */
+    public byte[] getEncodedBytes() {
+        if (getFirstMissingSplitIdx() != -1 || sizeBytes > Integer.MAX_VALUE) {
+            return null;
         }
 
-        return message.getMsgSplitIdx() == (message.getMsgSplitCount() - 1);
+        byte[] ret    = new byte[(int) sizeBytes];
+        int    offset = 0;
+
+        for (byte[] split : splits) {
+            System.arraycopy(split, 0, ret, offset, split.length);
+
+            offset += split.length;
+        }
+
+        return ret;
     }
 
-    public AtlasNotificationStringMessage get(int i) {
-        return splitMessagesBuffer[i];
+    private static byte[] getSplitBytes(AtlasNotificationStringMessage message) {
+        if (message.getMessageBytes() != null) {
+            return message.getMessageBytes();
+        }
+
+        // base64 encoded - every char is a single byte
+        return message.getMessage() != null ? message.getMessage().getBytes(StandardCharsets.ISO_8859_1) : null;
     }
 }
@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES;
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_MAX_BYTES;
+import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS;
+
+/**
+ * Splits of multi-part messages waiting for reassembly, with a limit on the bytes held for all messages and for a
+ * single message. Messages are kept in the order their first split arrived; when the limit is exceeded, the oldest
+ * messages are evicted. Messages waiting longer than maxWaitTimeMs are expired.
+ */
+public class SplitMessageBuffer {
+    private static final Logger LOG = LoggerFactory.getLogger(SplitMessageBuffer.class);
+
+    public static final String METRIC_IN_FLIGHT_MESSAGES    = "inFlightMessages";
+    public static final String METRIC_IN_FLIGHT_BYTES       = "inFlightBytes";
+    public static final String METRIC_COMPLETED             = "completed";
+    public static final String METRIC_EXPIRED               = "expired";
+    public static final String METRIC_EVICTED               = "evicted";
+    public static final String METRIC_DROPPED_TOO_LARGE     = "droppedTooLarge";
+    public static final String METRIC_REASSEMBLY_TIME_TOTAL = "reassemblyTimeTotalMs";
+    public static final String METRIC_REASSEMBLY_TIME_MAX   = "reassemblyTimeMaxMs";
+
+    private final long                                maxBufferBytes;
+    private final long                                maxMessageBytes;
+    private final long                                maxWaitTimeMs;
+    private final Map<String, SplitMessageAggregator> messages            = new LinkedHashMap<>();
+    private       long                                inFlightBytes       = 0;
+    private       long                                completedCount      = 0;
+    private       long                                expiredCount        = 0;
+    private       long                                evictedCount        = 0;
+    private       long                                droppedCount        = 0;
+    private       long                                reassemblyTimeTotal = 0;
+    private       long                                reassemblyTimeMax   = 0;
+
+    public SplitMessageBuffer() {
+        this(NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_BYTES.getLong(),
+             NOTIFICATION_SPLIT_MESSAGE_MAX_BYTES.getLong(),
+             NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS.getLong() * 1000);
+    }
+
+    public SplitMessageBuffer(long maxBufferBytes, long maxMessageBytes, long maxWaitTimeMs) {
+        this.maxBufferBytes  = maxBufferBytes;
+        this.maxMessageBytes = Math.min(maxMessageBytes, maxBufferBytes);
+        this.maxWaitTimeMs   = maxWaitTimeMs;
+
+        LOG.info("SplitMessageBuffer: maxBufferBytes={}, maxMessageBytes={}, maxWaitTimeMs={}", this.maxBufferBytes, this.maxMessageBytes, this.maxWaitTimeMs);
+    }
+
+    /**
+     * @param splitMsg split of a multi-part message
+     * @param now      time the split was received
+     * @return splits of the message, if the given split is the last one; null otherwise, or if the split is ignored
+     */
+    public synchronized SplitMessageAggregator add(AtlasNotificationStringMessage splitMsg, long now) {
+        final String msgId      = splitMsg.getMsgId();
+        final int    splitIdx   = splitMsg.getMsgSplitIdx();
+        final int    splitCount = splitMsg.getMsgSplitCount();
+
+        purgeExpired(now);
+
+        SplitMessageAggregator splitMsgs;
+
+        if (splitIdx == 0) {
+            remove(msgId);
+
+            // every split has at least 1 byte, hence a message with more splits than maxMessageBytes would be dropped
+            // anyway; reject it before allocating space for its splits
+            if (splitCount <= 0 || splitCount > maxMessageBytes) {
+                droppedCount++;
+
+                LOG.error("dropping notification msgID={}: invalid split count {}; must be between 1 and {}", msgId, splitCount, maxMessageBytes);
+
+                return null;
+            }
+
+            splitMsgs = new SplitMessageAggregator(msgId, splitCount, now);
+
+            messages.put(msgId, splitMsgs);
+        } else {
+            splitMsgs = messages.get(msgId);
+        }
+
+        if (splitMsgs == null) {
+            LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
+
+            return null;
+        }
+
+        if (splitMsgs.getTotalSplitCount() <= splitIdx) {
+            LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
+
+            return null;
+        }
+
+        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
+
+        long    prevSizeBytes = splitMsgs.getSizeBytes();
+        boolean isReady       = splitMsgs.add(splitMsg);
+
+        inFlightBytes += (splitMsgs.getSizeBytes() - prevSizeBytes);
+
+        if (splitMsgs.getSizeBytes() > maxMessageBytes) {
+            remove(msgId);
+
+            droppedCount++;
+
+            LOG.error("dropping notification msgID={}: size {} bytes, after {} of {} splits, exceeds limit of {} bytes", msgId, splitMsgs.getSizeBytes(), splitMsgs.getReceivedSplitCount(), splitCount, maxMessageBytes);
+
+            return null;
+        }
+
+        if (isReady) {
+            remove(msgId);
+
+            long reassemblyTime = now - splitMsgs.getFirstSplitTimestamp();
+
+            completedCount++;
+            reassemblyTimeTotal += reassemblyTime;
+            reassemblyTimeMax    = Math.max(reassemblyTimeMax, reassemblyTime);
+
+            return splitMsgs;
+        }
+
+        evictIfNeeded(msgId);
+
+        return null;
+    }
+
+    /**
+     * removes messages waiting longer than maxWaitTimeMs for the remaining splits
+     */
+    public synchronized void purgeExpired(long now) {
+        for (Iterator<SplitMessageAggregator> iter = messages.values().iterator(); iter.hasNext(); ) {
+            SplitMessageAggregator splitMsgs = iter.next();
+
+            if (now - splitMsgs.getFirstSplitTimestamp() < maxWaitTimeMs) {
+                break; // messages are in order of arrival; rest of the messages arrived later
+            }
+
+            iter.remove();
+
+            inFlightBytes -= splitMsgs.getSizeBytes();
+
+            expiredCount++;
+
+            LOG.error("evicting notification msgID={}, totalSplitCount={}, receivedSplitCount={}", splitMsgs.getMsgId(), splitMsgs.getTotalSplitCount(), splitMsgs.getReceivedSplitCount());
+        }
+    }
+
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public synchronized Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_IN_FLIGHT_MESSAGES, (long) messages.size());
+        ret.put(METRIC_IN_FLIGHT_BYTES, inFlightBytes);
+        ret.put(METRIC_COMPLETED, completedCount);
+        ret.put(METRIC_EXPIRED, expiredCount);
+        ret.put(METRIC_EVICTED, evictedCount);
+        ret.put(METRIC_DROPPED_TOO_LARGE, droppedCount);
+        ret.put(METRIC_REASSEMBLY_TIME_TOTAL, reassemblyTimeTotal);
+        ret.put(METRIC_REASSEMBLY_TIME_MAX, reassemblyTimeMax);
+
+        return ret;
+    }
+
+    // evicts the oldest messages, other than the one being added to, until the buffer is within the limit
+    private void evictIfNeeded(String currentMsgId) {
+        for (Iterator<SplitMessageAggregator> iter = messages.values().iterator(); inFlightBytes > maxBufferBytes && iter.hasNext(); ) {
+            SplitMessageAggregator splitMsgs = iter.next();
+
+            if (splitMsgs.getMsgId().equals(currentMsgId)) {
+                continue;
+            }
+
+            iter.remove();
+
+            inFlightBytes -= splitMsgs.getSizeBytes();
+
+            evictedCount++;
+
+            LOG.error("evicting notification msgID={}, totalSplitCount={}, receivedSplitCount={}: buffer size {} bytes exceeds limit of {} bytes", splitMsgs.getMsgId(), splitMsgs.getTotalSplitCount(), splitMsgs.getReceivedSplitCount(), inFlightBytes + splitMsgs.getSizeBytes(), maxBufferBytes);
+        }
+    }
+
+    private void remove(String msgId) {
+        SplitMessageAggregator splitMsgs = messages.remove(msgId);
+
+        if (splitMsgs != null) {
+            inFlightBytes -= splitMsgs.getSizeBytes();
+        }
+    }
+}
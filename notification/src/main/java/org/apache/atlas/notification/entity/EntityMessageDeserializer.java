@@ -58,4 +58,15 @@ public class EntityMessageDeserializer extends AbstractMessageDeserializer<Entit
 
         return ret;
     }
+
+    @Override
+    public EntityNotification deserialize(byte[] messageBytes) {
+        final EntityNotification ret = super.deserialize(messageBytes);
+
+        if (ret != null) {
+            ret.normalize();
+        }
+
+        return ret;
+    }
 }
@@ -60,4 +60,15 @@ public class HookMessageDeserializer extends AbstractMessageDeserializer<HookNot
 
         return ret;
     }
+
+    @Override
+    public HookNotification deserialize(byte[] messageBytes) {
+        final HookNotification ret = super.deserialize(messageBytes);
+
+        if (ret != null) {
+            ret.normalize();
+        }
+
+        return ret;
+    }
 }
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.apache.atlas.hook.AsyncNotificationSender.QueueFullPolicy;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MessageFormat;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.NotificationConsumer;
+import org.apache.atlas.notification.NotificationException;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.hook.HookMessageDeserializer;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncNotificationSenderTest {
+    @Test
+    public void messagesAreSentInBatches() throws Exception {
+        TestNotification        notification = new TestNotification();
+        AsyncNotificationSender sender       = new AsyncNotificationSender(notification, 100, 10, QueueFullPolicy.BLOCK, 1000, 10, null, null);
+
+        sender.send(createMessages(25), 3);
+        sender.start();
+        sender.stop(10000);
+
+        assertEquals(notification.getSentMessages().size(), 25);
+        assertTrue(notification.getSendCount() >= 3);
+        assertEquals(sender.getCounters().get("queued").longValue(), 25);
+        assertEquals(sender.getCounters().get("sent").longValue(), 25);
+        assertEquals(sender.getCounters().get("failed").longValue(), 0);
+    }
+
+    @Test
+    public void messagesAreDroppedWhenQueueIsFull() {
+        TestNotification        notification = new TestNotification();
+        AsyncNotificationSender sender       = new AsyncNotificationSender(notification, 2, 10, QueueFullPolicy.DROP, 1000, 10, null, null);
+
+        sender.send(createMessages(5), 3); // sender not started: queue is not drained
+
+        assertEquals(sender.getCounters().get("queued").longValue(), 2);
+        assertEquals(sender.getCounters().get("dropped").longValue(), 3);
+    }
+
+    @Test
+    public void failedMessagesAreSpilledAndSentLater() throws Exception {
+        File spillFile = File.createTempFile("atlas_hook_spill", ".json");
+
+        spillFile.deleteOnExit();
+        new File(spillFile.getPath() + ".replay").deleteOnExit();
+
+        TestNotification        notification = new TestNotification();
+        AsyncNotificationSender sender       = new AsyncNotificationSender(notification, 100, 10, QueueFullPolicy.BLOCK, 1000, 10, spillFile, null);
+
+        notification.setAvailable(false);
+
+        sender.start();
+
+        try {
+            sender.send(createMessages(5), 2);
+
+            waitFor(sender, "spilled", 5);
+
+            assertEquals(sender.getCounters().get("failed").longValue(), 5);
+            assertTrue(spillFile.length() > 0);
+            assertTrue(notification.getSentMessages().isEmpty());
+
+            notification.setAvailable(true);
+
+            sender.send(createMessages(1), 2);
+
+            waitFor(sender, "sent", 6);
+        } finally {
+            sender.stop(10000);
+        }
+
+        assertEquals(notification.getSentMessages().size(), 6);
+        assertFalse(new File(spillFile.getPath() + ".replay").exists());
+    }
+
+    @Test
+    public void spilledSmileMessagesAreSentUnchanged() throws Exception {
+        File spillFile = File.createTempFile("atlas_hook_spill", ".json");
+
+        spillFile.deleteOnExit();
+        new File(spillFile.getPath() + ".replay").deleteOnExit();
+
+        Referenceable process = new Referenceable("hive_process");
+
+        process.set("qualifiedName", "query1@cluster1");
+        process.set("queryText", "insert into table t2\nselect *\r\nfrom t1");
+
+        List<String> messages = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(new EntityCreateRequest("user1", process), messages, MessageFormat.SMILE);
+        messages.add(AtlasType.toV1Json(new EntityCreateRequest("user2")));
+
+        assertTrue(messages.get(0).indexOf('\n') != -1);
+
+        TestNotification        notification = new TestNotification();
+        AsyncNotificationSender sender       = new AsyncNotificationSender(notification, 100, 10, QueueFullPolicy.SPILL, 1000, 10, spillFile, null);
+
+        sender.spill(messages);
+        sender.start();
+
+        try {
+            waitFor(sender, "sent", messages.size());
+        } finally {
+            sender.stop(10000);
+        }
+
+        assertEquals(notification.getSentMessages(), messages);
+
+        EntityCreateRequest replayed = (EntityCreateRequest) new HookMessageDeserializer().deserialize(AbstractNotification.getMessageBytes(notification.getSentMessages().get(0)));
+
+        assertEquals(replayed.getEntities().get(0).get("queryText"), "insert into table t2\nselect *\r\nfrom t1");
+    }
+
+    private void waitFor(AsyncNotificationSender sender, String counter, long value) throws InterruptedException {
+        for (int i = 0; i < 100 && sender.getCounters().get(counter) < value; i++) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(sender.getCounters().get(counter).longValue(), value);
+    }
+
+    private List<HookNotification> createMessages(int count) {
+        List<HookNotification> ret = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            ret.add(new EntityCreateRequest("user" + i));
+        }
+
+        return ret;
+    }
+
+    private static class TestNotification implements NotificationInterface {
+        private final    List<String> sentMessages = Collections.synchronizedList(new ArrayList<String>());
+        private volatile boolean      isAvailable  = true;
+        private volatile int          sendCount    = 0;
+
+        void setAvailable(boolean isAvailable) {
+            this.isAvailable = isAvailable;
+        }
+
+        List<String> getSentMessages() {
+            return sentMessages;
+        }
+
+        int getSendCount() {
+            return sendCount;
+        }
+
+        @Override
+        public void sendAsync(NotificationType type, List<String> messages, SendCallback callback) {
+            sendCount++;
+
+            if (isAvailable) {
+                sentMessages.addAll(messages);
+
+                callback.onCompletion(null);
+            } else {
+                callback.onCompletion(new NotificationException(new Exception("not available"), messages));
+            }
+        }
+
+        @Override
+        public void setCurrentUser(String user) {
+        }
+
+        @Override
+        public <T> List<NotificationConsumer<T>> createConsumers(NotificationType notificationType, int numConsumers) {
+            return null;
+        }
+
+        @Override
+        public <T> void send(NotificationType type, T... messages) {
+        }
+
+        @Override
+        public <T> void send(NotificationType type, List<T> messages) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MessageFormat;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.hook.HookMessageDeserializer;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.v1.model.instance.Id;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Compares size and encode/decode time of JSON and Smile notification messages, for a Hive lineage like message.
+ */
+public class NotificationMessageFormatTest {
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationMessageFormatTest.class);
+
+    private static final int ITERATIONS = 50;
+
+    private final HookMessageDeserializer deserializer = new HookMessageDeserializer();
+
+    @Test
+    public void compareJsonAndSmile() {
+        EntityCreateRequest message  = new EntityCreateRequest("hive", createLineageEntities(5, 20));
+        List<String>        jsonMsg  = encode(message, MessageFormat.JSON);
+        List<String>        smileMsg = encode(message, MessageFormat.SMILE);
+
+        assertEquals(jsonMsg.size(), 1);
+        assertEquals(smileMsg.size(), 1);
+
+        int jsonSize  = AbstractNotification.getMessageBytes(jsonMsg.get(0)).length;
+        int smileSize = AbstractNotification.getMessageBytes(smileMsg.get(0)).length;
+
+        assertTrue(smileSize < jsonSize, "Smile message (" + smileSize + " bytes) should be smaller than JSON message (" + jsonSize + " bytes)");
+
+        HookNotification fromJson  = deserializer.deserialize(AbstractNotification.getMessageBytes(jsonMsg.get(0)));
+        HookNotification fromSmile = deserializer.deserialize(AbstractNotification.getMessageBytes(smileMsg.get(0)));
+
+        assertEquals(AtlasType.toV1Json(fromSmile), AtlasType.toV1Json(fromJson));
+
+        long jsonEncodeNs  = timeEncode(message, MessageFormat.JSON);
+        long smileEncodeNs = timeEncode(message, MessageFormat.SMILE);
+        long jsonDecodeNs  = timeDecode(jsonMsg);
+        long smileDecodeNs = timeDecode(smileMsg);
+
+        LOG.info("JSON:  size={} bytes, encode={} us, decode={} us", jsonSize, jsonEncodeNs / 1000, jsonDecodeNs / 1000);
+        LOG.info("Smile: size={} bytes, encode={} us, decode={} us", smileSize, smileEncodeNs / 1000, smileDecodeNs / 1000);
+    }
+
+    private List<String> encode(Object message, MessageFormat format) {
+        List<String> ret = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, ret, format);
+
+        return ret;
+    }
+
+    // average time, in nanoseconds, after a warm-up of as many iterations
+    private long timeEncode(Object message, MessageFormat format) {
+        long startTime = 0;
+
+        for (int i = 0; i < 2 * ITERATIONS; i++) {
+            if (i == ITERATIONS) {
+                startTime = System.nanoTime();
+            }
+
+            encode(message, format);
+        }
+
+        return (System.nanoTime() - startTime) / ITERATIONS;
+    }
+
+    private long timeDecode(List<String> msgList) {
+        byte[] msgBytes  = AbstractNotification.getMessageBytes(msgList.get(0));
+        long   startTime = 0;
+
+        for (int i = 0; i < 2 * ITERATIONS; i++) {
+            if (i == ITERATIONS) {
+                startTime = System.nanoTime();
+            }
+
+            deserializer.deserialize(msgBytes);
+        }
+
+        return (System.nanoTime() - startTime) / ITERATIONS;
+    }
+
+    // hive_process with the given number of input/output tables, each with the given number of columns
+    private List<Referenceable> createLineageEntities(int tableCount, int columnCount) {
+        List<Referenceable> ret     = new ArrayList<>();
+        List<Id>            inputs  = new ArrayList<>();
+        List<Id>            outputs = new ArrayList<>();
+
+        for (int i = 0; i < 2 * tableCount; i++) {
+            String        tableName = "default.table_" + i + "@cluster1";
+            Referenceable table     = new Referenceable("hive_table");
+            List<Id>      columns   = new ArrayList<>();
+
+            table.set("qualifiedName", tableName);
+            table.set("name", "table_" + i);
+            table.set("owner", "hive");
+            table.set("createTime", System.currentTimeMillis());
+            table.set("tableType", "MANAGED_TABLE");
+
+            for (int j = 0; j < columnCount; j++) {
+                Referenceable column = new Referenceable("hive_column");
+
+                column.set("qualifiedName", "default.table_" + i + ".column_" + j + "@cluster1");
+                column.set("name", "column_" + j);
+                column.set("type", "string");
+                column.set("position", j);
+                column.set("table", table.getId());
+
+                ret.add(column);
+                columns.add(column.getId());
+            }
+
+            table.set("columns", columns);
+
+            ret.add(table);
+            (i < tableCount ? inputs : outputs).add(table.getId());
+        }
+
+        Referenceable process = new Referenceable("hive_process");
+
+        process.set("qualifiedName", "QUERY:default.table_0@cluster1:1");
+        process.set("name", "insert into table_" + tableCount + " select * from table_0");
+        process.set("queryText", "insert into table_" + tableCount + " select * from table_0");
+        process.set("operationType", "QUERY");
+        process.set("inputs", inputs);
+        process.set("outputs", outputs);
+
+        ret.add(process);
+
+        return ret;
+    }
+}
@@ -22,57 +22,66 @@ import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class SplitMessageAggregatorTest {
     @Test
     public void verifyEviction() throws InterruptedException {
-        Map<String, SplitMessageAggregator> map = getStringSplitMessageAggregatorMap();
+        SplitMessageBuffer buffer = getSplitMessageBuffer(250);
 
         Thread.currentThread().sleep(500);
 
-        AtlasNotificationMessageDeserializer.purgeStaleMessages(map, System.currentTimeMillis(), 250);
+        buffer.purgeExpired(System.currentTimeMillis());
 
-        Assert.assertEquals(map.size(), 0);
+        Assert.assertEquals(buffer.size(), 0);
+        Assert.assertEquals(buffer.getInFlightBytes(), 0);
+        Assert.assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_EXPIRED).longValue(), 2);
     }
 
 
     @Test
     public void verifyEvictionDoesNotOccur() throws InterruptedException {
-        Map<String, SplitMessageAggregator> map = getStringSplitMessageAggregatorMap();
+        SplitMessageBuffer buffer = getSplitMessageBuffer(Long.MAX_VALUE);
 
-        int expectedSize = map.size();
+        int expectedSize = buffer.size();
 
         Thread.currentThread().sleep(500);
 
-        AtlasNotificationMessageDeserializer.purgeStaleMessages(map, System.currentTimeMillis(), Long.MAX_VALUE);
+        buffer.purgeExpired(System.currentTimeMillis());
+
+        Assert.assertEquals(buffer.size(), expectedSize);
+        Assert.assertEquals(buffer.getInFlightBytes(), (4 + 9) * 5);
+    }
 
-        Assert.assertEquals(map.size(), expectedSize);
+    @Test
+    public void verifyEncodedBytes() {
+        SplitMessageAggregator sma = new SplitMessageAggregator("1", 3, System.currentTimeMillis());
+
+        Assert.assertFalse(sma.add(new AtlasNotificationStringMessage("aaa", "1", CompressionKind.NONE, 0, 3)));
+        Assert.assertTrue(sma.add(new AtlasNotificationStringMessage("cc", "1", CompressionKind.NONE, 2, 3)));
+        Assert.assertNull(sma.getEncodedBytes());
+        Assert.assertEquals(sma.getFirstMissingSplitIdx(), 1);
+
+        Assert.assertFalse(sma.add(new AtlasNotificationStringMessage("bbb", "1", CompressionKind.NONE, 1, 3)));
+        Assert.assertEquals(sma.getFirstMissingSplitIdx(), -1);
+        Assert.assertEquals(sma.getSizeBytes(), 8);
+        Assert.assertFalse(sma.isBinary());
+        Assert.assertEquals(new String(sma.getEncodedBytes()), "aaabbbcc");
     }
 
-    private Map<String, SplitMessageAggregator> getStringSplitMessageAggregatorMap() {
-        Map<String, SplitMessageAggregator> map = new HashMap<>();
+    // two messages, with all but the last split received
+    private SplitMessageBuffer getSplitMessageBuffer(long maxWaitTimeMs) {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(Long.MAX_VALUE, Long.MAX_VALUE, maxWaitTimeMs);
 
-        map.put("1", getSplitMessageAggregator("1", 5));
-        map.put("2", getSplitMessageAggregator("2", 10));
+        addSplits(buffer, "1", 5);
+        addSplits(buffer, "2", 10);
 
-        return map;
+        return buffer;
     }
 
-    private SplitMessageAggregator getSplitMessageAggregator(String id, int splitCount) {
-        SplitMessageAggregator sma = null;
-
-        for (int i = 0; i < splitCount; i++) {
+    private void addSplits(SplitMessageBuffer buffer, String id, int splitCount) {
+        for (int i = 0; i < splitCount - 1; i++) {
             AtlasNotificationStringMessage sm = new AtlasNotificationStringMessage("aaaaa", id, CompressionKind.NONE, i, splitCount);
 
-            if(sma == null) {
-                sma = new SplitMessageAggregator(sm);
-            } else {
-                sma.add(sm);
-            }
+            Assert.assertNull(buffer.add(sm, System.currentTimeMillis()));
         }
-
-        return sma;
     }
 }
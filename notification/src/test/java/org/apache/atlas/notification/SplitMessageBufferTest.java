@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
+import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class SplitMessageBufferTest {
+    @Test
+    public void completedMessageIsRemoved() {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(1000, 100, Long.MAX_VALUE);
+
+        assertNull(buffer.add(createSplit("1", 0, 3, 10), 100));
+        assertNull(buffer.add(createSplit("1", 1, 3, 10), 120));
+        assertEquals(buffer.getInFlightBytes(), 20);
+
+        SplitMessageAggregator splitMsgs = buffer.add(createSplit("1", 2, 3, 5), 150);
+
+        assertNotNull(splitMsgs);
+        assertEquals(splitMsgs.getEncodedBytes().length, 25);
+
+        Map<String, Long> metrics = buffer.getMetrics();
+
+        assertEquals(metrics.get(SplitMessageBuffer.METRIC_IN_FLIGHT_MESSAGES).longValue(), 0);
+        assertEquals(metrics.get(SplitMessageBuffer.METRIC_IN_FLIGHT_BYTES).longValue(), 0);
+        assertEquals(metrics.get(SplitMessageBuffer.METRIC_COMPLETED).longValue(), 1);
+        assertEquals(metrics.get(SplitMessageBuffer.METRIC_REASSEMBLY_TIME_TOTAL).longValue(), 50);
+        assertEquals(metrics.get(SplitMessageBuffer.METRIC_REASSEMBLY_TIME_MAX).longValue(), 50);
+    }
+
+    @Test
+    public void messageLargerThanLimitIsDropped() {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(1000, 25, Long.MAX_VALUE);
+
+        assertNull(buffer.add(createSplit("1", 0, 3, 10), 0));
+        assertNull(buffer.add(createSplit("1", 1, 3, 10), 0));
+        assertNull(buffer.add(createSplit("1", 2, 3, 10), 0));
+
+        // rest of the splits of the dropped message are ignored
+        assertNull(buffer.add(createSplit("1", 2, 3, 10), 0));
+
+        assertEquals(buffer.size(), 0);
+        assertEquals(buffer.getInFlightBytes(), 0);
+        assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_DROPPED_TOO_LARGE).longValue(), 1);
+        assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_COMPLETED).longValue(), 0);
+    }
+
+    @Test
+    public void oldestMessagesAreEvictedWhenBufferIsFull() {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(50, 50, Long.MAX_VALUE);
+
+        assertNull(buffer.add(createSplit("1", 0, 3, 20), 0));
+        assertNull(buffer.add(createSplit("2", 0, 3, 20), 1));
+        assertNull(buffer.add(createSplit("1", 1, 3, 5), 2));
+        assertEquals(buffer.getInFlightBytes(), 45);
+
+        // message 1, which arrived first, is evicted to make room for message 3
+        assertNull(buffer.add(createSplit("3", 0, 3, 20), 3));
+        assertEquals(buffer.size(), 2);
+        assertEquals(buffer.getInFlightBytes(), 40);
+        assertNull(buffer.add(createSplit("1", 2, 3, 5), 4));
+
+        assertNull(buffer.add(createSplit("2", 1, 3, 5), 5));
+        assertNotNull(buffer.add(createSplit("2", 2, 3, 5), 6));
+
+        assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_EVICTED).longValue(), 1);
+        assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_COMPLETED).longValue(), 1);
+        assertEquals(buffer.getInFlightBytes(), 20);
+    }
+
+    @Test
+    public void staleMessagesExpireOnAdd() {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(1000, 100, 100);
+
+        assertNull(buffer.add(createSplit("1", 0, 2, 10), 0));
+        assertNull(buffer.add(createSplit("2", 0, 2, 10), 50));
+
+        // message 1 expires; message 2 is still waiting
+        assertNull(buffer.add(createSplit("1", 1, 2, 10), 120));
+        assertNotNull(buffer.add(createSplit("2", 1, 2, 10), 130));
+
+        assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_EXPIRED).longValue(), 1);
+        assertEquals(buffer.getInFlightBytes(), 0);
+    }
+
+    @Test
+    public void messageWithInvalidSplitCountIsDropped() {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(1000, 25, Long.MAX_VALUE);
+
+        assertNull(buffer.add(createSplit("1", 0, Integer.MAX_VALUE, 10), 0));
+        assertNull(buffer.add(createSplit("2", 0, 26, 10), 0));
+        assertNull(buffer.add(createSplit("3", 0, -1, 10), 0));
+        assertNull(buffer.add(createSplit("4", 0, 0, 10), 0));
+
+        // rest of the splits of the dropped messages are ignored
+        assertNull(buffer.add(createSplit("1", 1, Integer.MAX_VALUE, 10), 0));
+
+        assertEquals(buffer.size(), 0);
+        assertEquals(buffer.getInFlightBytes(), 0);
+        assertEquals(buffer.getMetrics().get(SplitMessageBuffer.METRIC_DROPPED_TOO_LARGE).longValue(), 4);
+
+        // split count up to maxMessageBytes is accepted
+        assertNull(buffer.add(createSplit("5", 0, 25, 1), 0));
+        assertEquals(buffer.size(), 1);
+    }
+
+    @Test
+    public void binarySplitsAreConcatenated() {
+        SplitMessageBuffer buffer = new SplitMessageBuffer(1000, 100, Long.MAX_VALUE);
+
+        assertNull(buffer.add(new AtlasNotificationStringMessage("1", CompressionKind.GZIP, 0, 2, new byte[] { 1, 2 }), 0));
+
+        SplitMessageAggregator splitMsgs = buffer.add(new AtlasNotificationStringMessage("1", CompressionKind.GZIP, 1, 2, new byte[] { 3 }), 0);
+
+        assertNotNull(splitMsgs);
+        assertEquals(splitMsgs.isBinary(), true);
+        assertEquals(splitMsgs.getCompressionKind(), CompressionKind.GZIP);
+        assertEquals(splitMsgs.getEncodedBytes(), new byte[] { 1, 2, 3 });
+    }
+
+    private static AtlasNotificationStringMessage createSplit(String msgId, int splitIdx, int splitCount, int length) {
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++) {
+            sb.append('a');
+        }
+
+        return new AtlasNotificationStringMessage(sb.toString(), msgId, CompressionKind.NONE, splitIdx, splitCount);
+    }
+}
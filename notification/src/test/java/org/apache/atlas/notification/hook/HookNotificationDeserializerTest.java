@@ -18,7 +18,9 @@
 
 package org.apache.atlas.notification.hook;
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MessageFormat;
 import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.MessageVersion;
 import org.apache.atlas.notification.entity.EntityNotificationTest;
 import org.apache.atlas.v1.model.instance.Referenceable;
 import org.apache.atlas.v1.model.instance.Struct;
@@ -101,6 +103,79 @@ public class HookNotificationDeserializerTest {
         assertEqualMessage(deserializedMessage, message);
     }
 
+    // envelope fields can be in any order; message appearing before version is bound after the envelope is read
+    @Test
+    public void testDeserializeMessageBeforeVersion() throws Exception {
+        Referenceable       entity      = generateEntityWithTrait();
+        EntityUpdateRequest message     = new EntityUpdateRequest("user1", entity);
+        String              jsonMsg     = "{\"msgCreatedBy\":\"user1\",\"message\":" + AtlasType.toV1Json(message) +
+                                          ",\"version\":" + AtlasType.toV1Json(MessageVersion.CURRENT_VERSION) +
+                                          ",\"msgCompressionKind\":\"NONE\",\"msgSplitIdx\":1,\"msgSplitCount\":1}";
+
+        HookNotification deserializedMessage = deserialize(Collections.singletonList(jsonMsg));
+
+        assertEqualMessage(deserializedMessage, message);
+    }
+
+    @Test
+    public void testDeserializeSmileMessage() throws Exception {
+        Referenceable       entity  = generateEntityWithTrait();
+        EntityUpdateRequest message = new EntityUpdateRequest("user1", entity);
+        List<String>        msgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, msgList, MessageFormat.SMILE);
+
+        assertEquals(msgList.size(), 1);
+        assertTrue(AtlasType.isV1Smile(msgList.get(0)));
+
+        assertEqualMessage(deserializeBytes(msgList), message);
+    }
+
+    @Test
+    public void testDeserializeSmileCompressedMessage() throws Exception {
+        Referenceable       entity  = generateLargeEntityWithTrait();
+        EntityUpdateRequest message = new EntityUpdateRequest("user1", entity);
+        List<String>        msgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, msgList, MessageFormat.SMILE);
+
+        assertEquals(msgList.size(), 1);
+
+        List<String> jsonMsgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, jsonMsgList, MessageFormat.JSON);
+
+        // compressed bytes are carried as-is in Smile messages - not base64 encoded
+        assertTrue(msgList.get(0).length() < jsonMsgList.get(0).length(), "Smile message (" + msgList.get(0).length() + ") should be shorter than JSON message (" + jsonMsgList.get(0).length() + ")");
+
+        assertEqualMessage(deserializeBytes(msgList), message);
+    }
+
+    @Test
+    public void testDeserializeSmileSplitMessage() throws Exception {
+        Referenceable       entity  = generateVeryLargeEntityWithTrait();
+        EntityUpdateRequest message = new EntityUpdateRequest("user1", entity);
+        List<String>        msgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, msgList, MessageFormat.SMILE);
+
+        assertTrue(msgList.size() > 1);
+
+        assertEqualMessage(deserializeBytes(msgList), message);
+    }
+
+    // JSON messages read from Kafka as bytes
+    @Test
+    public void testDeserializeJsonMessageBytes() throws Exception {
+        Referenceable       entity      = generateVeryLargeEntityWithTrait();
+        EntityUpdateRequest message     = new EntityUpdateRequest("user1", entity);
+        List<String>        jsonMsgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, jsonMsgList, MessageFormat.JSON);
+
+        assertEqualMessage(deserializeBytes(jsonMsgList), message);
+    }
+
     private Referenceable generateEntityWithTrait() {
         Referenceable ret = EntityNotificationTest.getEntity("id", new Struct("MyTrait", Collections.<String, Object>emptyMap()));
 
@@ -121,6 +196,20 @@ public class HookNotificationDeserializerTest {
         return deserializedMessage;
     }
 
+    private HookNotification deserializeBytes(List<String> msgList) {
+        HookNotification deserializedMessage = null;
+
+        for (String msg : msgList) {
+            deserializedMessage = deserializer.deserialize(AbstractNotification.getMessageBytes(msg));
+
+            if (deserializedMessage != null) {
+                break;
+            }
+        }
+
+        return deserializedMessage;
+    }
+
     private void assertEqualMessage(HookNotification deserializedMessage, EntityUpdateRequest message) throws Exception {
         assertNotNull(deserializedMessage);
         assertEquals(deserializedMessage.getType(), message.getType());
@@ -38,8 +38,6 @@ import org.apache.commons.collections.PredicateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -198,25 +196,35 @@ public class ClassificationSearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final boolean isContinuation = context.hasContinuation();
+            final int     startIdx       = isContinuation ? 0 : context.getSearchParameters().getOffset();
+            final int     limit          = context.getSearchParameters().getLimit();
+            final boolean activeOnly     = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like non-active-entities or duplicate-entities (same entity pointed to by multiple
             // classifications in the result)
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
-            int resultIdx = qryOffset;
+            //
+            // when continuing from a previous page, query starts at the result that page ended with
+            int qryOffset = isContinuation ? context.getContinuationOffset() : 0;
+            int resultIdx = 0;
+
+            final Set<String>                 processedGuids         = new HashSet<>();
+            final List<AtlasVertex>           entityVertices         = new ArrayList<>();
+            final List<AtlasVertex>           classificationVertices = new ArrayList<>();
+            final Map<Object, Integer>        queryResultOffsets     = new HashMap<>();
+            final Map<Object, ResultPosition> resultPositions        = new HashMap<>();
 
-            final Set<String>       processedGuids         = new HashSet<>();
-            final List<AtlasVertex> entityVertices         = new ArrayList<>();
-            final List<AtlasVertex> classificationVertices = new ArrayList<>();
+            // index query results are read forward once, a page at a time, instead of re-querying at increasing offsets
+            final AtlasIndexQuery.Cursor idxQueryCursor = indexQuery != null ? indexQuery.cursor(qryOffset, limit) : null;
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            while (ret.size() < limit) {
                 entityVertices.clear();
                 classificationVertices.clear();
+                queryResultOffsets.clear();
+                resultPositions.clear();
 
                 if (context.terminateSearch()) {
                     LOG.warn("query terminated: {}", context.getSearchParameters());
@@ -224,14 +232,18 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                     break;
                 }
 
-                if (indexQuery != null) {
-                    Iterator<AtlasIndexQuery.Result> queryResult = indexQuery.vertices(qryOffset, limit);
-
-                    if (!queryResult.hasNext()) { // no more results from index query - end of search
+                if (idxQueryCursor != null) {
+                    if (!idxQueryCursor.hasNext()) { // no more results from index query - end of search
                         break;
                     }
 
-                    getVerticesFromIndexQueryResult(queryResult, classificationVertices);
+                    for (int i = 0; i < limit && idxQueryCursor.hasNext(); i++) {
+                        int         resultOffset = idxQueryCursor.getPosition();
+                        AtlasVertex vertex       = ((AtlasIndexQuery.Result) idxQueryCursor.next()).getVertex();
+
+                        classificationVertices.add(vertex);
+                        queryResultOffsets.put(vertex.getId(), resultOffset);
+                    }
 
                     // Do in-memory filtering before the graph query
                     CollectionUtils.filter(classificationVertices, inMemoryPredicate);
@@ -244,28 +256,52 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                             break;
                         }
 
-                        getVertices(queryResult, entityVertices);
+                        while (queryResult.hasNext()) {
+                            AtlasVertex vertex = queryResult.next();
+
+                            entityVertices.add(vertex);
+                            resultPositions.put(vertex.getId(), new ResultPosition(qryOffset + entityVertices.size(), 0));
+                        }
                     } else {
                         Iterator<AtlasVertex> queryResult = tagGraphQueryWithAttributes.vertices(qryOffset, limit).iterator();
 
-                        if (!queryResult.hasNext()) { // no more results - end of search
-                            break;
+                        for (int resultOffset = qryOffset; queryResult.hasNext(); resultOffset++) {
+                            AtlasVertex vertex = queryResult.next();
+
+                            classificationVertices.add(vertex);
+                            queryResultOffsets.put(vertex.getId(), resultOffset);
                         }
 
-                        getVertices(queryResult, classificationVertices);
+                        if (classificationVertices.isEmpty()) { // no more results - end of search
+                            break;
+                        }
 
                         // Do in-memory filtering before the graph query
                         CollectionUtils.filter(classificationVertices, inMemoryPredicate);
                     }
+
+                    qryOffset += limit;
                 }
 
                 // Since tag filters are present, we need to collect the entity vertices after filtering the classification
                 // vertex results (as these might be lower in number)
                 if (CollectionUtils.isNotEmpty(classificationVertices)) {
                     for (AtlasVertex classificationVertex : classificationVertices) {
+                        int resultOffset = queryResultOffsets.get(classificationVertex.getId());
+                        int edgeIdx      = 0;
+
+                        // entities from this classification vertex already returned in the previous page
+                        int skipEdges = (isContinuation && resultOffset == context.getContinuationOffset()) ? context.getContinuationSkip() : 0;
+
                         Iterable<AtlasEdge> edges = classificationVertex.getEdges(AtlasEdgeDirection.IN);
 
                         for (AtlasEdge edge : edges) {
+                            edgeIdx++;
+
+                            if (edgeIdx <= skipEdges) {
+                                continue;
+                            }
+
                             AtlasVertex entityVertex = edge.getOutVertex();
 
                             if (activeOnly && AtlasGraphUtilsV1.getState(entityVertex) != AtlasEntity.Status.ACTIVE) {
@@ -279,6 +315,7 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                             }
 
                             entityVertices.add(entityVertex);
+                            resultPositions.put(entityVertex.getId(), new ResultPosition(resultOffset, edgeIdx));
 
                             processedGuids.add(guid);
                         }
@@ -288,6 +325,8 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                 super.filter(entityVertices);
 
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
+
+                setNextContinuation(ret, limit, resultPositions);
             }
         } finally {
             AtlasPerfTracer.log(perf);
@@ -318,13 +357,12 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                 try {
                     AtlasGraph        graph               = context.getGraph();
-                    ScriptEngine      gremlinScriptEngine = graph.getGremlinScriptEngine();
-                    List<AtlasVertex> atlasVertices       = (List<AtlasVertex>) graph.executeGremlinScript(gremlinScriptEngine, gremlinQueryBindings, gremlinTagFilterQuery, false);
+                    List<AtlasVertex> atlasVertices       = (List<AtlasVertex>) graph.executeGremlinScript(gremlinTagFilterQuery, gremlinQueryBindings, false);
 
                     if (CollectionUtils.isNotEmpty(atlasVertices)) {
                         entityVertices.addAll(atlasVertices);
                     }
-                } catch (AtlasBaseException | ScriptException e) {
+                } catch (AtlasBaseException e) {
                     LOG.warn(e.getMessage(), e);
                 }
             }
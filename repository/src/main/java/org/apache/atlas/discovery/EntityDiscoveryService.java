@@ -18,9 +18,11 @@
 package org.apache.atlas.discovery;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.SortOrder;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.exception.AtlasBaseException;
@@ -32,7 +34,7 @@ import org.apache.atlas.model.discovery.SearchParameters;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.profile.AtlasUserSavedSearch;
-import org.apache.atlas.query.AtlasDSL;
+import org.apache.atlas.query.DSLTranslationCache;
 import org.apache.atlas.query.GremlinQuery;
 import org.apache.atlas.query.QueryParams;
 import org.apache.atlas.repository.Constants;
@@ -58,16 +60,25 @@ import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
 import org.apache.atlas.util.SearchTracker;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.script.Bindings;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.atlas.AtlasErrorCode.CLASSIFICATION_NOT_FOUND;
 import static org.apache.atlas.AtlasErrorCode.DISCOVERY_QUERY_FAILED;
@@ -87,6 +98,12 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private static final Logger LOG = LoggerFactory.getLogger(EntityDiscoveryService.class);
     private static final String DEFAULT_SORT_ATTRIBUTE_NAME = "name";
 
+    public static final String SEARCH_HYDRATION_THREADS    = "atlas.search.hydration.threads";
+    public static final String SEARCH_HYDRATION_BATCH_SIZE = "atlas.search.hydration.batch.size";
+
+    private static final int DEFAULT_SEARCH_HYDRATION_THREADS    = 4;
+    private static final int DEFAULT_SEARCH_HYDRATION_BATCH_SIZE = 100;
+
     private final AtlasGraph                      graph;
     private final EntityGraphRetriever            entityRetriever;
     private final AtlasGremlinQueryProvider       gremlinQueryProvider;
@@ -98,22 +115,54 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private final int                             maxTagsLengthInIdxQuery;
     private final String                          indexSearchPrefix;
     private final UserProfileService              userProfileService;
+    private final int                             hydrationThreads;
+    private final int                             hydrationBatchSize;
+    private final ExecutorService                 hydrationExecutor;
+    private final DSLTranslationCache             dslTranslationCache;
 
     @Inject
     EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
                            AtlasGraph graph, GraphBackedSearchIndexer indexer, SearchTracker searchTracker,
-                           UserProfileService userProfileService) throws AtlasException {
+                           UserProfileService userProfileService, DSLTranslationCache dslTranslationCache) throws AtlasException {
+        this(typeRegistry, graph, indexer, searchTracker, userProfileService, dslTranslationCache, ApplicationProperties.get());
+    }
+
+    EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
+                           AtlasGraph graph, GraphBackedSearchIndexer indexer, SearchTracker searchTracker,
+                           UserProfileService userProfileService, DSLTranslationCache dslTranslationCache, Configuration configuration) {
         this.graph                    = graph;
         this.entityRetriever          = new EntityGraphRetriever(typeRegistry);
         this.indexer                  = indexer;
         this.searchTracker            = searchTracker;
         this.gremlinQueryProvider     = AtlasGremlinQueryProvider.INSTANCE;
         this.typeRegistry             = typeRegistry;
-        this.maxResultSetSize         = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_MAX_RESULT_SET_SIZE, 150);
-        this.maxTypesLengthInIdxQuery = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_TYPES_MAX_QUERY_STR_LENGTH, 512);
-        this.maxTagsLengthInIdxQuery  = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_TAGS_MAX_QUERY_STR_LENGTH, 512);
+        this.maxResultSetSize         = configuration.getInt(Constants.INDEX_SEARCH_MAX_RESULT_SET_SIZE, 150);
+        this.maxTypesLengthInIdxQuery = configuration.getInt(Constants.INDEX_SEARCH_TYPES_MAX_QUERY_STR_LENGTH, 512);
+        this.maxTagsLengthInIdxQuery  = configuration.getInt(Constants.INDEX_SEARCH_TAGS_MAX_QUERY_STR_LENGTH, 512);
         this.indexSearchPrefix        = AtlasGraphUtilsV1.getIndexSearchPrefix();
         this.userProfileService       = userProfileService;
+        this.dslTranslationCache      = dslTranslationCache;
+
+        this.hydrationThreads   = configuration.getInt(SEARCH_HYDRATION_THREADS, DEFAULT_SEARCH_HYDRATION_THREADS);
+        this.hydrationBatchSize = Math.max(1, configuration.getInt(SEARCH_HYDRATION_BATCH_SIZE, DEFAULT_SEARCH_HYDRATION_BATCH_SIZE));
+
+        if (hydrationThreads > 1) {
+            // one share of the results is hydrated in the calling thread; when all pool threads are busy, the other shares are as well
+            this.hydrationExecutor = new ThreadPoolExecutor(hydrationThreads - 1, hydrationThreads - 1, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                                                            new ThreadFactoryBuilder().setNameFormat("atlas-search-hydration-%d").setDaemon(true).build(),
+                                                            new ThreadPoolExecutor.CallerRunsPolicy());
+
+            ((ThreadPoolExecutor) this.hydrationExecutor).allowCoreThreadTimeOut(true);
+        } else {
+            this.hydrationExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hydrationExecutor != null) {
+            hydrationExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -425,6 +474,8 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         try {
             List<AtlasVertex> resultList = context.getSearchProcessor().execute();
 
+            ret.setContinuationToken(context.getNextContinuationToken());
+
             // By default any attribute that shows up in the search parameter should be sent back in the response
             // If additional values are requested then the entityAttributes will be a superset of the all search attributes
             // and the explicitly requested attribute(s)
@@ -458,47 +509,35 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
                 }
             }
 
-            for (AtlasVertex atlasVertex : resultList) {
-                AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader(atlasVertex, resultAttributes);
-
-                if(searchParameters.getIncludeClassificationAttributes()) {
-                    entity.setClassifications(entityRetriever.getAllClassifications(atlasVertex));
-                }
+            List<AtlasEntityHeader> entities = toEntityHeaders(resultList, resultAttributes, searchParameters.getIncludeClassificationAttributes());
 
+            for (AtlasEntityHeader entity : entities) {
                 ret.addEntity(entity);
+            }
 
-                // populate ret.referredEntities
-                for (String entityAttribute : entityAttributes) {
-                    Object attrValue = entity.getAttribute(entityAttribute);
-
-                    if (attrValue instanceof AtlasObjectId) {
-                        AtlasObjectId objId = (AtlasObjectId) attrValue;
-
-                        if (ret.getReferredEntities() == null) {
-                            ret.setReferredEntities(new HashMap<String, AtlasEntityHeader>());
-                        }
-
-                        if (!ret.getReferredEntities().containsKey(objId.getGuid())) {
-                            ret.getReferredEntities().put(objId.getGuid(), entityRetriever.toAtlasEntityHeader(objId.getGuid()));
-                        }
-                    } else if (attrValue instanceof Collection) {
-                        Collection objIds = (Collection) attrValue;
+            // populate ret.referredEntities
+            if (CollectionUtils.isNotEmpty(entityAttributes)) {
+                Set<String> referredGuids = new LinkedHashSet<>();
 
-                        for (Object obj : objIds) {
-                            if (obj instanceof AtlasObjectId) {
-                                AtlasObjectId objId = (AtlasObjectId) obj;
+                for (AtlasEntityHeader entity : entities) {
+                    for (String entityAttribute : entityAttributes) {
+                        Object attrValue = entity.getAttribute(entityAttribute);
 
-                                if (ret.getReferredEntities() == null) {
-                                    ret.setReferredEntities(new HashMap<String, AtlasEntityHeader>());
-                                }
-
-                                if (!ret.getReferredEntities().containsKey(objId.getGuid())) {
-                                    ret.getReferredEntities().put(objId.getGuid(), entityRetriever.toAtlasEntityHeader(objId.getGuid()));
+                        if (attrValue instanceof AtlasObjectId) {
+                            referredGuids.add(((AtlasObjectId) attrValue).getGuid());
+                        } else if (attrValue instanceof Collection) {
+                            for (Object obj : (Collection) attrValue) {
+                                if (obj instanceof AtlasObjectId) {
+                                    referredGuids.add(((AtlasObjectId) obj).getGuid());
                                 }
                             }
                         }
                     }
                 }
+
+                if (!referredGuids.isEmpty()) {
+                    ret.setReferredEntities(getReferredEntityHeaders(referredGuids));
+                }
             }
         } finally {
             searchTracker.remove(searchID);
@@ -507,6 +546,136 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return ret;
     }
 
+    /**
+     * Fetches the referred entities in batches of hydrationBatchSize guids, each with a single graph query.
+     */
+    @VisibleForTesting
+    Map<String, AtlasEntityHeader> getReferredEntityHeaders(Collection<String> guids) throws AtlasBaseException {
+        Map<String, AtlasEntityHeader> ret      = new HashMap<>();
+        List<String>                   guidList = new ArrayList<>(guids);
+
+        for (int i = 0; i < guidList.size(); i += hydrationBatchSize) {
+            List<String>             batch     = guidList.subList(i, Math.min(i + hydrationBatchSize, guidList.size()));
+            Map<String, AtlasVertex> vertices  = AtlasGraphUtilsV1.findByGuids(batch);
+            List<String>             found     = new ArrayList<>(vertices.keySet());
+            List<AtlasVertex>        toHydrate = new ArrayList<>(found.size());
+
+            for (String guid : found) {
+                toHydrate.add(vertices.get(guid));
+            }
+
+            List<AtlasEntityHeader> headers = toEntityHeaders(toHydrate, Collections.<String>emptySet(), false);
+
+            for (int j = 0; j < found.size(); j++) {
+                ret.put(found.get(j), headers.get(j));
+            }
+
+            for (String guid : batch) {
+                if (!ret.containsKey(guid)) { // not found by the bulk query; lookup individually, which fails as before if the entity doesn't exist
+                    ret.put(guid, entityRetriever.toAtlasEntityHeader(guid));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Builds entity-headers for the given vertices, in the same order. The vertices are split into hydrationThreads
+     * shares, which are processed in parallel; one share is processed in the calling thread. Pool threads read the
+     * vertices by id in their own transaction, as a graph transaction is bound to the thread that opened it.
+     */
+    @VisibleForTesting
+    List<AtlasEntityHeader> toEntityHeaders(List<AtlasVertex> vertices, Set<String> attributes, boolean includeClassifications) throws AtlasBaseException {
+        int                 numShares = hydrationExecutor != null ? Math.min(hydrationThreads, vertices.size()) : 1;
+        AtlasEntityHeader[] ret       = new AtlasEntityHeader[vertices.size()];
+
+        if (numShares <= 1) {
+            toEntityHeaders(vertices, 0, vertices.size(), attributes, includeClassifications, ret, false);
+
+            return Arrays.asList(ret);
+        }
+
+        int                shareSize = (vertices.size() + numShares - 1) / numShares;
+        List<Future<Void>> futures   = new ArrayList<>(numShares - 1);
+
+        for (int start = shareSize; start < vertices.size(); start += shareSize) {
+            futures.add(submitHydrationTask(vertices, start, Math.min(start + shareSize, vertices.size()), attributes, includeClassifications, ret));
+        }
+
+        try {
+            toEntityHeaders(vertices, 0, shareSize, attributes, includeClassifications, ret, false);
+        } finally {
+            for (Future<Void> future : futures) {
+                getHydrationTaskResult(future);
+            }
+        }
+
+        return Arrays.asList(ret);
+    }
+
+    private void toEntityHeaders(List<AtlasVertex> vertices, int start, int end, Set<String> attributes, boolean includeClassifications,
+                                 AtlasEntityHeader[] headers, boolean reloadVertex) throws AtlasBaseException {
+        for (int i = start; i < end; i++) {
+            AtlasVertex vertex = reloadVertex ? graph.getVertex(vertices.get(i).getId().toString()) : vertices.get(i);
+
+            if (vertex == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "search result vertex " + vertices.get(i).getId() + " not found");
+            }
+
+            AtlasEntityHeader header = entityRetriever.toAtlasEntityHeader(vertex, attributes);
+
+            if (includeClassifications) {
+                header.setClassifications(entityRetriever.getAllClassifications(vertex));
+            }
+
+            headers[i] = header;
+        }
+    }
+
+    private Future<Void> submitHydrationTask(final List<AtlasVertex> vertices, final int start, final int end, final Set<String> attributes,
+                                             final boolean includeClassifications, final AtlasEntityHeader[] headers) {
+        final Thread callerThread = Thread.currentThread();
+
+        return hydrationExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                boolean isPoolThread = Thread.currentThread() != callerThread;
+
+                try {
+                    toEntityHeaders(vertices, start, end, attributes, includeClassifications, headers, isPoolThread);
+
+                    return null;
+                } finally {
+                    // search is read-only; release the transaction and request context opened implicitly by this pool thread
+                    if (isPoolThread) {
+                        graph.rollback();
+
+                        RequestContextV1.clear();
+                    }
+                }
+            }
+        });
+    }
+
+    private void getHydrationTaskResult(Future<Void> future) throws AtlasBaseException {
+        try {
+            future.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, excp, "search result hydration interrupted");
+        } catch (ExecutionException excp) {
+            Throwable cause = excp.getCause();
+
+            if (cause instanceof AtlasBaseException) {
+                throw (AtlasBaseException) cause;
+            }
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, cause, "search result hydration failed");
+        }
+    }
+
     @Override
     @GraphTransaction
     public AtlasSearchResult searchRelatedEntities(String guid, String relation, String sortByAttributeName, SortOrder sortOrder,
@@ -674,7 +843,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
     private GremlinQuery toGremlinQuery(String query, int limit, int offset) throws AtlasBaseException {
         QueryParams                 params       = QueryParams.getNormalizedParams(limit, offset);
-        GremlinQuery                gremlinQuery = new AtlasDSL.Translator(query, typeRegistry, params.offset(), params.limit()).translate();
+        GremlinQuery                gremlinQuery = dslTranslationCache.translate(query, typeRegistry, params.offset(), params.limit());
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("Translated Gremlin Query: {}", gremlinQuery.queryStr());
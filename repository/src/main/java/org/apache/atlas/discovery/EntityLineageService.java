@@ -19,8 +19,12 @@
 package org.apache.atlas.discovery;
 
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.authorize.AtlasAuthorizationUtils;
 import org.apache.atlas.authorize.AtlasEntityAccessRequest;
@@ -35,6 +39,7 @@ import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
 import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
@@ -47,11 +52,13 @@ import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
 import org.apache.atlas.v1.model.lineage.SchemaResponse.SchemaDetails;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -59,6 +66,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -69,17 +83,59 @@ public class EntityLineageService implements AtlasLineageService {
     private static final String PROCESS_OUTPUTS_EDGE = "__Process.outputs";
     private static final String COLUMNS              = "columns";
 
+    public static final String LINEAGE_USE_GREMLIN_SCRIPT = "atlas.lineage.use.gremlin.script";
+    public static final String LINEAGE_MAX_DEPTH          = "atlas.lineage.max.depth";
+    public static final String LINEAGE_MAX_FAN_OUT        = "atlas.lineage.max.fan.out";
+    public static final String LINEAGE_EXECUTOR_THREADS   = "atlas.lineage.executor.threads";
+
+    private static final int DEFAULT_LINEAGE_MAX_DEPTH        = 0;
+    private static final int DEFAULT_LINEAGE_MAX_FAN_OUT      = 0;
+    private static final int DEFAULT_LINEAGE_EXECUTOR_THREADS = 10;
+
     private final AtlasGraph                graph;
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
     private final EntityGraphRetriever      entityRetriever;
     private final AtlasTypeRegistry         atlasTypeRegistry;
 
+    private final boolean                   useGremlinScript;
+    private final int                       maxDepth;
+    private final int                       maxFanOut;
+    private final ExecutorService           lineageExecutor;
+
     @Inject
     EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) {
+        this(typeRegistry, atlasGraph, getConfiguration());
+    }
+
+    EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph, Configuration configuration) {
         this.graph = atlasGraph;
         this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
         this.entityRetriever = new EntityGraphRetriever(typeRegistry);
         this.atlasTypeRegistry = typeRegistry;
+
+        this.useGremlinScript = configuration != null && configuration.getBoolean(LINEAGE_USE_GREMLIN_SCRIPT, false);
+        this.maxDepth         = configuration != null ? configuration.getInt(LINEAGE_MAX_DEPTH, DEFAULT_LINEAGE_MAX_DEPTH) : DEFAULT_LINEAGE_MAX_DEPTH;
+        this.maxFanOut        = configuration != null ? configuration.getInt(LINEAGE_MAX_FAN_OUT, DEFAULT_LINEAGE_MAX_FAN_OUT) : DEFAULT_LINEAGE_MAX_FAN_OUT;
+
+        int numThreads = configuration != null ? configuration.getInt(LINEAGE_EXECUTOR_THREADS, DEFAULT_LINEAGE_EXECUTOR_THREADS) : DEFAULT_LINEAGE_EXECUTOR_THREADS;
+
+        if (numThreads > 0) {
+            // when all threads are busy, the task runs in the caller thread, i.e. both directions are walked serially
+            this.lineageExecutor = new ThreadPoolExecutor(numThreads, numThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                                                          new ThreadFactoryBuilder().setNameFormat("atlas-lineage-%d").setDaemon(true).build(),
+                                                          new ThreadPoolExecutor.CallerRunsPolicy());
+
+            ((ThreadPoolExecutor) this.lineageExecutor).allowCoreThreadTimeOut(true);
+        } else {
+            this.lineageExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (lineageExecutor != null) {
+            lineageExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -183,11 +239,16 @@ public class EntityLineageService implements AtlasLineageService {
     }
 
     private AtlasLineageInfo getLineageInfo(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
+        return useGremlinScript ? getLineageInfoUsingGremlin(guid, direction, depth) : getLineageInfoUsingTraversal(guid, direction, depth);
+    }
+
+    private AtlasLineageInfo getLineageInfoUsingGremlin(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
         Map<String, AtlasEntityHeader> entities     = new HashMap<>();
         Set<LineageRelation>           relations    = new HashSet<>();
-        String                         lineageQuery = getLineageQuery(guid, direction, depth);
+        Map<String, Object>            bindings     = new HashMap<>();
+        String                         lineageQuery = getLineageQuery(guid, direction, depth, bindings);
 
-        List edgeMapList = (List) graph.executeGremlinScript(lineageQuery, false);
+        List edgeMapList = (List) graph.executeGremlinScript(lineageQuery, bindings, false);
 
         if (CollectionUtils.isNotEmpty(edgeMapList)) {
             for (Object edgeMap : edgeMapList) {
@@ -217,6 +278,110 @@ public class EntityLineageService implements AtlasLineageService {
         return new AtlasLineageInfo(guid, entities, relations, direction, depth);
     }
 
+    /**
+     * Breadth-first walk over process inputs/outputs edges, using the graph API instead of a Gremlin script.
+     * Each level goes from a dataset to the processes that produce (INPUT) or consume (OUTPUT) it, and on to the
+     * datasets on the other side of those processes. Vertices are visited at most once; the entity header of a
+     * vertex is retrieved when it is first added to the lineage.
+     */
+    private AtlasLineageInfo getLineageInfoUsingTraversal(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
+        final String incomingFrom;
+        final String outgoingTo;
+
+        if (direction.equals(LineageDirection.INPUT)) {
+            incomingFrom = PROCESS_OUTPUTS_EDGE;
+            outgoingTo   = PROCESS_INPUTS_EDGE;
+        } else {
+            incomingFrom = PROCESS_INPUTS_EDGE;
+            outgoingTo   = PROCESS_OUTPUTS_EDGE;
+        }
+
+        Map<String, AtlasEntityHeader> entities       = new HashMap<>();
+        Set<LineageRelation>           relations      = new HashSet<>();
+        Set<Object>                    visitedIds     = new HashSet<>();
+        AtlasVertex                    startVertex    = AtlasGraphUtilsV1.findByGuid(guid);
+        int                            maxLevels      = depth < 1 ? maxDepth : (maxDepth > 0 ? Math.min(depth, maxDepth) : depth);
+        List<AtlasVertex>              currentLevel   = new ArrayList<>();
+
+        if (startVertex == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+        }
+
+        visitedIds.add(startVertex.getId());
+        currentLevel.add(startVertex);
+
+        for (int level = 0; !currentLevel.isEmpty() && (maxLevels < 1 || level < maxLevels); level++) {
+            List<AtlasVertex> nextLevel = new ArrayList<>();
+
+            for (AtlasVertex datasetVertex : currentLevel) {
+                String datasetGuid = AtlasGraphUtilsV1.getIdFromVertex(datasetVertex);
+                int    fanOut      = 0;
+
+                for (AtlasEdge incomingEdge : (Iterable<AtlasEdge>) datasetVertex.getEdges(AtlasEdgeDirection.IN, incomingFrom)) {
+                    if (maxFanOut > 0 && fanOut++ >= maxFanOut) {
+                        LOG.warn("lineage of {}: number of processes linked to {} exceeds {}; rest will be ignored", guid, datasetGuid, maxFanOut);
+
+                        break;
+                    }
+
+                    AtlasVertex processVertex = incomingEdge.getOutVertex();
+                    String      processGuid   = AtlasGraphUtilsV1.getIdFromVertex(processVertex);
+                    boolean     hasOutgoing   = false;
+                    int         processFanOut = 0;
+
+                    for (AtlasEdge outgoingEdge : (Iterable<AtlasEdge>) processVertex.getEdges(AtlasEdgeDirection.OUT, outgoingTo)) {
+                        if (maxFanOut > 0 && processFanOut++ >= maxFanOut) {
+                            LOG.warn("lineage of {}: number of datasets linked to {} exceeds {}; rest will be ignored", guid, processGuid, maxFanOut);
+
+                            break;
+                        }
+
+                        AtlasVertex nextDatasetVertex = outgoingEdge.getInVertex();
+                        String      nextDatasetGuid   = AtlasGraphUtilsV1.getIdFromVertex(nextDatasetVertex);
+
+                        hasOutgoing = true;
+
+                        addLineageRelation(outgoingEdge, processGuid, nextDatasetGuid, relations);
+
+                        addEntityHeader(nextDatasetGuid, nextDatasetVertex, entities);
+
+                        if (visitedIds.add(nextDatasetVertex.getId())) {
+                            nextLevel.add(nextDatasetVertex);
+                        }
+                    }
+
+                    // same as the Gremlin query: a process is part of lineage only when it links to a dataset on the other side
+                    if (hasOutgoing) {
+                        addLineageRelation(incomingEdge, processGuid, datasetGuid, relations);
+
+                        addEntityHeader(datasetGuid, datasetVertex, entities);
+                        addEntityHeader(processGuid, processVertex, entities);
+                    }
+                }
+            }
+
+            currentLevel = nextLevel;
+        }
+
+        return new AtlasLineageInfo(guid, entities, relations, direction, depth);
+    }
+
+    private void addLineageRelation(AtlasEdge edge, String processGuid, String datasetGuid, Set<LineageRelation> relations) {
+        String relationGuid = AtlasGraphUtilsV1.getProperty(edge, Constants.RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
+
+        if (edge.getLabel().equalsIgnoreCase(PROCESS_INPUTS_EDGE)) {
+            relations.add(new LineageRelation(datasetGuid, processGuid, relationGuid));
+        } else {
+            relations.add(new LineageRelation(processGuid, datasetGuid, relationGuid));
+        }
+    }
+
+    private void addEntityHeader(String guid, AtlasVertex vertex, Map<String, AtlasEntityHeader> entities) throws AtlasBaseException {
+        if (!entities.containsKey(guid)) {
+            entities.put(guid, entityRetriever.toAtlasEntityHeader(vertex));
+        }
+    }
+
     private void processEdge(final AtlasEdge edge, final Map<String, AtlasEntityHeader> entities, final Set<LineageRelation> relations) throws AtlasBaseException {
         AtlasVertex inVertex     = edge.getInVertex();
         AtlasVertex outVertex    = edge.getOutVertex();
@@ -243,9 +408,20 @@ public class EntityLineageService implements AtlasLineageService {
     }
 
     private AtlasLineageInfo getBothLineageInfo(String guid, int depth) throws AtlasBaseException {
-        AtlasLineageInfo inputLineage  = getLineageInfo(guid, LineageDirection.INPUT, depth);
-        AtlasLineageInfo outputLineage = getLineageInfo(guid, LineageDirection.OUTPUT, depth);
-        AtlasLineageInfo ret           = inputLineage;
+        final AtlasLineageInfo inputLineage;
+        final AtlasLineageInfo outputLineage;
+
+        if (lineageExecutor != null) {
+            Future<AtlasLineageInfo> inputFuture = submitLineageTask(guid, LineageDirection.INPUT, depth);
+
+            outputLineage = getLineageInfo(guid, LineageDirection.OUTPUT, depth);
+            inputLineage  = getLineageTaskResult(inputFuture);
+        } else {
+            inputLineage  = getLineageInfo(guid, LineageDirection.INPUT, depth);
+            outputLineage = getLineageInfo(guid, LineageDirection.OUTPUT, depth);
+        }
+
+        AtlasLineageInfo ret = inputLineage;
 
         ret.getRelations().addAll(outputLineage.getRelations());
         ret.getGuidEntityMap().putAll(outputLineage.getGuidEntityMap());
@@ -254,28 +430,82 @@ public class EntityLineageService implements AtlasLineageService {
         return ret;
     }
 
-    private String getLineageQuery(String entityGuid, LineageDirection direction, int depth) {
+    private Future<AtlasLineageInfo> submitLineageTask(final String guid, final LineageDirection direction, final int depth) {
+        final Thread callerThread = Thread.currentThread();
+
+        return lineageExecutor.submit(new Callable<AtlasLineageInfo>() {
+            @Override
+            public AtlasLineageInfo call() throws Exception {
+                try {
+                    return getLineageInfo(guid, direction, depth);
+                } finally {
+                    // lineage is read-only; release the transaction and request context opened implicitly by this pool thread
+                    if (Thread.currentThread() != callerThread) {
+                        graph.rollback();
+
+                        RequestContextV1.clear();
+                    }
+                }
+            }
+        });
+    }
+
+    private AtlasLineageInfo getLineageTaskResult(Future<AtlasLineageInfo> future) throws AtlasBaseException {
+        try {
+            return future.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, excp, "lineage computation interrupted");
+        } catch (ExecutionException excp) {
+            Throwable cause = excp.getCause();
+
+            if (cause instanceof AtlasBaseException) {
+                throw (AtlasBaseException) cause;
+            }
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, cause, "lineage computation failed");
+        }
+    }
+
+    private String getLineageQuery(String entityGuid, LineageDirection direction, int depth, Map<String, Object> bindings) {
         String lineageQuery = null;
 
         if (direction.equals(LineageDirection.INPUT)) {
-            lineageQuery = generateLineageQuery(entityGuid, depth, PROCESS_OUTPUTS_EDGE, PROCESS_INPUTS_EDGE);
+            lineageQuery = generateLineageQuery(entityGuid, depth, PROCESS_OUTPUTS_EDGE, PROCESS_INPUTS_EDGE, bindings);
 
         } else if (direction.equals(LineageDirection.OUTPUT)) {
-            lineageQuery = generateLineageQuery(entityGuid, depth, PROCESS_INPUTS_EDGE, PROCESS_OUTPUTS_EDGE);
+            lineageQuery = generateLineageQuery(entityGuid, depth, PROCESS_INPUTS_EDGE, PROCESS_OUTPUTS_EDGE, bindings);
         }
 
         return lineageQuery;
     }
 
-    private String generateLineageQuery(String entityGuid, int depth, String incomingFrom, String outgoingTo) {
+    private String generateLineageQuery(String entityGuid, int depth, String incomingFrom, String outgoingTo, Map<String, Object> bindings) {
         String lineageQuery;
+
+        bindings.put("guid", entityGuid);
+        bindings.put("incomingEdgeLabel", incomingFrom);
+        bindings.put("outgoingEdgeLabel", outgoingTo);
+
         if (depth < 1) {
-            String query = gremlinQueryProvider.getQuery(AtlasGremlinQuery.FULL_LINEAGE);
-            lineageQuery = String.format(query, entityGuid, incomingFrom, outgoingTo);
+            lineageQuery = gremlinQueryProvider.getQuery(AtlasGremlinQuery.FULL_LINEAGE);
         } else {
-            String query = gremlinQueryProvider.getQuery(AtlasGremlinQuery.PARTIAL_LINEAGE);
-            lineageQuery = String.format(query, entityGuid, incomingFrom, outgoingTo, depth);
+            lineageQuery = gremlinQueryProvider.getQuery(AtlasGremlinQuery.PARTIAL_LINEAGE);
+
+            bindings.put("depth", depth);
         }
+
         return lineageQuery;
     }
+
+    private static Configuration getConfiguration() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; lineage will use default configuration", excp);
+
+            return null;
+        }
+    }
 }
\ No newline at end of file
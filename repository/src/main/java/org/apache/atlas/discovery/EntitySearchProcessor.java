@@ -34,10 +34,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator.NOT_EQUAL;
@@ -234,19 +236,34 @@ public class EntitySearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int startIdx = context.getSearchParameters().getOffset();
-            final int limit    = context.getSearchParameters().getLimit();
+            final boolean isContinuation = context.hasContinuation();
+            final int     startIdx       = isContinuation ? 0 : context.getSearchParameters().getOffset();
+            final int     limit          = context.getSearchParameters().getLimit();
 
             // when subsequent filtering stages are involved, query should start at 0 even though startIdx can be higher
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
-            int resultIdx = qryOffset;
+            //
+            // when continuing from a previous page, query starts right after the result that page ended with
+            int qryOffset;
+
+            if (isContinuation) {
+                qryOffset = context.getContinuationOffset();
+            } else {
+                qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
+            }
 
-            final List<AtlasVertex> entityVertices = new ArrayList<>();
+            int resultIdx = isContinuation ? 0 : qryOffset;
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            final List<AtlasVertex>           entityVertices  = new ArrayList<>();
+            final Map<Object, ResultPosition> resultPositions = new HashMap<>();
+
+            // index query results are read forward once, a page at a time, instead of re-querying at increasing offsets
+            final AtlasIndexQuery.Cursor idxQueryCursor = indexQuery != null ? indexQuery.cursor(qryOffset, limit) : null;
+
+            while (ret.size() < limit) {
                 entityVertices.clear();
+                resultPositions.clear();
 
                 if (context.terminateSearch()) {
                     LOG.warn("query terminated: {}", context.getSearchParameters());
@@ -254,14 +271,17 @@ public class EntitySearchProcessor extends SearchProcessor {
                     break;
                 }
 
-                if (indexQuery != null) {
-                    Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, limit);
-
-                    if (!idxQueryResult.hasNext()) { // no more results from index query - end of search
+                if (idxQueryCursor != null) {
+                    if (!idxQueryCursor.hasNext()) { // no more results from index query - end of search
                         break;
                     }
 
-                    getVerticesFromIndexQueryResult(idxQueryResult, entityVertices);
+                    for (int i = 0; i < limit && idxQueryCursor.hasNext(); i++) {
+                        AtlasVertex vertex = ((AtlasIndexQuery.Result) idxQueryCursor.next()).getVertex();
+
+                        entityVertices.add(vertex);
+                        resultPositions.put(vertex.getId(), new ResultPosition(idxQueryCursor.getPosition(), 0));
+                    }
 
                     // Do in-memory filtering before the graph query
                     CollectionUtils.filter(entityVertices, inMemoryPredicate);
@@ -276,12 +296,21 @@ public class EntitySearchProcessor extends SearchProcessor {
                         break;
                     }
 
-                    getVertices(queryResult, entityVertices);
+                    while (queryResult.hasNext()) {
+                        AtlasVertex vertex = queryResult.next();
+
+                        entityVertices.add(vertex);
+                        resultPositions.put(vertex.getId(), new ResultPosition(qryOffset + entityVertices.size(), 0));
+                    }
+
+                    qryOffset += limit;
                 }
 
                 super.filter(entityVertices);
 
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
+
+                setNextContinuation(ret, limit, resultPositions);
             }
         } finally {
             AtlasPerfTracer.log(perf);
@@ -28,8 +28,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class FullTextSearchProcessor extends SearchProcessor {
@@ -92,21 +93,29 @@ public class FullTextSearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final boolean isContinuation = context.hasContinuation();
+            final int     startIdx       = isContinuation ? 0 : context.getSearchParameters().getOffset();
+            final int     limit          = context.getSearchParameters().getLimit();
+            final boolean activeOnly     = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like vertices of non-entity or non-active-entity
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
-            int resultIdx = qryOffset;
+            //
+            // when continuing from a previous page, query starts right after the result that page ended with
+            int qryOffset = isContinuation ? context.getContinuationOffset() : 0;
+            int resultIdx = 0;
+
+            final List<AtlasVertex>           entityVertices  = new ArrayList<>();
+            final Map<Object, ResultPosition> resultPositions = new HashMap<>();
 
-            final List<AtlasVertex> entityVertices = new ArrayList<>();
+            // index query results are read forward once, a page at a time, instead of re-querying at increasing offsets
+            final AtlasIndexQuery.Cursor idxQueryCursor = indexQuery.cursor(qryOffset, limit);
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            while (ret.size() < limit) {
                 entityVertices.clear();
+                resultPositions.clear();
 
                 if (context.terminateSearch()) {
                     LOG.warn("query terminated: {}", context.getSearchParameters());
@@ -114,14 +123,12 @@ public class FullTextSearchProcessor extends SearchProcessor {
                     break;
                 }
 
-                Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, limit);
-
-                if (!idxQueryResult.hasNext()) { // no more results from solr - end of search
+                if (!idxQueryCursor.hasNext()) { // no more results from solr - end of search
                     break;
                 }
 
-                while (idxQueryResult.hasNext()) {
-                    AtlasVertex vertex = idxQueryResult.next().getVertex();
+                for (int i = 0; i < limit && idxQueryCursor.hasNext(); i++) {
+                    AtlasVertex vertex = ((AtlasIndexQuery.Result) idxQueryCursor.next()).getVertex();
 
                     // skip non-entity vertices
                     if (!AtlasGraphUtilsV1.isEntityVertex(vertex)) {
@@ -137,11 +144,14 @@ public class FullTextSearchProcessor extends SearchProcessor {
                     }
 
                     entityVertices.add(vertex);
+                    resultPositions.put(vertex.getId(), new ResultPosition(idxQueryCursor.getPosition(), 0));
                 }
 
                 super.filter(entityVertices);
 
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
+
+                setNextContinuation(ret, limit, resultPositions);
             }
         } finally {
             AtlasPerfTracer.log(perf);
@@ -31,6 +31,8 @@ import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -47,8 +49,11 @@ public class SearchContext {
     private final Set<String>             entityAttributes;
     private final AtlasEntityType         entityType;
     private final AtlasClassificationType classificationType;
+    private final int                     continuationOffset;
+    private final int                     continuationSkip;
     private       SearchProcessor         searchProcessor;
     private       boolean                 terminateSearch = false;
+    private       String                  nextContinuationToken;
 
     public final static AtlasClassificationType MATCH_ALL_CLASSIFICATION = new AtlasClassificationType(new AtlasClassificationDef("*"));
 
@@ -79,6 +84,16 @@ public class SearchContext {
         // Invalid attributes will raise an exception with 400 error code
         validateAttributes(classificationType, searchParameters.getTagFilters());
 
+        if (StringUtils.isNotEmpty(searchParameters.getContinuationToken())) {
+            int[] continuation = decodeContinuationToken(searchParameters.getContinuationToken());
+
+            this.continuationOffset = continuation[0];
+            this.continuationSkip   = continuation[1];
+        } else {
+            this.continuationOffset = -1;
+            this.continuationSkip   = 0;
+        }
+
         if (needFullTextProcessor()) {
             addProcessor(new FullTextSearchProcessor(this));
         }
@@ -112,6 +127,25 @@ public class SearchContext {
 
     public void terminateSearch(boolean terminateSearch) { this.terminateSearch = terminateSearch; }
 
+    /**
+     * @return true if the search continues from where a previous page ended, given by a continuation-token
+     */
+    public boolean hasContinuation() { return continuationOffset >= 0; }
+
+    /**
+     * @return offset, in the results of the query of the first search processor, to continue the search at
+     */
+    public int getContinuationOffset() { return continuationOffset; }
+
+    /**
+     * @return number of entities, obtained from the query result at continuation-offset, that were already returned
+     */
+    public int getContinuationSkip() { return continuationSkip; }
+
+    public void setNextContinuation(int offset, int skip) { this.nextContinuationToken = encodeContinuationToken(offset, skip); }
+
+    public String getNextContinuationToken() { return nextContinuationToken; }
+
     public StringBuilder toString(StringBuilder sb) {
         if (sb == null) {
             sb = new StringBuilder();
@@ -131,6 +165,42 @@ public class SearchContext {
         return toString(new StringBuilder()).toString();
     }
 
+    // token includes a hash of the search criteria, to reject tokens from a different search
+    private String encodeContinuationToken(int offset, int skip) {
+        String token = offset + ":" + skip + ":" + getCriteriaHash();
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int[] decodeContinuationToken(String token) throws AtlasBaseException {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+
+            if (parts.length == 3 && Integer.parseInt(parts[2]) == getCriteriaHash()) {
+                int offset = Integer.parseInt(parts[0]);
+                int skip   = Integer.parseInt(parts[1]);
+
+                if (offset >= 0 && skip >= 0) {
+                    return new int[] { offset, skip };
+                }
+            }
+        } catch (IllegalArgumentException excp) { // includes NumberFormatException
+            // handled below
+        }
+
+        throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken=" + token);
+    }
+
+    // string form is used, as hashCode() of enums in the filters differs across JVMs
+    private int getCriteriaHash() {
+        String criteria = searchParameters.getQuery() + "|" + searchParameters.getTypeName() + "|" + searchParameters.getClassification() + "|" +
+                          searchParameters.getExcludeDeletedEntities() + "|" + searchParameters.getIncludeSubTypes() + "|" +
+                          searchParameters.getIncludeSubClassifications() + "|" + searchParameters.getEntityFilters() + "|" +
+                          searchParameters.getTagFilters();
+
+        return criteria.hashCode();
+    }
+
     boolean needFullTextProcessor() {
         return StringUtils.isNotEmpty(searchParameters.getQuery());
     }
@@ -159,6 +159,35 @@ public abstract class SearchProcessor {
         return resultIdx;
     }
 
+    /**
+     * When ret is full, records in the context where the next page should continue: right after the query result
+     * from which the last entity in ret was obtained.
+     *
+     * @param resultPositions position of the query result from which each entity vertex was obtained, by vertex-id
+     */
+    protected void setNextContinuation(final List<AtlasVertex> ret, final int limit, final Map<Object, ResultPosition> resultPositions) {
+        if (!ret.isEmpty() && ret.size() == limit) {
+            ResultPosition position = resultPositions.get(ret.get(ret.size() - 1).getId());
+
+            if (position != null) {
+                context.setNextContinuation(position.nextOffset, position.nextSkip);
+            }
+        }
+    }
+
+    /**
+     * Where a search should continue after an entity: at query result nextOffset, skipping its first nextSkip entities.
+     */
+    protected static final class ResultPosition {
+        final int nextOffset;
+        final int nextSkip;
+
+        ResultPosition(int nextOffset, int nextSkip) {
+            this.nextOffset = nextOffset;
+            this.nextSkip   = nextSkip;
+        }
+    }
+
     public void filter(List<AtlasVertex> entityVertices) {
         if (nextProcessor != null && CollectionUtils.isNotEmpty(entityVertices)) {
             nextProcessor.filter(entityVertices);
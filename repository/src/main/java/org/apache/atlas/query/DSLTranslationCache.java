@@ -0,0 +1,335 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of DSL to Gremlin translations, keyed by the DSL query with its literal values replaced by placeholders - so
+ * that queries differing only in values, like "hive_table where name = 'tbl1'" and "hive_table where name = 'tbl2'",
+ * are parsed and translated once.
+ *
+ * Only quoted literals compared with an attribute (=, !=, <, <=, >, >=, like) are replaced, and only when the literal
+ * is rendered as-is in the Gremlin query: literals with wildcards, quotes or '$', and number/date-like values (which
+ * the translation converts based on the attribute type) are kept in the key. When a value is not found exactly once in
+ * the translated query, the translation is not cached.
+ *
+ * The cache is cleared when type-defs are changed, as the translation depends on the types in the registry.
+ */
+@Component
+public class DSLTranslationCache implements TypeDefChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLTranslationCache.class);
+
+    public static final String CACHE_SIZE_PROPERTY = "atlas.dsl.translation.cache.size";
+    public static final int    DEFAULT_CACHE_SIZE  = 1000;
+
+    public static final String METRIC_HITS          = "hits";
+    public static final String METRIC_MISSES        = "misses";
+    public static final String METRIC_INVALIDATIONS = "invalidations";
+    public static final String METRIC_SIZE          = "size";
+
+    private static final Set<String> COMPARISON_OPERATORS =
+            new HashSet<>(Arrays.asList("=", "!=", "<", "<=", ">", ">=", "eq", "neq", "lt", "lte", "gt", "gte", "like"));
+
+    private static final Pattern NON_PARAMETERIZABLE_VALUE = Pattern.compile("^[-+]?[0-9].*|.*[*?'\"`$\\\\].*");
+
+    private final LruCache<String, Template> cache;
+    private final AtomicLong                 version       = new AtomicLong();
+    private final AtomicLong                 hits          = new AtomicLong();
+    private final AtomicLong                 misses        = new AtomicLong();
+    private final AtomicLong                 invalidations = new AtomicLong();
+
+    @Inject
+    public DSLTranslationCache() throws AtlasException {
+        this(ApplicationProperties.get().getInt(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+    }
+
+    @VisibleForTesting
+    DSLTranslationCache(int cacheSize) {
+        this.cache = cacheSize > 0 ? new LruCache<String, Template>(cacheSize, 0) : null;
+
+        LOG.info("DSLTranslationCache: cacheSize={}", cacheSize);
+    }
+
+    public GremlinQuery translate(String query, AtlasTypeRegistry typeRegistry, int offset, int limit) throws AtlasBaseException {
+        NormalizedQuery normalizedQuery = cache != null ? normalize(query) : null;
+
+        if (normalizedQuery == null) {
+            return doTranslate(query, typeRegistry, offset, limit);
+        }
+
+        long     currVersion = version.get();
+        String   key         = currVersion + ":" + offset + ":" + limit + ":" + normalizedQuery.text;
+        Template template;
+
+        synchronized (cache) {
+            template = cache.get(key);
+        }
+
+        if (template != null) {
+            hits.incrementAndGet();
+
+            return template.toGremlinQuery(normalizedQuery.values);
+        }
+
+        misses.incrementAndGet();
+
+        GremlinQuery ret = doTranslate(query, typeRegistry, offset, limit);
+
+        template = Template.create(ret, normalizedQuery.values);
+
+        if (template != null) {
+            synchronized (cache) {
+                if (currVersion == version.get()) { // skip if type-defs were changed during the translation
+                    cache.put(key, template);
+                }
+            }
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("DSLTranslationCache: translation of query {} can't be parameterized; not cached", query);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void onChange(ChangedTypeDefs changedTypeDefs) {
+        if (cache == null) {
+            return;
+        }
+
+        synchronized (cache) {
+            version.incrementAndGet();
+
+            cache.clear();
+        }
+
+        invalidations.incrementAndGet();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("DSLTranslationCache: cleared on type-def changes");
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_HITS, hits.get());
+        ret.put(METRIC_MISSES, misses.get());
+        ret.put(METRIC_INVALIDATIONS, invalidations.get());
+
+        if (cache != null) {
+            synchronized (cache) {
+                ret.put(METRIC_SIZE, (long) cache.size());
+            }
+        } else {
+            ret.put(METRIC_SIZE, 0L);
+        }
+
+        return ret;
+    }
+
+    @VisibleForTesting
+    GremlinQuery doTranslate(String query, AtlasTypeRegistry typeRegistry, int offset, int limit) throws AtlasBaseException {
+        return new AtlasDSL.Translator(query, typeRegistry, offset, limit).translate();
+    }
+
+    /**
+     * @return query with whitespaces collapsed and parameterizable literals replaced by a placeholder; null if the query
+     * has comments or an unterminated literal
+     */
+    @VisibleForTesting
+    static NormalizedQuery normalize(String query) {
+        StringBuilder text   = new StringBuilder(query.length());
+        List<String>  values = new ArrayList<>();
+
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = query.indexOf(c, i + 1);
+
+                if (end == -1) {
+                    return null;
+                }
+
+                String literal = query.substring(i, end + 1);
+
+                if (c != '`' && isParameterizable(literal) && COMPARISON_OPERATORS.contains(getLastToken(text))) {
+                    text.append('?').append(c);
+
+                    values.add(literal);
+                } else {
+                    text.append(literal);
+                }
+
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+                    text.append(' ');
+                }
+            } else if ((c == '-' || c == '/') && i + 1 < query.length() && query.charAt(i + 1) == (c == '-' ? '-' : '*')) {
+                return null; // comments are rare in DSL queries; not worth handling here
+            } else {
+                text.append(c);
+            }
+        }
+
+        return new NormalizedQuery(text.toString().trim(), values);
+    }
+
+    private static boolean isParameterizable(String literal) {
+        String value = literal.substring(1, literal.length() - 1);
+
+        return !value.isEmpty() && !NON_PARAMETERIZABLE_VALUE.matcher(value).matches();
+    }
+
+    private static String getLastToken(StringBuilder text) {
+        int end = text.length();
+
+        while (end > 0 && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        int start = end;
+
+        if (start > 0 && isOperatorChar(text.charAt(start - 1))) {
+            while (start > 0 && isOperatorChar(text.charAt(start - 1))) {
+                start--;
+            }
+        } else {
+            while (start > 0 && Character.isLetter(text.charAt(start - 1))) {
+                start--;
+            }
+
+            // part of an identifier like 'hive_gt'
+            if (start > 0 && (Character.isLetterOrDigit(text.charAt(start - 1)) || text.charAt(start - 1) == '_')) {
+                return "";
+            }
+        }
+
+        return text.substring(start, end).toLowerCase();
+    }
+
+    private static boolean isOperatorChar(char c) {
+        return c == '=' || c == '!' || c == '<' || c == '>';
+    }
+
+    @VisibleForTesting
+    static final class NormalizedQuery {
+        final String       text;
+        final List<String> values;
+
+        NormalizedQuery(String text, List<String> values) {
+            this.text   = text;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Translated Gremlin query split at the literal values of the DSL query; values of another query of the same shape
+     * are inserted between the fragments.
+     */
+    @VisibleForTesting
+    static final class Template {
+        private final String[] fragments;
+        private final int[]    valueIndexes; // index of DSL value that follows the fragment at the same position
+        private final boolean  hasSelect;
+
+        private Template(String[] fragments, int[] valueIndexes, boolean hasSelect) {
+            this.fragments    = fragments;
+            this.valueIndexes = valueIndexes;
+            this.hasSelect    = hasSelect;
+        }
+
+        static Template create(GremlinQuery gremlinQuery, List<String> values) {
+            String queryStr = gremlinQuery.queryStr();
+
+            if (queryStr == null || new HashSet<>(values).size() != values.size()) {
+                return null;
+            }
+
+            Map<Integer, Integer> valueIndexByPosition = new TreeMap<>();
+
+            for (int i = 0; i < values.size(); i++) {
+                String value = values.get(i);
+                int    pos   = queryStr.indexOf(value);
+
+                if (pos == -1 || queryStr.indexOf(value, pos + 1) != -1) {
+                    return null;
+                }
+
+                valueIndexByPosition.put(pos, i);
+            }
+
+            String[] fragments    = new String[values.size() + 1];
+            int[]    valueIndexes = new int[values.size()];
+            int      idx          = 0;
+            int      start        = 0;
+
+            for (Map.Entry<Integer, Integer> entry : valueIndexByPosition.entrySet()) {
+                if (entry.getKey() < start) { // overlapping values
+                    return null;
+                }
+
+                fragments[idx]    = queryStr.substring(start, entry.getKey());
+                valueIndexes[idx] = entry.getValue();
+                start             = entry.getKey() + values.get(entry.getValue()).length();
+
+                idx++;
+            }
+
+            fragments[idx] = queryStr.substring(start);
+
+            return new Template(fragments, valueIndexes, gremlinQuery.hasSelectList());
+        }
+
+        GremlinQuery toGremlinQuery(List<String> values) {
+            StringBuilder sb = new StringBuilder();
+
+            for (int i = 0; i < valueIndexes.length; i++) {
+                sb.append(fragments[i]).append(values.get(valueIndexes[i]));
+            }
+
+            sb.append(fragments[fragments.length - 1]);
+
+            return new GremlinQuery(sb.toString(), hasSelect);
+        }
+    }
+}
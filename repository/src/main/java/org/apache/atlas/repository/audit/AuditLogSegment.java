@@ -0,0 +1,336 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of audit event records, used by FileBasedAuditRepository.
+ *
+ * Record layout: length (int, of rest of the record), crc32 (int, of rest of the record), type (byte), timestamp (long),
+ * entity-id length (short), entity-id (utf-8), event (utf-8 json).
+ *
+ * Appends reserve space in the file with a compare-and-set of the write position, and then write the record at the
+ * reserved position - so that concurrent appends don't wait for each other. A segment is sealed once it is full; reads
+ * from a sealed segment, after its pending appends complete, use a memory-mapped buffer.
+ */
+public class AuditLogSegment implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditLogSegment.class);
+
+    public static final byte TYPE_V1 = 1;
+    public static final byte TYPE_V2 = 2;
+
+    private static final int LENGTH_SIZE       = 4;
+    private static final int CRC_SIZE          = 4;
+    private static final int FIXED_HEADER_SIZE = CRC_SIZE + 1 + 8 + 2; // crc, type, timestamp, entity-id length
+
+    private final    int              id;
+    private final    File             file;
+    private final    FileChannel      channel;
+    private final    long             capacity;
+    private final    AtomicLong       writePosition = new AtomicLong();
+    private final    AtomicInteger    pendingWrites = new AtomicInteger();
+    private final    AtomicLong       liveBytes     = new AtomicLong();
+    private volatile boolean          isSealed      = false;
+    private volatile MappedByteBuffer mappedBuffer  = null;
+
+    public AuditLogSegment(int id, File file, long capacity) throws IOException {
+        this.id       = id;
+        this.file     = file;
+        this.capacity = Math.min(capacity, Integer.MAX_VALUE);
+        this.channel  = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return writePosition.get();
+    }
+
+    public long getLiveBytes() {
+        return liveBytes.get();
+    }
+
+    public void addLiveBytes(long delta) {
+        liveBytes.addAndGet(delta);
+    }
+
+    public boolean isSealed() {
+        return isSealed;
+    }
+
+    /**
+     * @return offset of the record in this segment; -1 if the segment doesn't have space for the record
+     */
+    public long append(ByteBuffer record) throws IOException {
+        final int length = record.remaining();
+
+        pendingWrites.incrementAndGet();
+
+        try {
+            long position;
+
+            while (true) {
+                position = writePosition.get();
+
+                // a record larger than the capacity is written to an empty segment
+                if (isSealed || (position + length > capacity && position > 0)) {
+                    return -1;
+                }
+
+                if (writePosition.compareAndSet(position, position + length)) {
+                    break;
+                }
+            }
+
+            for (long offset = position; record.hasRemaining(); ) {
+                offset += channel.write(record, offset);
+            }
+
+            return position;
+        } finally {
+            pendingWrites.decrementAndGet();
+        }
+    }
+
+    /**
+     * No more records will be appended to this segment.
+     */
+    public void seal() throws IOException {
+        isSealed = true;
+
+        channel.force(false);
+    }
+
+    /**
+     * @return the record at the given offset, including the length prefix
+     */
+    public ByteBuffer readRecord(long offset) throws IOException {
+        MappedByteBuffer mapped = getMappedBuffer();
+
+        if (mapped != null) {
+            ByteBuffer ret = mapped.duplicate();
+
+            ret.position((int) offset);
+
+            int length = ret.getInt();
+
+            ret.position((int) offset);
+            ret.limit((int) offset + LENGTH_SIZE + length);
+
+            return ret.slice();
+        }
+
+        ByteBuffer lengthBuf = ByteBuffer.allocate(LENGTH_SIZE);
+
+        readFully(lengthBuf, offset);
+
+        int        length = lengthBuf.getInt(0);
+        ByteBuffer ret    = ByteBuffer.allocate(LENGTH_SIZE + length);
+
+        readFully(ret, offset);
+
+        ret.flip();
+
+        return ret;
+    }
+
+    /**
+     * Reads the records in the segment, from the beginning. Reading stops at the first incomplete or corrupt record -
+     * left by a stop in the middle of an append - and the segment is truncated there.
+     */
+    public void recover(RecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        long validEnd = forEachRecord(fileSize, visitor);
+
+        if (validEnd < fileSize) {
+            LOG.warn("{}: truncating {} bytes after offset {}, of incomplete or corrupt record", file, fileSize - validEnd, validEnd);
+
+            channel.truncate(validEnd);
+        }
+
+        writePosition.set(validEnd);
+    }
+
+    /**
+     * Reads the records appended to the segment, from the beginning.
+     */
+    public void forEachRecord(RecordVisitor visitor) throws IOException {
+        forEachRecord(writePosition.get(), visitor);
+    }
+
+    // returns offset after the last valid record
+    private long forEachRecord(long endOffset, RecordVisitor visitor) throws IOException {
+        ByteBuffer lengthBuf = ByteBuffer.allocate(LENGTH_SIZE);
+        long       offset    = 0;
+
+        while (offset + LENGTH_SIZE + FIXED_HEADER_SIZE <= endOffset) {
+            lengthBuf.clear();
+
+            readFully(lengthBuf, offset);
+
+            int length = lengthBuf.getInt(0);
+
+            if (length < FIXED_HEADER_SIZE || offset + LENGTH_SIZE + length > endOffset) {
+                break;
+            }
+
+            Record record = decode(readRecord(offset));
+
+            if (record == null) {
+                break;
+            }
+
+            visitor.visit(offset, LENGTH_SIZE + length, record);
+
+            offset += LENGTH_SIZE + length;
+        }
+
+        return offset;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException excp) {
+            LOG.warn("failed to close audit log segment {}", file, excp);
+        }
+    }
+
+    public static ByteBuffer encode(byte type, long timestamp, String entityId, String event) {
+        byte[]     entityIdBytes = entityId.getBytes(StandardCharsets.UTF_8);
+        byte[]     eventBytes    = event.getBytes(StandardCharsets.UTF_8);
+        int        length        = FIXED_HEADER_SIZE + entityIdBytes.length + eventBytes.length;
+        ByteBuffer ret           = ByteBuffer.allocate(LENGTH_SIZE + length);
+
+        ret.putInt(length);
+        ret.putInt(0); // crc, set below
+        ret.put(type);
+        ret.putLong(timestamp);
+        ret.putShort((short) entityIdBytes.length);
+        ret.put(entityIdBytes);
+        ret.put(eventBytes);
+
+        ret.putInt(LENGTH_SIZE, getCrc(ret.array(), LENGTH_SIZE + CRC_SIZE, length - CRC_SIZE));
+
+        ret.flip();
+
+        return ret;
+    }
+
+    /**
+     * @return record in the given buffer, which includes the length prefix; null if the crc doesn't match
+     */
+    public static Record decode(ByteBuffer buffer) {
+        ByteBuffer buf    = buffer.duplicate();
+        int        length = buf.getInt();
+        int        crc    = buf.getInt();
+        byte[]     bytes  = new byte[length - CRC_SIZE];
+
+        buf.get(bytes);
+
+        if (crc != getCrc(bytes, 0, bytes.length)) {
+            return null;
+        }
+
+        ByteBuffer content       = ByteBuffer.wrap(bytes);
+        byte       type          = content.get();
+        long       timestamp     = content.getLong();
+        int        entityIdLen   = content.getShort() & 0xFFFF;
+        String     entityId      = new String(bytes, content.position(), entityIdLen, StandardCharsets.UTF_8);
+        int        eventPosition = content.position() + entityIdLen;
+        String     event         = new String(bytes, eventPosition, bytes.length - eventPosition, StandardCharsets.UTF_8);
+
+        return new Record(type, timestamp, entityId, event);
+    }
+
+    private MappedByteBuffer getMappedBuffer() throws IOException {
+        MappedByteBuffer ret = mappedBuffer;
+
+        if (ret == null && isSealed && pendingWrites.get() == 0) {
+            synchronized (this) {
+                ret = mappedBuffer;
+
+                if (ret == null) {
+                    ret = channel.map(FileChannel.MapMode.READ_ONLY, 0, writePosition.get());
+
+                    mappedBuffer = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, offset + buffer.position());
+
+            if (count < 0) {
+                throw new EOFException(file + ": unexpected end of file at offset " + (offset + buffer.position()));
+            }
+        }
+    }
+
+    private static int getCrc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+
+        crc.update(bytes, offset, length);
+
+        return (int) crc.getValue();
+    }
+
+    public static class Record {
+        public final byte   type;
+        public final long   timestamp;
+        public final String entityId;
+        public final String event;
+
+        Record(byte type, long timestamp, String entityId, String event) {
+            this.type      = type;
+            this.timestamp = timestamp;
+            this.entityId  = entityId;
+            this.event     = event;
+        }
+    }
+
+    public interface RecordVisitor {
+        void visit(long offset, int length, Record record) throws IOException;
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.type.AtlasType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Local write-ahead log of audit events that are not yet written to the audit repository - so that the events can be
+ * written after a restart, if the server stops before the writes complete.
+ *
+ * Events are appended, one JSON per line, to segment files in the given directory. Each append is identified by a
+ * sequence number; once events up to a sequence number are written to the repository, segments holding only those
+ * events are deleted. Segments holding events not yet written, for example while writes to the repository are being
+ * retried, are kept. Appends are flushed to the OS, but not synced to the disk.
+ */
+public class AuditWriteAheadLog implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditWriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final File           dir;
+    private final long           segmentSizeBytes;
+    private final long           startTime         = System.currentTimeMillis();
+    private final Deque<Segment> closedSegments    = new ArrayDeque<>();
+    private       Segment        currentSegment    = null;
+    private       int            segmentCount      = 0;
+    private       long           lastSeq           = 0;
+
+    public AuditWriteAheadLog(File dir, long segmentSizeBytes) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("failed to create audit write-ahead log directory " + dir);
+        }
+
+        this.dir              = dir;
+        this.segmentSizeBytes = segmentSizeBytes;
+    }
+
+    /**
+     * @return sequence number of this append
+     */
+    public synchronized long append(List<EntityAuditEventV2> events) throws IOException {
+        if (currentSegment == null || currentSegment.sizeBytes >= segmentSizeBytes) {
+            rollSegment();
+        }
+
+        for (EntityAuditEventV2 event : events) {
+            byte[] bytes = (AtlasType.toJson(event) + "\n").getBytes(StandardCharsets.UTF_8);
+
+            currentSegment.out.write(bytes);
+
+            currentSegment.sizeBytes += bytes.length;
+        }
+
+        currentSegment.out.flush();
+
+        currentSegment.lastSeq = ++lastSeq;
+
+        return lastSeq;
+    }
+
+    /**
+     * Deletes segments with only the events of appends up to the given sequence number.
+     */
+    public synchronized void markWritten(long seq) {
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSeq <= seq) {
+            closedSegments.pollFirst().delete();
+        }
+
+        if (currentSegment != null && currentSegment.lastSeq <= seq && closedSegments.isEmpty()) {
+            currentSegment.close();
+            currentSegment.delete();
+
+            currentSegment = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : closedSegments) {
+            segment.close();
+        }
+
+        if (currentSegment != null) {
+            currentSegment.close();
+        }
+    }
+
+    /**
+     * @return segment files in the given directory, oldest first
+     */
+    public static List<File> getSegmentFiles(File dir) {
+        File[]     files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        List<File> ret   = new ArrayList<>();
+
+        if (files != null) {
+            Arrays.sort(files);
+
+            ret.addAll(Arrays.asList(files));
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return events in the given segment file; an incomplete last line, from a stop during the append, is skipped
+     */
+    public static List<EntityAuditEventV2> readEvents(File segmentFile) throws IOException {
+        List<EntityAuditEventV2> ret = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(segmentFile.toPath()), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    EntityAuditEventV2 event = AtlasType.fromJson(line, EntityAuditEventV2.class);
+
+                    if (event != null) {
+                        ret.add(event);
+                    }
+                } catch (Exception excp) {
+                    LOG.warn("{}: ignoring unreadable audit event", segmentFile, excp);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private void rollSegment() throws IOException {
+        if (currentSegment != null) {
+            currentSegment.close();
+
+            closedSegments.addLast(currentSegment);
+        }
+
+        File file = new File(dir, String.format("%s%013d-%06d%s", SEGMENT_PREFIX, startTime, segmentCount++, SEGMENT_SUFFIX));
+
+        currentSegment = new Segment(file, new FileOutputStream(file));
+    }
+
+    private static class Segment {
+        final File         file;
+        final OutputStream out;
+        long               sizeBytes = 0;
+        long               lastSeq   = 0;
+
+        Segment(File file, OutputStream out) {
+            this.file = file;
+            this.out  = out;
+        }
+
+        void close() {
+            try {
+                out.close();
+            } catch (IOException excp) {
+                LOG.warn("failed to close audit write-ahead log segment {}", file, excp);
+            }
+        }
+
+        void delete() {
+            if (!file.delete()) {
+                LOG.warn("failed to delete audit write-ahead log segment {}", file);
+            }
+        }
+    }
+}
@@ -0,0 +1,707 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.EntityAuditEvent;
+import org.apache.atlas.annotation.ConditionalOnAtlasProperty;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.apache.atlas.repository.audit.AuditLogSegment.TYPE_V1;
+import static org.apache.atlas.repository.audit.AuditLogSegment.TYPE_V2;
+
+/**
+ * Entity audit repository that stores audit events in append-only segment files in a local directory - for
+ * deployments without HBase.
+ * <p>
+ * Events are appended to the active segment; a new segment is started once the active segment is full. An index of
+ * events of each entity, ordered by timestamp, is kept in memory and rebuilt from the segments on start. As with
+ * HBaseBasedAuditRepository, the key of an event is entity id + timestamp, and there can be just 1 event per key - a
+ * later event replaces the earlier one. Events of an entity are appended while holding the lock on its index, hence the
+ * order of events of a key in the segments is the order in which the index was updated - which is the order in which
+ * the events are replayed on start.
+ * <p>
+ * A background task deletes the oldest segments when the size of all segments exceeds the configured maximum, and
+ * rewrites segments in which most of the events are replaced.
+ */
+@Singleton
+@Component
+@ConditionalOnAtlasProperty(property = "atlas.EntityAuditRepository.impl")
+public class FileBasedAuditRepository implements Service, EntityAuditRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(FileBasedAuditRepository.class);
+
+    public static final String CONFIG_PREFIX                      = "atlas.audit.file";
+    public static final String CONFIG_DIR                         = CONFIG_PREFIX + ".dir";
+    public static final String CONFIG_SEGMENT_SIZE_BYTES          = CONFIG_PREFIX + ".segment.size.bytes";
+    public static final String CONFIG_MAX_SIZE_BYTES              = CONFIG_PREFIX + ".max.size.bytes";
+    public static final String CONFIG_EVENT_MAX_SIZE_BYTES        = CONFIG_PREFIX + ".event.max.size.bytes";
+    public static final String CONFIG_COMPACTION_INTERVAL_SECONDS = CONFIG_PREFIX + ".compaction.interval.seconds";
+    public static final String CONFIG_COMPACTION_MIN_LIVE_RATIO   = CONFIG_PREFIX + ".compaction.min.live.ratio";
+
+    public static final long   DEFAULT_SEGMENT_SIZE_BYTES          = 64L * 1024 * 1024;
+    public static final long   DEFAULT_MAX_SIZE_BYTES              = 10L * 1024 * 1024 * 1024;
+    public static final long   DEFAULT_EVENT_MAX_SIZE_BYTES        = 1024 * 1024;
+    public static final long   DEFAULT_COMPACTION_INTERVAL_SECONDS = 5 * 60;
+    public static final double DEFAULT_COMPACTION_MIN_LIVE_RATIO   = 0.5;
+
+    private static final String AUDIT_EXCLUDE_ATTRIBUTE_PROPERTY = "atlas.audit.hbase.entity";
+    private static final String FIELD_SEPARATOR                  = ":";
+    private static final String SEGMENT_PREFIX                   = "audit-";
+    private static final String SEGMENT_SUFFIX                   = ".log";
+
+    private final NavigableMap<Integer, AuditLogSegment> segments                     = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, EntityIndex>     indexV1                      = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, EntityIndex>     indexV2                      = new ConcurrentHashMap<>();
+    private final ReadWriteLock                          segmentsLock                 = new ReentrantReadWriteLock(); // write-locked only to delete segments
+    private final Map<String, List<String>>              auditExcludedAttributesCache = Collections.synchronizedMap(new HashMap<String, List<String>>());
+
+    private          Configuration            configuration;
+    private          File                     dir;
+    private          long                     segmentSizeBytes;
+    private          long                     maxSizeBytes;
+    private          long                     eventMaxSizeBytes;
+    private          double                   compactionMinLiveRatio;
+    private          boolean                  persistEntityDefinition;
+    private volatile AuditLogSegment          activeSegment;
+    private          ScheduledExecutorService compactionExecutor;
+
+    @Override
+    public void start() throws AtlasException {
+        startInternal(ApplicationProperties.get());
+    }
+
+    @VisibleForTesting
+    void startInternal(Configuration configuration) throws AtlasException {
+        this.configuration           = configuration;
+        this.dir                     = new File(configuration.getString(CONFIG_DIR, System.getProperty("atlas.data", System.getProperty("java.io.tmpdir")) + File.separator + "audit"));
+        this.segmentSizeBytes        = configuration.getLong(CONFIG_SEGMENT_SIZE_BYTES, DEFAULT_SEGMENT_SIZE_BYTES);
+        this.maxSizeBytes            = configuration.getLong(CONFIG_MAX_SIZE_BYTES, DEFAULT_MAX_SIZE_BYTES);
+        this.eventMaxSizeBytes       = configuration.getLong(CONFIG_EVENT_MAX_SIZE_BYTES, DEFAULT_EVENT_MAX_SIZE_BYTES);
+        this.compactionMinLiveRatio  = configuration.getDouble(CONFIG_COMPACTION_MIN_LIVE_RATIO, DEFAULT_COMPACTION_MIN_LIVE_RATIO);
+        this.persistEntityDefinition = configuration.getBoolean(HBaseBasedAuditRepository.CONFIG_PERSIST_ENTITY_DEFINITION, false);
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new AtlasException("failed to create audit directory " + dir);
+        }
+
+        try {
+            loadSegments();
+
+            activeSegment = openSegment(segments.isEmpty() ? 0 : segments.lastKey() + 1);
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        }
+
+        long compactionIntervalSecs = configuration.getLong(CONFIG_COMPACTION_INTERVAL_SECONDS, DEFAULT_COMPACTION_INTERVAL_SECONDS);
+
+        compactionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-audit-compaction-%d").setDaemon(true).build());
+
+        compactionExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                compact();
+            }
+        }, compactionIntervalSecs, compactionIntervalSecs, TimeUnit.SECONDS);
+
+        LOG.info("FileBasedAuditRepository: dir={}, segments={}, entities={}, segmentSizeBytes={}, maxSizeBytes={}", dir, segments.size(), indexV1.size() + indexV2.size(), segmentSizeBytes, maxSizeBytes);
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        if (compactionExecutor != null) {
+            compactionExecutor.shutdownNow();
+
+            try {
+                compactionExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            compactionExecutor = null;
+        }
+
+        try {
+            if (activeSegment != null) {
+                activeSegment.seal();
+            }
+        } catch (IOException e) {
+            LOG.warn("failed to sync audit log segment {}", activeSegment.getFile(), e);
+        }
+
+        for (AuditLogSegment segment : segments.values()) {
+            segment.close();
+        }
+
+        segments.clear();
+        indexV1.clear();
+        indexV2.clear();
+
+        activeSegment = null;
+    }
+
+    @Override
+    public void putEventsV1(EntityAuditEvent... events) throws AtlasException {
+        putEventsV1(Arrays.asList(events));
+    }
+
+    @Override
+    public void putEventsV1(List<EntityAuditEvent> events) throws AtlasException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Putting {} events", events.size());
+        }
+
+        try {
+            for (EntityAuditEvent event : events) {
+                EntityAuditEvent toStore = event;
+
+                if (!persistEntityDefinition && event.getEntityDefinition() != null) {
+                    toStore = new EntityAuditEvent(event.getEntityId(), event.getTimestamp(), event.getUser(), event.getAction(), event.getDetails(), null);
+                }
+
+                append(TYPE_V1, event.getEntityId(), event.getTimestamp(), AtlasType.toV1Json(toStore));
+            }
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        }
+    }
+
+    @Override
+    public List<EntityAuditEvent> listEventsV1(String entityId, String startKey, short n) throws AtlasException {
+        List<EntityAuditEvent> ret = new ArrayList<>();
+
+        try {
+            for (AuditLogSegment.Record record : listRecords(indexV1, entityId, startKey, n)) {
+                EntityAuditEvent event = EntityAuditEvent.fromString(record.event);
+
+                event.setEventKey(getKey(record.entityId, record.timestamp));
+
+                ret.add(event);
+            }
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void putEventsV2(EntityAuditEventV2... events) throws AtlasBaseException {
+        putEventsV2(Arrays.asList(events));
+    }
+
+    @Override
+    public void putEventsV2(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Putting {} events", events.size());
+        }
+
+        try {
+            for (EntityAuditEventV2 event : events) {
+                EntityAuditEventV2 toStore = event;
+
+                if (!persistEntityDefinition && event.getEntity() != null) {
+                    toStore = new EntityAuditEventV2(event.getEntityId(), event.getTimestamp(), event.getUser(), event.getAction(), event.getDetails(), null);
+                }
+
+                append(TYPE_V2, event.getEntityId(), event.getTimestamp(), AtlasType.toJson(toStore));
+            }
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        }
+    }
+
+    @Override
+    public List<EntityAuditEventV2> listEventsV2(String entityId, String startKey, short n) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Listing events for entity id {}, starting timestamp {}, #records {}", entityId, startKey, n);
+        }
+
+        List<EntityAuditEventV2> ret = new ArrayList<>();
+
+        try {
+            for (AuditLogSegment.Record record : listRecords(indexV2, entityId, startKey, n)) {
+                EntityAuditEventV2 event = AtlasType.fromJson(record.event, EntityAuditEventV2.class);
+
+                event.setEventKey(getKey(record.entityId, record.timestamp));
+
+                ret.add(event);
+            }
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public List<Object> listEvents(String entityId, String startKey, short maxResults) throws AtlasBaseException {
+        List ret = listEventsV2(entityId, startKey, maxResults);
+
+        try {
+            if (CollectionUtils.isEmpty(ret)) {
+                ret = listEventsV1(entityId, startKey, maxResults);
+            }
+        } catch (AtlasException e) {
+            throw new AtlasBaseException(e);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return maximum size of an audit event
+     */
+    @Override
+    public long repositoryMaxSize() {
+        return eventMaxSizeBytes;
+    }
+
+    @Override
+    public List<String> getAuditExcludeAttributes(String entityType) {
+        List<String> ret = null;
+
+        if (auditExcludedAttributesCache.containsKey(entityType)) {
+            ret = auditExcludedAttributesCache.get(entityType);
+        } else if (configuration != null) {
+            String[] excludeAttributes = configuration.getStringArray(AUDIT_EXCLUDE_ATTRIBUTE_PROPERTY + "." + entityType + "." + "attributes.exclude");
+
+            if (excludeAttributes != null) {
+                ret = Arrays.asList(excludeAttributes);
+            }
+
+            auditExcludedAttributesCache.put(entityType, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Deletes the oldest segments while the size of all segments exceeds maxSizeBytes, and rewrites segments in which
+     * the live events are less than compactionMinLiveRatio of the segment size.
+     */
+    @VisibleForTesting
+    void compact() {
+        try {
+            long totalSize = 0;
+
+            for (AuditLogSegment segment : segments.values()) {
+                totalSize += segment.getSize();
+            }
+
+            for (AuditLogSegment segment : new ArrayList<>(segments.values())) {
+                if (segment == activeSegment) {
+                    break;
+                }
+
+                if (totalSize > maxSizeBytes) {
+                    LOG.info("deleting audit log segment {}: size of all segments {} bytes exceeds limit of {} bytes", segment.getFile(), totalSize, maxSizeBytes);
+
+                    totalSize -= segment.getSize();
+
+                    deleteSegment(segment);
+                } else if (segment.getLiveBytes() < segment.getSize() * compactionMinLiveRatio) {
+                    LOG.info("rewriting audit log segment {}: live {} bytes of {} bytes", segment.getFile(), segment.getLiveBytes(), segment.getSize());
+
+                    totalSize -= (segment.getSize() - segment.getLiveBytes());
+
+                    rewriteSegment(segment);
+                }
+            }
+        } catch (Throwable t) {
+            LOG.error("audit log compaction failed", t);
+        }
+    }
+
+    @VisibleForTesting
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    private void append(byte type, String entityId, long timestamp, String event) throws IOException {
+        ByteBuffer  record      = AuditLogSegment.encode(type, timestamp, entityId, event);
+        EntityIndex entityIndex = getEntityIndex(type, entityId);
+
+        synchronized (entityIndex) {
+            while (true) {
+                AuditLogSegment segment = activeSegment;
+                long            offset  = segment.append(record.duplicate());
+
+                if (offset != -1) {
+                    addToIndex(entityIndex, timestamp, segment, offset, record.remaining());
+
+                    break;
+                }
+
+                rollSegment(segment);
+            }
+        }
+    }
+
+    private synchronized void rollSegment(AuditLogSegment fullSegment) throws IOException {
+        if (activeSegment == fullSegment) {
+            activeSegment = openSegment(fullSegment.getId() + 1);
+
+            fullSegment.seal();
+        }
+    }
+
+    private List<AuditLogSegment.Record> listRecords(Map<String, EntityIndex> index, String entityId, String startKey, short n) throws IOException {
+        EntityIndex entityIndex = index.get(entityId);
+        long        startTime   = Long.MAX_VALUE;
+
+        if (StringUtils.isNotEmpty(startKey)) {
+            String prefix = entityId + FIELD_SEPARATOR;
+
+            // in case the user sets random start key, guarding against random events
+            if (!startKey.startsWith(prefix) || !StringUtils.isNumeric(startKey.substring(prefix.length()))) {
+                return Collections.emptyList();
+            }
+
+            startTime = Long.parseLong(startKey.substring(prefix.length()));
+        }
+
+        if (entityIndex == null) {
+            return Collections.emptyList();
+        }
+
+        List<AuditLogSegment.Record> ret = new ArrayList<>();
+
+        segmentsLock.readLock().lock();
+
+        try {
+            for (long location : entityIndex.list(startTime, n)) {
+                AuditLogSegment segment = segments.get(getSegmentId(location));
+
+                if (segment != null) { // null if the segment was deleted after the index lookup
+                    AuditLogSegment.Record record = AuditLogSegment.decode(segment.readRecord(getOffset(location)));
+
+                    if (record != null) {
+                        ret.add(record);
+                    }
+                }
+            }
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+
+        return ret;
+    }
+
+    private EntityIndex getEntityIndex(byte type, String entityId) {
+        ConcurrentMap<String, EntityIndex> index       = type == TYPE_V1 ? indexV1 : indexV2;
+        EntityIndex                        entityIndex = index.get(entityId);
+
+        if (entityIndex == null) {
+            EntityIndex existing = index.putIfAbsent(entityId, entityIndex = new EntityIndex());
+
+            if (existing != null) {
+                entityIndex = existing;
+            }
+        }
+
+        return entityIndex;
+    }
+
+    private void addToIndex(EntityIndex entityIndex, long timestamp, AuditLogSegment segment, long offset, int length) {
+        segment.addLiveBytes(length);
+
+        EntityIndex.Entry replaced = entityIndex.put(timestamp, getLocation(segment.getId(), offset), length);
+
+        if (replaced != null) {
+            AuditLogSegment replacedSegment = segments.get(getSegmentId(replaced.location));
+
+            if (replacedSegment != null) {
+                replacedSegment.addLiveBytes(-replaced.length);
+            }
+        }
+    }
+
+    // copies the live events of the segment to the active segment, and deletes the segment
+    private void rewriteSegment(final AuditLogSegment segment) throws IOException {
+        segment.forEachRecord(new AuditLogSegment.RecordVisitor() {
+            @Override
+            public void visit(long offset, int length, AuditLogSegment.Record record) throws IOException {
+                EntityIndex entityIndex = (record.type == TYPE_V1 ? indexV1 : indexV2).get(record.entityId);
+                long        location    = getLocation(segment.getId(), offset);
+
+                if (entityIndex == null) {
+                    return;
+                }
+
+                // an event appended for the same key while the copy is written would be replaced by the copy on start;
+                // holding the lock, the event is either appended earlier - and the copy is skipped - or after the copy
+                synchronized (entityIndex) {
+                    if (!entityIndex.contains(record.timestamp, location)) {
+                        return;
+                    }
+
+                    ByteBuffer      raw = segment.readRecord(offset);
+                    AuditLogSegment target;
+                    long            newOffset;
+
+                    while (true) {
+                        target    = activeSegment;
+                        newOffset = target.append(raw.duplicate());
+
+                        if (newOffset != -1) {
+                            break;
+                        }
+
+                        rollSegment(target);
+                    }
+
+                    if (entityIndex.replace(record.timestamp, location, getLocation(target.getId(), newOffset))) {
+                        target.addLiveBytes(length);
+                    }
+                }
+            }
+        });
+
+        deleteSegment(segment);
+    }
+
+    private void deleteSegment(final AuditLogSegment segment) throws IOException {
+        // remove index entries of the events in the segment first, so that the segment isn't looked up by new reads
+        segment.forEachRecord(new AuditLogSegment.RecordVisitor() {
+            @Override
+            public void visit(long offset, int length, AuditLogSegment.Record record) {
+                EntityIndex entityIndex = (record.type == TYPE_V1 ? indexV1 : indexV2).get(record.entityId);
+
+                if (entityIndex != null) {
+                    entityIndex.remove(record.timestamp, getLocation(segment.getId(), offset));
+                }
+            }
+        });
+
+        segmentsLock.writeLock().lock();
+
+        try {
+            segments.remove(segment.getId());
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+
+        segment.close();
+
+        if (!segment.getFile().delete()) {
+            LOG.warn("failed to delete audit log segment {}", segment.getFile());
+        }
+    }
+
+    private void loadSegments() throws IOException {
+        File[] files = dir.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            String name = file.getName();
+
+            if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                continue;
+            }
+
+            String segmentId = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+
+            if (!StringUtils.isNumeric(segmentId) || segmentId.isEmpty()) {
+                continue;
+            }
+
+            final AuditLogSegment segment = new AuditLogSegment(Integer.parseInt(segmentId), file, segmentSizeBytes);
+
+            segments.put(segment.getId(), segment);
+        }
+
+        for (final AuditLogSegment segment : segments.values()) {
+            segment.recover(new AuditLogSegment.RecordVisitor() {
+                @Override
+                public void visit(long offset, int length, AuditLogSegment.Record record) {
+                    addToIndex(getEntityIndex(record.type, record.entityId), record.timestamp, segment, offset, length);
+                }
+            });
+
+            segment.seal();
+        }
+    }
+
+    private AuditLogSegment openSegment(int id) throws IOException {
+        AuditLogSegment ret = new AuditLogSegment(id, new File(dir, String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)), segmentSizeBytes);
+
+        segments.put(id, ret);
+
+        return ret;
+    }
+
+    private static String getKey(String entityId, long timestamp) {
+        return entityId + FIELD_SEPARATOR + timestamp;
+    }
+
+    private static long getLocation(int segmentId, long offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static int getSegmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static long getOffset(long location) {
+        return location & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Locations of the events of an entity, ordered by timestamp.
+     */
+    @VisibleForTesting
+    static final class EntityIndex {
+        private long[] timestamps = new long[4];
+        private long[] locations  = new long[4];
+        private int[]  lengths    = new int[4];
+        private int    size       = 0;
+
+        /**
+         * @return the event replaced by this event, with the same timestamp; null if there is no such event
+         */
+        synchronized Entry put(long timestamp, long location, int length) {
+            int idx = Arrays.binarySearch(timestamps, 0, size, timestamp);
+
+            if (idx >= 0) {
+                Entry ret = new Entry(locations[idx], lengths[idx]);
+
+                locations[idx] = location;
+                lengths[idx]   = length;
+
+                return ret;
+            }
+
+            idx = -idx - 1;
+
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                locations  = Arrays.copyOf(locations, size * 2);
+                lengths    = Arrays.copyOf(lengths, size * 2);
+            }
+
+            if (idx < size) {
+                System.arraycopy(timestamps, idx, timestamps, idx + 1, size - idx);
+                System.arraycopy(locations, idx, locations, idx + 1, size - idx);
+                System.arraycopy(lengths, idx, lengths, idx + 1, size - idx);
+            }
+
+            timestamps[idx] = timestamp;
+            locations[idx]  = location;
+            lengths[idx]    = length;
+
+            size++;
+
+            return null;
+        }
+
+        /**
+         * @return locations of at most n events with timestamp not after the given time, latest first
+         */
+        synchronized long[] list(long startTime, int n) {
+            int idx = Arrays.binarySearch(timestamps, 0, size, startTime);
+            int end = idx >= 0 ? idx : (-idx - 1) - 1; // index of the latest event with timestamp <= startTime
+
+            long[] ret = new long[Math.max(0, Math.min(n, end + 1))];
+
+            for (int i = 0; i < ret.length; i++) {
+                ret[i] = locations[end - i];
+            }
+
+            return ret;
+        }
+
+        synchronized boolean contains(long timestamp, long location) {
+            int idx = Arrays.binarySearch(timestamps, 0, size, timestamp);
+
+            return idx >= 0 && locations[idx] == location;
+        }
+
+        synchronized boolean replace(long timestamp, long location, long newLocation) {
+            int idx = Arrays.binarySearch(timestamps, 0, size, timestamp);
+
+            if (idx >= 0 && locations[idx] == location) {
+                locations[idx] = newLocation;
+
+                return true;
+            }
+
+            return false;
+        }
+
+        synchronized void remove(long timestamp, long location) {
+            int idx = Arrays.binarySearch(timestamps, 0, size, timestamp);
+
+            if (idx >= 0 && locations[idx] == location) {
+                System.arraycopy(timestamps, idx + 1, timestamps, idx, size - idx - 1);
+                System.arraycopy(locations, idx + 1, locations, idx, size - idx - 1);
+                System.arraycopy(lengths, idx + 1, lengths, idx, size - idx - 1);
+
+                size--;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        static final class Entry {
+            final long location;
+            final int  length;
+
+            Entry(long location, int length) {
+                this.location = location;
+                this.length   = length;
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audit events to HBase in a background thread, using a BufferedMutator. Events are added to a bounded queue,
+ * after being appended to the write-ahead log (if given); the mutator is flushed once flushSize events are pending or
+ * flushIntervalMs after the last flush, whichever is earlier.
+ *
+ * When the write of events fails, the events are kept and written again after retryIntervalMs; the interval doubles
+ * after each failure, up to maxRetryIntervalMs. Events count against the queue size until they are written, so that
+ * events are rejected - and written by the caller - once the queue is full. Events not written by the time the writer
+ * stops remain in the write-ahead log, to be written on the next start.
+ */
+public class HBaseAuditEventWriter implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseAuditEventWriter.class);
+
+    public static final String METRIC_QUEUE_DEPTH      = "queueDepth";
+    public static final String METRIC_EVENTS_WRITTEN   = "eventsWritten";
+    public static final String METRIC_EVENTS_FAILED    = "eventsFailed";
+    public static final String METRIC_EVENTS_REJECTED  = "eventsRejected";
+    public static final String METRIC_FLUSH_COUNT      = "flushCount";
+    public static final String METRIC_FLUSH_TIME_TOTAL = "flushTimeTotalMs";
+    public static final String METRIC_FLUSH_TIME_MAX   = "flushTimeMaxMs";
+    public static final String METRIC_RETRY_COUNT      = "retryCount";
+
+    private final BufferedMutator             mutator;
+    private final AuditWriteAheadLog          wal;
+    private final int                         maxQueueSize;
+    private final int                         flushSize;
+    private final long                        flushIntervalMs;
+    private final long                        minRetryIntervalMs;
+    private final long                        maxRetryIntervalMs;
+    private final BlockingQueue<PendingWrite> queue          = new LinkedBlockingQueue<>();
+    private final AtomicLong                  queueDepth     = new AtomicLong();
+    private final AtomicLong                  eventsWritten  = new AtomicLong();
+    private final AtomicLong                  eventsFailed   = new AtomicLong();
+    private final AtomicLong                  eventsRejected = new AtomicLong();
+    private final AtomicLong                  flushCount     = new AtomicLong();
+    private final AtomicLong                  flushTimeTotal = new AtomicLong();
+    private final AtomicLong                  flushTimeMax   = new AtomicLong();
+    private final AtomicLong                  retryCount     = new AtomicLong();
+    private final Thread                      writerThread;
+    private       long                        nextSeq        = 0;
+    private       volatile boolean            isStopped      = false;
+
+    // accessed only by the writer thread
+    private final List<PendingWrite> unflushedWrites = new ArrayList<>();
+    private       int                unflushedCount  = 0;
+    private       long               lastFlushTime   = System.currentTimeMillis();
+    private       boolean            isRetryPending  = false;
+    private       long               retryIntervalMs;
+    private       long               nextRetryTime   = 0;
+
+    public HBaseAuditEventWriter(BufferedMutator mutator, AuditWriteAheadLog wal, int maxQueueSize, int flushSize, long flushIntervalMs,
+                                 long minRetryIntervalMs, long maxRetryIntervalMs) {
+        this.mutator            = mutator;
+        this.wal                = wal;
+        this.maxQueueSize       = maxQueueSize;
+        this.flushSize          = flushSize;
+        this.flushIntervalMs    = flushIntervalMs;
+        this.minRetryIntervalMs = Math.max(1, minRetryIntervalMs);
+        this.maxRetryIntervalMs = Math.max(this.minRetryIntervalMs, maxRetryIntervalMs);
+        this.retryIntervalMs    = this.minRetryIntervalMs;
+        this.writerThread       = new Thread(this, "atlas-audit-writer");
+
+        writerThread.setDaemon(true);
+
+        LOG.info("HBaseAuditEventWriter: maxQueueSize={}, flushSize={}, flushIntervalMs={}, retryIntervalMs={}-{}, writeAheadLog={}",
+                 maxQueueSize, flushSize, flushIntervalMs, this.minRetryIntervalMs, this.maxRetryIntervalMs, wal != null);
+    }
+
+    public void start() {
+        writerThread.start();
+    }
+
+    /**
+     * @return false if the events are not queued - as the queue is full, or the writer is stopped; the caller should
+     * write the events
+     */
+    public boolean put(List<EntityAuditEventV2> events) throws IOException {
+        synchronized (this) {
+            if (isStopped || queueDepth.get() + events.size() > maxQueueSize) {
+                eventsRejected.addAndGet(events.size());
+
+                return false;
+            }
+
+            long seq = wal != null ? wal.append(events) : ++nextSeq;
+
+            queueDepth.addAndGet(events.size());
+            queue.add(new PendingWrite(events, seq));
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits till the events queued before this call are written.
+     *
+     * @return false if the events were not written within the given time
+     */
+    public boolean flush(long timeoutMs) throws InterruptedException {
+        if (isStopped) {
+            return true;
+        }
+
+        PendingWrite flushRequest = new PendingWrite(null, 0);
+
+        queue.add(flushRequest);
+
+        return flushRequest.flushed.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the queued events and stops the writer thread.
+     */
+    public void stop(long timeoutMs) throws InterruptedException {
+        PendingWrite stopRequest = new PendingWrite(null, 0);
+
+        synchronized (this) {
+            if (isStopped) {
+                return;
+            }
+
+            isStopped = true;
+
+            queue.add(stopRequest);
+        }
+
+        writerThread.join(timeoutMs);
+
+        if (writerThread.isAlive()) {
+            LOG.warn("HBaseAuditEventWriter: {} events were not written in {}ms", queueDepth.get(), timeoutMs);
+        }
+
+        LOG.info("HBaseAuditEventWriter stopped: {}", getMetrics());
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_QUEUE_DEPTH, queueDepth.get());
+        ret.put(METRIC_EVENTS_WRITTEN, eventsWritten.get());
+        ret.put(METRIC_EVENTS_FAILED, eventsFailed.get());
+        ret.put(METRIC_EVENTS_REJECTED, eventsRejected.get());
+        ret.put(METRIC_FLUSH_COUNT, flushCount.get());
+        ret.put(METRIC_FLUSH_TIME_TOTAL, flushTimeTotal.get());
+        ret.put(METRIC_FLUSH_TIME_MAX, flushTimeMax.get());
+        ret.put(METRIC_RETRY_COUNT, retryCount.get());
+
+        return ret;
+    }
+
+    @Override
+    public void run() {
+        List<PendingWrite> flushRequests = new ArrayList<>();
+        boolean            isStopRequest = false;
+
+        while (!isStopRequest) {
+            long         waitTimeMs = getWaitTimeMs();
+            PendingWrite write;
+
+            try {
+                write = queue.poll(waitTimeMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException excp) {
+                LOG.warn("HBaseAuditEventWriter: interrupted; {} events were not written", queueDepth.get());
+
+                break;
+            }
+
+            if (write != null) {
+                if (write.events != null) {
+                    mutate(write);
+                } else {
+                    flushRequests.add(write);
+
+                    isStopRequest = isStopped && queue.isEmpty();
+                }
+            }
+
+            if (isFlushDue(isStopRequest, !flushRequests.isEmpty())) {
+                flush();
+            }
+
+            // flush requests complete once the events queued before them are written
+            if (unflushedCount == 0 && !flushRequests.isEmpty()) {
+                for (PendingWrite flushRequest : flushRequests) {
+                    flushRequest.flushed.countDown();
+                }
+
+                flushRequests.clear();
+            }
+        }
+
+        if (unflushedCount > 0) {
+            eventsFailed.addAndGet(unflushedCount);
+
+            if (wal != null) {
+                LOG.error("HBaseAuditEventWriter: {} audit events were not written; these will be written from the write-ahead log on next start", unflushedCount);
+            } else {
+                LOG.error("HBaseAuditEventWriter: {} audit events were not written", unflushedCount);
+            }
+        }
+
+        try {
+            mutator.close();
+        } catch (IOException excp) {
+            LOG.warn("HBaseAuditEventWriter: failed to close mutator", excp);
+        }
+
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    private long getWaitTimeMs() {
+        if (unflushedCount == 0) {
+            return flushIntervalMs;
+        }
+
+        long nextFlushTime = isRetryPending ? nextRetryTime : (lastFlushTime + flushIntervalMs);
+
+        return Math.max(0, nextFlushTime - System.currentTimeMillis());
+    }
+
+    private boolean isFlushDue(boolean isStopRequest, boolean hasFlushRequest) {
+        if (unflushedCount == 0) {
+            return false;
+        } else if (isStopRequest) { // last attempt before stop, even if the retry is not yet due
+            return true;
+        } else if (isRetryPending) {
+            return System.currentTimeMillis() >= nextRetryTime;
+        } else {
+            return hasFlushRequest || unflushedCount >= flushSize || System.currentTimeMillis() - lastFlushTime >= flushIntervalMs;
+        }
+    }
+
+    private void mutate(PendingWrite write) {
+        for (EntityAuditEventV2 event : write.events) {
+            write.puts.add(HBaseBasedAuditRepository.toPut(event));
+        }
+
+        unflushedWrites.add(write);
+
+        unflushedCount += write.events.size();
+
+        if (isRetryPending) { // mutations will be sent with the retry
+            return;
+        }
+
+        try {
+            mutator.mutate(write.puts);
+        } catch (IOException excp) {
+            onWriteFailure(excp);
+        }
+    }
+
+    private void flush() {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            if (isRetryPending) {
+                retryCount.incrementAndGet();
+
+                // mutations pending in the mutator may or may not have been written; send all of them again
+                for (PendingWrite write : unflushedWrites) {
+                    mutator.mutate(write.puts);
+                }
+            }
+
+            mutator.flush();
+
+            long flushTime = System.currentTimeMillis() - startTime;
+
+            eventsWritten.addAndGet(unflushedCount);
+            flushCount.incrementAndGet();
+            flushTimeTotal.addAndGet(flushTime);
+
+            if (flushTime > flushTimeMax.get()) {
+                flushTimeMax.set(flushTime);
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("HBaseAuditEventWriter: wrote {} events in {}ms", unflushedCount, flushTime);
+            }
+
+            if (wal != null) {
+                wal.markWritten(unflushedWrites.get(unflushedWrites.size() - 1).seq);
+            }
+
+            if (isRetryPending) {
+                LOG.info("HBaseAuditEventWriter: wrote {} audit events after retry", unflushedCount);
+
+                isRetryPending  = false;
+                retryIntervalMs = minRetryIntervalMs;
+            }
+
+            queueDepth.addAndGet(-unflushedCount);
+
+            unflushedWrites.clear();
+
+            unflushedCount = 0;
+        } catch (IOException excp) {
+            onWriteFailure(excp);
+        }
+
+        lastFlushTime = System.currentTimeMillis();
+    }
+
+    // events are kept, along with their write-ahead log segments, to be written again after the retry interval
+    private void onWriteFailure(IOException excp) {
+        LOG.error("HBaseAuditEventWriter: failed to write {} audit events; will retry in {}ms", unflushedCount, retryIntervalMs, excp);
+
+        isRetryPending  = true;
+        nextRetryTime   = System.currentTimeMillis() + retryIntervalMs;
+        retryIntervalMs = Math.min(retryIntervalMs * 2, maxRetryIntervalMs);
+    }
+
+    private static class PendingWrite {
+        final List<EntityAuditEventV2> events; // null for flush/stop requests
+        final List<Mutation>           puts    = new ArrayList<>();
+        final long                     seq;
+        final CountDownLatch           flushed = new CountDownLatch(1);
+
+        PendingWrite(List<EntityAuditEventV2> events, long seq) {
+            this.events = events;
+            this.seq    = seq;
+        }
+    }
+}
@@ -55,9 +55,11 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Singleton;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -88,6 +90,25 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     public static final String DEFAULT_TABLE_NAME = "ATLAS_ENTITY_AUDIT_EVENTS";
     public static final String CONFIG_PERSIST_ENTITY_DEFINITION = CONFIG_PREFIX + ".persistEntityDefinition";
 
+    public static final String CONFIG_ASYNC_ENABLED                = CONFIG_PREFIX + ".hbase.async.enabled";
+    public static final String CONFIG_ASYNC_QUEUE_SIZE             = CONFIG_PREFIX + ".hbase.async.queue.size";
+    public static final String CONFIG_ASYNC_FLUSH_SIZE             = CONFIG_PREFIX + ".hbase.async.flush.size";
+    public static final String CONFIG_ASYNC_FLUSH_INTERVAL_MS      = CONFIG_PREFIX + ".hbase.async.flush.interval.ms";
+    public static final String CONFIG_ASYNC_READ_FLUSH_TIMEOUT_MS  = CONFIG_PREFIX + ".hbase.async.read.flush.timeout.ms";
+    public static final String CONFIG_ASYNC_RETRY_INTERVAL_MS      = CONFIG_PREFIX + ".hbase.async.retry.interval.ms";
+    public static final String CONFIG_ASYNC_MAX_RETRY_INTERVAL_MS  = CONFIG_PREFIX + ".hbase.async.max.retry.interval.ms";
+    public static final String CONFIG_ASYNC_WAL_DIR                = CONFIG_PREFIX + ".hbase.async.wal.dir";
+    public static final String CONFIG_ASYNC_WAL_SEGMENT_SIZE_BYTES = CONFIG_PREFIX + ".hbase.async.wal.segment.size.bytes";
+
+    public static final boolean DEFAULT_ASYNC_ENABLED                = false;
+    public static final int     DEFAULT_ASYNC_QUEUE_SIZE             = 10000;
+    public static final int     DEFAULT_ASYNC_FLUSH_SIZE             = 500;
+    public static final long    DEFAULT_ASYNC_FLUSH_INTERVAL_MS      = 1000;
+    public static final long    DEFAULT_ASYNC_READ_FLUSH_TIMEOUT_MS  = 10000;
+    public static final long    DEFAULT_ASYNC_RETRY_INTERVAL_MS      = 1000;
+    public static final long    DEFAULT_ASYNC_MAX_RETRY_INTERVAL_MS  = 60000;
+    public static final long    DEFAULT_ASYNC_WAL_SEGMENT_SIZE_BYTES = 16 * 1024 * 1024;
+
     public static final byte[] COLUMN_FAMILY = Bytes.toBytes("dt");
     public static final byte[] COLUMN_ACTION = Bytes.toBytes("a");
     public static final byte[] COLUMN_DETAIL = Bytes.toBytes("d");
@@ -111,8 +132,11 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
             throw new RuntimeException(e);
         }
     }
-    private TableName tableName;
-    private Connection connection;
+    private TableName             tableName;
+    private Connection            connection;
+    private HBaseAuditEventWriter asyncWriter;
+    private long                  readFlushTimeoutMs;
+    private List<File>            pendingWalFiles = Collections.emptyList();
 
     /**
      * Add events to the event repository
@@ -169,6 +193,16 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
             LOG.debug("Putting {} events", events.size());
         }
 
+        if (asyncWriter != null) {
+            try {
+                if (asyncWriter.put(events)) {
+                    return;
+                }
+            } catch (IOException e) {
+                LOG.warn("failed to queue {} audit events; writing synchronously", events.size(), e);
+            }
+        }
+
         Table table = null;
 
         try {
@@ -176,21 +210,7 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
             List<Put> puts = new ArrayList<>(events.size());
 
             for (EntityAuditEventV2 event : events) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Adding entity audit event {}", event);
-                }
-
-                Put put = new Put(getKey(event.getEntityId(), event.getTimestamp()));
-
-                addColumn(put, COLUMN_ACTION, event.getAction());
-                addColumn(put, COLUMN_USER, event.getUser());
-                addColumn(put, COLUMN_DETAIL, event.getDetails());
-
-                if (persistEntityDefinition) {
-                    addColumn(put, COLUMN_DEFINITION, event.getEntity());
-                }
-
-                puts.add(put);
+                puts.add(toPut(event));
             }
 
             table.put(puts);
@@ -205,12 +225,21 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
         }
     }
 
+    /**
+     * @return metrics of the asynchronous writer of audit events; empty if asynchronous writes are disabled
+     */
+    public Map<String, Long> getAsyncWriterMetrics() {
+        return asyncWriter != null ? asyncWriter.getMetrics() : Collections.<String, Long>emptyMap();
+    }
+
     @Override
     public List<EntityAuditEventV2> listEventsV2(String entityId, String startKey, short n) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Listing events for entity id {}, starting timestamp {}, #records {}", entityId, startKey, n);
         }
 
+        flushAsyncWrites();
+
         Table         table   = null;
         ResultScanner scanner = null;
 
@@ -298,13 +327,45 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
         return ret;
     }
 
-    private <T> void addColumn(Put put, byte[] columnName, T columnValue) {
+    static Put toPut(EntityAuditEventV2 event) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Adding entity audit event {}", event);
+        }
+
+        Put put = new Put(getKey(event.getEntityId(), event.getTimestamp()));
+
+        addColumn(put, COLUMN_ACTION, event.getAction());
+        addColumn(put, COLUMN_USER, event.getUser());
+        addColumn(put, COLUMN_DETAIL, event.getDetails());
+
+        if (persistEntityDefinition) {
+            addColumn(put, COLUMN_DEFINITION, event.getEntity());
+        }
+
+        return put;
+    }
+
+    private void flushAsyncWrites() throws AtlasBaseException {
+        if (asyncWriter != null) {
+            try {
+                if (!asyncWriter.flush(readFlushTimeoutMs)) {
+                    LOG.warn("audit events queued for write were not written in {}ms; recent events may not be listed", readFlushTimeoutMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException(e);
+            }
+        }
+    }
+
+    private static <T> void addColumn(Put put, byte[] columnName, T columnValue) {
         if (columnValue != null && !columnValue.toString().isEmpty()) {
             put.addColumn(COLUMN_FAMILY, columnName, Bytes.toBytes(columnValue.toString()));
         }
     }
 
-    private byte[] getKey(String id, Long ts) {
+    private static byte[] getKey(String id, Long ts) {
         assert id != null : "entity id can't be null";
         assert ts != null : "timestamp can't be null";
         String keyStr = id + FIELD_SEPARATOR + ts;
@@ -538,10 +599,75 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
             throw new AtlasException(e);
         }
 
+        if (atlasConf.getBoolean(CONFIG_ASYNC_ENABLED, DEFAULT_ASYNC_ENABLED)) {
+            startAsyncWriter(atlasConf);
+        }
+
         if (!HAConfiguration.isHAEnabled(atlasConf)) {
             LOG.info("HA is disabled. Hence creating table on startup.");
             createTableIfNotExists();
+            writePendingEvents();
+        }
+    }
+
+    private void startAsyncWriter(Configuration atlasConf) throws AtlasException {
+        String walDir = atlasConf.getString(CONFIG_ASYNC_WAL_DIR, System.getProperty("atlas.data", System.getProperty("java.io.tmpdir")) + File.separator + "audit-wal");
+
+        try {
+            File               dir = new File(walDir);
+            AuditWriteAheadLog wal;
+
+            pendingWalFiles = AuditWriteAheadLog.getSegmentFiles(dir);
+            wal             = new AuditWriteAheadLog(dir, atlasConf.getLong(CONFIG_ASYNC_WAL_SEGMENT_SIZE_BYTES, DEFAULT_ASYNC_WAL_SEGMENT_SIZE_BYTES));
+
+            readFlushTimeoutMs = atlasConf.getLong(CONFIG_ASYNC_READ_FLUSH_TIMEOUT_MS, DEFAULT_ASYNC_READ_FLUSH_TIMEOUT_MS);
+            asyncWriter        = new HBaseAuditEventWriter(connection.getBufferedMutator(tableName), wal,
+                                                           atlasConf.getInt(CONFIG_ASYNC_QUEUE_SIZE, DEFAULT_ASYNC_QUEUE_SIZE),
+                                                           atlasConf.getInt(CONFIG_ASYNC_FLUSH_SIZE, DEFAULT_ASYNC_FLUSH_SIZE),
+                                                           atlasConf.getLong(CONFIG_ASYNC_FLUSH_INTERVAL_MS, DEFAULT_ASYNC_FLUSH_INTERVAL_MS),
+                                                           atlasConf.getLong(CONFIG_ASYNC_RETRY_INTERVAL_MS, DEFAULT_ASYNC_RETRY_INTERVAL_MS),
+                                                           atlasConf.getLong(CONFIG_ASYNC_MAX_RETRY_INTERVAL_MS, DEFAULT_ASYNC_MAX_RETRY_INTERVAL_MS));
+
+            asyncWriter.start();
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        }
+    }
+
+    // writes events from the write-ahead log of the previous run, which may not have been written to HBase
+    private void writePendingEvents() {
+        for (File walFile : pendingWalFiles) {
+            try {
+                List<EntityAuditEventV2> events = AuditWriteAheadLog.readEvents(walFile);
+
+                LOG.info("writing {} audit events from write-ahead log {}", events.size(), walFile);
+
+                for (int i = 0; i < events.size(); i += DEFAULT_ASYNC_FLUSH_SIZE) {
+                    List<EntityAuditEventV2> batch = events.subList(i, Math.min(events.size(), i + DEFAULT_ASYNC_FLUSH_SIZE));
+                    Table                    table = connection.getTable(tableName);
+
+                    try {
+                        List<Put> puts = new ArrayList<>(batch.size());
+
+                        for (EntityAuditEventV2 event : batch) {
+                            puts.add(toPut(event));
+                        }
+
+                        table.put(puts);
+                    } finally {
+                        close(table);
+                    }
+                }
+
+                if (!walFile.delete()) {
+                    LOG.warn("failed to delete audit write-ahead log {}", walFile);
+                }
+            } catch (IOException | AtlasException e) {
+                LOG.error("failed to write audit events from write-ahead log {}; will be retried on next start", walFile, e);
+            }
         }
+
+        pendingWalFiles = Collections.emptyList();
     }
 
     @VisibleForTesting
@@ -551,6 +677,16 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
 
     @Override
     public void stop() throws AtlasException {
+        if (asyncWriter != null) {
+            try {
+                asyncWriter.stop(readFlushTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            asyncWriter = null;
+        }
+
         close(connection);
     }
 
@@ -558,6 +694,7 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     public void instanceIsActive() throws AtlasException {
         LOG.info("Reacting to active: Creating HBase table for Audit if required.");
         createTableIfNotExists();
+        writePendingEvents();
     }
 
     @Override
@@ -77,15 +77,20 @@ import static org.apache.atlas.repository.Constants.ENTITY_TEXT_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.FULLTEXT_INDEX;
 import static org.apache.atlas.repository.Constants.GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.METRICS_NAME_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.MODIFIED_BY_KEY;
 import static org.apache.atlas.repository.Constants.PROPAGATED_TRAIT_NAMES_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.RELATIONSHIP_GUID_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.SUPER_TYPES_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_ENTITY_GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_STATUS_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.TIMESTAMP_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.TRAIT_NAMES_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.TYPENAME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPES_BOOTSTRAP_NAME_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
 import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
 import static org.apache.atlas.repository.graphdb.AtlasCardinality.LIST;
@@ -284,6 +289,11 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             createVertexIndex(management, PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, String.class, false, LIST, true, true);
             createVertexIndex(management, TYPENAME_PROPERTY_KEY, String.class, true, SINGLE, true, true);
             createVertexIndex(management, VERTEX_TYPE_PROPERTY_KEY, String.class, false, SINGLE, true, true);
+            createVertexIndex(management, TASK_GUID_PROPERTY_KEY, String.class, true, SINGLE, true, false);
+            createVertexIndex(management, TASK_STATUS_PROPERTY_KEY, String.class, false, SINGLE, true, false);
+            createVertexIndex(management, TASK_ENTITY_GUID_PROPERTY_KEY, String.class, false, SINGLE, true, false);
+            createVertexIndex(management, METRICS_NAME_PROPERTY_KEY, String.class, true, SINGLE, true, false);
+            createVertexIndex(management, TYPES_BOOTSTRAP_NAME_PROPERTY_KEY, String.class, true, SINGLE, true, false);
 
             // create vertex-centric index
             createVertexCentricIndex(management, CLASSIFICATION_LABEL, AtlasEdgeDirection.BOTH, CLASSIFICATION_EDGE_NAME_PROPERTY_KEY, String.class, SINGLE);
@@ -809,7 +809,6 @@ public final class GraphHelper {
         String            query        = queryProvider.getQuery(TAG_PROPAGATION_IMPACTED_INSTANCES);
         List<AtlasVertex> ret          = new ArrayList<>();
 
-        bindings.put("g", graph);
         bindings.put("guid", guid);
 
         try {
@@ -825,6 +824,8 @@ public final class GraphHelper {
             }
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e);
+        } finally {
+            graph.releaseGremlinScriptEngine(scriptEngine);
         }
 
         return ret;
@@ -836,7 +837,6 @@ public final class GraphHelper {
         String            query        = queryProvider.getQuery(TAG_PROPAGATION_IMPACTED_INSTANCES_FOR_REMOVAL);
         List<AtlasVertex> ret          = new ArrayList<>();
 
-        bindings.put("g", graph);
         bindings.put("guid", guid);
         bindings.put("relationshipGuid", relationshipGuid);
 
@@ -853,6 +853,8 @@ public final class GraphHelper {
             }
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e);
+        } finally {
+            graph.releaseGremlinScriptEngine(scriptEngine);
         }
 
         return ret;
@@ -872,6 +874,9 @@ public final class GraphHelper {
     public static void updateModificationMetadata(AtlasVertex vertex) {
         AtlasGraphUtilsV1.setProperty(vertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContextV1.get().getRequestTime());
         AtlasGraphUtilsV1.setProperty(vertex, Constants.MODIFIED_BY_KEY, RequestContextV1.get().getUser());
+
+        // content-hash is valid only until the entity is modified; the caller sets it again after a full update
+        vertex.removeProperty(Constants.ENTITY_CONTENT_HASH_PROPERTY_KEY);
     }
 
     public static String getQualifiedNameForMapKey(String prefix, String key) {
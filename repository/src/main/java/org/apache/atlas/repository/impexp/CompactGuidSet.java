@@ -0,0 +1,262 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of entity guids, used to track entities visited during export. Guids in canonical UUID form (36 lower-case
+ * hex characters and dashes) are stored as a pair of longs in an open-addressing table, which takes about a tenth of
+ * the memory of a HashSet of Strings; other guids are stored in a HashSet.
+ *
+ * This class is not thread-safe.
+ */
+public class CompactGuidSet {
+    private static final int   DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR              = 0.6f;
+
+    private final Set<String> otherGuids = new HashSet<>();
+    private       long[]      msbs;
+    private       long[]      lsbs;
+    private       int         uuidCount;
+    private       int         resizeThreshold;
+    private       boolean     containsNilUuid; // 0/0 marks an empty slot in the table
+
+    public CompactGuidSet() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public CompactGuidSet(int initialCapacity) {
+        allocate(tableSizeFor(Math.max(initialCapacity, 16)));
+    }
+
+    public boolean add(String guid) {
+        if (!isCanonicalUuid(guid)) {
+            return otherGuids.add(guid);
+        }
+
+        long msb = getMostSignificantBits(guid);
+        long lsb = getLeastSignificantBits(guid);
+
+        if (msb == 0 && lsb == 0) {
+            boolean ret = !containsNilUuid;
+
+            containsNilUuid = true;
+
+            return ret;
+        }
+
+        int slot = findSlot(msb, lsb);
+
+        if (!isEmptySlot(slot)) {
+            return false;
+        }
+
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+
+        if (++uuidCount > resizeThreshold) {
+            resize(msbs.length * 2);
+        }
+
+        return true;
+    }
+
+    public boolean contains(String guid) {
+        if (!isCanonicalUuid(guid)) {
+            return otherGuids.contains(guid);
+        }
+
+        long msb = getMostSignificantBits(guid);
+        long lsb = getLeastSignificantBits(guid);
+
+        if (msb == 0 && lsb == 0) {
+            return containsNilUuid;
+        }
+
+        return !isEmptySlot(findSlot(msb, lsb));
+    }
+
+    public boolean remove(String guid) {
+        if (!isCanonicalUuid(guid)) {
+            return otherGuids.remove(guid);
+        }
+
+        long msb = getMostSignificantBits(guid);
+        long lsb = getLeastSignificantBits(guid);
+
+        if (msb == 0 && lsb == 0) {
+            boolean ret = containsNilUuid;
+
+            containsNilUuid = false;
+
+            return ret;
+        }
+
+        int slot = findSlot(msb, lsb);
+
+        if (isEmptySlot(slot)) {
+            return false;
+        }
+
+        deleteSlot(slot);
+
+        uuidCount--;
+
+        return true;
+    }
+
+    public int size() {
+        return uuidCount + (containsNilUuid ? 1 : 0) + otherGuids.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        allocate(DEFAULT_INITIAL_CAPACITY);
+
+        uuidCount       = 0;
+        containsNilUuid = false;
+
+        otherGuids.clear();
+    }
+
+    static boolean isCanonicalUuid(String guid) {
+        if (guid == null || guid.length() != 36) {
+            return false;
+        }
+
+        for (int i = 0; i < 36; i++) {
+            char c = guid.charAt(i);
+
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long getMostSignificantBits(String guid) {
+        return toLong(guid, 0, 18);
+    }
+
+    private static long getLeastSignificantBits(String guid) {
+        return toLong(guid, 19, 36);
+    }
+
+    private static long toLong(String guid, int start, int end) {
+        long ret = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = guid.charAt(i);
+
+            if (c != '-') {
+                ret = (ret << 4) | Character.digit(c, 16);
+            }
+        }
+
+        return ret;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int ret = Integer.highestOneBit(capacity);
+
+        return ret < capacity ? ret << 1 : ret;
+    }
+
+    private int indexOf(long msb, long lsb) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32)) & (msbs.length - 1);
+    }
+
+    private boolean isEmptySlot(int slot) {
+        return msbs[slot] == 0 && lsbs[slot] == 0;
+    }
+
+    // returns the slot holding the given uuid, or the empty slot where it should be added
+    private int findSlot(long msb, long lsb) {
+        int mask = msbs.length - 1;
+        int slot = indexOf(msb, lsb);
+
+        while (!isEmptySlot(slot) && (msbs[slot] != msb || lsbs[slot] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    // backward-shift deletion: move later entries of the probe sequence into the freed slot, so that lookups don't
+    // need tombstones
+    private void deleteSlot(int slot) {
+        int mask = msbs.length - 1;
+        int free = slot;
+        int next = slot;
+
+        while (true) {
+            next = (next + 1) & mask;
+
+            if (isEmptySlot(next)) {
+                break;
+            }
+
+            int home = indexOf(msbs[next], lsbs[next]);
+
+            boolean canMove = free <= next ? (home <= free || home > next) : (home <= free && home > next);
+
+            if (canMove) {
+                msbs[free] = msbs[next];
+                lsbs[free] = lsbs[next];
+                free       = next;
+            }
+        }
+
+        msbs[free] = 0;
+        lsbs[free] = 0;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldMsbs.length; i++) {
+            if (oldMsbs[i] != 0 || oldLsbs[i] != 0) {
+                int slot = findSlot(oldMsbs[i], oldLsbs[i]);
+
+                msbs[slot] = oldMsbs[i];
+                lsbs[slot] = oldLsbs[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs            = new long[capacity];
+        lsbs            = new long[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
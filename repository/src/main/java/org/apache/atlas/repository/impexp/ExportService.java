@@ -18,9 +18,12 @@
 package org.apache.atlas.repository.impexp;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.AtlasServiceException;
+import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.impexp.AtlasExportRequest;
@@ -52,14 +55,14 @@ import org.apache.atlas.util.AtlasGremlinQueryProvider;
 import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import javax.script.ScriptEngine;
-import javax.script.ScriptException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -67,6 +70,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.atlas.model.impexp.AtlasExportRequest.*;
 
@@ -74,10 +84,21 @@ import static org.apache.atlas.model.impexp.AtlasExportRequest.*;
 public class ExportService {
     private static final Logger LOG = LoggerFactory.getLogger(ExportService.class);
 
+    public static final String EXPORT_FETCH_THREADS     = "atlas.export.fetch.threads";
+    public static final String EXPORT_FETCH_BATCH_SIZE  = "atlas.export.fetch.batch.size";
+    public static final String EXPORT_WRITER_QUEUE_SIZE = "atlas.export.writer.queue.size";
+
+    private static final int DEFAULT_EXPORT_FETCH_THREADS     = 4;
+    private static final int DEFAULT_EXPORT_FETCH_BATCH_SIZE  = 100;
+    private static final int DEFAULT_EXPORT_WRITER_QUEUE_SIZE = 100;
+
     private final AtlasTypeRegistry         typeRegistry;
     private final AtlasGraph                atlasGraph;
     private final EntityGraphRetriever      entityGraphRetriever;
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
+    private final int                       fetchThreads;
+    private final int                       fetchBatchSize;
+    private final int                       writerQueueSize;
 
     @Inject
     public ExportService(final AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) throws AtlasBaseException {
@@ -85,13 +106,33 @@ public class ExportService {
         this.entityGraphRetriever = new EntityGraphRetriever(this.typeRegistry);
         this.atlasGraph           = atlasGraph;
         this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
+
+        Configuration configuration = null;
+
+        try {
+            configuration = ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; export will use default configuration", excp);
+        }
+
+        this.fetchThreads    = configuration != null ? configuration.getInt(EXPORT_FETCH_THREADS, DEFAULT_EXPORT_FETCH_THREADS) : DEFAULT_EXPORT_FETCH_THREADS;
+        this.fetchBatchSize  = Math.max(1, configuration != null ? configuration.getInt(EXPORT_FETCH_BATCH_SIZE, DEFAULT_EXPORT_FETCH_BATCH_SIZE) : DEFAULT_EXPORT_FETCH_BATCH_SIZE);
+        this.writerQueueSize = configuration != null ? configuration.getInt(EXPORT_WRITER_QUEUE_SIZE, DEFAULT_EXPORT_WRITER_QUEUE_SIZE) : DEFAULT_EXPORT_WRITER_QUEUE_SIZE;
+    }
+
+    /**
+     * Creates a ZipSink to write the export to the given stream. Unless disabled by configuration, entities are
+     * serialized and written to the stream by a dedicated thread, while the export continues to fetch entities.
+     */
+    public ZipSink createZipSink(OutputStream outputStream) {
+        return new ZipSink(outputStream, writerQueueSize);
     }
 
     public AtlasExportResult run(ZipSink exportSink, AtlasExportRequest request, String userName, String hostName,
                                  String requestingIP) throws AtlasBaseException {
         long              startTime = System.currentTimeMillis();
         AtlasExportResult result    = new AtlasExportResult(request, userName, requestingIP, hostName, startTime);
-        ExportContext     context   = new ExportContext(result, exportSink);
+        ExportContext     context   = new ExportContext(result, exportSink, createFetchExecutor());
 
         try {
             LOG.info("==> export(user={}, from={})", userName, requestingIP);
@@ -103,15 +144,34 @@ public class ExportService {
         } catch(Exception ex) {
             LOG.error("Operation failed: ", ex);
         } finally {
-            atlasGraph.releaseGremlinScriptEngine(context.scriptEngine);
             LOG.info("<== export(user={}, from={}): status {}", userName, requestingIP, context.result.getOperationStatus());
             context.clear();
             result.clear();
+
+            if (context.fetchExecutor != null) {
+                context.fetchExecutor.shutdown();
+            }
         }
 
+        // entries queued for the writer thread, including typesdef and export-order, are written by the time
+        // close() returns; a failure to write any of them leaves the zip truncated, hence fails the export
+        exportSink.close();
+
         return context.result;
     }
 
+    private ExecutorService createFetchExecutor() {
+        if (fetchThreads <= 1) {
+            return null;
+        }
+
+        // the export thread fetches one share of each batch itself; when all pool threads are busy, the remaining
+        // shares are fetched in the export thread as well
+        return new ThreadPoolExecutor(fetchThreads - 1, fetchThreads - 1, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                                      new ThreadFactoryBuilder().setNameFormat("atlas-export-%d").setDaemon(true).build(),
+                                      new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     private void updateSinkWithOperationMetrics(ExportContext context, AtlasExportResult.OperationStatus[] statuses, int duration) throws AtlasBaseException {
         context.result.getData().getEntityCreationOrder().addAll(context.lineageProcessed);
         context.sink.setExportOrder(context.result.getData().getEntityCreationOrder());
@@ -193,14 +253,19 @@ public class ExportService {
                 return AtlasExportResult.OperationStatus.FAIL;
             }
 
+            List<String> startGuids = new ArrayList<>(entities.size());
+
             for (AtlasEntityWithExtInfo entityWithExtInfo : entities) {
-                processEntity(entityWithExtInfo.getEntity().getGuid(), context);
+                startGuids.add(entityWithExtInfo.getEntity().getGuid());
             }
 
+            processEntities(startGuids, context);
+
             while (!context.guidsToProcess.isEmpty()) {
                 while (!context.guidsToProcess.isEmpty()) {
-                    String guid = context.guidsToProcess.remove(0);
-                    processEntity(guid, context);
+                    List<String> guids = context.guidsToProcess.removeFirst(fetchBatchSize);
+
+                    processEntities(guids, context);
                 }
 
                 if (!context.lineageToProcess.isEmpty()) {
@@ -261,12 +326,13 @@ public class ExportService {
                     continue;
                 }
 
-                context.bindings.clear();
-                context.bindings.put("typeName", typeName);
-                context.bindings.put("attrName", attribute.getQualifiedName());
-                context.bindings.put("attrValue", attrValue);
+                Map<String, Object> bindings = new HashMap<>();
 
-                List<String> guids = executeGremlinQueryForGuids(queryTemplate, context);
+                bindings.put("typeName", typeName);
+                bindings.put("attrName", attribute.getQualifiedName());
+                bindings.put("attrValue", attrValue);
+
+                List<String> guids = executeGremlinQueryForGuids(queryTemplate, bindings);
 
                 if (CollectionUtils.isNotEmpty(guids)) {
                     for (String guid : guids) {
@@ -289,16 +355,42 @@ public class ExportService {
         return ret;
     }
 
-    private void processEntity(String guid, ExportContext context) throws AtlasBaseException {
+    private void processEntities(List<String> guids, ExportContext context) throws AtlasBaseException {
+        for (int i = 0; i < guids.size(); i += fetchBatchSize) {
+            List<ExportEntity> entities = new ArrayList<>(fetchBatchSize);
+
+            for (String guid : guids.subList(i, Math.min(i + fetchBatchSize, guids.size()))) {
+                if (!context.guidsProcessed.contains(guid)) {
+                    entities.add(new ExportEntity(guid, context.getDirection(guid)));
+                }
+            }
+
+            fetchEntities(entities, context);
+
+            for (ExportEntity entity : entities) {
+                processEntity(entity, context);
+            }
+        }
+    }
+
+    private void processEntity(ExportEntity exportEntity, ExportContext context) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("==> processEntity({})", guid);
+            LOG.debug("==> processEntity({})", exportEntity.guid);
         }
 
-        if (!context.guidsProcessed.contains(guid)) {
-            TraversalDirection      direction         = context.guidDirection.get(guid);
-            AtlasEntityWithExtInfo  entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+        if (!context.guidsProcessed.contains(exportEntity.guid)) {
+            TraversalDirection direction = context.getDirection(exportEntity.guid);
 
-            if(!context.lineageProcessed.contains(guid)) {
+            if (direction != exportEntity.direction) {
+                // an entity processed earlier in this batch changed the traversal direction; fetch again
+                exportEntity = new ExportEntity(exportEntity.guid, direction);
+
+                fetchEntity(exportEntity, context.fetchType);
+            }
+
+            AtlasEntityWithExtInfo entityWithExtInfo = exportEntity.entityWithExtInfo;
+
+            if(!context.lineageProcessed.contains(exportEntity.guid)) {
                 context.result.getData().getEntityCreationOrder().add(entityWithExtInfo.getEntity().getGuid());
             }
 
@@ -306,44 +398,171 @@ public class ExportService {
             addTypes(entityWithExtInfo.getEntity(), context);
 
             context.guidsProcessed.add(entityWithExtInfo.getEntity().getGuid());
-            getConntedEntitiesBasedOnOption(entityWithExtInfo.getEntity(), context, direction);
 
             if(entityWithExtInfo.getReferredEntities() != null) {
                 for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
                     addTypes(e, context);
-                    getConntedEntitiesBasedOnOption(e, context, direction);
                 }
+            }
+
+            for (ConnectedEntity connectedEntity : exportEntity.connectedEntities) {
+                addConnectedEntity(connectedEntity, context);
+            }
 
-                context.guidsProcessed.addAll(entityWithExtInfo.getReferredEntities().keySet());
+            if(entityWithExtInfo.getReferredEntities() != null) {
+                for (String referredGuid : entityWithExtInfo.getReferredEntities().keySet()) {
+                    context.guidsProcessed.add(referredGuid);
+                }
             }
         }
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== processEntity({})", guid);
+            LOG.debug("<== processEntity({})", exportEntity.guid);
         }
     }
 
-    private void getConntedEntitiesBasedOnOption(AtlasEntity entity, ExportContext context, TraversalDirection direction) throws AtlasBaseException {
+    private void addConnectedEntity(ConnectedEntity connectedEntity, ExportContext context) {
+        String guid = connectedEntity.guid;
+
         switch (context.fetchType) {
+            case CONNECTED: {
+                TraversalDirection currentDirection = context.getDirection(guid);
+
+                if (currentDirection == null) {
+                    context.addToBeProcessed(connectedEntity.isProcess, guid, connectedEntity.direction);
+                } else if (currentDirection == TraversalDirection.OUTWARD && connectedEntity.direction == TraversalDirection.INWARD) {
+                    // the entity should be reprocessed to get inward entities
+                    context.guidsProcessed.remove(guid);
+                    context.addToBeProcessed(connectedEntity.isProcess, guid, connectedEntity.direction);
+                }
+            }
+            break;
+
+            case FULL:
+            default:
+                if (!context.guidsProcessed.contains(guid)) {
+                    context.addToBeProcessed(connectedEntity.isProcess, guid, TraversalDirection.BOTH);
+                }
+        }
+    }
+
+    /**
+     * Fetches the given entities, along with the guids of entities connected to them. The entities are split into
+     * fetchThreads shares, which are fetched in parallel; one share is fetched in the calling thread.
+     */
+    private void fetchEntities(List<ExportEntity> entities, ExportContext context) throws AtlasBaseException {
+        ExportFetchType fetchType = context.fetchType;
+        int             numShares = context.fetchExecutor != null ? Math.min(fetchThreads, entities.size()) : 1;
+
+        if (numShares <= 1) {
+            for (ExportEntity entity : entities) {
+                fetchEntity(entity, fetchType);
+            }
+
+            return;
+        }
+
+        int                      shareSize = (entities.size() + numShares - 1) / numShares;
+        List<Future<Void>>       futures   = new ArrayList<>(numShares - 1);
+        List<List<ExportEntity>> shares    = new ArrayList<>(numShares);
+
+        for (int i = 0; i < entities.size(); i += shareSize) {
+            shares.add(entities.subList(i, Math.min(i + shareSize, entities.size())));
+        }
+
+        for (int i = 1; i < shares.size(); i++) {
+            futures.add(submitFetchTask(context.fetchExecutor, shares.get(i), fetchType));
+        }
+
+        try {
+            for (ExportEntity entity : shares.get(0)) {
+                fetchEntity(entity, fetchType);
+            }
+        } finally {
+            for (Future<Void> future : futures) {
+                getFetchTaskResult(future);
+            }
+        }
+    }
+
+    private Future<Void> submitFetchTask(ExecutorService fetchExecutor, final List<ExportEntity> entities, final ExportFetchType fetchType) {
+        final Thread callerThread = Thread.currentThread();
+
+        return fetchExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    for (ExportEntity entity : entities) {
+                        fetchEntity(entity, fetchType);
+                    }
+
+                    return null;
+                } finally {
+                    // export is read-only; release the transaction and request context opened implicitly by this pool thread
+                    if (Thread.currentThread() != callerThread) {
+                        atlasGraph.rollback();
+
+                        RequestContextV1.clear();
+                    }
+                }
+            }
+        });
+    }
+
+    private void getFetchTaskResult(Future<Void> future) throws AtlasBaseException {
+        try {
+            future.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, excp, "export interrupted");
+        } catch (ExecutionException excp) {
+            Throwable cause = excp.getCause();
+
+            if (cause instanceof AtlasBaseException) {
+                throw (AtlasBaseException) cause;
+            }
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, cause, "export failed to fetch entities");
+        }
+    }
+
+    // called from fetch threads: must not access ExportContext
+    private void fetchEntity(ExportEntity exportEntity, ExportFetchType fetchType) throws AtlasBaseException {
+        AtlasEntityWithExtInfo entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(exportEntity.guid);
+
+        exportEntity.entityWithExtInfo = entityWithExtInfo;
+
+        getConntedEntitiesBasedOnOption(entityWithExtInfo.getEntity(), fetchType, exportEntity.direction, exportEntity.connectedEntities);
+
+        if(entityWithExtInfo.getReferredEntities() != null) {
+            for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
+                getConntedEntitiesBasedOnOption(e, fetchType, exportEntity.direction, exportEntity.connectedEntities);
+            }
+        }
+    }
+
+    private void getConntedEntitiesBasedOnOption(AtlasEntity entity, ExportFetchType fetchType, TraversalDirection direction, List<ConnectedEntity> connectedEntities) throws AtlasBaseException {
+        switch (fetchType) {
             case CONNECTED:
-                getEntityGuidsForConnectedFetch(entity, context, direction);
+                getEntityGuidsForConnectedFetch(entity, direction, connectedEntities);
                 break;
 
             case FULL:
             default:
-                getEntityGuidsForFullFetch(entity, context);
+                getEntityGuidsForFullFetch(entity, connectedEntities);
         }
     }
 
-    private void getEntityGuidsForConnectedFetch(AtlasEntity entity, ExportContext context, TraversalDirection direction) throws AtlasBaseException {
+    private void getEntityGuidsForConnectedFetch(AtlasEntity entity, TraversalDirection direction, List<ConnectedEntity> connectedEntities) throws AtlasBaseException {
         if (direction == null || direction == TraversalDirection.UNKNOWN) {
-            getConnectedEntityGuids(entity, context, TraversalDirection.OUTWARD, TraversalDirection.INWARD);
+            getConnectedEntityGuids(entity, connectedEntities, TraversalDirection.OUTWARD, TraversalDirection.INWARD);
         } else {
             if (isProcessEntity(entity)) {
                 direction = TraversalDirection.OUTWARD;
             }
 
-            getConnectedEntityGuids(entity, context, direction);
+            getConnectedEntityGuids(entity, connectedEntities, direction);
         }
     }
 
@@ -354,7 +573,7 @@ public class ExportService {
         return entityType.isSubTypeOf(AtlasBaseTypeDef.ATLAS_TYPE_PROCESS);
     }
 
-    private void getConnectedEntityGuids(AtlasEntity entity, ExportContext context, TraversalDirection... directions) {
+    private void getConnectedEntityGuids(AtlasEntity entity, List<ConnectedEntity> connectedEntities, TraversalDirection... directions) {
         if(directions == null) {
             return;
         }
@@ -363,35 +582,21 @@ public class ExportService {
             String query = getQueryForTraversalDirection(direction);
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("==> getConnectedEntityGuids({}): guidsToProcess {} query {}", AtlasTypeUtil.getAtlasObjectId(entity), context.guidsToProcess.size(), query);
+                LOG.debug("==> getConnectedEntityGuids({}): query {}", AtlasTypeUtil.getAtlasObjectId(entity), query);
             }
 
-            context.bindings.clear();
-            context.bindings.put("startGuid", entity.getGuid());
-
-            List<Map<String, Object>> result = executeGremlinQuery(query, context);
+            List<Map<String, Object>> result = executeGremlinQuery(query, Collections.<String, Object>singletonMap("startGuid", entity.getGuid()));
 
             if (CollectionUtils.isEmpty(result)) {
                 continue;
             }
 
             for (Map<String, Object> map : result) {
-                String             guid             = (String) map.get("__guid");
-                TraversalDirection currentDirection = context.guidDirection.get(guid);
-                boolean            isLineage        = (boolean) map.get("isProcess");
-
-                if (currentDirection == null) {
-                    context.addToBeProcessed(isLineage, guid, direction);
-
-                } else if (currentDirection == TraversalDirection.OUTWARD && direction == TraversalDirection.INWARD) {
-                    // the entity should be reprocessed to get inward entities
-                    context.guidsProcessed.remove(guid);
-                    context.addToBeProcessed(isLineage, guid, direction);
-                }
+                connectedEntities.add(new ConnectedEntity((String) map.get("__guid"), (boolean) map.get("isProcess"), direction));
             }
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("<== getConnectedEntityGuids({}): found {} guids; guidsToProcess {}", entity.getGuid(), result.size(), context.guidsToProcess.size());
+                LOG.debug("<== getConnectedEntityGuids({}): found {} guids", entity.getGuid(), result.size());
             }
         }
     }
@@ -407,33 +612,25 @@ public class ExportService {
         }
     }
 
-    private void getEntityGuidsForFullFetch(AtlasEntity entity, ExportContext context) {
+    private void getEntityGuidsForFullFetch(AtlasEntity entity, List<ConnectedEntity> connectedEntities) {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("==> getEntityGuidsForFullFetch({}): guidsToProcess {}", AtlasTypeUtil.getAtlasObjectId(entity), context.guidsToProcess.size());
+            LOG.debug("==> getEntityGuidsForFullFetch({})", AtlasTypeUtil.getAtlasObjectId(entity));
         }
 
         String query = this.gremlinQueryProvider.getQuery(AtlasGremlinQuery.EXPORT_BY_GUID_FULL);
 
-        context.bindings.clear();
-        context.bindings.put("startGuid", entity.getGuid());
-
-        List<Map<String, Object>> result = executeGremlinQuery(query, context);
+        List<Map<String, Object>> result = executeGremlinQuery(query, Collections.<String, Object>singletonMap("startGuid", entity.getGuid()));
 
         if (CollectionUtils.isEmpty(result)) {
             return;
         }
 
         for (Map<String, Object> map : result) {
-            String  guid      = (String) map.get("__guid");
-            boolean isLineage = (boolean) map.get("isProcess");
-
-            if (!context.guidsProcessed.contains(guid)) {
-                context.addToBeProcessed(isLineage, guid, TraversalDirection.BOTH);
-            }
+            connectedEntities.add(new ConnectedEntity((String) map.get("__guid"), (boolean) map.get("isProcess"), TraversalDirection.BOTH));
         }
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getEntityGuidsForFullFetch({}): found {} guids; guidsToProcess {}", entity.getGuid(), result.size(), context.guidsToProcess.size());
+            LOG.debug("<== getEntityGuidsForFullFetch({}): found {} guids", entity.getGuid(), result.size());
         }
     }
 
@@ -566,19 +763,19 @@ public class ExportService {
         }
     }
 
-    private List<Map<String, Object>> executeGremlinQuery(String query, ExportContext context) {
+    private List<Map<String, Object>> executeGremlinQuery(String query, Map<String, Object> bindings) {
         try {
-            return (List<Map<String, Object>>) atlasGraph.executeGremlinScript(context.scriptEngine, context.bindings, query, false);
-        } catch (ScriptException e) {
+            return (List<Map<String, Object>>) atlasGraph.executeGremlinScript(query, bindings, false);
+        } catch (AtlasBaseException e) {
             LOG.error("Script execution failed for query: ", query, e);
             return null;
         }
     }
 
-    private List<String> executeGremlinQueryForGuids(String query, ExportContext context) {
+    private List<String> executeGremlinQueryForGuids(String query, Map<String, Object> bindings) {
         try {
-            return (List<String>) atlasGraph.executeGremlinScript(context.scriptEngine, context.bindings, query, false);
-        } catch (ScriptException e) {
+            return (List<String>) atlasGraph.executeGremlinScript(query, bindings, false);
+        } catch (AtlasBaseException e) {
             LOG.error("Script execution failed for query: ", query, e);
             return null;
         }
@@ -591,6 +788,29 @@ public class ExportService {
         BOTH;
     }
 
+    private static class ExportEntity {
+        final String                 guid;
+        final TraversalDirection     direction;
+        final List<ConnectedEntity>  connectedEntities = new ArrayList<>();
+        AtlasEntityWithExtInfo       entityWithExtInfo;
+
+        ExportEntity(String guid, TraversalDirection direction) {
+            this.guid      = guid;
+            this.direction = direction;
+        }
+    }
+
+    private static class ConnectedEntity {
+        final String             guid;
+        final boolean            isProcess;
+        final TraversalDirection direction;
+
+        ConnectedEntity(String guid, boolean isProcess, TraversalDirection direction) {
+            this.guid      = guid;
+            this.isProcess = isProcess;
+            this.direction = direction;
+        }
+    }
 
     public enum ExportFetchType {
         FULL(FETCH_TYPE_FULL),
@@ -640,6 +860,16 @@ public class ExportService {
             return e;
         }
 
+        public List<T> removeFirst(int count) {
+            List<T> head = list.subList(0, Math.min(count, list.size()));
+            List<T> ret  = new ArrayList<>(head);
+
+            head.clear();
+            set.removeAll(ret);
+
+            return ret;
+        }
+
         public boolean contains(T e) {
             return set.contains(e);
         }
@@ -664,31 +894,31 @@ public class ExportService {
 
 
     private class ExportContext {
-        final Set<String>                     guidsProcessed = new HashSet<>();
+        final CompactGuidSet                  guidsProcessed = new CompactGuidSet();
         final UniqueList<String>              guidsToProcess = new UniqueList<>();
         final UniqueList<String>              lineageToProcess = new UniqueList<>();
         final Set<String>                     lineageProcessed = new HashSet<>();
-        final Map<String, TraversalDirection> guidDirection  = new HashMap<>();
+        final CompactGuidSet                  guidsInward   = new CompactGuidSet();
+        final CompactGuidSet                  guidsOutward  = new CompactGuidSet();
+        final CompactGuidSet                  guidsBoth     = new CompactGuidSet();
         final Set<String>                     entityTypes         = new HashSet<>();
         final Set<String>                     classificationTypes = new HashSet<>();
         final Set<String>                     structTypes         = new HashSet<>();
         final Set<String>                     enumTypes           = new HashSet<>();
         final AtlasExportResult               result;
         final ZipSink                         sink;
+        final ExecutorService                 fetchExecutor;
 
-        private final ScriptEngine        scriptEngine;
-        private final Map<String, Object> bindings;
         private final ExportFetchType     fetchType;
         private final String              matchType;
 
         private       int                 progressReportCount = 0;
 
-        ExportContext(AtlasExportResult result, ZipSink sink) throws AtlasBaseException {
-            this.result = result;
-            this.sink   = sink;
+        ExportContext(AtlasExportResult result, ZipSink sink, ExecutorService fetchExecutor) throws AtlasBaseException {
+            this.result        = result;
+            this.sink          = sink;
+            this.fetchExecutor = fetchExecutor;
 
-            scriptEngine = atlasGraph.getGremlinScriptEngine();
-            bindings     = new HashMap<>();
             fetchType    = getFetchType(result.getRequest());
             matchType    = getMatchType(result.getRequest());
         }
@@ -720,7 +950,41 @@ public class ExportService {
         public void clear() {
             guidsToProcess.clear();
             guidsProcessed.clear();
-            guidDirection.clear();
+            guidsInward.clear();
+            guidsOutward.clear();
+            guidsBoth.clear();
+        }
+
+        public TraversalDirection getDirection(String guid) {
+            if (guidsBoth.contains(guid)) {
+                return TraversalDirection.BOTH;
+            } else if (guidsOutward.contains(guid)) {
+                return TraversalDirection.OUTWARD;
+            } else if (guidsInward.contains(guid)) {
+                return TraversalDirection.INWARD;
+            }
+
+            return null;
+        }
+
+        private void setDirection(String guid, TraversalDirection direction) {
+            guidsInward.remove(guid);
+            guidsOutward.remove(guid);
+            guidsBoth.remove(guid);
+
+            switch (direction) {
+                case INWARD:
+                    guidsInward.add(guid);
+                    break;
+
+                case OUTWARD:
+                    guidsOutward.add(guid);
+                    break;
+
+                case BOTH:
+                    guidsBoth.add(guid);
+                    break;
+            }
         }
 
         public void addToBeProcessed(boolean isSuperTypeProcess, String guid, TraversalDirection direction) {
@@ -732,7 +996,7 @@ public class ExportService {
                 lineageToProcess.add(guid);
             }
 
-            guidDirection.put(guid, direction);
+            setDirection(guid, direction);
         }
 
         public void reportProgress() {
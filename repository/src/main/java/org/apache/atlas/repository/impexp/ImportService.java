@@ -17,7 +17,9 @@
  */
 package org.apache.atlas.repository.impexp;
 
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportRequest;
 import org.apache.atlas.model.impexp.AtlasImportResult;
@@ -26,25 +28,30 @@ import org.apache.atlas.repository.store.graph.BulkImporter;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 
 @Component
 public class ImportService {
     private static final Logger LOG = LoggerFactory.getLogger(ImportService.class);
 
+    public static final String IMPORT_USE_TEMP_FILE  = "atlas.import.use.temp.file";
+    public static final String IMPORT_TEMP_DIRECTORY = "atlas.import.temp.directory";
+
     private final AtlasTypeDefStore typeDefStore;
     private final AtlasTypeRegistry typeRegistry;
     private final BulkImporter bulkImporter;
+    private final boolean      useTempFile;
+    private final File         tempDirectory;
 
     private long startTimestamp;
     private long endTimestamp;
@@ -54,6 +61,27 @@ public class ImportService {
         this.typeDefStore = typeDefStore;
         this.typeRegistry = typeRegistry;
         this.bulkImporter = bulkImporter;
+
+        Configuration configuration = null;
+
+        try {
+            configuration = ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; import will use default configuration", excp);
+        }
+
+        String tempDirectory = configuration != null ? configuration.getString(IMPORT_TEMP_DIRECTORY) : null;
+
+        this.useTempFile   = configuration == null || configuration.getBoolean(IMPORT_USE_TEMP_FILE, true);
+        this.tempDirectory = StringUtils.isNotEmpty(tempDirectory) ? new File(tempDirectory) : null;
+    }
+
+    /**
+     * Creates a ZipSource to read the given stream. Unless disabled by configuration, the stream is first copied
+     * to a temporary file, from which entries are read on demand; otherwise the entire contents are held in memory.
+     */
+    public ZipSource createZipSource(InputStream inputStream) throws IOException {
+        return useTempFile ? ZipSource.fromStreamUsingTempFile(inputStream, null, tempDirectory) : new ZipSource(inputStream);
     }
 
     public AtlasImportResult run(ZipSource source, String userName,
@@ -122,7 +150,12 @@ public class ImportService {
 
             String transforms = MapUtils.isNotEmpty(request.getOptions()) ? request.getOptions().get(AtlasImportRequest.TRANSFORMS_KEY) : null;
             File file = new File(fileName);
-            ZipSource source = new ZipSource(new ByteArrayInputStream(FileUtils.readFileToByteArray(file)), ImportTransforms.fromJson(transforms));
+
+            if (!file.exists()) {
+                throw new FileNotFoundException(fileName);
+            }
+
+            ZipSource source = new ZipSource(file, ImportTransforms.fromJson(transforms));
             result = run(source, request, userName, hostName, requestingIP);
         } catch (AtlasBaseException excp) {
             LOG.error("import(user={}, from={}, fileName={}): failed", userName, requestingIP, excp);
@@ -27,32 +27,57 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 public class ZipSink {
     private static final Logger LOG = LoggerFactory.getLogger(ZipSink.class);
 
-    private ZipOutputStream zipOutputStream;
-    final Set<String>       guids = new HashSet<>();
+    private static final ZipSinkEntry END_OF_ENTRIES = new ZipSinkEntry(null, null);
+
+    private ZipOutputStream                   zipOutputStream;
+    final CompactGuidSet                      guids = new CompactGuidSet();
+    private final BlockingQueue<ZipSinkEntry> writeQueue;
+    private final Thread                      writerThread;
+    private volatile Exception                writeError;
+    private boolean                           isClosed = false;
 
 
     public ZipSink(OutputStream outputStream) {
+        this(outputStream, 0);
+    }
+
+    /**
+     * @param outputStream   stream to write the zip to
+     * @param writeQueueSize when greater than 0, entities are serialized and written to the stream by a dedicated
+     *                       thread, with up to writeQueueSize entries waiting to be written. Entities must not be
+     *                       modified after they are added to the sink.
+     */
+    public ZipSink(OutputStream outputStream, int writeQueueSize) {
         zipOutputStream = new ZipOutputStream(outputStream);
+
+        if (writeQueueSize > 0) {
+            writeQueue   = new ArrayBlockingQueue<>(writeQueueSize);
+            writerThread = new Thread(new ZipWriter(), "atlas-export-writer");
+
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            writeQueue   = null;
+            writerThread = null;
+        }
     }
 
     public void add(AtlasEntity entity) throws AtlasBaseException {
-        String jsonData = convertToJSON(entity);
-        saveToZip(entity.getGuid(), jsonData);
+        saveEntityToZip(entity.getGuid(), entity);
         recordAddedEntityGuids(entity);
     }
 
     public void add(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) throws AtlasBaseException {
-        String jsonData = convertToJSON(entityWithExtInfo);
-        saveToZip(entityWithExtInfo.getEntity().getGuid(), jsonData);
+        saveEntityToZip(entityWithExtInfo.getEntity().getGuid(), entityWithExtInfo);
         recordAddedEntityGuids(entityWithExtInfo);
     }
 
@@ -71,14 +96,45 @@ public class ZipSink {
         saveToZip(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME, jsonData);
     }
 
-    public void close() {
+    /**
+     * Waits for pending entries to be written and closes the zip. Calls after the first one have no effect.
+     *
+     * @throws AtlasBaseException if an entry could not be written, in which case the zip is incomplete
+     */
+    public void close() throws AtlasBaseException {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
         try {
+            if (writerThread != null && writerThread.isAlive()) {
+                writeQueue.put(END_OF_ENTRIES);
+                writerThread.join();
+            }
+
             if(zipOutputStream != null) {
                 zipOutputStream.close();
                 zipOutputStream = null;
             }
         } catch (IOException e) {
             LOG.error("Error closing Zip file", e);
+
+            // an earlier error writing an entry is the one to report
+            if (writeError == null) {
+                throw new AtlasBaseException("Error closing Zip file.", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException("Interrupted while waiting for pending entries to be written to Zip file.", e);
+        }
+
+        if (writeError != null) {
+            LOG.error("Error writing to Zip file", writeError);
+
+            throw new AtlasBaseException("Error writing to Zip file.", writeError);
         }
     }
 
@@ -86,15 +142,34 @@ public class ZipSink {
         return AtlasType.toJson(entity);
     }
 
+    // export-info, typesdef and export-order are serialized right away, as callers may update these objects later
     private void saveToZip(ZipExportFileNames fileName, String jsonData) throws AtlasBaseException {
-        saveToZip(fileName.toString(), jsonData);
+        writeToZip(fileName.toString(), jsonData);
     }
 
-    private void saveToZip(String fileName, String jsonData) throws AtlasBaseException {
-        try {
-            addToZipStream(fileName.toString() + ".json", jsonData);
-        } catch (IOException e) {
-            throw new AtlasBaseException(String.format("Error writing file %s.", fileName), e);
+    private void saveEntityToZip(String fileName, Object entity) throws AtlasBaseException {
+        writeToZip(fileName, writeQueue != null ? entity : convertToJSON(entity));
+    }
+
+    private void writeToZip(String fileName, Object data) throws AtlasBaseException {
+        if (writeError != null) {
+            throw new AtlasBaseException(String.format("Error writing file %s.", fileName), writeError);
+        }
+
+        if (writeQueue != null) {
+            try {
+                writeQueue.put(new ZipSinkEntry(fileName, data));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException(String.format("Interrupted while writing file %s.", fileName), e);
+            }
+        } else {
+            try {
+                addToZipStream(fileName + ".json", (String) data);
+            } catch (IOException e) {
+                throw new AtlasBaseException(String.format("Error writing file %s.", fileName), e);
+            }
         }
     }
 
@@ -114,11 +189,53 @@ public class ZipSink {
     private void recordAddedEntityGuids(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) {
         guids.add(entityWithExtInfo.getEntity().getGuid());
         if(entityWithExtInfo.getReferredEntities() != null) {
-            guids.addAll(entityWithExtInfo.getReferredEntities().keySet());
+            for (String guid : entityWithExtInfo.getReferredEntities().keySet()) {
+                guids.add(guid);
+            }
         }
     }
 
     private void recordAddedEntityGuids(AtlasEntity entity) {
         guids.add(entity.getGuid());
     }
+
+    private static class ZipSinkEntry {
+        final String fileName;
+        final Object data;
+
+        ZipSinkEntry(String fileName, Object data) {
+            this.fileName = fileName;
+            this.data     = data;
+        }
+    }
+
+    private class ZipWriter implements Runnable {
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    ZipSinkEntry entry = writeQueue.take();
+
+                    if (entry == END_OF_ENTRIES) {
+                        break;
+                    }
+
+                    // after a failure, keep draining the queue so that producers don't block
+                    if (writeError == null) {
+                        try {
+                            String jsonData = entry.data instanceof String ? (String) entry.data : convertToJSON(entry.data);
+
+                            addToZipStream(entry.fileName + ".json", jsonData);
+                        } catch (Exception e) {
+                            LOG.error("Error writing file {}.", entry.fileName, e);
+
+                            writeError = e;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
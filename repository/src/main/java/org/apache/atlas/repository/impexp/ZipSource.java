@@ -24,25 +24,45 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.store.graph.v1.EntityImportStream;
 import org.apache.atlas.type.AtlasType;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 
+/**
+ * Source of entities for import, read from a zip created by export.
+ *
+ * When created from an InputStream, contents of all entries are read into memory upfront. When created from a File,
+ * entries are read on demand from the zip file, using its central directory; this keeps heap usage bounded
+ * irrespective of the size of the export. Use fromStreamUsingTempFile() to get the latter behavior for streams.
+ */
 public class ZipSource implements EntityImportStream {
     private static final Logger LOG = LoggerFactory.getLogger(ZipSource.class);
 
+    private static final String TEMP_FILE_PREFIX = "atlas-import-";
+    private static final String TEMP_FILE_SUFFIX = ".zip";
+
     private final InputStream    inputStream;
+    private final ZipFile        zipFile;
+    private final File           fileToDeleteOnClose;
+    private final Set<String>    importedGuids;
     private List<String>         creationOrder;
     private Iterator<String>     iterator;
     private Map<String, String>  guidEntityJsonMap;
@@ -54,14 +74,54 @@ public class ZipSource implements EntityImportStream {
     }
 
     public ZipSource(InputStream inputStream, ImportTransforms importTransform) throws IOException {
-        this.inputStream       = inputStream;
-        this.guidEntityJsonMap = new HashMap<>();
-        this.importTransform   = importTransform;
+        this.inputStream         = inputStream;
+        this.zipFile             = null;
+        this.fileToDeleteOnClose = null;
+        this.importedGuids       = null;
+        this.guidEntityJsonMap   = new HashMap<>();
+        this.importTransform     = importTransform;
 
         updateGuidZipEntryMap();
         setCreationOrder();
     }
 
+    public ZipSource(File file, ImportTransforms importTransform) throws IOException {
+        this(file, importTransform, false);
+    }
+
+    private ZipSource(File file, ImportTransforms importTransform, boolean deleteOnClose) throws IOException {
+        this.inputStream         = null;
+        this.zipFile             = new ZipFile(file);
+        this.fileToDeleteOnClose = deleteOnClose ? file : null;
+        this.importedGuids       = new HashSet<>();
+        this.guidEntityJsonMap   = null;
+        this.importTransform     = importTransform;
+
+        setCreationOrder();
+    }
+
+    /**
+     * Copies the given stream to a temporary file and reads entries on demand from it. The temporary file is
+     * deleted on close().
+     *
+     * @param inputStream     zip contents
+     * @param importTransform transforms to apply on entities read
+     * @param tempDirectory   directory to create the temporary file in; null to use the default temporary directory
+     */
+    public static ZipSource fromStreamUsingTempFile(InputStream inputStream, ImportTransforms importTransform, File tempDirectory) throws IOException {
+        File tempFile = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, tempDirectory);
+
+        try {
+            FileUtils.copyInputStreamToFile(inputStream, tempFile);
+
+            return new ZipSource(tempFile, importTransform, true);
+        } catch (IOException excp) {
+            FileUtils.deleteQuietly(tempFile);
+
+            throw excp;
+        }
+    }
+
     public ImportTransforms getImportTransform() { return this.importTransform; }
 
     public void setImportTransform(ImportTransforms importTransform) {
@@ -150,16 +210,49 @@ public class ZipSource implements EntityImportStream {
     }
 
     private String getFromCache(String entryName) {
-        return guidEntityJsonMap.get(entryName);
+        if (zipFile == null) {
+            return guidEntityJsonMap.get(entryName);
+        }
+
+        ZipEntry zipEntry = zipFile.getEntry(entryName + ".json");
+
+        if (zipEntry == null) {
+            return null;
+        }
+
+        try (InputStream is = zipFile.getInputStream(zipEntry)) {
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
+        } catch (IOException excp) {
+            LOG.error("failed to read entry {} from {}", entryName, zipFile.getName(), excp);
+
+            return null;
+        }
+    }
+
+    private boolean containsEntry(String entryName) {
+        if (zipFile == null) {
+            return guidEntityJsonMap.containsKey(entryName);
+        }
+
+        return !importedGuids.contains(entryName) && zipFile.getEntry(entryName + ".json") != null;
     }
 
     public void close() {
         try {
-            inputStream.close();
-            guidEntityJsonMap.clear();
+            if (zipFile != null) {
+                zipFile.close();
+                importedGuids.clear();
+            } else {
+                inputStream.close();
+                guidEntityJsonMap.clear();
+            }
         }
         catch(IOException ex) {
             LOG.warn("{}: Error closing streams.");
+        } finally {
+            if (fileToDeleteOnClose != null) {
+                FileUtils.deleteQuietly(fileToDeleteOnClose);
+            }
         }
     }
 
@@ -208,7 +301,7 @@ public class ZipSource implements EntityImportStream {
     }
 
     private AtlasEntity getEntity(String guid) throws AtlasBaseException {
-        if(guidEntityJsonMap.containsKey(guid)) {
+        if(containsEntry(guid)) {
             AtlasEntityWithExtInfo extInfo = getEntityWithExtInfo(guid);
             return (extInfo != null) ? extInfo.getEntity() : null;
         }
@@ -222,7 +315,11 @@ public class ZipSource implements EntityImportStream {
 
     @Override
     public void onImportComplete(String guid) {
-        guidEntityJsonMap.remove(guid);
+        if (zipFile == null) {
+            guidEntityJsonMap.remove(guid);
+        } else {
+            importedGuids.add(guid);
+        }
     }
 
 
@@ -21,6 +21,7 @@ package org.apache.atlas.repository.store.bootstrap;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
@@ -36,6 +37,7 @@ import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.store.bootstrap.AtlasTypesBootstrapState.BootstrapFile;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -56,10 +58,15 @@ import javax.xml.bind.annotation.XmlRootElement;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
@@ -73,16 +80,27 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeDefStoreInitializer.class);
     public static final String PATCHES_FOLDER_NAME = "patches";
 
-    private final AtlasTypeDefStore atlasTypeDefStore;
-    private final AtlasTypeRegistry atlasTypeRegistry;
-    private final Configuration     conf;
+    public static final String BOOTSTRAP_THREADS_PROPERTY    = "atlas.types.bootstrap.threads";
+    public static final String SKIP_UNCHANGED_FILES_PROPERTY = "atlas.types.bootstrap.skip.unchanged.files";
+    public static final int    DEFAULT_BOOTSTRAP_THREADS     = 4;
+
+    private final AtlasTypeDefStore        atlasTypeDefStore;
+    private final AtlasTypeRegistry        atlasTypeRegistry;
+    private final Configuration            conf;
+    private final AtlasTypesBootstrapState bootstrapState;
+    private final int                      bootstrapThreads;
+    private final boolean                  isSkipUnchangedFiles;
 
 
     @Inject
-    public AtlasTypeDefStoreInitializer(AtlasTypeDefStore atlasTypeDefStore, AtlasTypeRegistry atlasTypeRegistry, Configuration conf) {
-        this.atlasTypeDefStore = atlasTypeDefStore;
-        this.atlasTypeRegistry = atlasTypeRegistry;
-        this.conf              = conf;
+    public AtlasTypeDefStoreInitializer(AtlasTypeDefStore atlasTypeDefStore, AtlasTypeRegistry atlasTypeRegistry, Configuration conf,
+                                        AtlasTypesBootstrapState bootstrapState) {
+        this.atlasTypeDefStore    = atlasTypeDefStore;
+        this.atlasTypeRegistry    = atlasTypeRegistry;
+        this.conf                 = conf;
+        this.bootstrapState       = bootstrapState;
+        this.bootstrapThreads     = conf != null ? conf.getInt(BOOTSTRAP_THREADS_PROPERTY, DEFAULT_BOOTSTRAP_THREADS) : DEFAULT_BOOTSTRAP_THREADS;
+        this.isSkipUnchangedFiles = conf == null || conf.getBoolean(SKIP_UNCHANGED_FILES_PROPERTY, true);
     }
 
     @PostConstruct
@@ -90,9 +108,7 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
         LOG.info("==> AtlasTypeDefStoreInitializer.init()");
 
         if (!HAConfiguration.isHAEnabled(conf)) {
-            atlasTypeDefStore.init();
-
-            loadBootstrapTypeDefs();
+            initTypeDefStore();
         } else {
             LOG.info("AtlasTypeDefStoreInitializer.init(): deferring type loading until instance activation");
         }
@@ -100,12 +116,25 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
         LOG.info("<== AtlasTypeDefStoreInitializer.init()");
     }
 
+    private void initTypeDefStore() throws AtlasBaseException {
+        long startTime = System.currentTimeMillis();
+
+        atlasTypeDefStore.init();
+
+        LOG.info("AtlasTypeDefStoreInitializer: type-def store initialized in {} ms", System.currentTimeMillis() - startTime);
+
+        loadBootstrapTypeDefs();
+    }
+
     /**
      * This method is looking for folders in alphabetical order in the models directory. It loads each of these folders and their associated patches in order.
      * It then loads any models in the top level folder and its patches.
      *
      * This allows models to be grouped into folders to help managability.
      *
+     * Files are read and parsed in parallel, ahead of being loaded in the above order. Files that didn't change since
+     * the last bootstrap, and whose types are all registered, are skipped; patches in a folder are skipped as well,
+     * unless types in the folder were created/updated.
      */
     private void loadBootstrapTypeDefs() {
         LOG.info("==> AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
@@ -117,78 +146,175 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
             LOG.info("Types directory {} does not exist or not readable or has no typedef files", modelsDirName);
         } else {
             // look for folders we need to load models from
-            File   topModeltypesDir  = new File(modelsDirName);
-            File[] modelsDirContents = topModeltypesDir.exists() ? topModeltypesDir.listFiles() : null;
+            File       topModeltypesDir  = new File(modelsDirName);
+            File[]     modelsDirContents = topModeltypesDir.exists() ? topModeltypesDir.listFiles() : null;
+            List<File> modelFolders      = new ArrayList<>();
 
             if (modelsDirContents != null && modelsDirContents.length > 0) {
-	            Arrays.sort(modelsDirContents);
-
-	            for (File folder : modelsDirContents) {
-	                    if (folder.isFile()) {
-	                        // ignore files
-	                        continue;
-	                    } else if (!folder.getName().equals(PATCHES_FOLDER_NAME)){
-	                        // load the models alphabetically in the subfolders apart from patches
-	                        loadModelsInFolder(folder);
-	                    }
-	            }
+                Arrays.sort(modelsDirContents);
+
+                for (File folder : modelsDirContents) {
+                    if (folder.isFile()) {
+                        // ignore files
+                        continue;
+                    } else if (!folder.getName().equals(PATCHES_FOLDER_NAME)){
+                        // load the models alphabetically in the subfolders apart from patches
+                        modelFolders.add(folder);
+                    }
+                }
             }
 
             // load any files in the top models folder and any associated patches.
-            loadModelsInFolder(topModeltypesDir);
+            modelFolders.add(topModeltypesDir);
+
+            BootstrapStats             stats     = new BootstrapStats();
+            Map<String, BootstrapFile> prevFiles = isSkipUnchangedFiles ? bootstrapState.getFiles() : Collections.<String, BootstrapFile>emptyMap();
+            Map<String, BootstrapFile> currFiles = new HashMap<>();
+            ExecutorService            executor  = bootstrapThreads > 1 ? Executors.newFixedThreadPool(bootstrapThreads, new ThreadFactoryBuilder().setNameFormat("atlas-types-bootstrap-%d").setDaemon(true).build()) : null;
+
+            try {
+                List<ModelFolder> folders = new ArrayList<>();
+
+                for (File folder : modelFolders) {
+                    folders.add(readModelFolder(topModeltypesDir, folder, prevFiles, executor));
+                }
+
+                for (ModelFolder folder : folders) {
+                    loadModelsInFolder(folder, prevFiles, currFiles, stats);
+                }
+            } finally {
+                if (executor != null) {
+                    executor.shutdown();
+                }
+            }
+
+            long startTime = System.currentTimeMillis();
+
+            bootstrapState.save(currFiles, atlasTypeRegistry);
+
+            stats.saveStateTime = System.currentTimeMillis() - startTime;
+
+            LOG.info("AtlasTypeDefStoreInitializer: {}", stats);
         }
         LOG.info("<== AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
     }
 
+    // submits reading and parsing of model and patch files in the folder
+    private ModelFolder readModelFolder(File modelsDir, File typesDir, Map<String, BootstrapFile> prevFiles, ExecutorService executor) {
+        ModelFolder ret        = new ModelFolder(typesDir);
+        File[]      modelFiles = typesDir.exists() ? typesDir.listFiles() : null;
+
+        if (modelFiles != null && modelFiles.length > 0) {
+            File[] patchFiles = ret.patchesDir.exists() ? ret.patchesDir.listFiles() : null;
+
+            // sort the files by filename
+            Arrays.sort(modelFiles);
+
+            for (File modelFile : modelFiles) {
+                if (modelFile.isFile()) {
+                    ret.modelFiles.add(readModelFile(modelsDir, modelFile, false, prevFiles, executor));
+                }
+            }
+
+            if (patchFiles != null && patchFiles.length > 0) {
+                Arrays.sort(patchFiles);
+
+                for (File patchFile : patchFiles) {
+                    if (patchFile.isFile()) {
+                        ret.patchFiles.add(readModelFile(modelsDir, patchFile, true, prevFiles, executor));
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private CompletableFuture<ModelFile> readModelFile(File modelsDir, File file, boolean isPatch, Map<String, BootstrapFile> prevFiles, ExecutorService executor) {
+        final ModelFile     modelFile = new ModelFile(file, modelsDir.toPath().relativize(file.toPath()).toString(), isPatch);
+        final BootstrapFile prevFile  = prevFiles.get(modelFile.key);
+
+        if (executor != null) {
+            return CompletableFuture.supplyAsync(() -> modelFile.read(prevFile), executor);
+        } else {
+            return CompletableFuture.completedFuture(modelFile.read(prevFile));
+        }
+    }
+
     /**
      * Load all the model files in the supplied folder followed by the contents of the patches folder.
-     * @param typesDir
+     * @param folder
      */
-    private void loadModelsInFolder(File typesDir) {
-        LOG.info("==> AtlasTypeDefStoreInitializer({})", typesDir);
+    private void loadModelsInFolder(ModelFolder folder, Map<String, BootstrapFile> prevFiles, Map<String, BootstrapFile> currFiles, BootstrapStats stats) {
+        LOG.info("==> AtlasTypeDefStoreInitializer({})", folder.typesDir);
 
-        String typesDirName = typesDir.getName();
-        File[] typeDefFiles = typesDir.exists() ? typesDir.listFiles() : null;
+        String typesDirName = folder.typesDir.getName();
 
-        if (typeDefFiles == null || typeDefFiles.length == 0) {
+        if (folder.modelFiles.isEmpty()) {
             LOG.info("Types directory {} does not exist or not readable or has no typedef files", typesDirName );
         } else {
+            boolean isTypesUpdated = false;
 
-            // sort the files by filename
-            Arrays.sort(typeDefFiles);
+            for (CompletableFuture<ModelFile> future : folder.modelFiles) {
+                ModelFile modelFile   = future.join();
+                File      typeDefFile = modelFile.file;
+                long      startTime   = System.currentTimeMillis();
 
-            for (File typeDefFile : typeDefFiles) {
-                if (typeDefFile.isFile()) {
-                    try {
-                        String        jsonStr  = new String(Files.readAllBytes(typeDefFile.toPath()), StandardCharsets.UTF_8);
-                        AtlasTypesDef typesDef = AtlasType.fromJson(jsonStr, AtlasTypesDef.class);
+                stats.readTime += modelFile.readTime;
 
-                        if (typesDef == null || typesDef.isEmpty()) {
-                            LOG.info("No type in file {}", typeDefFile.getAbsolutePath());
+                try {
+                    if (modelFile.error != null) {
+                        throw modelFile.error;
+                    }
 
-                            continue;
-                        }
+                    BootstrapFile prevFile = prevFiles.get(modelFile.key);
 
-                        AtlasTypesDef typesToCreate = getTypesToCreate(typesDef, atlasTypeRegistry);
-                        AtlasTypesDef typesToUpdate = getTypesToUpdate(typesDef, atlasTypeRegistry, true);
+                    if (isUnchanged(modelFile, prevFile)) {
+                        LOG.info("No change in file {} since last load", typeDefFile.getAbsolutePath());
 
-                        if (!typesToCreate.isEmpty() || !typesToUpdate.isEmpty()) {
-                            atlasTypeDefStore.createUpdateTypesDef(typesToCreate, typesToUpdate);
+                        currFiles.put(modelFile.key, prevFile);
 
-                            LOG.info("Created/Updated types defined in file {}", typeDefFile.getAbsolutePath());
-                        } else {
-                            LOG.info("No new type in file {}", typeDefFile.getAbsolutePath());
-                        }
+                        stats.modelFilesSkipped++;
+
+                        continue;
+                    }
+
+                    AtlasTypesDef typesDef = modelFile.getTypesDef();
+
+                    stats.modelFilesLoaded++;
 
-                    } catch (Throwable t) {
-                        LOG.error("error while registering types in file {}", typeDefFile.getAbsolutePath(), t);
+                    if (typesDef == null || typesDef.isEmpty()) {
+                        LOG.info("No type in file {}", typeDefFile.getAbsolutePath());
+
+                        currFiles.put(modelFile.key, new BootstrapFile(modelFile.digest, Collections.<String>emptyList()));
+
+                        continue;
                     }
+
+                    AtlasTypesDef typesToCreate = getTypesToCreate(typesDef, atlasTypeRegistry);
+                    AtlasTypesDef typesToUpdate = getTypesToUpdate(typesDef, atlasTypeRegistry, true);
+
+                    if (!typesToCreate.isEmpty() || !typesToUpdate.isEmpty()) {
+                        atlasTypeDefStore.createUpdateTypesDef(typesToCreate, typesToUpdate);
+
+                        isTypesUpdated = true;
+
+                        LOG.info("Created/Updated types defined in file {}", typeDefFile.getAbsolutePath());
+                    } else {
+                        LOG.info("No new type in file {}", typeDefFile.getAbsolutePath());
+                    }
+
+                    currFiles.put(modelFile.key, new BootstrapFile(modelFile.digest, getTypeNames(typesDef)));
+                } catch (Throwable t) {
+                    LOG.error("error while registering types in file {}", typeDefFile.getAbsolutePath(), t);
+                } finally {
+                    stats.applyModelsTime += (System.currentTimeMillis() - startTime);
                 }
             }
 
-            applyTypePatches(typesDir.getPath());
+            applyTypePatches(folder, isTypesUpdated, prevFiles, currFiles, stats);
         }
-        LOG.info("<== AtlasTypeDefStoreInitializer({})", typesDir);
+        LOG.info("<== AtlasTypeDefStoreInitializer({})", folder.typesDir);
     }
 
     public static AtlasTypesDef getTypesToCreate(AtlasTypesDef typesDef, AtlasTypeRegistry typeRegistry) {
@@ -326,9 +452,7 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
         LOG.info("==> AtlasTypeDefStoreInitializer.instanceIsActive()");
 
         try {
-            atlasTypeDefStore.init();
-
-            loadBootstrapTypeDefs();
+            initTypeDefStore();
         } catch (AtlasBaseException e) {
             LOG.error("Failed to init after becoming active", e);
         }
@@ -378,19 +502,14 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
         return ret;
     }
 
-    private void applyTypePatches(String typesDirName) {
-        String typePatchesDirName = typesDirName + File.separator + PATCHES_FOLDER_NAME;
-        File   typePatchesDir     = new File(typePatchesDirName);
-        File[] typePatchFiles     = typePatchesDir.exists() ? typePatchesDir.listFiles() : null;
+    private void applyTypePatches(ModelFolder folder, boolean isTypesUpdated, Map<String, BootstrapFile> prevFiles, Map<String, BootstrapFile> currFiles, BootstrapStats stats) {
+        String typePatchesDirName = folder.patchesDir.getPath();
 
-        if (typePatchFiles == null || typePatchFiles.length == 0) {
+        if (folder.patchFiles.isEmpty()) {
             LOG.info("Type patches directory {} does not exist or not readable or has no patches", typePatchesDirName);
         } else {
             LOG.info("Type patches directory {} is being processed", typePatchesDirName);
 
-            // sort the files by filename
-            Arrays.sort(typePatchFiles);
-
             PatchHandler[] patchHandlers = new PatchHandler[] {
                     new AddAttributePatchHandler(atlasTypeDefStore, atlasTypeRegistry),
                     new UpdateTypeDefOptionsPatchHandler(atlasTypeDefStore, atlasTypeRegistry),
@@ -405,45 +524,216 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
                 }
             }
 
-            for (File typePatchFile : typePatchFiles) {
-                if (typePatchFile.isFile()) {
+            for (CompletableFuture<ModelFile> future : folder.patchFiles) {
+                ModelFile patchFile     = future.join();
+                File      typePatchFile = patchFile.file;
+                long      startTime     = System.currentTimeMillis();
+
+                stats.readTime += patchFile.readTime;
+
+                try {
+                    if (patchFile.error != null) {
+                        throw patchFile.error;
+                    }
+
+                    BootstrapFile prevFile = prevFiles.get(patchFile.key);
+
+                    // types created/updated by model files might need the patches again
+                    if (!isTypesUpdated && isUnchanged(patchFile, prevFile)) {
+                        LOG.info("No change in patches file {} since last load", typePatchFile.getAbsolutePath());
+
+                        currFiles.put(patchFile.key, prevFile);
+
+                        stats.patchFilesSkipped++;
+
+                        continue;
+                    }
 
                     LOG.info("Applying patches in file {}", typePatchFile.getAbsolutePath());
 
-                    try {
-                        String jsonStr = new String(Files.readAllBytes(typePatchFile.toPath()), StandardCharsets.UTF_8);
-                        TypeDefPatches patches = AtlasType.fromJson(jsonStr, TypeDefPatches.class);
+                    TypeDefPatches patches = patchFile.getPatches();
+
+                    stats.patchFilesApplied++;
+
+                    if (patches == null || CollectionUtils.isEmpty(patches.getPatches())) {
+                        LOG.info("No patches in file {}", typePatchFile.getAbsolutePath());
+
+                        currFiles.put(patchFile.key, new BootstrapFile(patchFile.digest, Collections.<String>emptyList()));
+
+                        continue;
+                    }
 
-                        if (patches == null || CollectionUtils.isEmpty(patches.getPatches())) {
-                            LOG.info("No patches in file {}", typePatchFile.getAbsolutePath());
+                    List<String> typeNames = new ArrayList<>();
+                    boolean      isFailed  = false;
+
+                    for (TypeDefPatch patch : patches.getPatches()) {
+                        PatchHandler patchHandler = patchHandlerRegistry.get(patch.getAction());
+
+                        if (patchHandler == null) {
+                            LOG.error("Unknown patch action {} in file {}. Ignored",
+                                    patch.getAction(), typePatchFile.getAbsolutePath());
 
                             continue;
                         }
 
-                        for (TypeDefPatch patch : patches.getPatches()) {
-                            PatchHandler patchHandler = patchHandlerRegistry.get(patch.getAction());
+                        try {
+                            patchHandler.applyPatch(patch);
 
-                            if (patchHandler == null) {
-                                LOG.error("Unknown patch action {} in file {}. Ignored",
-                                        patch.getAction(), typePatchFile.getAbsolutePath());
-
-                                continue;
-                            }
+                            typeNames.add(patch.getTypeName());
+                        } catch (AtlasBaseException excp) {
+                            LOG.error("Failed to apply {} patch in file {}. Ignored", patch.getAction(), typePatchFile.getAbsolutePath(), excp);
 
-                            try {
-                                patchHandler.applyPatch(patch);
-                            } catch (AtlasBaseException excp) {
-                                LOG.error("Failed to apply {} patch in file {}. Ignored", patch.getAction(), typePatchFile.getAbsolutePath(), excp);
-                            }
+                            isFailed = true;
                         }
-                    } catch (Throwable t) {
-                        LOG.error("Failed to apply patches in file {}. Ignored", typePatchFile.getAbsolutePath(), t);
                     }
+
+                    // failed patches are retried on next load
+                    if (!isFailed) {
+                        currFiles.put(patchFile.key, new BootstrapFile(patchFile.digest, typeNames));
+                    }
+                } catch (Throwable t) {
+                    LOG.error("Failed to apply patches in file {}. Ignored", typePatchFile.getAbsolutePath(), t);
+                } finally {
+                    stats.applyPatchesTime += (System.currentTimeMillis() - startTime);
+                }
+            }
+        }
+    }
+
+    // file is unchanged since last load, and all types in it are still registered
+    private boolean isUnchanged(ModelFile modelFile, BootstrapFile prevFile) {
+        boolean ret = prevFile != null && modelFile.digest != null && StringUtils.equals(modelFile.digest, prevFile.getDigest());
+
+        if (ret && CollectionUtils.isNotEmpty(prevFile.getTypeNames())) {
+            for (String typeName : prevFile.getTypeNames()) {
+                if (!atlasTypeRegistry.isRegisteredType(typeName)) {
+                    ret = false;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static List<String> getTypeNames(AtlasTypesDef typesDef) {
+        List<AtlasBaseTypeDef> typeDefs = new ArrayList<>();
+        List<String>           ret      = new ArrayList<>();
+
+        typeDefs.addAll(typesDef.getEnumDefs());
+        typeDefs.addAll(typesDef.getStructDefs());
+        typeDefs.addAll(typesDef.getClassificationDefs());
+        typeDefs.addAll(typesDef.getEntityDefs());
+        typeDefs.addAll(typesDef.getRelationshipDefs());
+
+        for (AtlasBaseTypeDef typeDef : typeDefs) {
+            ret.add(typeDef.getName());
+        }
+
+        return ret;
+    }
+
+    /**
+     * model folder, with its model and patch files being read
+     */
+    private static class ModelFolder {
+        final File                               typesDir;
+        final File                               patchesDir;
+        final List<CompletableFuture<ModelFile>> modelFiles = new ArrayList<>();
+        final List<CompletableFuture<ModelFile>> patchFiles = new ArrayList<>();
+
+        ModelFolder(File typesDir) {
+            this.typesDir   = typesDir;
+            this.patchesDir = new File(typesDir.getPath() + File.separator + PATCHES_FOLDER_NAME);
+        }
+    }
+
+    /**
+     * content of a model or patch file; content of a file that didn't change since last load is parsed only if needed
+     */
+    private static class ModelFile {
+        final File    file;
+        final String  key;
+        final boolean isPatch;
+        String         digest;
+        byte[]         content;
+        AtlasTypesDef  typesDef;
+        TypeDefPatches patches;
+        Throwable      error;
+        long           readTime;
+
+        ModelFile(File file, String key, boolean isPatch) {
+            this.file    = file;
+            this.key     = key;
+            this.isPatch = isPatch;
+        }
+
+        ModelFile read(BootstrapFile prevFile) {
+            long startTime = System.currentTimeMillis();
+
+            try {
+                content = Files.readAllBytes(file.toPath());
+                digest  = AtlasTypesBootstrapState.getDigest(content);
+
+                if (prevFile == null || !StringUtils.equals(digest, prevFile.getDigest())) {
+                    parse();
+                }
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                readTime = System.currentTimeMillis() - startTime;
+            }
+
+            return this;
+        }
+
+        AtlasTypesDef getTypesDef() {
+            parse();
+
+            return typesDef;
+        }
+
+        TypeDefPatches getPatches() {
+            parse();
+
+            return patches;
+        }
+
+        private void parse() {
+            if (content != null) {
+                String jsonStr = new String(content, StandardCharsets.UTF_8);
+
+                if (isPatch) {
+                    patches = AtlasType.fromJson(jsonStr, TypeDefPatches.class);
+                } else {
+                    typesDef = AtlasType.fromJson(jsonStr, AtlasTypesDef.class);
                 }
+
+                content = null;
             }
         }
     }
 
+    private static class BootstrapStats {
+        long readTime;
+        long applyModelsTime;
+        long applyPatchesTime;
+        long saveStateTime;
+        int  modelFilesLoaded;
+        int  modelFilesSkipped;
+        int  patchFilesApplied;
+        int  patchFilesSkipped;
+
+        @Override
+        public String toString() {
+            return "bootstrap timings: readAndParse=" + readTime + " ms (total, across threads), applyModels=" + applyModelsTime +
+                   " ms, applyPatches=" + applyPatchesTime + " ms, saveState=" + saveStateTime + " ms; model files: loaded=" +
+                   modelFilesLoaded + ", unchanged=" + modelFilesSkipped + "; patch files: applied=" + patchFilesApplied +
+                   ", unchanged=" + patchFilesSkipped;
+        }
+    }
+
     /**
      * typedef patch details
      */
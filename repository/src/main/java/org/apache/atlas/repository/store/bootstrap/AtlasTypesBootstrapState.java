@@ -0,0 +1,268 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.bootstrap;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.atlas.utils.SHA256Utils;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+import static org.apache.atlas.repository.Constants.TYPES_BOOTSTRAP_FILES_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPES_BOOTSTRAP_NAME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPES_BOOTSTRAP_SNAPSHOT_DIGEST_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY;
+
+/**
+ * State of bootstrap type-def loading, kept in a vertex of the graph:
+ *  - digest and type names of each model and patch file loaded earlier, so that AtlasTypeDefStoreInitializer can skip
+ *    files that didn't change since
+ *  - snapshot of all type-defs in the store, as of the end of the last bootstrap, so that the type registry can be
+ *    initialized without reading type-defs from each type vertex
+ *
+ * The snapshot is removed by the type-def store in the transaction of every type-def update, hence a snapshot found
+ * in the graph is always consistent with type vertices.
+ */
+@Singleton
+@Component
+public class AtlasTypesBootstrapState {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasTypesBootstrapState.class);
+
+    public static final String SNAPSHOT_ENABLED_PROPERTY = "atlas.types.bootstrap.snapshot.enabled";
+
+    private static final String BOOTSTRAP_STATE_NAME = "typesBootstrap";
+
+    private final AtlasGraph atlasGraph;
+    private final boolean    isSnapshotEnabled;
+
+    @Inject
+    public AtlasTypesBootstrapState(AtlasGraph atlasGraph) {
+        this(atlasGraph, getConfiguration());
+    }
+
+    AtlasTypesBootstrapState(AtlasGraph atlasGraph, Configuration configuration) {
+        this.atlasGraph        = atlasGraph;
+        this.isSnapshotEnabled = configuration == null || configuration.getBoolean(SNAPSHOT_ENABLED_PROPERTY, true);
+    }
+
+    public boolean isSnapshotEnabled() {
+        return isSnapshotEnabled;
+    }
+
+    /**
+     * @return files loaded by the last bootstrap, keyed by the path relative to models directory; empty if not available
+     */
+    public Map<String, BootstrapFile> getFiles() {
+        Map<String, BootstrapFile> ret = null;
+
+        try {
+            AtlasVertex vertex = findStateVertex();
+            String      files  = vertex != null ? AtlasGraphUtilsV1.getProperty(vertex, TYPES_BOOTSTRAP_FILES_PROPERTY_KEY, String.class) : null;
+
+            if (StringUtils.isNotEmpty(files)) {
+                ret = AtlasJson.fromJson(files, new TypeReference<Map<String, BootstrapFile>>() {});
+            }
+
+            atlasGraph.commit();
+        } catch (Exception excp) {
+            LOG.warn("AtlasTypesBootstrapState: failed to read bootstrap state; all model files will be loaded", excp);
+
+            atlasGraph.rollback();
+        }
+
+        return ret != null ? ret : Collections.<String, BootstrapFile>emptyMap();
+    }
+
+    /**
+     * Saves files loaded by bootstrap and, if the snapshot was removed by type-def updates, a new snapshot of type-defs
+     * in the given registry.
+     */
+    public void save(Map<String, BootstrapFile> files, AtlasTypeRegistry typeRegistry) {
+        try {
+            AtlasVertex vertex = findStateVertex();
+
+            if (vertex == null) {
+                vertex = atlasGraph.addVertex();
+
+                AtlasGraphUtilsV1.setProperty(vertex, TYPES_BOOTSTRAP_NAME_PROPERTY_KEY, BOOTSTRAP_STATE_NAME);
+            }
+
+            AtlasGraphUtilsV1.setProperty(vertex, TYPES_BOOTSTRAP_FILES_PROPERTY_KEY, AtlasJson.toJson(files));
+
+            if (isSnapshotEnabled && StringUtils.isEmpty(AtlasGraphUtilsV1.getProperty(vertex, TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY, String.class))) {
+                String snapshot = AtlasJson.toJson(getTypesDef(typeRegistry));
+
+                AtlasGraphUtilsV1.setProperty(vertex, TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY, snapshot);
+                AtlasGraphUtilsV1.setProperty(vertex, TYPES_BOOTSTRAP_SNAPSHOT_DIGEST_PROPERTY_KEY, getDigest(snapshot));
+
+                LOG.info("AtlasTypesBootstrapState: saved snapshot of type-defs ({} characters)", snapshot.length());
+            }
+
+            atlasGraph.commit();
+        } catch (Exception excp) {
+            LOG.warn("AtlasTypesBootstrapState: failed to save bootstrap state", excp);
+
+            atlasGraph.rollback();
+        }
+    }
+
+    /**
+     * To be called in the transaction that reads type-defs from the store; the caller commits the transaction.
+     *
+     * @return type-defs saved by the last bootstrap; null if not available, or if type-defs were updated since
+     */
+    public AtlasTypesDef getTypesDefSnapshot() {
+        if (!isSnapshotEnabled) {
+            return null;
+        }
+
+        AtlasTypesDef ret = null;
+
+        try {
+            AtlasVertex vertex   = findStateVertex();
+            String      snapshot = vertex != null ? AtlasGraphUtilsV1.getProperty(vertex, TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY, String.class) : null;
+
+            if (StringUtils.isNotEmpty(snapshot)) {
+                String digest = AtlasGraphUtilsV1.getProperty(vertex, TYPES_BOOTSTRAP_SNAPSHOT_DIGEST_PROPERTY_KEY, String.class);
+
+                if (StringUtils.equals(digest, getDigest(snapshot))) {
+                    ret = AtlasJson.fromJson(snapshot, AtlasTypesDef.class);
+                } else {
+                    LOG.warn("AtlasTypesBootstrapState: digest of type-defs snapshot doesn't match; snapshot ignored");
+                }
+            }
+        } catch (Exception excp) {
+            LOG.warn("AtlasTypesBootstrapState: failed to read type-defs snapshot; snapshot ignored", excp);
+        }
+
+        return ret;
+    }
+
+    /**
+     * To be called in the transaction that updates type-defs, so that the snapshot is removed only if the update is
+     * committed.
+     */
+    public void invalidateTypesDefSnapshot() {
+        if (!isSnapshotEnabled) {
+            return;
+        }
+
+        AtlasVertex vertex = findStateVertex();
+
+        if (vertex != null && AtlasGraphUtilsV1.getProperty(vertex, TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY, String.class) != null) {
+            vertex.removeProperty(TYPES_BOOTSTRAP_SNAPSHOT_PROPERTY_KEY);
+            vertex.removeProperty(TYPES_BOOTSTRAP_SNAPSHOT_DIGEST_PROPERTY_KEY);
+
+            LOG.info("AtlasTypesBootstrapState: type-defs updated; removed type-defs snapshot");
+        }
+    }
+
+    public static String getDigest(byte[] content) {
+        return SHA256Utils.toString(SHA256Utils.getDigester().digest(content));
+    }
+
+    private static String getDigest(String content) {
+        return getDigest(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AtlasTypesDef getTypesDef(AtlasTypeRegistry typeRegistry) {
+        return new AtlasTypesDef(new ArrayList<>(typeRegistry.getAllEnumDefs()),
+                                 new ArrayList<>(typeRegistry.getAllStructDefs()),
+                                 new ArrayList<>(typeRegistry.getAllClassificationDefs()),
+                                 new ArrayList<>(typeRegistry.getAllEntityDefs()),
+                                 new ArrayList<>(typeRegistry.getAllRelationshipDefs()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtlasVertex findStateVertex() {
+        Iterator<AtlasVertex> vertices = ((Iterable<AtlasVertex>) atlasGraph.query().has(TYPES_BOOTSTRAP_NAME_PROPERTY_KEY, BOOTSTRAP_STATE_NAME).vertices()).iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static Configuration getConfiguration() {
+        Configuration ret = null;
+
+        try {
+            ret = ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; types bootstrap will use default configuration", excp);
+        }
+
+        return ret;
+    }
+
+    /**
+     * digest and type names of a model or patch file loaded by bootstrap
+     */
+    @JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BootstrapFile {
+        private String       digest;
+        private List<String> typeNames;
+
+        public BootstrapFile() {
+        }
+
+        public BootstrapFile(String digest, List<String> typeNames) {
+            this.digest    = digest;
+            this.typeNames = typeNames;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public void setDigest(String digest) {
+            this.digest = digest;
+        }
+
+        public List<String> getTypeNames() {
+            return typeNames;
+        }
+
+        public void setTypeNames(List<String> typeNames) {
+            this.typeNames = typeNames;
+        }
+    }
+}
@@ -76,6 +76,20 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
     protected abstract AtlasDefStore<AtlasRelationshipDef> getRelationshipDefStore(AtlasTypeRegistry typeRegistry);
 
+    /**
+     * @return type-defs saved earlier, to initialize the type registry with instead of reading each type-def from the
+     * store; null if not available
+     */
+    protected AtlasTypesDef getTypesDefSnapshot() {
+        return null;
+    }
+
+    /**
+     * Called in the transaction of every type-def update, so that stores can discard state derived from type-defs.
+     */
+    protected void onTypeDefsUpdate() {
+    }
+
     @Override
     public void init() throws AtlasBaseException {
         LOG.info("==> AtlasTypeDefGraphStore.init()");
@@ -88,16 +102,29 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
             ttr.clear();
 
-            AtlasTypesDef typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
-                    getStructDefStore(ttr).getAll(),
-                    getClassificationDefStore(ttr).getAll(),
-                    getEntityDefStore(ttr).getAll(),
-                    getRelationshipDefStore(ttr).getAll());
+            long          startTime = System.currentTimeMillis();
+            AtlasTypesDef typesDef  = getTypesDefSnapshot();
+
+            if (typesDef != null) {
+                LOG.info("AtlasTypeDefGraphStore.init(): read type-defs snapshot in {} ms", System.currentTimeMillis() - startTime);
+            } else {
+                typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
+                        getStructDefStore(ttr).getAll(),
+                        getClassificationDefStore(ttr).getAll(),
+                        getEntityDefStore(ttr).getAll(),
+                        getRelationshipDefStore(ttr).getAll());
 
-            rectifyTypeErrorsIfAny(typesDef);
+                rectifyTypeErrorsIfAny(typesDef);
+
+                LOG.info("AtlasTypeDefGraphStore.init(): read type-defs from store in {} ms", System.currentTimeMillis() - startTime);
+            }
+
+            startTime = System.currentTimeMillis();
 
             ttr.addTypes(typesDef);
 
+            LOG.info("AtlasTypeDefGraphStore.init(): registered {} types in {} ms", ttr.getAllTypeNames().size(), System.currentTimeMillis() - startTime);
+
             commitUpdates = true;
         } finally {
             typeRegistry.releaseTypeRegistryForUpdate(ttr, commitUpdates);
@@ -687,6 +714,8 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         new TypeRegistryUpdateHook(ttr);
 
+        onTypeDefsUpdate();
+
         return ttr;
     }
 
@@ -50,6 +50,7 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.atlas.model.instance.EntityMutations.EntityOperation.DELETE;
 import static org.apache.atlas.model.instance.EntityMutations.EntityOperation.UPDATE;
@@ -60,12 +61,19 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasEntityStoreV1.class);
     private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("store.EntityStore");
 
+    public static final String METRIC_UPDATES_SKIPPED_BY_HASH = "updatesSkippedByContentHash";
+    public static final String METRIC_UPDATES_SKIPPED         = "updatesSkipped";
+    public static final String METRIC_UPDATES_APPLIED         = "updatesApplied";
+
 
     private final DeleteHandlerV1           deleteHandler;
     private final AtlasTypeRegistry         typeRegistry;
     private final AtlasEntityChangeNotifier entityChangeNotifier;
     private final EntityGraphMapper         entityGraphMapper;
     private final EntityGraphRetriever      entityRetriever;
+    private final AtomicLong                updatesSkippedByHash = new AtomicLong();
+    private final AtomicLong                updatesSkipped       = new AtomicLong();
+    private final AtomicLong                updatesApplied       = new AtomicLong();
 
     @Inject
     public AtlasEntityStoreV1(DeleteHandlerV1 deleteHandler, AtlasTypeRegistry typeRegistry,
@@ -126,11 +134,15 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
 
         // verify authorization to read the entities
         if(ret != null){
+            List<AtlasEntityAccessRequest> requests = new ArrayList<>(guids.size());
+
             for(String guid : guids){
                 AtlasEntity entity = ret.getEntity(guid);
 
-                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)), "read entity: guid=", guid);
+                requests.add(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)));
             }
+
+            AtlasAuthorizationUtils.verifyAccess(requests, request -> "read entity: guid=" + request.getEntity().getGuid());
         }
 
         if (LOG.isDebugEnabled()) {
@@ -307,7 +319,8 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
             throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Guid(s) not specified");
         }
 
-        Collection<AtlasVertex> deletionCandidates = new ArrayList<>();
+        Collection<AtlasVertex>        deletionCandidates = new ArrayList<>();
+        List<AtlasEntityAccessRequest> requests           = new ArrayList<>();
 
         for (String guid : guids) {
             AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(guid);
@@ -324,11 +337,13 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
 
             AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(vertex);
 
-            AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_DELETE, entityHeader), "delete entity: guid=", guid);
+            requests.add(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_DELETE, entityHeader));
 
             deletionCandidates.add(vertex);
         }
 
+        AtlasAuthorizationUtils.verifyAccess(requests, request -> "delete entity: guid=" + request.getEntity().getGuid());
+
         if (deletionCandidates.isEmpty()) {
             LOG.info("No deletion candidate entities were found for guids %s", guids);
         }
@@ -560,10 +575,13 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
 
             // Check if authorized to create entities
             if (!isImport && CollectionUtils.isNotEmpty(context.getCreatedEntities())) {
+                List<AtlasEntityAccessRequest> requests = new ArrayList<>(context.getCreatedEntities().size());
+
                 for (AtlasEntity entity : context.getCreatedEntities()) {
-                    AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_CREATE, new AtlasEntityHeader(entity)),
-                                                         "create entity: type=", entity.getTypeName());
+                    requests.add(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_CREATE, new AtlasEntityHeader(entity)));
                 }
+
+                AtlasAuthorizationUtils.verifyAccess(requests, request -> "create entity: type=" + request.getEntityType());
             }
 
             // for existing entities, skip update if incoming entity doesn't have any change
@@ -571,8 +589,26 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
                 List<AtlasEntity> entitiesToSkipUpdate = null;
 
                 for (AtlasEntity entity : context.getUpdatedEntities()) {
-                    String          guid          = entity.getGuid();
-                    AtlasVertex     vertex        = context.getVertex(guid);
+                    String      guid   = entity.getGuid();
+                    AtlasVertex vertex = context.getVertex(guid);
+
+                    // content-hash covers only attributes; when classifications are to be replaced, compare with the entity in store
+                    if (!replaceClassifications) {
+                        String storedHash = EntityContentHash.getHash(vertex);
+
+                        if (storedHash != null && storedHash.equals(EntityContentHash.compute(entity, context))) {
+                            if (entitiesToSkipUpdate == null) {
+                                entitiesToSkipUpdate = new ArrayList<>();
+                            }
+
+                            entitiesToSkipUpdate.add(entity);
+
+                            updatesSkippedByHash.incrementAndGet();
+
+                            continue;
+                        }
+                    }
+
                     AtlasEntity     entityInStore = entityRetriever.toAtlasEntity(vertex);
                     AtlasEntityType entityType    = typeRegistry.getEntityTypeByName(entity.getTypeName());
 
@@ -590,14 +626,26 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
 
                 if (entitiesToSkipUpdate != null) {
                     context.getUpdatedEntities().removeAll(entitiesToSkipUpdate);
+
+                    updatesSkipped.addAndGet(entitiesToSkipUpdate.size());
+                }
+
+                updatesApplied.addAndGet(context.getUpdatedEntities().size());
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("createOrUpdate(): updates skipped={}, applied={}; totals: {}", (entitiesToSkipUpdate == null ? 0 : entitiesToSkipUpdate.size()),
+                              context.getUpdatedEntities().size(), getUpdateMetrics());
                 }
 
                 // Check if authorized to update entities
                 if (!isImport) {
+                    List<AtlasEntityAccessRequest> requests = new ArrayList<>(context.getUpdatedEntities().size());
+
                     for (AtlasEntity entity : context.getUpdatedEntities()) {
-                        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_UPDATE, new AtlasEntityHeader(entity)),
-                                                             "update entity: type=", entity.getTypeName());
+                        requests.add(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_UPDATE, new AtlasEntityHeader(entity)));
                     }
+
+                    AtlasAuthorizationUtils.verifyAccess(requests, request -> "update entity: type=" + request.getEntityType());
                 }
             }
 
@@ -618,6 +666,20 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
         }
     }
 
+    /**
+     * @return number of entity updates skipped as the incoming entity had no change - of which skipped by matching
+     * the content-hash, without reading the entity from the graph - and number of entity updates applied
+     */
+    public Map<String, Long> getUpdateMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_UPDATES_SKIPPED_BY_HASH, updatesSkippedByHash.get());
+        ret.put(METRIC_UPDATES_SKIPPED, updatesSkipped.get());
+        ret.put(METRIC_UPDATES_APPLIED, updatesApplied.get());
+
+        return ret;
+    }
+
     private EntityMutationContext preCreateOrUpdate(EntityStream entityStream, EntityGraphMapper entityGraphMapper, boolean isPartialUpdate) throws AtlasBaseException {
         EntityGraphDiscovery        graphDiscoverer  = new AtlasEntityGraphDiscoveryV1(typeRegistry, entityStream);
         EntityGraphDiscoveryContext discoveryContext = graphDiscoverer.discoverEntities();
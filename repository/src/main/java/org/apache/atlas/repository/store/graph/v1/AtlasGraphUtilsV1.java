@@ -37,6 +37,7 @@ import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasStructType;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
@@ -47,6 +48,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -241,6 +243,8 @@ public class AtlasGraphUtilsV1 {
         final Map<String, AtlasAttribute> uniqueAttributes = entityType.getUniqAttributes();
 
         if (MapUtils.isNotEmpty(uniqueAttributes) && MapUtils.isNotEmpty(attrValues)) {
+            UniqAttrVertexCache vertexCache = UniqAttrVertexCache.getInstance();
+
             for (AtlasAttribute attribute : uniqueAttributes.values()) {
                 Object attrValue = attrValues.get(attribute.getName());
 
@@ -248,6 +252,12 @@ public class AtlasGraphUtilsV1 {
                     continue;
                 }
 
+                vertex = vertexCache.getVertex(entityType, attribute, attrValue);
+
+                if (vertex != null) {
+                    break;
+                }
+
                 if (canUseIndexQuery(entityType, attribute.getName())) {
                     vertex = AtlasGraphUtilsV1.getAtlasVertexFromIndexQuery(entityType, attribute, attrValue);
                 } else {
@@ -265,6 +275,8 @@ public class AtlasGraphUtilsV1 {
                                   entityType.getTypeName(), attribute.getName(), attrValue, vertex);
                     }
 
+                    vertexCache.put(entityType, attribute, attrValue, vertex);
+
                     break;
                 }
             }
@@ -273,6 +285,49 @@ public class AtlasGraphUtilsV1 {
         return vertex;
     }
 
+    /**
+     * Finds active entities of the given type, or its sub-types, having one of the given values for a unique attribute;
+     * unlike findByUniqueAttributes(), all values are looked up in a single graph query.
+     *
+     * @return vertices by the string form of the attribute value; values not found are not in the map
+     */
+    public static Map<String, AtlasVertex> findByUniqueAttributeValues(AtlasEntityType entityType, AtlasAttribute attribute, Collection<?> attrValues) {
+        Map<String, AtlasVertex> ret = new HashMap<>();
+
+        if (CollectionUtils.isEmpty(attrValues)) {
+            return ret;
+        }
+
+        String          propertyName = attribute.getVertexPropertyName();
+        AtlasGraphQuery query        = AtlasGraphProvider.getGraphInstance().query();
+
+        if (attrValues.size() == 1) {
+            query.has(propertyName, attrValues.iterator().next());
+        } else {
+            query.in(propertyName, attrValues);
+        }
+
+        query.has(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+
+        Set<String> typeNames = entityType.getTypeAndAllSubTypes();
+
+        for (Iterator<AtlasVertex> iter = query.vertices().iterator(); iter.hasNext(); ) {
+            AtlasVertex vertex    = iter.next();
+            Object      attrValue = vertex.getProperty(propertyName, Object.class);
+
+            // vertices of other types can have the same property, when the attribute is defined in a super-type
+            if (attrValue != null && typeNames.contains(getTypeName(vertex))) {
+                ret.put(attrValue.toString(), vertex);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("findByUniqueAttributeValues(type={}, attrName={}, values={}): found {} vertices", entityType.getTypeName(), attribute.getName(), attrValues.size(), ret.size());
+        }
+
+        return ret;
+    }
+
     public static AtlasVertex findByGuid(String guid) {
         AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query()
                                                   .has(Constants.GUID_PROPERTY_KEY, guid);
@@ -284,6 +339,42 @@ public class AtlasGraphUtilsV1 {
         return vertex;
     }
 
+    /**
+     * Finds entities with the given guids in a single graph query.
+     *
+     * @return vertices by guid; guids not found are not in the map
+     */
+    public static Map<String, AtlasVertex> findByGuids(Collection<String> guids) {
+        Map<String, AtlasVertex> ret = new HashMap<>();
+
+        if (CollectionUtils.isEmpty(guids)) {
+            return ret;
+        }
+
+        AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query();
+
+        if (guids.size() == 1) {
+            query.has(Constants.GUID_PROPERTY_KEY, guids.iterator().next());
+        } else {
+            query.in(Constants.GUID_PROPERTY_KEY, guids);
+        }
+
+        for (Iterator<AtlasVertex> iter = query.vertices().iterator(); iter.hasNext(); ) {
+            AtlasVertex vertex = iter.next();
+            String      guid   = getIdFromVertex(vertex);
+
+            if (guid != null) {
+                ret.put(guid, vertex);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("findByGuids(guids={}): found {} vertices", guids.size(), ret.size());
+        }
+
+        return ret;
+    }
+
     public static String getTypeNameFromGuid(String guid) {
         String ret = null;
 
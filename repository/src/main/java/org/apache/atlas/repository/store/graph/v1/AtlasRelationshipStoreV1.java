@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.store.graph.v1;
 
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
@@ -77,6 +78,7 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
 
     private final AtlasTypeRegistry    typeRegistry;
     private final EntityGraphRetriever entityRetriever;
+    private final EntityRetrieverCache entityCache;
     private final DeleteHandlerV1      deleteHandler;
     private final GraphHelper          graphHelper = GraphHelper.getInstance();
 
@@ -84,6 +86,7 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
     public AtlasRelationshipStoreV1(AtlasTypeRegistry typeRegistry, DeleteHandlerV1 deleteHandler) {
         this.typeRegistry    = typeRegistry;
         this.entityRetriever = new EntityGraphRetriever(typeRegistry);
+        this.entityCache     = EntityRetrieverCache.getInstance();
         this.deleteHandler   = deleteHandler;
     }
 
@@ -101,6 +104,9 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
 
         AtlasEdge edge = createRelationship(end1Vertex, end2Vertex, relationship);
 
+        recordEntityUpdate(end1Vertex);
+        recordEntityUpdate(end2Vertex);
+
         AtlasRelationship ret = edge != null ? entityRetriever.mapEdgeToAtlasRelationship(edge) : null;
 
         if (LOG.isDebugEnabled()) {
@@ -176,6 +182,9 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
 
         AtlasRelationship ret = updateRelationship(edge, relationship);
 
+        recordEntityUpdate(end1Vertex);
+        recordEntityUpdate(end2Vertex);
+
         if (LOG.isDebugEnabled()) {
             LOG.debug("<== update({}): {}", relationship, ret);
         }
@@ -263,6 +272,9 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
             validateRelationship(relationship);
 
             relationshipEdge = createRelationship(end1Vertex, end2Vertex, relationship);
+
+            recordEntityUpdate(end1Vertex);
+            recordEntityUpdate(end2Vertex);
         }
 
         if (relationshipEdge != null){
@@ -276,6 +288,26 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
         return ret;
     }
 
+    /**
+     * Records update of an end entity of a relationship created/updated by this store: relationship-attributes of the
+     * entity change along with the relationship, hence its content-hash and cached copies must not be used further.
+     * Relationships created by getOrCreate(end1Vertex, end2Vertex, relationship) are not handled here, as
+     * EntityGraphMapper records updates of the entities it maps.
+     */
+    private void recordEntityUpdate(AtlasVertex entityVertex) throws AtlasBaseException {
+        RequestContextV1 requestContext = RequestContextV1.get();
+
+        if (!requestContext.isUpdatedEntity(getGuid(entityVertex))) {
+            GraphHelper.updateModificationMetadata(entityVertex);
+
+            requestContext.recordEntityUpdate(entityRetriever.toAtlasObjectId(entityVertex));
+        } else {
+            EntityContentHash.removeHash(entityVertex);
+        }
+
+        entityCache.invalidate(entityVertex);
+    }
+
     private AtlasEdge createRelationship(AtlasVertex end1Vertex, AtlasVertex end2Vertex, AtlasRelationship relationship) throws AtlasBaseException {
         AtlasEdge ret = null;
 
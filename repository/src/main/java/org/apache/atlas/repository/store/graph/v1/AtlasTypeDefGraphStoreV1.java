@@ -41,6 +41,7 @@ import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.bootstrap.AtlasTypesBootstrapState;
 import org.apache.atlas.repository.store.graph.*;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -64,14 +65,17 @@ import javax.inject.Singleton;
 public class AtlasTypeDefGraphStoreV1 extends AtlasTypeDefGraphStore {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeDefGraphStoreV1.class);
 
-    protected final AtlasGraph atlasGraph;
+    protected final AtlasGraph               atlasGraph;
+    private   final AtlasTypesBootstrapState bootstrapState;
 
     @Inject
     public AtlasTypeDefGraphStoreV1(AtlasTypeRegistry typeRegistry,
                                     Set<TypeDefChangeListener> typeDefChangeListeners,
-                                    AtlasGraph atlasGraph) {
+                                    AtlasGraph atlasGraph,
+                                    AtlasTypesBootstrapState bootstrapState) {
         super(typeRegistry, typeDefChangeListeners);
-        this.atlasGraph = atlasGraph;
+        this.atlasGraph     = atlasGraph;
+        this.bootstrapState = bootstrapState;
 
         LOG.debug("<== AtlasTypeDefGraphStoreV1()");
     }
@@ -112,6 +116,18 @@ public class AtlasTypeDefGraphStoreV1 extends AtlasTypeDefGraphStore {
         LOG.info("<== AtlasTypeDefGraphStoreV1.init()");
     }
 
+    @Override
+    protected AtlasTypesDef getTypesDefSnapshot() {
+        return bootstrapState != null ? bootstrapState.getTypesDefSnapshot() : null;
+    }
+
+    @Override
+    protected void onTypeDefsUpdate() {
+        if (bootstrapState != null) {
+            bootstrapState.invalidateTypesDefSnapshot();
+        }
+    }
+
     AtlasGraph getAtlasGraph() { return atlasGraph; }
 
     @VisibleForTesting
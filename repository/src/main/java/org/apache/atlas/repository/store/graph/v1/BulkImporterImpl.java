@@ -18,16 +18,21 @@
 package org.apache.atlas.repository.store.graph.v1;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportResult;
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.BulkImporter;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -43,11 +48,32 @@ import java.util.Set;
 public class BulkImporterImpl implements BulkImporter {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasEntityStoreV1.class);
 
+    public static final String IMPORT_BATCH_SIZE = "atlas.import.batch.size";
+
+    private static final int DEFAULT_IMPORT_BATCH_SIZE = 1;
+
+    private static final String METRIC_BATCH_COUNT           = "batch:count";
+    private static final String METRIC_BATCH_ENTITY_COUNT    = "batch:entities";
+    private static final String METRIC_BATCH_DURATION        = "batch:duration";
+    private static final String METRIC_BATCH_LAST_THROUGHPUT = "batch:last:throughput";
+    private static final String METRIC_BATCH_FALLBACK_COUNT  = "batch:fallback";
+
     private final AtlasEntityStore entityStore;
+    private final int              defaultBatchSize;
 
     @Inject
     public BulkImporterImpl(AtlasEntityStore entityStore) {
         this.entityStore = entityStore;
+
+        int batchSize = DEFAULT_IMPORT_BATCH_SIZE;
+
+        try {
+            batchSize = ApplicationProperties.get().getInt(IMPORT_BATCH_SIZE, DEFAULT_IMPORT_BATCH_SIZE);
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; using default import batch size {}", DEFAULT_IMPORT_BATCH_SIZE, excp);
+        }
+
+        this.defaultBatchSize = batchSize;
     }
 
     @Override
@@ -66,50 +92,172 @@ public class BulkImporterImpl implements BulkImporter {
         Set<String>  processedGuids = new HashSet<>();
         float        currentPercent = 0f;
         List<String> residualList   = new ArrayList<>();
+        int          batchSize      = getBatchSize(importResult);
 
         EntityImportStreamWithResidualList entityImportStreamWithResidualList = new EntityImportStreamWithResidualList(entityStream, residualList);
 
+        LOG.info("bulkImport(): batchSize={}", batchSize);
+
         while (entityImportStreamWithResidualList.hasNext()) {
+            if (batchSize > 1) {
+                currentPercent = importBatch(entityImportStreamWithResidualList, entityStream, batchSize, ret, importResult, processedGuids, residualList, currentPercent);
+            } else {
+                AtlasEntityWithExtInfo entityWithExtInfo = entityImportStreamWithResidualList.getNextEntityWithExtInfo();
+                AtlasEntity            entity            = entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+
+                if (entity == null || processedGuids.contains(entity.getGuid())) {
+                    continue;
+                }
+
+                currentPercent = importEntity(entityWithExtInfo, entityStream, entityImportStreamWithResidualList, ret, importResult, processedGuids, residualList, currentPercent);
+            }
+        }
+
+        importResult.getProcessedEntities().addAll(processedGuids);
+        LOG.info("bulkImport(): done. Total number of entities (including referred entities) imported: {}", processedGuids.size());
+
+        return ret;
+    }
+
+    private float importEntity(AtlasEntityWithExtInfo             entityWithExtInfo,
+                               EntityImportStream                 entityStream,
+                               EntityImportStreamWithResidualList entityImportStreamWithResidualList,
+                               EntityMutationResponse             ret,
+                               AtlasImportResult                  importResult,
+                               Set<String>                        processedGuids,
+                               List<String>                       residualList,
+                               float                              currentPercent) throws AtlasBaseException {
+        AtlasEntity                entity          = entityWithExtInfo.getEntity();
+        AtlasEntityStreamForImport oneEntityStream = new AtlasEntityStreamForImport(entityWithExtInfo, entityStream);
+
+        try {
+            EntityMutationResponse resp = entityStore.createOrUpdateForImport(oneEntityStream);
+
+            if (resp.getGuidAssignments() != null) {
+                ret.getGuidAssignments().putAll(resp.getGuidAssignments());
+            }
+
+            currentPercent = updateImportMetrics(entityWithExtInfo, resp, importResult, processedGuids, entityStream.getPosition(), entityImportStreamWithResidualList.getStreamSize(), currentPercent);
+
+            entityStream.onImportComplete(entity.getGuid());
+        } catch (AtlasBaseException e) {
+            if (!updateResidualList(e, residualList, entity.getGuid())) {
+                throw e;
+            }
+        } catch (Throwable e) {
+            AtlasBaseException abe = new AtlasBaseException(e);
+
+            if (!updateResidualList(abe, residualList, entity.getGuid())) {
+                throw abe;
+            }
+        } finally {
+            RequestContextV1.clear();
+        }
+
+        return currentPercent;
+    }
+
+    /**
+     * Imports up to batchSize entities from the stream in a single transaction, so that references among them are
+     * resolved together. If the batch fails, its entities are imported one at a time, which retains the
+     * residual-list handling for entities that refer to entities not yet imported.
+     */
+    private float importBatch(EntityImportStreamWithResidualList entityImportStreamWithResidualList,
+                              EntityImportStream                 entityStream,
+                              int                                batchSize,
+                              EntityMutationResponse             ret,
+                              AtlasImportResult                  importResult,
+                              Set<String>                        processedGuids,
+                              List<String>                       residualList,
+                              float                              currentPercent) throws AtlasBaseException {
+        List<AtlasEntityWithExtInfo> batch         = new ArrayList<>(batchSize);
+        AtlasEntitiesWithExtInfo     batchEntities = new AtlasEntitiesWithExtInfo();
+        Set<String>                  batchGuids    = new HashSet<>();
+
+        while (batch.size() < batchSize && entityImportStreamWithResidualList.hasNext()) {
             AtlasEntityWithExtInfo entityWithExtInfo = entityImportStreamWithResidualList.getNextEntityWithExtInfo();
             AtlasEntity            entity            = entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
 
-            if (entity == null || processedGuids.contains(entity.getGuid())) {
+            if (entity == null || processedGuids.contains(entity.getGuid()) || !batchGuids.add(entity.getGuid())) {
                 continue;
             }
 
-            AtlasEntityStreamForImport oneEntityStream = new AtlasEntityStreamForImport(entityWithExtInfo, entityStream);
+            batch.add(entityWithExtInfo);
+            batchEntities.addEntity(entity);
 
-            try {
-                EntityMutationResponse resp = entityStore.createOrUpdateForImport(oneEntityStream);
-
-                if (resp.getGuidAssignments() != null) {
-                    ret.getGuidAssignments().putAll(resp.getGuidAssignments());
+            if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+                for (AtlasEntity referredEntity : entityWithExtInfo.getReferredEntities().values()) {
+                    batchEntities.addReferredEntity(referredEntity);
                 }
+            }
+        }
 
-                currentPercent = updateImportMetrics(entityWithExtInfo, resp, importResult, processedGuids, entityStream.getPosition(), entityImportStreamWithResidualList.getStreamSize(), currentPercent);
+        if (batch.isEmpty()) {
+            return currentPercent;
+        }
 
-                entityStream.onImportComplete(entity.getGuid());
-            } catch (AtlasBaseException e) {
-                if (!updateResidualList(e, residualList, entityWithExtInfo.getEntity().getGuid())) {
-                    throw e;
-                }
-            } catch (Throwable e) {
-                AtlasBaseException abe = new AtlasBaseException(e);
+        long startTime = System.currentTimeMillis();
 
-                if (!updateResidualList(abe, residualList, entityWithExtInfo.getEntity().getGuid())) {
-                    throw abe;
+        try {
+            EntityMutationResponse resp = entityStore.createOrUpdateForImport(new AtlasEntityStreamForImport(batchEntities, entityStream));
+
+            if (resp.getGuidAssignments() != null) {
+                ret.getGuidAssignments().putAll(resp.getGuidAssignments());
+            }
+
+            currentPercent = updateImportMetrics(batch.get(batch.size() - 1), resp, importResult, processedGuids, entityStream.getPosition(), entityImportStreamWithResidualList.getStreamSize(), currentPercent);
+
+            for (AtlasEntityWithExtInfo entityWithExtInfo : batch) {
+                entityStream.onImportComplete(entityWithExtInfo.getEntity().getGuid());
+            }
+        } catch (Throwable e) {
+            RequestContextV1.clear();
+
+            LOG.warn("bulkImport(): failed to import batch of {} entities; importing them one at a time", batch.size(), e);
+
+            importResult.incrementMeticsCounter(METRIC_BATCH_FALLBACK_COUNT);
+
+            for (AtlasEntityWithExtInfo entityWithExtInfo : batch) {
+                if (!processedGuids.contains(entityWithExtInfo.getEntity().getGuid())) {
+                    currentPercent = importEntity(entityWithExtInfo, entityStream, entityImportStreamWithResidualList, ret, importResult, processedGuids, residualList, currentPercent);
                 }
-            } finally {
-                RequestContextV1.clear();
             }
+        } finally {
+            RequestContextV1.clear();
         }
 
-        importResult.getProcessedEntities().addAll(processedGuids);
-        LOG.info("bulkImport(): done. Total number of entities (including referred entities) imported: {}", processedGuids.size());
+        updateBatchMetrics(importResult, batch.size(), System.currentTimeMillis() - startTime);
 
-        return ret;
+        return currentPercent;
+    }
+
+    private void updateBatchMetrics(AtlasImportResult importResult, int entityCount, long timeTakenMs) {
+        int throughput = (int) ((entityCount * 1000L) / Math.max(1L, timeTakenMs));
+
+        importResult.incrementMeticsCounter(METRIC_BATCH_COUNT);
+        importResult.incrementMeticsCounter(METRIC_BATCH_ENTITY_COUNT, entityCount);
+        importResult.incrementMeticsCounter(METRIC_BATCH_DURATION, (int) timeTakenMs);
+        importResult.getMetrics().put(METRIC_BATCH_LAST_THROUGHPUT, throughput);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("bulkImport(): batch #{}: imported {} entities in {}ms ({} entities/sec)", importResult.getMetrics().get(METRIC_BATCH_COUNT), entityCount, timeTakenMs, throughput);
+        }
     }
 
+    private int getBatchSize(AtlasImportResult importResult) {
+        int    ret       = defaultBatchSize;
+        String batchSize = importResult != null && importResult.getRequest() != null ? importResult.getRequest().getBatchSize() : null;
+
+        if (StringUtils.isNotEmpty(batchSize)) {
+            try {
+                ret = Integer.parseInt(batchSize);
+            } catch (NumberFormatException excp) {
+                LOG.warn("bulkImport(): invalid batchSize {} in import request; using {}", batchSize, ret);
+            }
+        }
+
+        return ret;
+    }
 
     private boolean updateResidualList(AtlasBaseException e, List<String> lineageList, String guid) {
         if (!e.getAtlasErrorCode().getErrorCode().equals(AtlasErrorCode.INVALID_OBJECT_ID.getErrorCode())) {
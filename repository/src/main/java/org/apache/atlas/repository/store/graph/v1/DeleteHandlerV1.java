@@ -64,16 +64,22 @@ import static org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1.getSt
 public abstract class DeleteHandlerV1 {
     public static final Logger LOG = LoggerFactory.getLogger(DeleteHandlerV1.class);
 
-    private final AtlasTypeRegistry    typeRegistry;
-    private final EntityGraphRetriever entityRetriever;
-    private final boolean              shouldUpdateInverseReferences;
-    private final boolean              softDelete;
+    private final AtlasTypeRegistry     typeRegistry;
+    private final EntityGraphRetriever  entityRetriever;
+    private final EntityRetrieverCache  entityCache;
+    private final UniqAttrVertexCache   uniqAttrVertexCache;
+    private final TagPropagationManager tagPropagationManager;
+    private final boolean               shouldUpdateInverseReferences;
+    private final boolean               softDelete;
 
     protected static final GraphHelper graphHelper = GraphHelper.getInstance();
 
-    public DeleteHandlerV1(AtlasTypeRegistry typeRegistry, boolean shouldUpdateInverseReference, boolean softDelete) {
+    public DeleteHandlerV1(AtlasTypeRegistry typeRegistry, TagPropagationManager tagPropagationManager, boolean shouldUpdateInverseReference, boolean softDelete) {
         this.typeRegistry                  = typeRegistry;
         this.entityRetriever               = new EntityGraphRetriever(typeRegistry);
+        this.entityCache                   = EntityRetrieverCache.getInstance();
+        this.uniqAttrVertexCache           = UniqAttrVertexCache.getInstance();
+        this.tagPropagationManager         = tagPropagationManager;
         this.shouldUpdateInverseReferences = shouldUpdateInverseReference;
         this.softDelete                    = softDelete;
     }
@@ -133,7 +139,14 @@ public abstract class DeleteHandlerV1 {
                 continue;
             }
 
+            AtlasVertex end1Vertex = edge.getOutVertex();
+            AtlasVertex end2Vertex = edge.getInVertex();
+
             deleteEdge(edge, false);
+
+            // relationship-attributes of both the ends are updated by this delete
+            recordEntityUpdate(end1Vertex);
+            recordEntityUpdate(end2Vertex);
         }
     }
 
@@ -289,14 +302,7 @@ public abstract class DeleteHandlerV1 {
                 AtlasVertex referencedVertex = entityRetriever.getReferencedEntityVertex(edge, relationshipDirection, entityVertex);
 
                 if (referencedVertex != null) {
-                    RequestContextV1 requestContext = RequestContextV1.get();
-
-                    if (!requestContext.isUpdatedEntity(GraphHelper.getGuid(referencedVertex))) {
-                        GraphHelper.setProperty(referencedVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, requestContext.getRequestTime());
-                        GraphHelper.setProperty(referencedVertex, Constants.MODIFIED_BY_KEY, requestContext.getUser());
-
-                        requestContext.recordEntityUpdate(entityRetriever.toAtlasObjectId(referencedVertex));
-                    }
+                    recordEntityUpdate(referencedVertex);
                 }
             } else {
                 //legacy case - not a relationship edge
@@ -354,7 +360,10 @@ public abstract class DeleteHandlerV1 {
     public List<AtlasVertex> removeTagPropagation(AtlasVertex classificationVertex) throws AtlasBaseException {
         List<AtlasVertex> ret = new ArrayList<>();
 
-        if (classificationVertex != null) {
+        if (classificationVertex != null && tagPropagationManager.isAsyncEnabled()) {
+            // propagations are removed, and listeners notified, by a background task after this transaction commits
+            tagPropagationManager.scheduleDeletePropagation(classificationVertex);
+        } else if (classificationVertex != null) {
             String          classificationName = getTypeName(classificationVertex);
             List<AtlasEdge> propagatedEdges    = getPropagatedEdges(classificationVertex);
 
@@ -373,6 +382,8 @@ public abstract class DeleteHandlerV1 {
 
                     updateModificationMetadata(propagatedEntityVertex);
 
+                    entityCache.invalidate(propagatedEntityVertex);
+
                     ret.add(propagatedEntityVertex);
                 }
             }
@@ -659,15 +670,27 @@ public abstract class DeleteHandlerV1 {
         if (edge != null) {
             deleteEdge(edge, false);
 
-            RequestContextV1 requestContext = RequestContextV1.get();
+            recordEntityUpdate(outVertex);
+        }
+    }
 
-            if (! requestContext.isUpdatedEntity(outId)) {
-                GraphHelper.setProperty(outVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, requestContext.getRequestTime());
-                GraphHelper.setProperty(outVertex, Constants.MODIFIED_BY_KEY, requestContext.getUser());
+    /**
+     * Records update of the given entity, whose references were modified by a delete: removes its content-hash and
+     * cached copies, and updates modification metadata once per request.
+     */
+    private void recordEntityUpdate(AtlasVertex entityVertex) throws AtlasBaseException {
+        RequestContextV1 requestContext = RequestContextV1.get();
 
-                requestContext.recordEntityUpdate(entityRetriever.toAtlasObjectId(outVertex));
-            }
+        EntityContentHash.removeHash(entityVertex);
+
+        if (!requestContext.isUpdatedEntity(GraphHelper.getGuid(entityVertex))) {
+            GraphHelper.setProperty(entityVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, requestContext.getRequestTime());
+            GraphHelper.setProperty(entityVertex, Constants.MODIFIED_BY_KEY, requestContext.getUser());
+
+            requestContext.recordEntityUpdate(entityRetriever.toAtlasObjectId(entityVertex));
         }
+
+        entityCache.invalidate(entityVertex);
     }
 
     protected void deleteVertex(AtlasVertex instanceVertex, boolean force) throws AtlasBaseException {
@@ -687,6 +710,9 @@ public abstract class DeleteHandlerV1 {
             }
         }
 
+        entityCache.invalidate(instanceVertex);
+        uniqAttrVertexCache.invalidate(typeRegistry.getEntityTypeByName(getTypeName(instanceVertex)), instanceVertex);
+
         _deleteVertex(instanceVertex, force);
     }
 }
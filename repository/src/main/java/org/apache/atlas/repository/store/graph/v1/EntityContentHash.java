@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasStruct;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.apache.atlas.utils.SHA256Utils;
+import org.apache.commons.collections.MapUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Hash of the attributes and relationship-attributes of an entity, in a canonical form: map entries and set elements
+ * are sorted, and references to other entities are replaced by the guid of the referenced vertex - so that the same
+ * entity sent again, with a different order of map entries or with references by temporary-guid/unique-attributes,
+ * results in the same hash.
+ *
+ * The hash is stored in the entity vertex after a full update, and removed when the entity is modified otherwise;
+ * a matching hash lets an update of an unchanged entity be skipped without reading the entity from the graph.
+ */
+final class EntityContentHash {
+    private EntityContentHash() { }
+
+    public static String compute(AtlasEntity entity, EntityMutationContext context) throws AtlasBaseException {
+        Map<String, Object> attributes = new TreeMap<>();
+
+        if (MapUtils.isNotEmpty(entity.getAttributes())) {
+            attributes.putAll(entity.getAttributes());
+        }
+
+        // relationship-attributes override attributes of the same name - as done in EntityGraphMapper.compactAttributes()
+        if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+            attributes.putAll(entity.getRelationshipAttributes());
+        }
+
+        StringBuilder sb = new StringBuilder(entity.getTypeName());
+
+        toCanonicalString(attributes, context, sb);
+
+        return SHA256Utils.toString(SHA256Utils.getDigester().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static String getHash(AtlasVertex vertex) {
+        return vertex.getProperty(Constants.ENTITY_CONTENT_HASH_PROPERTY_KEY, String.class);
+    }
+
+    public static void setHash(AtlasVertex vertex, String hash) {
+        AtlasGraphUtilsV1.setProperty(vertex, Constants.ENTITY_CONTENT_HASH_PROPERTY_KEY, hash);
+    }
+
+    public static void removeHash(AtlasVertex vertex) {
+        vertex.removeProperty(Constants.ENTITY_CONTENT_HASH_PROPERTY_KEY);
+    }
+
+    private static void toCanonicalString(Object value, EntityMutationContext context, StringBuilder sb) throws AtlasBaseException {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof AtlasObjectId) {
+            AtlasObjectId objId = (AtlasObjectId) value;
+            String        guid  = getResolvedGuid(objId, context);
+
+            if (guid != null) {
+                sb.append("{guid=").append(guid).append('}');
+            } else {
+                sb.append("{typeName=").append(objId.getTypeName()).append(";uniqueAttributes=");
+
+                toCanonicalString(objId.getUniqueAttributes(), context, sb);
+
+                sb.append('}');
+            }
+        } else if (value instanceof AtlasEntity) { // embedded entity
+            AtlasEntity entity = (AtlasEntity) value;
+
+            toCanonicalString(new AtlasObjectId(entity.getGuid(), entity.getTypeName()), context, sb);
+        } else if (value instanceof AtlasStruct) {
+            AtlasStruct struct = (AtlasStruct) value;
+
+            sb.append('{').append(struct.getTypeName()).append(':');
+
+            toCanonicalString(struct.getAttributes(), context, sb);
+
+            sb.append('}');
+        } else if (value instanceof Map) {
+            Map<String, Object> sortedMap = new TreeMap<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sortedMap.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+
+            sb.append('{');
+
+            for (Map.Entry<String, Object> entry : sortedMap.entrySet()) {
+                sb.append(entry.getKey()).append('=');
+
+                toCanonicalString(entry.getValue(), context, sb);
+
+                sb.append(';');
+            }
+
+            sb.append('}');
+        } else if (value instanceof Collection) {
+            List<String> elements = new ArrayList<>();
+
+            for (Object element : (Collection<?>) value) {
+                StringBuilder elementSb = new StringBuilder();
+
+                toCanonicalString(element, context, elementSb);
+
+                elements.add(elementSb.toString());
+            }
+
+            if (value instanceof Set) {
+                Collections.sort(elements);
+            }
+
+            sb.append('[');
+
+            for (String element : elements) {
+                sb.append(element).append(',');
+            }
+
+            sb.append(']');
+        } else if (value instanceof Date) {
+            sb.append(((Date) value).getTime());
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static String getResolvedGuid(AtlasObjectId objId, EntityMutationContext context) throws AtlasBaseException {
+        AtlasVertex vertex = null;
+
+        if (context != null) {
+            if (objId.getGuid() != null) {
+                vertex = context.getVertex(objId.getGuid());
+
+                if (vertex == null && context.getDiscoveryContext() != null) {
+                    vertex = context.getDiscoveryContext().getResolvedEntityVertex(objId.getGuid());
+                }
+            }
+
+            if (vertex == null && context.getDiscoveryContext() != null && MapUtils.isNotEmpty(objId.getUniqueAttributes())) {
+                vertex = context.getDiscoveryContext().getResolvedEntityVertex(objId);
+            }
+        }
+
+        if (vertex != null) {
+            return GraphHelper.getGuid(vertex);
+        }
+
+        return AtlasTypeUtil.isAssignedGuid(objId) ? objId.getGuid() : null;
+    }
+}
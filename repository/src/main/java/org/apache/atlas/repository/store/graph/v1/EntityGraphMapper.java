@@ -88,7 +88,6 @@ import static org.apache.atlas.repository.graph.GraphHelper.getTypeNames;
 import static org.apache.atlas.repository.graph.GraphHelper.isPropagationEnabled;
 import static org.apache.atlas.repository.graph.GraphHelper.isRelationshipEdge;
 import static org.apache.atlas.repository.graph.GraphHelper.string;
-import static org.apache.atlas.repository.graph.GraphHelper.updateModificationMetadata;
 import static org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1.getIdFromVertex;
 import static org.apache.atlas.type.AtlasStructType.AtlasAttribute.AtlasRelationshipEdgeDirection.IN;
 import static org.apache.atlas.type.AtlasStructType.AtlasAttribute.AtlasRelationshipEdgeDirection.OUT;
@@ -105,18 +104,24 @@ public class EntityGraphMapper {
     private final AtlasEntityChangeNotifier entityChangeNotifier;
     private final AtlasInstanceConverter    instanceConverter;
     private final EntityGraphRetriever      entityRetriever;
+    private final EntityRetrieverCache      entityCache;
+    private final UniqAttrVertexCache       uniqAttrVertexCache;
+    private final TagPropagationManager     tagPropagationManager;
 
     @Inject
     public EntityGraphMapper(DeleteHandlerV1 deleteHandler, AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph,
                              AtlasRelationshipStore relationshipStore, AtlasEntityChangeNotifier entityChangeNotifier,
-                             AtlasInstanceConverter instanceConverter) {
-        this.deleteHandler        = deleteHandler;
-        this.typeRegistry         = typeRegistry;
-        this.graph                = atlasGraph;
-        this.relationshipStore    = relationshipStore;
-        this.entityChangeNotifier = entityChangeNotifier;
-        this.instanceConverter    = instanceConverter;
-        this.entityRetriever      = new EntityGraphRetriever(typeRegistry);
+                             AtlasInstanceConverter instanceConverter, TagPropagationManager tagPropagationManager) {
+        this.deleteHandler         = deleteHandler;
+        this.typeRegistry          = typeRegistry;
+        this.graph                 = atlasGraph;
+        this.relationshipStore     = relationshipStore;
+        this.entityChangeNotifier  = entityChangeNotifier;
+        this.instanceConverter     = instanceConverter;
+        this.entityRetriever       = new EntityGraphRetriever(typeRegistry);
+        this.entityCache           = EntityRetrieverCache.getInstance();
+        this.uniqAttrVertexCache   = UniqAttrVertexCache.getInstance();
+        this.tagPropagationManager = tagPropagationManager;
     }
 
     public AtlasVertex createVertex(AtlasEntity entity) {
@@ -176,6 +181,7 @@ public class EntityGraphMapper {
                 String          guid       = createdEntity.getGuid();
                 AtlasVertex     vertex     = context.getVertex(guid);
                 AtlasEntityType entityType = context.getType(guid);
+                String          hash       = EntityContentHash.compute(createdEntity, context);
 
                 compactAttributes(createdEntity);
 
@@ -185,6 +191,8 @@ public class EntityGraphMapper {
 
                 resp.addEntity(CREATE, constructHeader(createdEntity, entityType, vertex));
                 addClassifications(context, guid, createdEntity.getClassifications());
+
+                EntityContentHash.setHash(vertex, hash);
             }
         }
 
@@ -193,9 +201,12 @@ public class EntityGraphMapper {
                 String          guid       = updatedEntity.getGuid();
                 AtlasVertex     vertex     = context.getVertex(guid);
                 AtlasEntityType entityType = context.getType(guid);
+                String          hash       = isPartialUpdate ? null : EntityContentHash.compute(updatedEntity, context);
 
                 compactAttributes(updatedEntity);
 
+                uniqAttrVertexCache.invalidate(entityType, vertex, updatedEntity.getAttributes());
+
                 mapRelationshipAttributes(updatedEntity, vertex, UPDATE, context);
 
                 mapAttributes(updatedEntity, vertex, UPDATE, context);
@@ -210,6 +221,10 @@ public class EntityGraphMapper {
                     deleteClassifications(guid);
                     addClassifications(context, guid, updatedEntity.getClassifications());
                 }
+
+                if (hash != null) {
+                    EntityContentHash.setHash(vertex, hash);
+                }
             }
         }
 
@@ -1328,6 +1343,8 @@ public class EntityGraphMapper {
 
                 GraphHelper.addProperty(entityVertex, TRAIT_NAMES_PROPERTY_KEY, classificationName);
 
+                entityCache.invalidate(guid);
+
                 // add a new AtlasVertex for the struct or trait instance
                 AtlasVertex classificationVertex = createClassificationVertex(classification);
 
@@ -1338,7 +1355,13 @@ public class EntityGraphMapper {
                 // add the attributes for the trait instance
                 mapClassification(EntityOperation.CREATE, context, classification, entityType, entityVertex, classificationVertex);
 
-                if (propagateTags) {
+                if (propagateTags && tagPropagationManager.isAsyncEnabled()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Scheduling propagation of classification: [{}][{}]", classificationName, entityTypeName);
+                    }
+
+                    tagPropagationManager.scheduleAddPropagation(guid, classificationVertex);
+                } else if (propagateTags) {
                     // compute propagatedEntityVertices only once
                     if (entitiesToPropagateTo == null) {
                         entitiesToPropagateTo = graphHelper.getImpactedVertices(guid);
@@ -1528,7 +1551,9 @@ public class EntityGraphMapper {
 
             // compute propagatedEntityVertices once and use it for subsequent iterations and notifications
             if (currentTagPropagation != updatedTagPropagation) {
-                if (updatedTagPropagation) {
+                if (updatedTagPropagation && tagPropagationManager.isAsyncEnabled()) {
+                    tagPropagationManager.scheduleAddPropagation(guid, classificationVertex);
+                } else if (updatedTagPropagation) {
                     if (CollectionUtils.isEmpty(entitiesToPropagateTo)) {
                         entitiesToPropagateTo = graphHelper.getImpactedVertices(guid);
                     }
@@ -1631,6 +1656,8 @@ public class EntityGraphMapper {
                     graphHelper.addClassificationEdge(propagatedEntityVertex, classificationVertex, true);
 
                     addListProperty(propagatedEntityVertex, PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, classificationName);
+
+                    entityCache.invalidate(propagatedEntityVertex);
                 }
             }
         }
@@ -1726,9 +1753,19 @@ public class EntityGraphMapper {
             updateModificationMetadata(vertex);
 
             req.recordEntityUpdate(entityRetriever.toAtlasObjectId(vertex));
+        } else {
+            EntityContentHash.removeHash(vertex);
+
+            entityCache.invalidate(vertex);
         }
     }
 
+    private void updateModificationMetadata(AtlasVertex vertex) {
+        GraphHelper.updateModificationMetadata(vertex);
+
+        entityCache.invalidate(vertex);
+    }
+
     private static void compactAttributes(AtlasEntity entity) {
         if (entity != null) {
             Map<String, Object> relationshipAttributes = entity.getRelationshipAttributes();
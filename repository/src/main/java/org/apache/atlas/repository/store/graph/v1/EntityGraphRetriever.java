@@ -103,10 +103,12 @@ public final class EntityGraphRetriever {
     private static final List<TimeBoundary> TIME_BOUNDARIES_LIST = new ArrayList<>();
     private static final GraphHelper        graphHelper          = GraphHelper.getInstance();
 
-    private final AtlasTypeRegistry typeRegistry;
+    private final AtlasTypeRegistry    typeRegistry;
+    private final EntityRetrieverCache entityCache;
 
     public EntityGraphRetriever(AtlasTypeRegistry typeRegistry) {
         this.typeRegistry = typeRegistry;
+        this.entityCache  = EntityRetrieverCache.getInstance();
     }
 
     public AtlasEntity toAtlasEntity(String guid) throws AtlasBaseException {
@@ -130,11 +132,18 @@ public final class EntityGraphRetriever {
     }
 
     public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(AtlasVertex entityVertex) throws AtlasBaseException {
-        AtlasEntityExtInfo     entityExtInfo = new AtlasEntityExtInfo();
-        AtlasEntity            entity        = mapVertexToAtlasEntity(entityVertex, entityExtInfo);
-        AtlasEntityWithExtInfo ret           = new AtlasEntityWithExtInfo(entity, entityExtInfo);
+        AtlasEntityWithExtInfo ret = entityCache.getEntityWithExtInfo(entityVertex);
 
-        ret.compact();
+        if (ret == null) {
+            AtlasEntityExtInfo entityExtInfo = new AtlasEntityExtInfo();
+            AtlasEntity        entity        = mapVertexToAtlasEntity(entityVertex, entityExtInfo);
+
+            ret = new AtlasEntityWithExtInfo(entity, entityExtInfo);
+
+            ret.compact();
+
+            entityCache.putEntityWithExtInfo(entityVertex, ret);
+        }
 
         return ret;
     }
@@ -342,6 +351,18 @@ public final class EntityGraphRetriever {
     }
 
     private AtlasEntityHeader mapVertexToAtlasEntityHeader(AtlasVertex entityVertex, Set<String> attributes) throws AtlasBaseException {
+        AtlasEntityHeader ret = entityCache.getEntityHeader(entityVertex, attributes);
+
+        if (ret == null) {
+            ret = createAtlasEntityHeader(entityVertex, attributes);
+
+            entityCache.putEntityHeader(entityVertex, attributes, ret);
+        }
+
+        return ret;
+    }
+
+    private AtlasEntityHeader createAtlasEntityHeader(AtlasVertex entityVertex, Set<String> attributes) throws AtlasBaseException {
         AtlasEntityHeader ret = new AtlasEntityHeader();
 
         String typeName = entityVertex.getProperty(Constants.TYPE_NAME_PROPERTY_KEY, String.class);
@@ -999,6 +1020,8 @@ public final class EntityGraphRetriever {
                     graphHelper.addClassificationEdge(impactedEntityVertex, classificationVertex, true);
 
                     addListProperty(impactedEntityVertex, PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, classificationName);
+
+                    entityCache.invalidate(impactedEntityVertex);
                 }
             }
         }
@@ -1046,6 +1069,8 @@ public final class EntityGraphRetriever {
                             graphHelper.removeEdge(propagatedEdge);
 
                             removePropagatedTraitNameFromVertex(impactedEntityVertex, classificationName);
+
+                            entityCache.invalidate(impactedEntityVertex);
                         } catch (RepositoryException e) {
                             throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e);
                         }
@@ -0,0 +1,486 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasStruct;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.utils.LruCache;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of entities materialized from graph vertices by EntityGraphRetriever.
+ *
+ * The request layer is held in RequestContextV1 and caches both entities-with-ext-info and headers; it is discarded
+ * at the end of the request, and is cleared entirely whenever an entity is updated in the request - as an
+ * entity-with-ext-info includes referred entities, an update to one entity can make entries of other entities stale.
+ *
+ * The optional shared layer is a bounded LRU cache of entity headers, shared by all requests. Its entries expire
+ * after the configured time-to-live and are invalidated when the entity is updated in this server.
+ *
+ * Entries in both layers are validated against the version and modification-timestamp of the vertex on every lookup.
+ * Callers are free to modify the returned objects: entries are copied when added to the cache and when returned.
+ */
+public final class EntityRetrieverCache {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityRetrieverCache.class);
+
+    public static final String REQUEST_CACHE_SIZE_PROPERTY  = "atlas.entity.cache.request.size";
+    public static final String SHARED_CACHE_SIZE_PROPERTY   = "atlas.entity.cache.shared.size";
+    public static final String SHARED_CACHE_TTL_MS_PROPERTY = "atlas.entity.cache.shared.ttl.ms";
+
+    public static final int  DEFAULT_REQUEST_CACHE_SIZE  = 1000;
+    public static final int  DEFAULT_SHARED_CACHE_SIZE   = 0;
+    public static final long DEFAULT_SHARED_CACHE_TTL_MS = 60 * 1000;
+
+    public static final String METRIC_REQUEST_CACHE_HITS   = "requestCacheHits";
+    public static final String METRIC_REQUEST_CACHE_MISSES = "requestCacheMisses";
+    public static final String METRIC_SHARED_CACHE_HITS    = "sharedCacheHits";
+    public static final String METRIC_SHARED_CACHE_MISSES  = "sharedCacheMisses";
+    public static final String METRIC_SHARED_CACHE_SIZE    = "sharedCacheSize";
+    public static final String METRIC_INVALIDATIONS        = "invalidations";
+
+    private static final String REQUEST_CACHE_NAME = EntityRetrieverCache.class.getName();
+
+    private static volatile EntityRetrieverCache INSTANCE;
+
+    private final int                           requestCacheSize;
+    private final int                           sharedCacheSize;
+    private final long                          sharedCacheTtlMs;
+    private final LruCache<String, SharedEntry> sharedCache;
+    private final AtomicLong                    requestCacheHits   = new AtomicLong();
+    private final AtomicLong                    requestCacheMisses = new AtomicLong();
+    private final AtomicLong                    sharedCacheHits    = new AtomicLong();
+    private final AtomicLong                    sharedCacheMisses  = new AtomicLong();
+    private final AtomicLong                    invalidations      = new AtomicLong();
+
+    public static EntityRetrieverCache getInstance() {
+        if (INSTANCE == null) {
+            synchronized (EntityRetrieverCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new EntityRetrieverCache(getConfiguration());
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    EntityRetrieverCache(Configuration config) {
+        this(config != null ? config.getInt(REQUEST_CACHE_SIZE_PROPERTY, DEFAULT_REQUEST_CACHE_SIZE) : DEFAULT_REQUEST_CACHE_SIZE,
+             config != null ? config.getInt(SHARED_CACHE_SIZE_PROPERTY, DEFAULT_SHARED_CACHE_SIZE) : DEFAULT_SHARED_CACHE_SIZE,
+             config != null ? config.getLong(SHARED_CACHE_TTL_MS_PROPERTY, DEFAULT_SHARED_CACHE_TTL_MS) : DEFAULT_SHARED_CACHE_TTL_MS);
+    }
+
+    EntityRetrieverCache(int requestCacheSize, int sharedCacheSize, long sharedCacheTtlMs) {
+        this.requestCacheSize = Math.max(0, requestCacheSize);
+        this.sharedCacheSize  = Math.max(0, sharedCacheSize);
+        this.sharedCacheTtlMs = Math.max(0, sharedCacheTtlMs);
+        this.sharedCache      = this.sharedCacheSize > 0 ? new LruCache<>(this.sharedCacheSize, 0) : null;
+
+        LOG.info("EntityRetrieverCache: requestCacheSize={}, sharedCacheSize={}, sharedCacheTtlMs={}", this.requestCacheSize, this.sharedCacheSize, this.sharedCacheTtlMs);
+    }
+
+    /**
+     * @return a copy of the cached entity for the given vertex, or null if not cached or stale
+     */
+    public AtlasEntityWithExtInfo getEntityWithExtInfo(AtlasVertex vertex) {
+        AtlasEntityWithExtInfo ret   = null;
+        RequestEntry           entry = getRequestEntry(vertex);
+
+        if (entry != null) {
+            ret = entry.entityWithExtInfo;
+        }
+
+        if (requestCacheSize > 0) {
+            (ret != null ? requestCacheHits : requestCacheMisses).incrementAndGet();
+        }
+
+        return copyOf(ret);
+    }
+
+    public void putEntityWithExtInfo(AtlasVertex vertex, AtlasEntityWithExtInfo entityWithExtInfo) {
+        RequestEntry entry = getOrCreateRequestEntry(vertex);
+
+        if (entry != null) {
+            entry.entityWithExtInfo = copyOf(entityWithExtInfo);
+        }
+    }
+
+    /**
+     * @return a copy of the cached header for the given vertex and attributes, or null if not cached or stale
+     */
+    public AtlasEntityHeader getEntityHeader(AtlasVertex vertex, Set<String> attributes) {
+        AtlasEntityHeader ret     = null;
+        String            attrKey = toAttributesKey(attributes);
+        RequestEntry      entry   = getRequestEntry(vertex);
+
+        if (entry != null) {
+            ret = entry.headers.get(attrKey);
+        }
+
+        if (requestCacheSize > 0) {
+            (ret != null ? requestCacheHits : requestCacheMisses).incrementAndGet();
+        }
+
+        if (ret == null && sharedCache != null) {
+            String   guid  = GraphHelper.getGuid(vertex);
+            Object[] stamp = getStamp(vertex);
+
+            synchronized (sharedCache) {
+                SharedEntry sharedEntry = guid != null ? sharedCache.get(guid) : null;
+
+                if (sharedEntry != null) {
+                    if (sharedEntry.isValid(stamp, sharedCacheTtlMs)) {
+                        ret = sharedEntry.headers.get(attrKey);
+                    } else {
+                        sharedCache.remove(guid);
+                    }
+                }
+            }
+
+            (ret != null ? sharedCacheHits : sharedCacheMisses).incrementAndGet();
+
+            if (ret != null) {
+                RequestEntry requestEntry = getOrCreateRequestEntry(vertex);
+
+                if (requestEntry != null) {
+                    requestEntry.headers.put(attrKey, copyOf(ret));
+                }
+            }
+        }
+
+        return copyOf(ret);
+    }
+
+    public void putEntityHeader(AtlasVertex vertex, Set<String> attributes, AtlasEntityHeader header) {
+        String       attrKey = toAttributesKey(attributes);
+        RequestEntry entry   = getOrCreateRequestEntry(vertex);
+
+        if (entry != null) {
+            entry.headers.put(attrKey, copyOf(header));
+        }
+
+        if (sharedCache != null) {
+            String   guid  = GraphHelper.getGuid(vertex);
+            Object[] stamp = getStamp(vertex);
+
+            if (guid != null) {
+                synchronized (sharedCache) {
+                    SharedEntry sharedEntry = sharedCache.get(guid);
+
+                    if (sharedEntry == null || !sharedEntry.isValid(stamp, sharedCacheTtlMs)) {
+                        sharedEntry = new SharedEntry(stamp);
+
+                        sharedCache.put(guid, sharedEntry);
+                    }
+
+                    sharedEntry.headers.put(attrKey, copyOf(header));
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates cached entries after an update to the given entity. Entries of all entities are removed from the
+     * request layer, as they might refer to the updated entity.
+     */
+    public void invalidate(String guid) {
+        if (requestCacheSize > 0) {
+            getRequestCache().clear();
+        }
+
+        if (sharedCache != null && guid != null) {
+            synchronized (sharedCache) {
+                sharedCache.remove(guid);
+            }
+        }
+
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidate(AtlasVertex vertex) {
+        invalidate(vertex != null ? GraphHelper.getGuid(vertex) : null);
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_REQUEST_CACHE_HITS, requestCacheHits.get());
+        ret.put(METRIC_REQUEST_CACHE_MISSES, requestCacheMisses.get());
+        ret.put(METRIC_SHARED_CACHE_HITS, sharedCacheHits.get());
+        ret.put(METRIC_SHARED_CACHE_MISSES, sharedCacheMisses.get());
+        ret.put(METRIC_INVALIDATIONS, invalidations.get());
+
+        if (sharedCache != null) {
+            synchronized (sharedCache) {
+                ret.put(METRIC_SHARED_CACHE_SIZE, (long) sharedCache.size());
+            }
+        } else {
+            ret.put(METRIC_SHARED_CACHE_SIZE, 0L);
+        }
+
+        return ret;
+    }
+
+    static AtlasEntityHeader copyOf(AtlasEntityHeader header) {
+        AtlasEntityHeader ret = null;
+
+        if (header != null) {
+            ret = new AtlasEntityHeader(header.getTypeName(), header.getGuid(), copyOfMap(header.getAttributes()));
+
+            ret.setStatus(header.getStatus());
+            ret.setDisplayText(header.getDisplayText());
+            ret.setClassificationNames(header.getClassificationNames() != null ? new ArrayList<>(header.getClassificationNames()) : null);
+            ret.setClassifications(copyOfClassifications(header.getClassifications()));
+        }
+
+        return ret;
+    }
+
+    static AtlasEntityWithExtInfo copyOf(AtlasEntityWithExtInfo entityWithExtInfo) {
+        AtlasEntityWithExtInfo ret = null;
+
+        if (entityWithExtInfo != null) {
+            ret = new AtlasEntityWithExtInfo(copyOf(entityWithExtInfo.getEntity()));
+
+            if (entityWithExtInfo.getReferredEntities() != null) {
+                Map<String, AtlasEntity> referredEntities = new HashMap<>();
+
+                for (Map.Entry<String, AtlasEntity> entry : entityWithExtInfo.getReferredEntities().entrySet()) {
+                    referredEntities.put(entry.getKey(), copyOf(entry.getValue()));
+                }
+
+                ret.setReferredEntities(referredEntities);
+            }
+        }
+
+        return ret;
+    }
+
+    static AtlasEntity copyOf(AtlasEntity entity) {
+        AtlasEntity ret = null;
+
+        if (entity != null) {
+            ret = new AtlasEntity(entity.getTypeName(), copyOfMap(entity.getAttributes()));
+
+            ret.setGuid(entity.getGuid());
+            ret.setStatus(entity.getStatus());
+            ret.setCreatedBy(entity.getCreatedBy());
+            ret.setUpdatedBy(entity.getUpdatedBy());
+            ret.setCreateTime(entity.getCreateTime() != null ? new Date(entity.getCreateTime().getTime()) : null);
+            ret.setUpdateTime(entity.getUpdateTime() != null ? new Date(entity.getUpdateTime().getTime()) : null);
+            ret.setVersion(entity.getVersion());
+            ret.setRelationshipAttributes(copyOfMap(entity.getRelationshipAttributes()));
+            ret.setClassifications(copyOfClassifications(entity.getClassifications()));
+        }
+
+        return ret;
+    }
+
+    private static List<AtlasClassification> copyOfClassifications(List<AtlasClassification> classifications) {
+        List<AtlasClassification> ret = null;
+
+        if (classifications != null) {
+            ret = new ArrayList<>(classifications.size());
+
+            for (AtlasClassification classification : classifications) {
+                ret.add((AtlasClassification) copyOfValue(classification));
+            }
+        }
+
+        return ret;
+    }
+
+    private static Map<String, Object> copyOfMap(Map<String, Object> map) {
+        return map != null ? (Map<String, Object>) copyOfValue(map) : null;
+    }
+
+    // deep copy of attribute values; values of other types (primitives, String, BigInteger, enum) are immutable
+    private static Object copyOfValue(Object value) {
+        final Object ret;
+
+        if (value instanceof AtlasRelatedObjectId) {
+            AtlasRelatedObjectId objId = (AtlasRelatedObjectId) value;
+
+            ret = new AtlasRelatedObjectId(objId.getGuid(), objId.getTypeName(), copyOfMap(objId.getUniqueAttributes()), objId.getDisplayText(),
+                                           objId.getRelationshipGuid(), (AtlasStruct) copyOfValue(objId.getRelationshipAttributes()));
+        } else if (value instanceof AtlasObjectId) {
+            AtlasObjectId objId = (AtlasObjectId) value;
+
+            ret = new AtlasObjectId(objId.getGuid(), objId.getTypeName(), copyOfMap(objId.getUniqueAttributes()));
+        } else if (value instanceof AtlasClassification) {
+            AtlasClassification classification = (AtlasClassification) value;
+            AtlasClassification copy           = new AtlasClassification(classification.getTypeName(), copyOfMap(classification.getAttributes()));
+
+            copy.setEntityGuid(classification.getEntityGuid());
+            copy.setPropagate(classification.isPropagate());
+            copy.setValidityPeriods(classification.getValidityPeriods() != null ? new ArrayList<>(classification.getValidityPeriods()) : null);
+
+            ret = copy;
+        } else if (value instanceof AtlasEntity) {
+            ret = copyOf((AtlasEntity) value);
+        } else if (value instanceof AtlasEntityHeader) {
+            ret = copyOf((AtlasEntityHeader) value);
+        } else if (value != null && value.getClass() == AtlasStruct.class) {
+            AtlasStruct struct = (AtlasStruct) value;
+
+            ret = new AtlasStruct(struct.getTypeName(), copyOfMap(struct.getAttributes()));
+        } else if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copyOfValue(entry.getValue()));
+            }
+
+            ret = copy;
+        } else if (value instanceof Set) {
+            Set<Object> copy = new LinkedHashSet<>();
+
+            for (Object element : (Set<?>) value) {
+                copy.add(copyOfValue(element));
+            }
+
+            ret = copy;
+        } else if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>(((Collection<?>) value).size());
+
+            for (Object element : (Collection<?>) value) {
+                copy.add(copyOfValue(element));
+            }
+
+            ret = copy;
+        } else if (value instanceof Date) {
+            ret = new Date(((Date) value).getTime());
+        } else {
+            ret = value;
+        }
+
+        return ret;
+    }
+
+    private RequestEntry getRequestEntry(AtlasVertex vertex) {
+        RequestEntry ret = null;
+
+        if (requestCacheSize > 0) {
+            String guid = GraphHelper.getGuid(vertex);
+
+            if (guid != null) {
+                Map<String, RequestEntry> requestCache = getRequestCache();
+
+                ret = requestCache.get(guid);
+
+                if (ret != null && !Objects.deepEquals(ret.stamp, getStamp(vertex))) {
+                    requestCache.remove(guid);
+
+                    ret = null;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private RequestEntry getOrCreateRequestEntry(AtlasVertex vertex) {
+        RequestEntry ret = getRequestEntry(vertex);
+
+        if (ret == null && requestCacheSize > 0) {
+            String guid = GraphHelper.getGuid(vertex);
+
+            if (guid != null) {
+                ret = new RequestEntry(getStamp(vertex));
+
+                getRequestCache().put(guid, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private Map<String, RequestEntry> getRequestCache() {
+        return RequestContextV1.get().getRequestCache(REQUEST_CACHE_NAME, () -> new LruCache<String, RequestEntry>(requestCacheSize, 0));
+    }
+
+    private static Object[] getStamp(AtlasVertex vertex) {
+        return new Object[] { AtlasGraphUtilsV1.getProperty(vertex, Constants.VERSION_PROPERTY_KEY, Long.class),
+                              AtlasGraphUtilsV1.getProperty(vertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class) };
+    }
+
+    private static String toAttributesKey(Set<String> attributes) {
+        return CollectionUtils.isEmpty(attributes) ? "" : new TreeSet<>(attributes).toString();
+    }
+
+    private static Configuration getConfiguration() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read application properties; entity cache will use default configuration", excp);
+
+            return null;
+        }
+    }
+
+    private static class RequestEntry {
+        final Object[]                       stamp;
+        final Map<String, AtlasEntityHeader> headers = new HashMap<>();
+        AtlasEntityWithExtInfo               entityWithExtInfo;
+
+        RequestEntry(Object[] stamp) {
+            this.stamp = stamp;
+        }
+    }
+
+    private static class SharedEntry {
+        final Object[]                       stamp;
+        final long                           createTime = System.currentTimeMillis();
+        final Map<String, AtlasEntityHeader> headers    = new HashMap<>();
+
+        SharedEntry(Object[] stamp) {
+            this.stamp = stamp;
+        }
+
+        boolean isValid(Object[] currentStamp, long ttlMs) {
+            return Objects.deepEquals(stamp, currentStamp) && (System.currentTimeMillis() - createTime) < ttlMs;
+        }
+    }
+}
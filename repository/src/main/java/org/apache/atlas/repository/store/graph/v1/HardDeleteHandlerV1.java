@@ -32,8 +32,8 @@ import javax.inject.Inject;
 public class HardDeleteHandlerV1 extends DeleteHandlerV1 {
 
     @Inject
-    public HardDeleteHandlerV1(AtlasTypeRegistry typeRegistry) {
-        super(typeRegistry, true, false);
+    public HardDeleteHandlerV1(AtlasTypeRegistry typeRegistry, TagPropagationManager tagPropagationManager) {
+        super(typeRegistry, tagPropagationManager, true, false);
     }
 
     @Override
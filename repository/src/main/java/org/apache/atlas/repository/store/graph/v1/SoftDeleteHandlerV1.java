@@ -39,8 +39,8 @@ import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
 public class SoftDeleteHandlerV1 extends DeleteHandlerV1 {
 
     @Inject
-    public SoftDeleteHandlerV1(AtlasTypeRegistry typeRegistry) {
-        super(typeRegistry, false, true);
+    public SoftDeleteHandlerV1(AtlasTypeRegistry typeRegistry, TagPropagationManager tagPropagationManager) {
+        super(typeRegistry, tagPropagationManager, false, true);
     }
 
     @Override
@@ -54,6 +54,8 @@ public class SoftDeleteHandlerV1 extends DeleteHandlerV1 {
                 GraphHelper.setProperty(instanceVertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY,
                     RequestContextV1.get().getRequestTime());
                 GraphHelper.setProperty(instanceVertex, MODIFIED_BY_KEY, RequestContextV1.get().getUser());
+
+                EntityContentHash.removeHash(instanceVertex);
             }
         }
     }
@@ -0,0 +1,799 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.authorize.AtlasAuthorizationUtils;
+import org.apache.atlas.authorize.AtlasEntityAccessRequest;
+import org.apache.atlas.authorize.AtlasPrivilege;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasPropagationTask;
+import org.apache.atlas.model.instance.AtlasPropagationTask.Status;
+import org.apache.atlas.model.instance.AtlasPropagationTask.TaskType;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_ENTITY_GUID;
+import static org.apache.atlas.repository.Constants.CLASSIFICATION_LABEL;
+import static org.apache.atlas.repository.Constants.PROPAGATED_TRAIT_NAMES_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_CLASSIFICATION_ID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_CLASSIFICATION_NAME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_CREATED_BY_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_CREATE_TIME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_ENTITY_GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_ERROR_MESSAGE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_PROCESSED_COUNT_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_PROPAGATED_GUIDS_LABEL;
+import static org.apache.atlas.repository.Constants.TASK_PROPAGATED_GUIDS_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_STATUS_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_TOTAL_COUNT_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_UPDATE_TIME_PROPERTY_KEY;
+import static org.apache.atlas.repository.graph.GraphHelper.addListProperty;
+import static org.apache.atlas.repository.graph.GraphHelper.edgeExists;
+import static org.apache.atlas.repository.graph.GraphHelper.getPropagatedEdges;
+import static org.apache.atlas.repository.graph.GraphHelper.getTypeName;
+import static org.apache.atlas.repository.graph.GraphHelper.removePropagatedTraitNameFromVertex;
+import static org.apache.atlas.repository.graph.GraphHelper.updateModificationMetadata;
+
+/**
+ * Adds and removes propagated classifications in the background.
+ *
+ * When enabled, adding a propagated classification (or turning on propagation for an existing one) only records a
+ * task vertex in the caller's transaction; after the transaction commits, the task is run by a worker thread, which
+ * adds the propagated classification to the impacted entities in batches, committing after each batch. Removal of
+ * propagations, on deletion of the classification or on turning off propagation, goes through the same tasks.
+ *
+ * Tasks for a classification are run in the order they were created, one at a time. Task vertices are left in the
+ * graph with their final status, so that the progress can be queried, and are removed once they are older than the
+ * configured retention period; tasks not completed when the server stops are resumed on start, or on the instance
+ * becoming active in HA mode.
+ *
+ * Guids of entities recorded in a delete task are stored in chunks of batch-size, each in a vertex linked to the task
+ * vertex; a chunk is removed once its entities are processed.
+ */
+@Singleton
+@Component
+public class TagPropagationManager implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(TagPropagationManager.class);
+
+    public static final String PROPAGATION_ASYNC_ENABLED  = "atlas.tag.propagation.async.enabled";
+    public static final String PROPAGATION_WORKER_THREADS = "atlas.tag.propagation.worker.threads";
+    public static final String PROPAGATION_BATCH_SIZE     = "atlas.tag.propagation.batch.size";
+    public static final String TASK_RETENTION_MS          = "atlas.tag.propagation.task.retention.ms";
+
+    private static final boolean DEFAULT_ASYNC_ENABLED     = false;
+    private static final int     DEFAULT_WORKER_THREADS    = 2;
+    private static final int     DEFAULT_BATCH_SIZE        = 500;
+    private static final long    DEFAULT_TASK_RETENTION_MS = 7 * 24 * 60 * 60 * 1000L;
+    private static final long    TASK_PURGE_INTERVAL_MS    = 60 * 60 * 1000L;
+    private static final String  SCHEDULED_DELETES         = "tagPropagation.scheduledDeletes";
+
+    private final AtlasGraph                 graph;
+    private final AtlasTypeRegistry          typeRegistry;
+    private final AtlasEntityChangeNotifier  entityChangeNotifier;
+    private final AtlasInstanceConverter     instanceConverter;
+    private final EntityGraphRetriever       entityRetriever;
+    private final EntityRetrieverCache       entityCache;
+    private final GraphHelper                graphHelper = GraphHelper.getInstance();
+    private final boolean                    asyncEnabled;
+    private final int                        batchSize;
+    private final long                       taskRetentionMs;
+    private final ThreadPoolExecutor         executor;
+    private final Map<String, Deque<String>> queuedTasks   = new HashMap<>(); // classification vertex id => task guids; head of each queue is being run
+    private final AtomicLong                 lastPurgeTime = new AtomicLong();
+
+    @Inject
+    public TagPropagationManager(AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasEntityChangeNotifier entityChangeNotifier,
+                                 AtlasInstanceConverter instanceConverter) {
+        this(graph, typeRegistry, entityChangeNotifier, instanceConverter, getConfiguration());
+    }
+
+    TagPropagationManager(AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasEntityChangeNotifier entityChangeNotifier,
+                          AtlasInstanceConverter instanceConverter, Configuration conf) {
+        this.graph                = graph;
+        this.typeRegistry         = typeRegistry;
+        this.entityChangeNotifier = entityChangeNotifier;
+        this.instanceConverter    = instanceConverter;
+        this.entityRetriever      = new EntityGraphRetriever(typeRegistry);
+        this.entityCache          = EntityRetrieverCache.getInstance();
+
+        boolean asyncEnabled    = conf != null ? conf.getBoolean(PROPAGATION_ASYNC_ENABLED, DEFAULT_ASYNC_ENABLED) : DEFAULT_ASYNC_ENABLED;
+        int     workerThreads   = conf != null ? conf.getInt(PROPAGATION_WORKER_THREADS, DEFAULT_WORKER_THREADS) : DEFAULT_WORKER_THREADS;
+        int     batchSize       = conf != null ? conf.getInt(PROPAGATION_BATCH_SIZE, DEFAULT_BATCH_SIZE) : DEFAULT_BATCH_SIZE;
+        long    taskRetentionMs = conf != null ? conf.getLong(TASK_RETENTION_MS, DEFAULT_TASK_RETENTION_MS) : DEFAULT_TASK_RETENTION_MS;
+
+        this.asyncEnabled    = asyncEnabled;
+        this.batchSize       = Math.max(batchSize, 1);
+        this.taskRetentionMs = Math.max(taskRetentionMs, 0);
+
+        if (asyncEnabled) {
+            workerThreads = Math.max(workerThreads, 1);
+
+            this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                                                   new ThreadFactoryBuilder().setNameFormat("atlas-tag-propagation-%d").setDaemon(true).build());
+
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+
+        LOG.info("TagPropagationManager: asyncEnabled={}, workerThreads={}, batchSize={}, taskRetentionMs={}", asyncEnabled, workerThreads, this.batchSize, this.taskRetentionMs);
+    }
+
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!asyncEnabled) {
+            return;
+        }
+
+        if (!HAConfiguration.isHAEnabled(ApplicationProperties.get())) {
+            LOG.info("HA is disabled. Resuming pending tag propagation tasks on startup.");
+
+            resumeTasks();
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        if (asyncEnabled) {
+            LOG.info("Reacting to active: resuming pending tag propagation tasks.");
+
+            resumeTasks();
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("Reacting to passive: No action for now.");
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.TAG_PROPAGATION_MANAGER.getOrder();
+    }
+
+    /**
+     * Records a task to propagate the given classification to entities impacted by the entity it is associated with.
+     * The task is run after the current transaction commits.
+     */
+    public AtlasPropagationTask scheduleAddPropagation(String entityGuid, AtlasVertex classificationVertex) {
+        return scheduleTask(TaskType.ADD, entityGuid, classificationVertex, null);
+    }
+
+    /**
+     * Records a task to remove propagations of the given classification. Guids of the entities the classification is
+     * currently propagated to are recorded in the task, so that the task can complete even if the classification vertex
+     * is removed in the current transaction.
+     */
+    public AtlasPropagationTask scheduleDeletePropagation(AtlasVertex classificationVertex) {
+        Set<String> scheduledDeletes = RequestContextV1.get().getRequestCache(SCHEDULED_DELETES, HashSet::new);
+
+        // removal of a classification can reach here more than once in a request, before its propagated edges are removed
+        if (!scheduledDeletes.add(classificationVertex.getId().toString())) {
+            return null;
+        }
+
+        List<AtlasEdge> propagatedEdges = getPropagatedEdges(classificationVertex);
+
+        if (CollectionUtils.isEmpty(propagatedEdges)) {
+            return null;
+        }
+
+        List<String> propagatedGuids = new ArrayList<>(propagatedEdges.size());
+
+        for (AtlasEdge propagatedEdge : propagatedEdges) {
+            propagatedGuids.add(GraphHelper.getGuid(propagatedEdge.getOutVertex()));
+        }
+
+        String entityGuid = AtlasGraphUtilsV1.getProperty(classificationVertex, CLASSIFICATION_ENTITY_GUID, String.class);
+
+        return scheduleTask(TaskType.DELETE, entityGuid, classificationVertex, propagatedGuids);
+    }
+
+    @GraphTransaction
+    public List<AtlasPropagationTask> getPropagationTasks(String entityGuid, String classificationName) throws AtlasBaseException {
+        AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(entityGuid);
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ_CLASSIFICATION, entityHeader), "get classification propagation: guid=", entityGuid, ", classification=", classificationName);
+
+        List<AtlasPropagationTask> ret = new ArrayList<>();
+
+        for (AtlasVertex taskVertex : (Iterable<AtlasVertex>) graph.query().has(TASK_ENTITY_GUID_PROPERTY_KEY, entityGuid).vertices()) {
+            AtlasPropagationTask task = toPropagationTask(taskVertex);
+
+            if (classificationName == null || StringUtils.equals(classificationName, task.getClassificationName())) {
+                ret.add(task);
+            }
+        }
+
+        Collections.sort(ret, new Comparator<AtlasPropagationTask>() {
+            @Override
+            public int compare(AtlasPropagationTask t1, AtlasPropagationTask t2) {
+                return Long.compare(getTime(t1.getCreateTime()), getTime(t2.getCreateTime()));
+            }
+        });
+
+        return ret;
+    }
+
+    private AtlasPropagationTask scheduleTask(TaskType type, String entityGuid, AtlasVertex classificationVertex, List<String> propagatedGuids) {
+        final String taskGuid         = UUID.randomUUID().toString();
+        final String classificationId = classificationVertex.getId().toString();
+        final long   now              = System.currentTimeMillis();
+        AtlasVertex  taskVertex       = graph.addVertex();
+
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_GUID_PROPERTY_KEY, taskGuid);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_TYPE_PROPERTY_KEY, type.name());
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_STATUS_PROPERTY_KEY, Status.PENDING.name());
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_ENTITY_GUID_PROPERTY_KEY, entityGuid);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_CLASSIFICATION_NAME_PROPERTY_KEY, getTypeName(classificationVertex));
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_CLASSIFICATION_ID_PROPERTY_KEY, classificationId);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_CREATED_BY_PROPERTY_KEY, RequestContextV1.get().getUser());
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_CREATE_TIME_PROPERTY_KEY, now);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_UPDATE_TIME_PROPERTY_KEY, now);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_TOTAL_COUNT_PROPERTY_KEY, propagatedGuids != null ? (long) propagatedGuids.size() : 0L);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_PROCESSED_COUNT_PROPERTY_KEY, 0L);
+
+        if (propagatedGuids != null) {
+            for (int fromIdx = 0; fromIdx < propagatedGuids.size(); fromIdx += batchSize) {
+                AtlasVertex chunkVertex = graph.addVertex();
+
+                AtlasGraphUtilsV1.setProperty(chunkVertex, TASK_PROPAGATED_GUIDS_PROPERTY_KEY, AtlasJson.toJson(propagatedGuids.subList(fromIdx, Math.min(fromIdx + batchSize, propagatedGuids.size()))));
+
+                graph.addEdge(taskVertex, chunkVertex, TASK_PROPAGATED_GUIDS_LABEL);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("scheduled tag propagation task: guid={}, type={}, entityGuid={}, classificationVertex={}", taskGuid, type, entityGuid, classificationId);
+        }
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                if (isSuccess) {
+                    submitTask(classificationId, taskGuid);
+                }
+            }
+        };
+
+        return toPropagationTask(taskVertex);
+    }
+
+    @VisibleForTesting
+    void resumeTasks() {
+        purgeTasks(System.currentTimeMillis() - taskRetentionMs);
+
+        List<AtlasVertex> taskVertices = new ArrayList<>();
+
+        try {
+            for (Status status : new Status[] { Status.PENDING, Status.IN_PROGRESS }) {
+                for (AtlasVertex taskVertex : (Iterable<AtlasVertex>) graph.query().has(TASK_STATUS_PROPERTY_KEY, status.name()).vertices()) {
+                    taskVertices.add(taskVertex);
+                }
+            }
+
+            Collections.sort(taskVertices, new Comparator<AtlasVertex>() {
+                @Override
+                public int compare(AtlasVertex v1, AtlasVertex v2) {
+                    return Long.compare(getLongProperty(v1, TASK_CREATE_TIME_PROPERTY_KEY), getLongProperty(v2, TASK_CREATE_TIME_PROPERTY_KEY));
+                }
+            });
+
+            LOG.info("resuming {} tag propagation tasks", taskVertices.size());
+
+            for (AtlasVertex taskVertex : taskVertices) {
+                submitTask(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_CLASSIFICATION_ID_PROPERTY_KEY, String.class),
+                           AtlasGraphUtilsV1.getProperty(taskVertex, TASK_GUID_PROPERTY_KEY, String.class));
+            }
+        } finally {
+            graph.rollback();
+        }
+    }
+
+    /**
+     * Removes completed and failed tasks last updated before the given time.
+     * @return number of tasks removed
+     */
+    @VisibleForTesting
+    int purgeTasks(long updatedBefore) {
+        int ret = 0;
+
+        try {
+            List<AtlasVertex> taskVertices = new ArrayList<>();
+
+            for (Status status : new Status[] { Status.COMPLETE, Status.FAILED }) {
+                for (AtlasVertex taskVertex : (Iterable<AtlasVertex>) graph.query().has(TASK_STATUS_PROPERTY_KEY, status.name()).vertices()) {
+                    if (getLongProperty(taskVertex, TASK_UPDATE_TIME_PROPERTY_KEY) < updatedBefore) {
+                        taskVertices.add(taskVertex);
+                    }
+                }
+            }
+
+            for (AtlasVertex taskVertex : taskVertices) {
+                for (AtlasVertex chunkVertex : getPropagatedGuidsChunks(taskVertex)) {
+                    graph.removeVertex(chunkVertex);
+                }
+
+                graph.removeVertex(taskVertex);
+
+                ret++;
+            }
+
+            graph.commit();
+
+            if (ret > 0) {
+                LOG.info("removed {} tag propagation tasks updated before {}", ret, new Date(updatedBefore));
+            }
+        } catch (Throwable t) {
+            LOG.warn("failed to remove expired tag propagation tasks", t);
+
+            ret = 0;
+        } finally {
+            graph.rollback();
+        }
+
+        return ret;
+    }
+
+    private void purgeTasksIfDue() {
+        long now          = System.currentTimeMillis();
+        long lastPurgedAt = lastPurgeTime.get();
+
+        if (now - lastPurgedAt >= TASK_PURGE_INTERVAL_MS && lastPurgeTime.compareAndSet(lastPurgedAt, now)) {
+            purgeTasks(now - taskRetentionMs);
+        }
+    }
+
+    private void submitTask(String classificationId, String taskGuid) {
+        boolean runNow;
+
+        synchronized (queuedTasks) {
+            Deque<String> tasks = queuedTasks.get(classificationId);
+
+            if (tasks == null) {
+                tasks = new ArrayDeque<>();
+
+                queuedTasks.put(classificationId, tasks);
+            } else if (tasks.contains(taskGuid)) {
+                return;
+            }
+
+            tasks.addLast(taskGuid);
+
+            runNow = tasks.size() == 1;
+        }
+
+        if (runNow) {
+            executor.submit(new PropagationTaskRunner(classificationId, taskGuid));
+        }
+    }
+
+    private void onTaskComplete(String classificationId) {
+        String nextTaskGuid = null;
+
+        synchronized (queuedTasks) {
+            Deque<String> tasks = queuedTasks.get(classificationId);
+
+            if (tasks != null) {
+                tasks.pollFirst();
+
+                if (tasks.isEmpty()) {
+                    queuedTasks.remove(classificationId);
+                } else {
+                    nextTaskGuid = tasks.peekFirst();
+                }
+            }
+        }
+
+        if (nextTaskGuid != null && !executor.isShutdown()) {
+            executor.submit(new PropagationTaskRunner(classificationId, nextTaskGuid));
+        }
+    }
+
+    private class PropagationTaskRunner implements Runnable {
+        private final String classificationId;
+        private final String taskGuid;
+
+        PropagationTaskRunner(String classificationId, String taskGuid) {
+            this.classificationId = classificationId;
+            this.taskGuid         = taskGuid;
+        }
+
+        @Override
+        public void run() {
+            try {
+                AtlasVertex taskVertex = findTaskVertex(taskGuid);
+
+                if (taskVertex == null) {
+                    LOG.warn("tag propagation task {} not found", taskGuid);
+
+                    return;
+                }
+
+                Status status = Status.valueOf(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_STATUS_PROPERTY_KEY, String.class));
+
+                if (status == Status.COMPLETE || status == Status.FAILED) {
+                    return;
+                }
+
+                TaskType type      = TaskType.valueOf(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_TYPE_PROPERTY_KEY, String.class));
+                String   createdBy = AtlasGraphUtilsV1.getProperty(taskVertex, TASK_CREATED_BY_PROPERTY_KEY, String.class);
+
+                LOG.info("==> tag propagation task: guid={}, type={}", taskGuid, type);
+
+                setStatus(taskVertex, Status.IN_PROGRESS, null);
+
+                graph.commit();
+
+                if (type == TaskType.ADD) {
+                    runAddTask(createdBy);
+                } else {
+                    runDeleteTask(createdBy);
+                }
+
+                setStatus(findTaskVertex(taskGuid), Status.COMPLETE, null);
+
+                graph.commit();
+
+                LOG.info("<== tag propagation task: guid={}, type={}", taskGuid, type);
+            } catch (Throwable t) {
+                LOG.error("tag propagation task {} failed", taskGuid, t);
+
+                graph.rollback();
+
+                try {
+                    AtlasVertex taskVertex = findTaskVertex(taskGuid);
+
+                    if (taskVertex != null) {
+                        setStatus(taskVertex, Status.FAILED, t.getMessage() != null ? t.getMessage() : t.getClass().getName());
+
+                        graph.commit();
+                    }
+                } catch (Throwable t2) {
+                    LOG.error("failed to update status of tag propagation task {}", taskGuid, t2);
+                }
+            } finally {
+                graph.rollback();
+
+                RequestContextV1.clear();
+
+                purgeTasksIfDue();
+
+                onTaskComplete(classificationId);
+            }
+        }
+
+        private void runAddTask(String createdBy) throws AtlasBaseException {
+            startBatch(createdBy);
+
+            AtlasVertex taskVertex           = findTaskVertex(taskGuid);
+            String      entityGuid           = AtlasGraphUtilsV1.getProperty(taskVertex, TASK_ENTITY_GUID_PROPERTY_KEY, String.class);
+            AtlasVertex classificationVertex = graph.getVertex(classificationId);
+
+            if (!isActive(classificationVertex)) {
+                LOG.info("tag propagation task {}: classification has been removed. Nothing to propagate", taskGuid);
+
+                return;
+            }
+
+            List<String> impactedGuids = new ArrayList<>();
+
+            for (AtlasVertex impactedVertex : graphHelper.getImpactedVertices(entityGuid)) {
+                impactedGuids.add(GraphHelper.getGuid(impactedVertex));
+            }
+
+            // adding propagations is idempotent, hence a resumed task starts over with freshly computed impacted entities
+            updateProgress(taskVertex, impactedGuids.size(), 0);
+
+            graph.commit();
+
+            for (int fromIdx = 0; fromIdx < impactedGuids.size(); fromIdx += batchSize) {
+                List<String> batch = impactedGuids.subList(fromIdx, Math.min(fromIdx + batchSize, impactedGuids.size()));
+
+                startBatch(createdBy);
+
+                classificationVertex = graph.getVertex(classificationId);
+
+                if (!isActive(classificationVertex)) {
+                    LOG.info("tag propagation task {}: classification has been removed. Stopping after {} entities", taskGuid, fromIdx);
+
+                    break;
+                }
+
+                String                  classificationName = getTypeName(classificationVertex);
+                AtlasClassificationType classificationType = typeRegistry.getClassificationTypeByName(classificationName);
+                AtlasClassification     classification     = entityRetriever.toAtlasClassification(classificationVertex);
+                List<String>            propagatedGuids    = new ArrayList<>();
+
+                for (Map.Entry<String, AtlasVertex> entry : graphHelper.getVerticesForGUIDs(batch).entrySet()) {
+                    AtlasVertex     entityVertex = entry.getValue();
+                    AtlasEntityType entityType   = typeRegistry.getEntityTypeByName(getTypeName(entityVertex));
+
+                    if (edgeExists(entityVertex, classificationVertex, CLASSIFICATION_LABEL) || !classificationType.canApplyToEntityType(entityType)) {
+                        continue;
+                    }
+
+                    graphHelper.addClassificationEdge(entityVertex, classificationVertex, true);
+
+                    addListProperty(entityVertex, PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, classificationName);
+
+                    // new modification-timestamp invalidates cache entries added by readers before this batch is committed
+                    updateModificationMetadata(entityVertex);
+
+                    entityCache.invalidate(entityVertex);
+
+                    propagatedGuids.add(entry.getKey());
+                }
+
+                for (String propagatedGuid : propagatedGuids) {
+                    entityChangeNotifier.onClassificationAddedToEntity(getEntity(propagatedGuid), Collections.singletonList(classification));
+                }
+
+                updateProgress(findTaskVertex(taskGuid), impactedGuids.size(), fromIdx + batch.size());
+
+                graph.commit();
+            }
+        }
+
+        private void runDeleteTask(String createdBy) throws AtlasBaseException {
+            startBatch(createdBy);
+
+            AtlasVertex taskVertex           = findTaskVertex(taskGuid);
+            String      classificationName   = AtlasGraphUtilsV1.getProperty(taskVertex, TASK_CLASSIFICATION_NAME_PROPERTY_KEY, String.class);
+            AtlasVertex classificationVertex = graph.getVertex(classificationId);
+
+            if (classificationVertex != null) {
+                // propagated edges are removed as the task progresses, hence a resumed task starts over with the remaining edges
+                List<String> guids = new ArrayList<>();
+
+                for (AtlasEdge propagatedEdge : getPropagatedEdges(classificationVertex)) {
+                    guids.add(GraphHelper.getGuid(propagatedEdge.getOutVertex()));
+                }
+
+                updateProgress(taskVertex, guids.size(), 0);
+
+                graph.commit();
+
+                for (int fromIdx = 0; fromIdx < guids.size(); fromIdx += batchSize) {
+                    List<String> batch = guids.subList(fromIdx, Math.min(fromIdx + batchSize, guids.size()));
+
+                    startBatch(createdBy);
+
+                    removePropagations(graph.getVertex(classificationId), classificationName, batch);
+
+                    updateProgress(findTaskVertex(taskGuid), guids.size(), fromIdx + batch.size());
+
+                    graph.commit();
+                }
+            } else {
+                // classification vertex, along with its edges, was removed; remove the propagated trait name from entities recorded in the task.
+                // chunks of recorded guids are removed as they are processed, hence a resumed task continues with the remaining chunks
+                long totalCount     = getLongProperty(taskVertex, TASK_TOTAL_COUNT_PROPERTY_KEY);
+                long processedCount = getLongProperty(taskVertex, TASK_PROCESSED_COUNT_PROPERTY_KEY);
+
+                for (List<AtlasVertex> chunkVertices = getPropagatedGuidsChunks(taskVertex); !chunkVertices.isEmpty(); chunkVertices = getPropagatedGuidsChunks(taskVertex)) {
+                    AtlasVertex  chunkVertex = chunkVertices.get(0);
+                    String       chunk       = AtlasGraphUtilsV1.getProperty(chunkVertex, TASK_PROPAGATED_GUIDS_PROPERTY_KEY, String.class);
+                    List<String> batch       = chunk != null ? AtlasJson.fromJson(chunk, new TypeReference<List<String>>() {}) : Collections.<String>emptyList();
+
+                    removePropagations(null, classificationName, batch);
+
+                    graph.removeVertex(chunkVertex);
+
+                    processedCount += batch.size();
+
+                    updateProgress(taskVertex, totalCount, processedCount);
+
+                    graph.commit();
+
+                    startBatch(createdBy);
+
+                    taskVertex = findTaskVertex(taskGuid);
+                }
+            }
+        }
+
+        private void removePropagations(AtlasVertex classificationVertex, String classificationName, List<String> guids) throws AtlasBaseException {
+            List<String> removedGuids = new ArrayList<>();
+
+            for (Map.Entry<String, AtlasVertex> entry : graphHelper.getVerticesForGUIDs(guids).entrySet()) {
+                AtlasVertex entityVertex = entry.getValue();
+
+                if (classificationVertex != null) {
+                    AtlasEdge propagatedEdge = getPropagatedEdge(entityVertex, classificationVertex);
+
+                    if (propagatedEdge == null) {
+                        continue;
+                    }
+
+                    graphHelper.removeEdge(propagatedEdge);
+                }
+
+                removePropagatedTraitNameFromVertex(entityVertex, classificationName);
+
+                updateModificationMetadata(entityVertex);
+
+                entityCache.invalidate(entityVertex);
+
+                removedGuids.add(entry.getKey());
+            }
+
+            for (String removedGuid : removedGuids) {
+                entityChangeNotifier.onClassificationDeletedFromEntity(getEntity(removedGuid), Collections.singletonList(classificationName));
+            }
+        }
+
+        // each batch is run with a new request context, to avoid accumulating entities in its caches
+        private void startBatch(String createdBy) {
+            RequestContextV1.clear();
+            RequestContextV1.get().setUser(createdBy, null);
+        }
+    }
+
+    private AtlasVertex findTaskVertex(String taskGuid) {
+        Iterator<AtlasVertex> iter = graph.query().has(TASK_GUID_PROPERTY_KEY, taskGuid).vertices().iterator();
+
+        return iter.hasNext() ? iter.next() : null;
+    }
+
+    private static List<AtlasVertex> getPropagatedGuidsChunks(AtlasVertex taskVertex) {
+        List<AtlasVertex> ret = new ArrayList<>();
+
+        for (AtlasEdge edge : (Iterable<AtlasEdge>) taskVertex.getEdges(AtlasEdgeDirection.OUT, TASK_PROPAGATED_GUIDS_LABEL)) {
+            ret.add(edge.getInVertex());
+        }
+
+        return ret;
+    }
+
+    private static Configuration getConfiguration() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read tag propagation configuration. Will use defaults", excp);
+
+            return null;
+        }
+    }
+
+    private AtlasEntity getEntity(String guid) throws AtlasBaseException {
+        AtlasEntityWithExtInfo entityWithExtInfo = instanceConverter.getAndCacheEntity(guid);
+
+        return entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+    }
+
+    private static AtlasEdge getPropagatedEdge(AtlasVertex entityVertex, AtlasVertex classificationVertex) {
+        for (AtlasEdge edge : (Iterable<AtlasEdge>) entityVertex.getEdges(AtlasEdgeDirection.OUT, CLASSIFICATION_LABEL)) {
+            Boolean isPropagated = AtlasGraphUtilsV1.getProperty(edge, CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY, Boolean.class);
+
+            if (Boolean.TRUE.equals(isPropagated) && edge.getInVertex().equals(classificationVertex)) {
+                return edge;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isActive(AtlasVertex classificationVertex) {
+        return classificationVertex != null && AtlasGraphUtilsV1.getState(classificationVertex) == ACTIVE;
+    }
+
+    private static void setStatus(AtlasVertex taskVertex, Status status, String errorMessage) {
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_STATUS_PROPERTY_KEY, status.name());
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_ERROR_MESSAGE_PROPERTY_KEY, errorMessage);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_UPDATE_TIME_PROPERTY_KEY, System.currentTimeMillis());
+    }
+
+    private static void updateProgress(AtlasVertex taskVertex, long totalCount, long processedCount) {
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_TOTAL_COUNT_PROPERTY_KEY, totalCount);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_PROCESSED_COUNT_PROPERTY_KEY, processedCount);
+        AtlasGraphUtilsV1.setProperty(taskVertex, TASK_UPDATE_TIME_PROPERTY_KEY, System.currentTimeMillis());
+    }
+
+    private static AtlasPropagationTask toPropagationTask(AtlasVertex taskVertex) {
+        AtlasPropagationTask ret = new AtlasPropagationTask();
+
+        ret.setGuid(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_GUID_PROPERTY_KEY, String.class));
+        ret.setType(TaskType.valueOf(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_TYPE_PROPERTY_KEY, String.class)));
+        ret.setStatus(Status.valueOf(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_STATUS_PROPERTY_KEY, String.class)));
+        ret.setEntityGuid(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_ENTITY_GUID_PROPERTY_KEY, String.class));
+        ret.setClassificationName(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_CLASSIFICATION_NAME_PROPERTY_KEY, String.class));
+        ret.setCreatedBy(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_CREATED_BY_PROPERTY_KEY, String.class));
+        ret.setCreateTime(new Date(getLongProperty(taskVertex, TASK_CREATE_TIME_PROPERTY_KEY)));
+        ret.setUpdateTime(new Date(getLongProperty(taskVertex, TASK_UPDATE_TIME_PROPERTY_KEY)));
+        ret.setTotalCount(getLongProperty(taskVertex, TASK_TOTAL_COUNT_PROPERTY_KEY));
+        ret.setProcessedCount(getLongProperty(taskVertex, TASK_PROCESSED_COUNT_PROPERTY_KEY));
+        ret.setErrorMessage(AtlasGraphUtilsV1.getProperty(taskVertex, TASK_ERROR_MESSAGE_PROPERTY_KEY, String.class));
+
+        return ret;
+    }
+
+    private static long getLongProperty(AtlasVertex vertex, String propertyName) {
+        Long ret = AtlasGraphUtilsV1.getProperty(vertex, propertyName, Long.class);
+
+        return ret != null ? ret : 0L;
+    }
+
+    private static long getTime(Date date) {
+        return date != null ? date.getTime() : 0L;
+    }
+}
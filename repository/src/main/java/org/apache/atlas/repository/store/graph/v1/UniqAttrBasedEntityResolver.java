@@ -25,21 +25,29 @@ import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscoveryContext;
 import org.apache.atlas.repository.store.graph.EntityResolver;
 import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class UniqAttrBasedEntityResolver implements EntityResolver {
     private static final Logger LOG = LoggerFactory.getLogger(UniqAttrBasedEntityResolver.class);
 
-    private final AtlasTypeRegistry typeRegistry;
+    private static final int MAX_VALUES_PER_QUERY = 100;
+
+    private final AtlasTypeRegistry   typeRegistry;
+    private final UniqAttrVertexCache vertexCache;
 
     public UniqAttrBasedEntityResolver(AtlasTypeRegistry typeRegistry) {
         this.typeRegistry = typeRegistry;
+        this.vertexCache  = UniqAttrVertexCache.getInstance();
     }
 
     @Override
@@ -48,8 +56,10 @@ public class UniqAttrBasedEntityResolver implements EntityResolver {
             throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "UniqAttrBasedEntityResolver.resolveEntityReferences(): context is null");
         }
 
-        //Resolve attribute references
-        List<AtlasObjectId> resolvedReferences = new ArrayList<>();
+        // references not in cache are grouped by type and unique attribute, to be looked up with one query per group
+        Map<String, ReferenceGroup> groups             = new LinkedHashMap<>();
+        List<AtlasObjectId>         unresolvedRefs     = new ArrayList<>();
+        int                         numResolvedByCache = 0;
 
         for (AtlasObjectId objId : context.getReferencedByUniqAttribs()) {
             //query in graph repo that given unique attribute - check for deleted also?
@@ -59,17 +69,117 @@ public class UniqAttrBasedEntityResolver implements EntityResolver {
                 throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), objId.getTypeName());
             }
 
-            AtlasVertex vertex = AtlasGraphUtilsV1.findByUniqueAttributes(entityType, objId.getUniqueAttributes());
+            AtlasAttribute attribute = getFirstUniqueAttribute(entityType, objId.getUniqueAttributes());
+
+            if (attribute == null) {
+                unresolvedRefs.add(objId);
+
+                continue;
+            }
+
+            Object      attrValue = objId.getUniqueAttributes().get(attribute.getName());
+            AtlasVertex vertex    = vertexCache.getVertex(entityType, attribute, attrValue);
+
+            if (vertex != null) {
+                context.addResolvedIdByUniqAttribs(objId, vertex);
+
+                numResolvedByCache++;
+
+                continue;
+            }
+
+            String         groupKey = entityType.getTypeName() + "." + attribute.getName();
+            ReferenceGroup group    = groups.get(groupKey);
+
+            if (group == null) {
+                group = new ReferenceGroup(entityType, attribute);
+
+                groups.put(groupKey, group);
+            }
+
+            group.add(attrValue, objId);
+        }
+
+        for (ReferenceGroup group : groups.values()) {
+            resolve(group, context, unresolvedRefs);
+        }
+
+        // references not found by the first unique attribute are looked up by all their unique attributes
+        for (AtlasObjectId objId : unresolvedRefs) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objId.getTypeName());
+            AtlasVertex     vertex     = AtlasGraphUtilsV1.findByUniqueAttributes(entityType, objId.getUniqueAttributes());
 
             if (vertex != null) {
                 context.addResolvedIdByUniqAttribs(objId, vertex);
-                resolvedReferences.add(objId);
             } else {
                 throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, objId.toString());
             }
         }
 
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("resolveEntityReferences(): references={}, resolvedByCache={}, queryGroups={}, resolvedIndividually={}",
+                      context.getReferencedByUniqAttribs().size(), numResolvedByCache, groups.size(), unresolvedRefs.size());
+        }
+
         return context;
     }
-}
 
+    private void resolve(ReferenceGroup group, EntityGraphDiscoveryContext context, List<AtlasObjectId> unresolvedRefs) {
+        List<Object> values = new ArrayList<>(group.refsByValue.keySet());
+
+        for (int i = 0; i < values.size(); i += MAX_VALUES_PER_QUERY) {
+            List<Object>             batch    = values.subList(i, Math.min(i + MAX_VALUES_PER_QUERY, values.size()));
+            Map<String, AtlasVertex> vertices = AtlasGraphUtilsV1.findByUniqueAttributeValues(group.entityType, group.attribute, batch);
+
+            for (Object attrValue : batch) {
+                AtlasVertex         vertex = vertices.get(attrValue.toString());
+                List<AtlasObjectId> refs   = group.refsByValue.get(attrValue);
+
+                if (vertex != null) {
+                    for (AtlasObjectId objId : refs) {
+                        context.addResolvedIdByUniqAttribs(objId, vertex);
+                    }
+
+                    vertexCache.put(group.entityType, group.attribute, attrValue, vertex);
+                } else {
+                    unresolvedRefs.addAll(refs);
+                }
+            }
+        }
+    }
+
+    private static AtlasAttribute getFirstUniqueAttribute(AtlasEntityType entityType, Map<String, Object> attrValues) {
+        if (MapUtils.isNotEmpty(entityType.getUniqAttributes()) && MapUtils.isNotEmpty(attrValues)) {
+            for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                if (attrValues.get(attribute.getName()) != null) {
+                    return attribute;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static class ReferenceGroup {
+        final AtlasEntityType                  entityType;
+        final AtlasAttribute                   attribute;
+        final Map<Object, List<AtlasObjectId>> refsByValue = new LinkedHashMap<>();
+
+        ReferenceGroup(AtlasEntityType entityType, AtlasAttribute attribute) {
+            this.entityType = entityType;
+            this.attribute  = attribute;
+        }
+
+        void add(Object attrValue, AtlasObjectId objId) {
+            List<AtlasObjectId> refs = refsByValue.get(attrValue);
+
+            if (refs == null) {
+                refs = new ArrayList<>();
+
+                refsByValue.put(attrValue, refs);
+            }
+
+            refs.add(objId);
+        }
+    }
+}
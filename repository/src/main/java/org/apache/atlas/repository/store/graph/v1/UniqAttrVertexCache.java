@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.utils.LruCache;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of the vertex-id of entities by their unique attribute values - like (hive_table, qualifiedName,
+ * "db1.tbl1@cl1"), shared by all requests; avoids an index query for each lookup of a recently referenced entity.
+ *
+ * Entries are removed when the entity is deleted or its unique attribute is updated in this server. As updates from
+ * other servers, and rolled back transactions, are not seen here, the vertex is validated on every lookup: it must
+ * exist, be active, be of the expected type and still have the unique attribute value; otherwise the entry is removed.
+ */
+public final class UniqAttrVertexCache {
+    private static final Logger LOG = LoggerFactory.getLogger(UniqAttrVertexCache.class);
+
+    public static final String CACHE_SIZE_PROPERTY = "atlas.entity.uniq.attr.cache.size";
+    public static final int    DEFAULT_CACHE_SIZE  = 10000;
+
+    public static final String METRIC_HITS          = "hits";
+    public static final String METRIC_MISSES        = "misses";
+    public static final String METRIC_STALE_ENTRIES = "staleEntries";
+    public static final String METRIC_SIZE          = "size";
+
+    private static volatile UniqAttrVertexCache INSTANCE;
+
+    private final AtlasGraph               graph;
+    private final LruCache<String, String> cache;
+    private final AtomicLong               hits         = new AtomicLong();
+    private final AtomicLong               misses       = new AtomicLong();
+    private final AtomicLong               staleEntries = new AtomicLong();
+
+    public static UniqAttrVertexCache getInstance() {
+        if (INSTANCE == null) {
+            synchronized (UniqAttrVertexCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new UniqAttrVertexCache(AtlasGraphProvider.getGraphInstance(), getCacheSize());
+                }
+            }
+        }
+
+        return INSTANCE;
+    }
+
+    UniqAttrVertexCache(AtlasGraph graph, int cacheSize) {
+        this.graph = graph;
+        this.cache = cacheSize > 0 ? new LruCache<String, String>(cacheSize, 0) : null;
+
+        LOG.info("UniqAttrVertexCache: cacheSize={}", cacheSize);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * @return the vertex of the active entity of given type (or its sub-type) with the given unique attribute value;
+     * null if not cached, or if the cached vertex doesn't match anymore
+     */
+    public AtlasVertex getVertex(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        if (cache == null || attrValue == null) {
+            return null;
+        }
+
+        String key = getKey(entityType.getTypeName(), attribute, attrValue);
+        String vertexId;
+
+        synchronized (cache) {
+            vertexId = cache.get(key);
+        }
+
+        AtlasVertex ret = null;
+
+        if (vertexId != null) {
+            ret = graph.getVertex(vertexId);
+
+            if (!isMatch(ret, entityType, attribute, attrValue)) {
+                ret = null;
+
+                synchronized (cache) {
+                    cache.remove(key);
+                }
+
+                staleEntries.incrementAndGet();
+            }
+        }
+
+        (ret != null ? hits : misses).incrementAndGet();
+
+        return ret;
+    }
+
+    public void put(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue, AtlasVertex vertex) {
+        if (cache == null || attrValue == null || vertex == null) {
+            return;
+        }
+
+        String key = getKey(entityType.getTypeName(), attribute, attrValue);
+
+        synchronized (cache) {
+            cache.put(key, vertex.getId().toString());
+        }
+    }
+
+    /**
+     * Removes entries of the given entity, before it is deleted.
+     */
+    public void invalidate(AtlasEntityType entityType, AtlasVertex vertex) {
+        if (cache == null || entityType == null || vertex == null || MapUtils.isEmpty(entityType.getUniqAttributes())) {
+            return;
+        }
+
+        for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+            remove(entityType, attribute, vertex.getProperty(attribute.getVertexPropertyName(), Object.class));
+        }
+    }
+
+    /**
+     * Removes entries of the given entity for unique attributes whose value is changed by an update; entries for
+     * unchanged values remain valid.
+     *
+     * @param newAttrValues attribute values being written to the vertex
+     */
+    public void invalidate(AtlasEntityType entityType, AtlasVertex vertex, Map<String, Object> newAttrValues) {
+        if (cache == null || entityType == null || vertex == null || MapUtils.isEmpty(entityType.getUniqAttributes()) || MapUtils.isEmpty(newAttrValues)) {
+            return;
+        }
+
+        for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+            if (newAttrValues.containsKey(attribute.getName())) {
+                Object currValue = vertex.getProperty(attribute.getVertexPropertyName(), Object.class);
+
+                if (!isEqual(currValue, newAttrValues.get(attribute.getName()))) {
+                    remove(entityType, attribute, currValue);
+                }
+            }
+        }
+    }
+
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_HITS, hits.get());
+        ret.put(METRIC_MISSES, misses.get());
+        ret.put(METRIC_STALE_ENTRIES, staleEntries.get());
+
+        if (cache != null) {
+            synchronized (cache) {
+                ret.put(METRIC_SIZE, (long) cache.size());
+            }
+        } else {
+            ret.put(METRIC_SIZE, 0L);
+        }
+
+        return ret;
+    }
+
+    static boolean isEqual(Object value1, Object value2) {
+        return value1 != null && value2 != null && Objects.equals(value1.toString(), value2.toString());
+    }
+
+    // lookups can be by the entity's type or any of its super-types
+    private void remove(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        if (attrValue == null) {
+            return;
+        }
+
+        synchronized (cache) {
+            cache.remove(getKey(entityType.getTypeName(), attribute, attrValue));
+
+            for (String superTypeName : entityType.getAllSuperTypes()) {
+                cache.remove(getKey(superTypeName, attribute, attrValue));
+            }
+        }
+    }
+
+    private static boolean isMatch(AtlasVertex vertex, AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        if (vertex == null || !vertex.exists()) {
+            return false;
+        }
+
+        if (!AtlasEntity.Status.ACTIVE.name().equals(vertex.getProperty(Constants.STATE_PROPERTY_KEY, String.class))) {
+            return false;
+        }
+
+        if (!entityType.getTypeAndAllSubTypes().contains(GraphHelper.getTypeName(vertex))) {
+            return false;
+        }
+
+        return isEqual(vertex.getProperty(attribute.getVertexPropertyName(), Object.class), attrValue);
+    }
+
+    private static String getKey(String typeName, AtlasAttribute attribute, Object attrValue) {
+        return typeName + "|" + attribute.getVertexPropertyName() + "|" + attrValue;
+    }
+
+    private static int getCacheSize() {
+        int ret = DEFAULT_CACHE_SIZE;
+
+        try {
+            Configuration config = ApplicationProperties.get();
+
+            ret = config.getInt(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+        } catch (AtlasException excp) {
+            LOG.warn("Failed to read configuration; using default cache size {}", DEFAULT_CACHE_SIZE, excp);
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.listener.EntityChangeListenerV2;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.repository.store.graph.v1.SoftDeleteHandlerV1;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
+import static org.apache.atlas.services.MetricsService.ENTITY;
+import static org.apache.atlas.services.MetricsService.GENERAL;
+import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_COUNT;
+import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_DELETED;
+import static org.apache.atlas.services.MetricsService.METRIC_TAGGED_ENTITIES;
+import static org.apache.atlas.services.MetricsService.METRIC_TYPE_UNUSED_COUNT;
+import static org.apache.atlas.services.MetricsService.TAG;
+
+/**
+ * Entity and classification counts of MetricsService, kept up to date from entity change notifications - so that the
+ * metrics can be read without scanning the graph.
+ *
+ * The counts are set from a full scan, or from a checkpoint of an earlier scan, by reset(); they are then adjusted on
+ * each notification. Notifications don't carry enough to adjust every count exactly: removal of a classification
+ * can't be told apart from removal of its propagation to the entity, and notifications of a transaction that fails to
+ * commit are not undone. Hence removal of classifications only flags the counts for reconcile; MetricsService
+ * corrects all counts with a periodic full scan.
+ *
+ * The count of unused types is computed on each read as the number of entity types in the type registry that have no
+ * entities, so that it follows entity and type changes between scans.
+ */
+@Singleton
+@Component
+public class EntityMetricsCounters implements EntityChangeListenerV2 {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityMetricsCounters.class);
+
+    private static final String REFERENCEABLE = "Referenceable";
+
+    private final AtlasTypeRegistry                     typeRegistry;
+    private final boolean                               isSoftDelete;
+    private final ConcurrentHashMap<String, AtomicLong> entityCountByType         = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> classificationCountByType = new ConcurrentHashMap<>();
+    private final AtomicLong                            entityCount               = new AtomicLong();
+    private final AtomicLong                            deletedEntityCount        = new AtomicLong();
+    private final AtomicLong                            taggedEntityCount         = new AtomicLong();
+    private final AtomicLong                            version                   = new AtomicLong();
+    private volatile long                               typeUnusedCount           = 0;
+    private volatile boolean                            isInitialized             = false;
+    private volatile boolean                            isReconcileNeeded         = false;
+
+    @Inject
+    public EntityMetricsCounters(AtlasTypeRegistry typeRegistry) {
+        this(typeRegistry, SoftDeleteHandlerV1.class.isAssignableFrom(AtlasRepositoryConfiguration.getDeleteHandlerV1Impl()));
+    }
+
+    @VisibleForTesting
+    EntityMetricsCounters(AtlasTypeRegistry typeRegistry, boolean isSoftDelete) {
+        this.typeRegistry = typeRegistry;
+        this.isSoftDelete = isSoftDelete;
+    }
+
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) {
+        for (AtlasEntity entity : entities) {
+            increment(entityCountByType, entity.getTypeName(), 1);
+
+            if (isReferenceable(entity)) {
+                entityCount.incrementAndGet();
+            }
+
+            if (entity.getStatus() == DELETED) { // import of a deleted entity
+                deletedEntityCount.incrementAndGet();
+            }
+
+            if (addClassificationCounts(entity, entity.getClassifications(), 1) > 0) {
+                taggedEntityCount.incrementAndGet();
+            }
+        }
+
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) {
+        // updates don't change the type or the status of entities; classifications are notified separately
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) {
+        for (AtlasEntity entity : entities) {
+            if (isSoftDelete) {
+                // soft-deleted entities are still counted in entity, type and classification counts
+                deletedEntityCount.incrementAndGet();
+            } else {
+                increment(entityCountByType, entity.getTypeName(), -1);
+
+                if (isReferenceable(entity)) {
+                    entityCount.decrementAndGet();
+                }
+
+                if (entity.getStatus() == DELETED) { // removal of an entity soft-deleted earlier
+                    deletedEntityCount.decrementAndGet();
+                }
+
+                if (addClassificationCounts(entity, entity.getClassifications(), -1) > 0) {
+                    taggedEntityCount.decrementAndGet();
+                }
+            }
+        }
+
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) {
+        if (entity == null) {
+            return;
+        }
+
+        int added = addClassificationCounts(entity, classifications, 1);
+
+        // the entity is counted as tagged when the added classifications are its only ones
+        if (added > 0 && added == getDirectClassificationCount(entity, entity.getClassifications())) {
+            taggedEntityCount.incrementAndGet();
+        }
+
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) {
+        // updates don't change the counts
+    }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<String> classificationNames) {
+        if (!isReconcileNeeded && LOG.isDebugEnabled()) {
+            LOG.debug("EntityMetricsCounters: classifications {} removed from entity {}; counts to be reconciled", classificationNames, entity != null ? entity.getGuid() : null);
+        }
+
+        isReconcileNeeded = true;
+    }
+
+    /**
+     * Sets the counts from the given metrics, collected by a full scan or read from a checkpoint.
+     */
+    public synchronized void reset(AtlasMetrics metrics) {
+        Map<String, Number> general       = getGroup(metrics, GENERAL);
+        Map<String, Number> entityMetrics = getGroup(metrics, ENTITY);
+        Map<String, Number> tagMetrics    = getGroup(metrics, TAG);
+
+        entityCountByType.clear();
+        classificationCountByType.clear();
+
+        for (Map.Entry<String, Number> entry : entityMetrics.entrySet()) {
+            if (!StringUtils.equals(entry.getKey(), METRIC_TAGGED_ENTITIES)) {
+                entityCountByType.put(entry.getKey(), new AtomicLong(toLong(entry.getValue())));
+            }
+        }
+
+        for (Map.Entry<String, Number> entry : tagMetrics.entrySet()) {
+            classificationCountByType.put(entry.getKey(), new AtomicLong(toLong(entry.getValue())));
+        }
+
+        entityCount.set(toLong(general.get(METRIC_ENTITY_COUNT)));
+        deletedEntityCount.set(toLong(general.get(METRIC_ENTITY_DELETED)));
+        taggedEntityCount.set(toLong(entityMetrics.get(METRIC_TAGGED_ENTITIES)));
+
+        typeUnusedCount   = toLong(general.get(METRIC_TYPE_UNUSED_COUNT));
+        isInitialized     = true;
+        isReconcileNeeded = false;
+
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return current counts, in the groups and names used by the full scan; types with no instances are not included
+     */
+    public synchronized AtlasMetrics getMetrics() {
+        AtlasMetrics ret = new AtlasMetrics();
+
+        ret.addData(GENERAL, METRIC_TYPE_UNUSED_COUNT, getTypeUnusedCount());
+        ret.addData(GENERAL, METRIC_ENTITY_COUNT, entityCount.get());
+        ret.addData(GENERAL, METRIC_ENTITY_DELETED, deletedEntityCount.get());
+        ret.addData(ENTITY, METRIC_TAGGED_ENTITIES, taggedEntityCount.get());
+
+        for (Map.Entry<String, AtomicLong> entry : entityCountByType.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                ret.addData(ENTITY, entry.getKey(), entry.getValue().get());
+            }
+        }
+
+        for (Map.Entry<String, AtomicLong> entry : classificationCountByType.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                ret.addData(TAG, entry.getKey(), entry.getValue().get());
+            }
+        }
+
+        return ret;
+    }
+
+    public boolean isInitialized() {
+        return isInitialized;
+    }
+
+    public boolean isReconcileNeeded() {
+        return isReconcileNeeded;
+    }
+
+    /**
+     * @return a number that changes whenever the counts are changed
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    // without type registry, the count from the last reset is used
+    private long getTypeUnusedCount() {
+        if (typeRegistry == null) {
+            return typeUnusedCount;
+        }
+
+        long ret = 0;
+
+        for (String typeName : typeRegistry.getAllEntityDefNames()) {
+            AtomicLong count = entityCountByType.get(typeName);
+
+            if (count == null || count.get() <= 0) {
+                ret++;
+            }
+        }
+
+        return ret;
+    }
+
+    // adds delta to counts of classifications directly associated with the entity; returns number of such classifications
+    private int addClassificationCounts(AtlasEntity entity, List<AtlasClassification> classifications, int delta) {
+        int ret = 0;
+
+        if (CollectionUtils.isNotEmpty(classifications)) {
+            for (AtlasClassification classification : classifications) {
+                if (isDirect(entity, classification)) {
+                    increment(classificationCountByType, classification.getTypeName(), delta);
+
+                    ret++;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private int getDirectClassificationCount(AtlasEntity entity, List<AtlasClassification> classifications) {
+        int ret = 0;
+
+        if (CollectionUtils.isNotEmpty(classifications)) {
+            for (AtlasClassification classification : classifications) {
+                if (isDirect(entity, classification)) {
+                    ret++;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    // propagated classifications have the guid of the entity they are associated with
+    private boolean isDirect(AtlasEntity entity, AtlasClassification classification) {
+        return classification != null && (classification.getEntityGuid() == null || StringUtils.equals(classification.getEntityGuid(), entity.getGuid()));
+    }
+
+    private boolean isReferenceable(AtlasEntity entity) {
+        AtlasEntityType entityType = typeRegistry != null ? typeRegistry.getEntityTypeByName(entity.getTypeName()) : null;
+
+        return entityType != null && entityType.getAllSuperTypes().contains(REFERENCEABLE);
+    }
+
+    private static void increment(ConcurrentHashMap<String, AtomicLong> counts, String typeName, long delta) {
+        if (typeName != null) {
+            counts.computeIfAbsent(typeName, k -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static Map<String, Number> getGroup(AtlasMetrics metrics, String groupName) {
+        Map<String, Number> ret = metrics != null && metrics.getData() != null ? metrics.getData().get(groupName) : null;
+
+        return ret != null ? ret : Collections.<String, Number>emptyMap();
+    }
+
+    private static long toLong(Number value) {
+        return value != null ? value.longValue() : 0;
+    }
+}
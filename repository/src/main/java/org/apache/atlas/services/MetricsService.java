@@ -18,31 +18,65 @@
 package org.apache.atlas.services;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.annotation.AtlasService;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.query.DSLTranslationCache;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasGremlinQueryProvider;
 import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
+import org.apache.atlas.utils.AtlasJson;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import static org.apache.atlas.repository.Constants.METRICS_DATA_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.METRICS_NAME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.METRICS_RECONCILE_TIME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.METRICS_UPDATE_TIME_PROPERTY_KEY;
+
+/**
+ * Metrics of types, entities and classifications in the repository.
+ *
+ * Entity and classification counts are collected by Gremlin queries that scan the whole graph; with counters enabled,
+ * these counts are instead read from EntityMetricsCounters, which keeps them up to date from entity change
+ * notifications. The counters are initialized from a checkpoint saved in the graph, or else from a full scan; while
+ * active, this service periodically checkpoints the counters and reconciles them with a full scan - at most once in
+ * atlas.metric.counters.reconcile.min.interval.secs, even when the counters are flagged for reconcile.
+ *
+ * Without counters, or until they are initialized, metrics collected by the full scan are cached for
+ * atlas.metric.query.cache.ttlInSecs; concurrent requests wait for a single scan to complete. A request to ignore the
+ * cache always runs a full scan, which also reconciles the counters.
+ */
 @AtlasService
-public class MetricsService {
+public class MetricsService implements Service, ActiveStateChangeHandler {
     private static final Logger LOG = LoggerFactory.getLogger(MetricsService.class);
 
     // Query Category constants
-    public static final String TYPE    = "type";
-    public static final String ENTITY  = "entity";
-    public static final String TAG     = "tag";
-    public static final String GENERAL = "general";
+    public static final String TYPE      = "type";
+    public static final String ENTITY    = "entity";
+    public static final String TAG       = "tag";
+    public static final String GENERAL   = "general";
+    public static final String DSL_CACHE = "dslCache";
 
     // Query names
     protected static final String METRIC_TYPE_COUNT        = TYPE + "Count";
@@ -61,64 +95,210 @@ public class MetricsService {
     public static final String METRIC_QUERY_CACHE_TTL    = "atlas.metric.query.cache.ttlInSecs";
     public static final int    DEFAULT_CACHE_TTL_IN_SECS = 900;
 
+    public static final String  METRIC_COUNTERS_ENABLED                = "atlas.metric.counters.enabled";
+    public static final String  METRIC_COUNTERS_CHECKPOINT_INTERVAL    = "atlas.metric.counters.checkpoint.interval.secs";
+    public static final String  METRIC_COUNTERS_RECONCILE_INTERVAL     = "atlas.metric.counters.reconcile.interval.secs";
+    public static final String  METRIC_COUNTERS_RECONCILE_MIN_INTERVAL = "atlas.metric.counters.reconcile.min.interval.secs";
+    public static final boolean DEFAULT_COUNTERS_ENABLED               = true;
+    public static final int     DEFAULT_CHECKPOINT_INTERVAL_IN_SECS    = 60;
+    public static final int     DEFAULT_RECONCILE_INTERVAL_IN_SECS     = 24 * 60 * 60;
+    public static final int     DEFAULT_RECONCILE_MIN_INTERVAL_IN_SECS = 60 * 60;
+
     public static final String METRIC_COLLECTION_TIME = "collectionTime";
 
+    private static final String COUNTERS_CHECKPOINT_NAME = "entityCounters";
+
     private static Configuration            configuration = null;
     private static AtlasGremlinQueryProvider gremlinQueryProvider = null;
 
     private final AtlasGraph                atlasGraph;
+    private final AtlasTypeRegistry         typeRegistry;
+    private final DSLTranslationCache       dslTranslationCache;
+    private final EntityMetricsCounters     counters;
     private final int                       cacheTTLInSecs;
+    private final long                      checkpointIntervalMs;
+    private final long                      reconcileIntervalMs;
+    private final long                      reconcileMinIntervalMs;
+    private final Object                    scanLock = new Object();
 
-    private AtlasMetrics cachedMetrics       = null;
-    private long         cacheExpirationTime = 0;
+    private volatile AtlasMetrics    cachedMetrics         = null;
+    private volatile long            cacheExpirationTime   = 0;
+    private volatile long            lastReconcileTime     = 0;
+    private long                     lastCheckpointVersion = -1;
+    private ScheduledExecutorService executor              = null;
 
 
     @Inject
-    public MetricsService(AtlasGraph atlasGraph) throws AtlasException {
-        this(ApplicationProperties.get(), atlasGraph);
+    public MetricsService(AtlasGraph atlasGraph, AtlasTypeRegistry typeRegistry, DSLTranslationCache dslTranslationCache,
+                          EntityMetricsCounters counters) throws AtlasException {
+        this(ApplicationProperties.get(), atlasGraph, typeRegistry, dslTranslationCache, counters);
     }
 
     @VisibleForTesting
     MetricsService(Configuration configuration, AtlasGraph graph) {
+        this(configuration, graph, null, null, null);
+    }
+
+    @VisibleForTesting
+    MetricsService(Configuration configuration, AtlasGraph graph, DSLTranslationCache dslTranslationCache) {
+        this(configuration, graph, null, dslTranslationCache, null);
+    }
+
+    @VisibleForTesting
+    MetricsService(Configuration configuration, AtlasGraph graph, AtlasTypeRegistry typeRegistry, DSLTranslationCache dslTranslationCache,
+                   EntityMetricsCounters counters) {
         MetricsService.configuration = configuration;
 
-        atlasGraph        = graph;
+        boolean countersEnabled = configuration == null || configuration.getBoolean(METRIC_COUNTERS_ENABLED, DEFAULT_COUNTERS_ENABLED);
+
+        this.atlasGraph          = graph;
+        this.typeRegistry        = typeRegistry;
+        this.dslTranslationCache = dslTranslationCache;
+        this.counters            = countersEnabled ? counters : null;
         cacheTTLInSecs    = configuration != null ? configuration.getInt(METRIC_QUERY_CACHE_TTL, DEFAULT_CACHE_TTL_IN_SECS)
                 : DEFAULT_CACHE_TTL_IN_SECS;
+        checkpointIntervalMs   = TimeUnit.SECONDS.toMillis(configuration != null ? configuration.getInt(METRIC_COUNTERS_CHECKPOINT_INTERVAL, DEFAULT_CHECKPOINT_INTERVAL_IN_SECS)
+                : DEFAULT_CHECKPOINT_INTERVAL_IN_SECS);
+        reconcileIntervalMs    = TimeUnit.SECONDS.toMillis(configuration != null ? configuration.getInt(METRIC_COUNTERS_RECONCILE_INTERVAL, DEFAULT_RECONCILE_INTERVAL_IN_SECS)
+                : DEFAULT_RECONCILE_INTERVAL_IN_SECS);
+        reconcileMinIntervalMs = TimeUnit.SECONDS.toMillis(configuration != null ? configuration.getInt(METRIC_COUNTERS_RECONCILE_MIN_INTERVAL, DEFAULT_RECONCILE_MIN_INTERVAL_IN_SECS)
+                : DEFAULT_RECONCILE_MIN_INTERVAL_IN_SECS);
         gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
+
+        LOG.info("MetricsService: countersEnabled={}, cacheTTLInSecs={}", this.counters != null, cacheTTLInSecs);
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (counters == null) {
+            return;
+        }
+
+        if (!HAConfiguration.isHAEnabled(ApplicationProperties.get())) {
+            LOG.info("HA is disabled. Starting metrics counters checkpoint and reconcile.");
+
+            startCounters();
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        stopCounters();
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        if (counters != null) {
+            LOG.info("Reacting to active: starting metrics counters checkpoint and reconcile.");
+
+            startCounters();
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        LOG.info("Reacting to passive: stopping metrics counters checkpoint and reconcile.");
+
+        stopCounters();
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.METRICS_SERVICE.getOrder();
     }
 
-    @SuppressWarnings("unchecked")
     public AtlasMetrics getMetrics(boolean ignoreCache) {
+        AtlasMetrics ret;
+
+        if (!ignoreCache && counters != null && counters.isInitialized()) {
+            ret = getCounterMetrics();
+        } else {
+            ret = copyOf(getScannedMetrics(ignoreCache));
+        }
+
+        // cache statistics are read on every call, as they change with each query
+        if (dslTranslationCache != null) {
+            for (Map.Entry<String, Long> entry : dslTranslationCache.getMetrics().entrySet()) {
+                ret.addData(DSL_CACHE, entry.getKey(), entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    private AtlasMetrics getCounterMetrics() {
+        AtlasMetrics ret = counters.getMetrics();
+
+        if (typeRegistry != null) {
+            int typeCount = typeRegistry.getAllEnumDefs().size() + typeRegistry.getAllStructDefs().size() +
+                            typeRegistry.getAllEntityDefs().size() + typeRegistry.getAllRelationshipDefs().size();
+
+            ret.addData(GENERAL, METRIC_TYPE_COUNT, typeCount);
+            ret.addData(GENERAL, METRIC_TAG_COUNT, typeRegistry.getAllClassificationDefs().size());
+        }
+
+        ret.addData(GENERAL, METRIC_COLLECTION_TIME, System.currentTimeMillis());
+
+        return ret;
+    }
+
+    private AtlasMetrics getScannedMetrics(boolean ignoreCache) {
+        AtlasMetrics ret = cachedMetrics;
+
         if (ignoreCache || !isCacheValid()) {
-            AtlasMetrics metrics = new AtlasMetrics();
+            long requestTime = System.currentTimeMillis();
 
-            for (MetricQuery metricQuery : MetricQuery.values()) {
-                try {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Executing query: {}", metricQuery);
-                    }
-                    executeGremlinQuery(metrics, metricQuery.group, metricQuery.name, metricQuery.query);
-                } catch (AtlasBaseException e) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Gremlin execution failed for metric {}", metricQuery, e);
-                    } else {
-                        LOG.warn("Gremlin execution failed for metric {}", metricQuery);
+            synchronized (scanLock) {
+                ret = cachedMetrics;
+
+                // skip the scan if the cache was refreshed, while waiting for the lock, after this request
+                boolean isRefreshed = ret != null && (ignoreCache ? getCollectionTime(ret) >= requestTime : isCacheValid());
+
+                if (!isRefreshed) {
+                    ret = scanMetrics();
+
+                    if (counters != null) {
+                        counters.reset(ret);
+
+                        lastReconcileTime = getCollectionTime(ret);
                     }
                 }
             }
+        }
 
-            long collectionTime = System.currentTimeMillis();
+        return ret;
+    }
 
-            metrics.addData(GENERAL, METRIC_COLLECTION_TIME, collectionTime);
+    // called with scanLock held
+    private AtlasMetrics scanMetrics() {
+        AtlasMetrics metrics = new AtlasMetrics();
 
-            this.cachedMetrics       = metrics;
-            this.cacheExpirationTime = (collectionTime + cacheTTLInSecs * 1000);
+        for (MetricQuery metricQuery : MetricQuery.values()) {
+            try {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Executing query: {}", metricQuery);
+                }
+                executeGremlinQuery(metrics, metricQuery.group, metricQuery.name, metricQuery.query);
+            } catch (AtlasBaseException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Gremlin execution failed for metric {}", metricQuery, e);
+                } else {
+                    LOG.warn("Gremlin execution failed for metric {}", metricQuery);
+                }
+            }
         }
 
-        return cachedMetrics;
+        long collectionTime = System.currentTimeMillis();
+
+        metrics.addData(GENERAL, METRIC_COLLECTION_TIME, collectionTime);
+
+        this.cacheExpirationTime = (collectionTime + cacheTTLInSecs * 1000);
+        this.cachedMetrics       = metrics;
+
+        return metrics;
     }
 
+    @SuppressWarnings("unchecked")
     private void executeGremlinQuery(AtlasMetrics metrics, String type, String name, String query) throws AtlasBaseException {
         Object result = atlasGraph.executeGremlinScript(query, false);
 
@@ -138,7 +318,8 @@ public class MetricsService {
     }
 
     private boolean isCacheValid() {
-        boolean valid = cachedMetrics != null && System.currentTimeMillis() < cacheExpirationTime;
+        AtlasMetrics cachedMetrics = this.cachedMetrics;
+        boolean      valid         = cachedMetrics != null && System.currentTimeMillis() < cacheExpirationTime;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("cachedMetrics: {}", cachedMetrics != null);
@@ -149,6 +330,151 @@ public class MetricsService {
         return valid;
     }
 
+    private synchronized void startCounters() {
+        if (executor != null) {
+            return;
+        }
+
+        loadCheckpoint();
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-metrics-%d").setDaemon(true).build());
+
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                reconcileAndCheckpoint();
+            }
+        }, checkpointIntervalMs, checkpointIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopCounters() {
+        ScheduledExecutorService executor;
+
+        synchronized (this) {
+            executor      = this.executor;
+            this.executor = null;
+        }
+
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdownNow();
+
+        try {
+            executor.awaitTermination(checkpointIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+
+        checkpoint();
+    }
+
+    @VisibleForTesting
+    void reconcileAndCheckpoint() {
+        try {
+            long    now                  = System.currentTimeMillis();
+            long    sinceLastReconcile   = now - lastReconcileTime;
+            boolean isReconcileDue       = !counters.isInitialized() || sinceLastReconcile >= reconcileIntervalMs;
+            boolean isReconcileRequested = counters.isReconcileNeeded() && sinceLastReconcile >= reconcileMinIntervalMs;
+
+            if (isReconcileDue || isReconcileRequested) {
+                LOG.info("MetricsService: reconciling counters with a full scan; last reconcile at {}", lastReconcileTime);
+
+                getScannedMetrics(true);
+
+                LOG.info("MetricsService: reconciled counters in {} ms", System.currentTimeMillis() - now);
+            }
+
+            checkpoint();
+        } catch (Throwable t) {
+            LOG.warn("MetricsService: failed to reconcile/checkpoint metrics counters", t);
+        }
+    }
+
+    // saves the counters, if changed since the last checkpoint, to the checkpoint vertex
+    private synchronized void checkpoint() {
+        long version = counters.getVersion();
+
+        if (!counters.isInitialized() || version == lastCheckpointVersion) {
+            return;
+        }
+
+        try {
+            AtlasVertex vertex = findCheckpointVertex();
+
+            if (vertex == null) {
+                vertex = atlasGraph.addVertex();
+
+                AtlasGraphUtilsV1.setProperty(vertex, METRICS_NAME_PROPERTY_KEY, COUNTERS_CHECKPOINT_NAME);
+            }
+
+            AtlasGraphUtilsV1.setProperty(vertex, METRICS_DATA_PROPERTY_KEY, AtlasJson.toJson(counters.getMetrics()));
+            AtlasGraphUtilsV1.setProperty(vertex, METRICS_UPDATE_TIME_PROPERTY_KEY, System.currentTimeMillis());
+            AtlasGraphUtilsV1.setProperty(vertex, METRICS_RECONCILE_TIME_PROPERTY_KEY, lastReconcileTime);
+
+            atlasGraph.commit();
+
+            lastCheckpointVersion = version;
+        } catch (Exception excp) {
+            LOG.warn("MetricsService: failed to checkpoint metrics counters", excp);
+
+            atlasGraph.rollback();
+        }
+    }
+
+    private void loadCheckpoint() {
+        try {
+            AtlasVertex vertex = findCheckpointVertex();
+            String      data   = vertex != null ? AtlasGraphUtilsV1.getProperty(vertex, METRICS_DATA_PROPERTY_KEY, String.class) : null;
+
+            if (StringUtils.isNotEmpty(data)) {
+                Long reconcileTime = AtlasGraphUtilsV1.getProperty(vertex, METRICS_RECONCILE_TIME_PROPERTY_KEY, Long.class);
+
+                counters.reset(AtlasJson.fromJson(data, AtlasMetrics.class));
+
+                lastReconcileTime     = reconcileTime != null ? reconcileTime : 0;
+                lastCheckpointVersion = counters.getVersion();
+
+                LOG.info("MetricsService: loaded metrics counters checkpoint; last reconcile at {}", lastReconcileTime);
+            } else {
+                LOG.info("MetricsService: no metrics counters checkpoint found; counters will be initialized with a full scan");
+            }
+
+            atlasGraph.commit();
+        } catch (Exception excp) {
+            LOG.warn("MetricsService: failed to load metrics counters checkpoint; counters will be initialized with a full scan", excp);
+
+            atlasGraph.rollback();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtlasVertex findCheckpointVertex() {
+        Iterator<AtlasVertex> vertices = ((Iterable<AtlasVertex>) atlasGraph.query().has(METRICS_NAME_PROPERTY_KEY, COUNTERS_CHECKPOINT_NAME).vertices()).iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static long getCollectionTime(AtlasMetrics metrics) {
+        Number ret = metrics.getMetric(GENERAL, METRIC_COLLECTION_TIME);
+
+        return ret != null ? ret.longValue() : 0;
+    }
+
+    // cached metrics are shared by requests; DSL cache metrics are added to a copy
+    private static AtlasMetrics copyOf(AtlasMetrics metrics) {
+        Map<String, Map<String, Number>> data = new HashMap<>();
+
+        if (metrics.getData() != null) {
+            for (Map.Entry<String, Map<String, Number>> entry : metrics.getData().entrySet()) {
+                data.put(entry.getKey(), new HashMap<>(entry.getValue()));
+            }
+        }
+
+        return new AtlasMetrics(data);
+    }
+
     private static String getQuery(String type, String name, String defaultQuery) {
         String ret = configuration != null ? configuration.getString(METRIC_QUERY_PREFIX + type + "." + name, defaultQuery)
                 : defaultQuery;
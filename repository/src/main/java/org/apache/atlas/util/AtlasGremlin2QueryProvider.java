@@ -54,14 +54,14 @@ public class AtlasGremlin2QueryProvider extends AtlasGremlinQueryProvider {
             case EXPORT_TYPE_DEFAULT:
                 return "g.V().has('__typeName',typeName).has(attrName, attrValue).has('__guid').__guid.toList()";
             case FULL_LINEAGE:
-                return "g.V('__guid', '%s').as('src').in('%s').out('%s')." +
+                return "g.V('__guid', guid).as('src').in(incomingEdgeLabel).out(outgoingEdgeLabel)." +
                         "loop('src', {((it.path.contains(it.object)) ? false : true)}, " +
                         "{((it.object.'__superTypeNames') ? " +
                         "(it.object.'__superTypeNames'.contains('DataSet')) : false)})." +
                         "path().toList()";
             case PARTIAL_LINEAGE:
-                return "g.V('__guid', '%s').as('src').in('%s').out('%s')." +
-                        "loop('src', {it.loops <= %s}, {((it.object.'__superTypeNames') ? " +
+                return "g.V('__guid', guid).as('src').in(incomingEdgeLabel).out(outgoingEdgeLabel)." +
+                        "loop('src', {it.loops <= depth}, {((it.object.'__superTypeNames') ? " +
                         "(it.object.'__superTypeNames'.contains('DataSet')) : false)})." +
                         "path().toList()";
 
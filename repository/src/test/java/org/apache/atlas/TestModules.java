@@ -32,6 +32,7 @@ import org.apache.atlas.graph.GraphSandboxUtil;
 import org.apache.atlas.listener.EntityChangeListener;
 import org.apache.atlas.listener.EntityChangeListenerV2;
 import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.query.DSLTranslationCache;
 import org.apache.atlas.repository.audit.EntityAuditListener;
 import org.apache.atlas.repository.audit.EntityAuditListenerV2;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
@@ -131,6 +132,9 @@ public class TestModules {
                     Multibinder.newSetBinder(binder(), TypeDefChangeListener.class);
             typeDefChangeListenerMultibinder.addBinding().to(GraphBackedSearchIndexer.class).asEagerSingleton();
 
+            bind(DSLTranslationCache.class).asEagerSingleton();
+            typeDefChangeListenerMultibinder.addBinding().to(DSLTranslationCache.class);
+
             bind(SearchTracker.class).asEagerSingleton();
 
             bind(AtlasEntityStore.class).to(AtlasEntityStoreV1.class);
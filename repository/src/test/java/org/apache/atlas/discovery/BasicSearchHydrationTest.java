@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.query.BasicTestSetup;
+import org.apache.atlas.query.DSLTranslationCache;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
+import org.apache.atlas.repository.userprofile.UserProfileService;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.util.SearchTracker;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class BasicSearchHydrationTest extends BasicTestSetup {
+    private static final String COLUMN_TYPE = "hive_column";
+
+    @Inject
+    private AtlasGraph graph;
+
+    @Inject
+    private GraphBackedSearchIndexer indexer;
+
+    @Inject
+    private SearchTracker searchTracker;
+
+    @Inject
+    private UserProfileService userProfileService;
+
+    @Inject
+    private DSLTranslationCache dslTranslationCache;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        LocalSolrRunner.start();
+        setupTestData();
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testFindByGuids() {
+        List<String> guids = AtlasGraphUtilsV1.findEntityGUIDsByType(COLUMN_TYPE);
+
+        assertTrue(guids.size() > 1);
+
+        Map<String, AtlasVertex> vertices = AtlasGraphUtilsV1.findByGuids(guids);
+
+        assertEquals(vertices.keySet(), new HashSet<>(guids));
+
+        for (Map.Entry<String, AtlasVertex> entry : vertices.entrySet()) {
+            assertEquals(AtlasGraphUtilsV1.getIdFromVertex(entry.getValue()), entry.getKey());
+        }
+
+        // single guid is looked up with has() instead of in()
+        vertices = AtlasGraphUtilsV1.findByGuids(Collections.singletonList(guids.get(0)));
+
+        assertEquals(vertices.keySet(), Collections.singleton(guids.get(0)));
+
+        // guids not found are left out of the result
+        vertices = AtlasGraphUtilsV1.findByGuids(Arrays.asList(guids.get(0), "unknown-guid-1", guids.get(1), "unknown-guid-2"));
+
+        assertEquals(vertices.keySet(), new HashSet<>(Arrays.asList(guids.get(0), guids.get(1))));
+
+        assertTrue(AtlasGraphUtilsV1.findByGuids(Collections.singletonList("unknown-guid")).isEmpty());
+        assertTrue(AtlasGraphUtilsV1.findByGuids(Collections.<String>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testEntityHeadersOrder() throws Exception {
+        List<String>      guids    = AtlasGraphUtilsV1.findEntityGUIDsByType(COLUMN_TYPE);
+        List<AtlasVertex> vertices = getVertices(guids);
+
+        Collections.reverse(vertices);
+
+        for (int hydrationThreads : new int[] { 0, 2, 4, vertices.size() + 1 }) {
+            EntityDiscoveryService discoveryService = createDiscoveryService(graph, hydrationThreads, 100);
+
+            try {
+                List<AtlasEntityHeader> headers = discoveryService.toEntityHeaders(vertices, Collections.singleton("name"), true);
+
+                assertEquals(headers.size(), vertices.size());
+
+                for (int i = 0; i < vertices.size(); i++) {
+                    assertNotNull(headers.get(i), "hydrationThreads=" + hydrationThreads + ", index=" + i);
+                    assertEquals(headers.get(i).getGuid(), AtlasGraphUtilsV1.getIdFromVertex(vertices.get(i)), "hydrationThreads=" + hydrationThreads);
+                    assertNotNull(headers.get(i).getAttribute("name"));
+                }
+            } finally {
+                discoveryService.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testPoolThreadsReleaseTransactionAndRequestContext() throws Exception {
+        List<AtlasVertex>      vertices         = getVertices(AtlasGraphUtilsV1.findEntityGUIDsByType(COLUMN_TYPE));
+        RecordingGraph         recordingGraph   = new RecordingGraph(graph);
+        EntityDiscoveryService discoveryService = createDiscoveryService(recordingGraph.getProxy(), 4, 100);
+
+        try {
+            List<AtlasEntityHeader> headers = discoveryService.toEntityHeaders(vertices, Collections.<String>emptySet(), false);
+
+            assertEquals(headers.size(), vertices.size());
+        } finally {
+            discoveryService.shutdown();
+        }
+
+        // the share of the calling thread uses the given vertices; other shares are reloaded by pool threads
+        assertFalse(recordingGraph.reloadThreads.isEmpty());
+        assertFalse(recordingGraph.reloadThreads.contains(Thread.currentThread()));
+        assertFalse(recordingGraph.rollbackThreads.contains(Thread.currentThread()));
+        assertEquals(recordingGraph.rollbackThreads, recordingGraph.reloadThreads);
+
+        for (Map.Entry<Thread, RequestContextV1> entry : recordingGraph.requestContexts.entrySet()) {
+            assertTrue(entry.getValue().getUpdatedEntities().isEmpty(), "request context not cleared in " + entry.getKey().getName());
+        }
+    }
+
+    @Test
+    public void testReferredEntityHeaders() throws Exception {
+        List<String>           guids            = AtlasGraphUtilsV1.findEntityGUIDsByType(COLUMN_TYPE);
+        EntityDiscoveryService discoveryService = createDiscoveryService(graph, 4, 3); // multiple batches of 3 guids
+
+        try {
+            Map<String, AtlasEntityHeader> headers = discoveryService.getReferredEntityHeaders(guids);
+
+            assertEquals(headers.keySet(), new HashSet<>(guids));
+
+            for (Map.Entry<String, AtlasEntityHeader> entry : headers.entrySet()) {
+                assertEquals(entry.getValue().getGuid(), entry.getKey());
+                assertEquals(entry.getValue().getTypeName(), COLUMN_TYPE);
+            }
+
+            // a guid not found by the bulk lookup is looked up individually, which fails for an unknown entity
+            List<String> withUnknown = new ArrayList<>(guids);
+
+            withUnknown.add(1, "unknown-guid");
+
+            try {
+                discoveryService.getReferredEntityHeaders(withUnknown);
+
+                fail("expected lookup of unknown-guid to fail");
+            } catch (AtlasBaseException excp) {
+                assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.INSTANCE_GUID_NOT_FOUND);
+            }
+        } finally {
+            discoveryService.shutdown();
+        }
+    }
+
+    private EntityDiscoveryService createDiscoveryService(AtlasGraph graph, int hydrationThreads, int hydrationBatchSize) {
+        Configuration configuration = new BaseConfiguration();
+
+        configuration.setProperty(EntityDiscoveryService.SEARCH_HYDRATION_THREADS, hydrationThreads);
+        configuration.setProperty(EntityDiscoveryService.SEARCH_HYDRATION_BATCH_SIZE, hydrationBatchSize);
+
+        return new EntityDiscoveryService(typeRegistry, graph, indexer, searchTracker, userProfileService, dslTranslationCache, configuration);
+    }
+
+    private List<AtlasVertex> getVertices(List<String> guids) {
+        List<AtlasVertex> ret = new ArrayList<>(guids.size());
+
+        for (String guid : guids) {
+            ret.add(AtlasGraphUtilsV1.findByGuid(guid));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Delegates to the given graph, recording the threads that reload vertices and roll back transactions. A thread
+     * reloading a vertex records an update in its request context, which should be gone once the context is cleared.
+     */
+    private static class RecordingGraph implements InvocationHandler {
+        private final AtlasGraph                    graph;
+        private final Set<Thread>                   reloadThreads   = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        private final Set<Thread>                   rollbackThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        private final Map<Thread, RequestContextV1> requestContexts = new ConcurrentHashMap<>();
+
+        RecordingGraph(AtlasGraph graph) {
+            this.graph = graph;
+        }
+
+        AtlasGraph getProxy() {
+            return (AtlasGraph) Proxy.newProxyInstance(AtlasGraph.class.getClassLoader(), new Class[] { AtlasGraph.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getVertex")) {
+                RequestContextV1 requestContext = RequestContextV1.get();
+
+                requestContext.recordEntityUpdate(new AtlasObjectId(String.valueOf(args[0]), COLUMN_TYPE));
+
+                reloadThreads.add(Thread.currentThread());
+                requestContexts.put(Thread.currentThread(), requestContext);
+            } else if (method.getName().equals("rollback")) {
+                rollbackThreads.add(Thread.currentThread());
+            }
+
+            try {
+                return method.invoke(graph, args);
+            } catch (InvocationTargetException excp) {
+                throw excp.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.lineage.AtlasLineageInfo;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v1.AtlasEntityStream;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.loadModelFromJson;
+import static org.apache.atlas.type.AtlasTypeUtil.createClassTypeDef;
+import static org.apache.atlas.type.AtlasTypeUtil.getAtlasObjectIds;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class EntityLineageServiceTest {
+    private static final String DATASET_TYPE = "lineage_test_dataset";
+    private static final String PROCESS_TYPE = "lineage_test_process";
+
+    @Inject
+    AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    AtlasEntityStore entityStore;
+
+    @Inject
+    AtlasGraph graph;
+
+    @Inject
+    AtlasLineageService lineageService;
+
+    // name => guid of entities created by the test
+    private final Map<String, String> guids = new HashMap<>();
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        loadModelFromJson("0000-Area0/0010-base_model.json", typeDefStore, typeRegistry);
+
+        AtlasEntityDef datasetDef = createClassTypeDef(DATASET_TYPE, Collections.singleton(AtlasClient.DATA_SET_SUPER_TYPE));
+        AtlasEntityDef processDef = createClassTypeDef(PROCESS_TYPE, Collections.singleton(AtlasClient.PROCESS_SUPER_TYPE));
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Arrays.asList(datasetDef, processDef));
+
+        typeDefStore.createTypesDef(typesDef);
+
+        RequestContextV1.clear();
+        RequestContextV1.get().setUser(TestUtilsV2.TEST_USER, null);
+
+        // chain: c0 -> cp1 -> c1 -> cp2 -> c2 -> cp3 -> c3
+        AtlasEntity c0  = dataset("c0");
+        AtlasEntity c1  = dataset("c1");
+        AtlasEntity c2  = dataset("c2");
+        AtlasEntity c3  = dataset("c3");
+        AtlasEntity cp1 = process("cp1", c0, c1);
+        AtlasEntity cp2 = process("cp2", c1, c2);
+        AtlasEntity cp3 = process("cp3", c2, c3);
+
+        // fan-out: f0 is read by 3 processes; gp writes 3 datasets
+        AtlasEntity f0  = dataset("f0");
+        AtlasEntity f1  = dataset("f1");
+        AtlasEntity f2  = dataset("f2");
+        AtlasEntity f3  = dataset("f3");
+        AtlasEntity fp1 = process("fp1", f0, f1);
+        AtlasEntity fp2 = process("fp2", f0, f2);
+        AtlasEntity fp3 = process("fp3", f0, f3);
+        AtlasEntity g0  = dataset("g0");
+        AtlasEntity g1  = dataset("g1");
+        AtlasEntity g2  = dataset("g2");
+        AtlasEntity g3  = dataset("g3");
+        AtlasEntity gp  = process("gp", Collections.singletonList(g0), Arrays.asList(g1, g2, g3));
+
+        createEntities(c0, c1, c2, c3, cp1, cp2, cp3, f0, f1, f2, f3, fp1, fp2, fp3, g0, g1, g2, g3, gp);
+    }
+
+    @BeforeMethod
+    public void init() {
+        RequestContextV1.clear();
+        RequestContextV1.get().setUser(TestUtilsV2.TEST_USER, null);
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testDepth() throws Exception {
+        AtlasLineageInfo lineage = lineageService.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 1);
+
+        assertEntities(lineage, "c0", "cp1", "c1");
+        assertRelations(lineage, relation("c0", "cp1"), relation("cp1", "c1"));
+
+        lineage = lineageService.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 2);
+
+        assertEntities(lineage, "c0", "cp1", "c1", "cp2", "c2");
+
+        lineage = lineageService.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 0);
+
+        assertEntities(lineage, "c0", "cp1", "c1", "cp2", "c2", "cp3", "c3");
+        assertRelations(lineage, relation("c0", "cp1"), relation("cp1", "c1"), relation("c1", "cp2"), relation("cp2", "c2"),
+                                 relation("c2", "cp3"), relation("cp3", "c3"));
+
+        lineage = lineageService.getAtlasLineageInfo(guid("c3"), LineageDirection.INPUT, 1);
+
+        assertEntities(lineage, "c3", "cp3", "c2");
+        assertRelations(lineage, relation("c2", "cp3"), relation("cp3", "c3"));
+
+        // configured max-depth caps both unlimited and larger requested depths
+        EntityLineageService service = createLineageService(EntityLineageService.LINEAGE_MAX_DEPTH, 2);
+
+        try {
+            assertEntities(service.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 0), "c0", "cp1", "c1", "cp2", "c2");
+            assertEntities(service.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 3), "c0", "cp1", "c1", "cp2", "c2");
+            assertEntities(service.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 1), "c0", "cp1", "c1");
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testFanOut() throws Exception {
+        assertEquals(lineageService.getAtlasLineageInfo(guid("f0"), LineageDirection.OUTPUT, 0).getGuidEntityMap().size(), 7);
+        assertEquals(lineageService.getAtlasLineageInfo(guid("g0"), LineageDirection.OUTPUT, 0).getGuidEntityMap().size(), 5);
+
+        EntityLineageService service = createLineageService(EntityLineageService.LINEAGE_MAX_FAN_OUT, 2);
+
+        try {
+            // processes reading a dataset: only 2 of fp1, fp2, fp3 are followed
+            AtlasLineageInfo lineage = service.getAtlasLineageInfo(guid("f0"), LineageDirection.OUTPUT, 0);
+
+            assertEquals(lineage.getGuidEntityMap().size(), 5);
+            assertEquals(lineage.getRelations().size(), 4);
+            assertTrue(lineage.getGuidEntityMap().containsKey(guid("f0")));
+
+            // datasets written by a process: only 2 of g1, g2, g3 are followed
+            lineage = service.getAtlasLineageInfo(guid("g0"), LineageDirection.OUTPUT, 0);
+
+            assertEquals(lineage.getGuidEntityMap().size(), 4);
+            assertEquals(lineage.getRelations().size(), 3);
+            assertTrue(lineage.getGuidEntityMap().containsKey(guid("g0")));
+            assertTrue(lineage.getGuidEntityMap().containsKey(guid("gp")));
+
+            // fan-out within the cap is not truncated
+            assertEntities(service.getAtlasLineageInfo(guid("c0"), LineageDirection.OUTPUT, 0), "c0", "cp1", "c1", "cp2", "c2", "cp3", "c3");
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testBothDirections() throws Exception {
+        AtlasLineageInfo lineage = lineageService.getAtlasLineageInfo(guid("c1"), LineageDirection.BOTH, 0);
+
+        assertEquals(lineage.getBaseEntityGuid(), guid("c1"));
+        assertEquals(lineage.getLineageDirection(), LineageDirection.BOTH);
+        assertEntities(lineage, "c0", "cp1", "c1", "cp2", "c2", "cp3", "c3");
+        assertRelations(lineage, relation("c0", "cp1"), relation("cp1", "c1"), relation("c1", "cp2"), relation("cp2", "c2"),
+                                 relation("c2", "cp3"), relation("cp3", "c3"));
+
+        lineage = lineageService.getAtlasLineageInfo(guid("c1"), LineageDirection.BOTH, 1);
+
+        assertEquals(lineage.getLineageDirection(), LineageDirection.BOTH);
+        assertEntities(lineage, "c0", "cp1", "c1", "cp2", "c2");
+
+        // without executor threads, both directions are walked in the caller thread
+        EntityLineageService service = createLineageService(EntityLineageService.LINEAGE_EXECUTOR_THREADS, 0);
+
+        try {
+            lineage = service.getAtlasLineageInfo(guid("c2"), LineageDirection.BOTH, 0);
+
+            assertEquals(lineage.getLineageDirection(), LineageDirection.BOTH);
+            assertEntities(lineage, "c0", "cp1", "c1", "cp2", "c2", "cp3", "c3");
+            assertEquals(lineage.getRelations().size(), 6);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private EntityLineageService createLineageService(String propertyName, int value) {
+        Configuration conf = new BaseConfiguration();
+
+        conf.setProperty(propertyName, value);
+
+        return new EntityLineageService(typeRegistry, graph, conf);
+    }
+
+    private AtlasEntity dataset(String name) {
+        AtlasEntity ret = new AtlasEntity(DATASET_TYPE);
+
+        ret.setAttribute(AtlasClient.NAME, name);
+        ret.setAttribute(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, name + "@lineage-test");
+
+        return ret;
+    }
+
+    private AtlasEntity process(String name, AtlasEntity input, AtlasEntity output) {
+        return process(name, Collections.singletonList(input), Collections.singletonList(output));
+    }
+
+    private AtlasEntity process(String name, List<AtlasEntity> inputs, List<AtlasEntity> outputs) {
+        AtlasEntity ret = new AtlasEntity(PROCESS_TYPE);
+
+        ret.setAttribute(AtlasClient.NAME, name);
+        ret.setAttribute(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, name + "@lineage-test");
+        ret.setAttribute(AtlasClient.PROCESS_ATTRIBUTE_INPUTS, getAtlasObjectIds(inputs));
+        ret.setAttribute(AtlasClient.PROCESS_ATTRIBUTE_OUTPUTS, getAtlasObjectIds(outputs));
+
+        return ret;
+    }
+
+    private void createEntities(AtlasEntity... entities) throws Exception {
+        AtlasEntitiesWithExtInfo entitiesWithExtInfo = new AtlasEntitiesWithExtInfo();
+
+        for (AtlasEntity entity : entities) {
+            entitiesWithExtInfo.addEntity(entity);
+        }
+
+        EntityMutationResponse response = entityStore.createOrUpdate(new AtlasEntityStream(entitiesWithExtInfo), false);
+
+        for (AtlasEntity entity : entities) {
+            guids.put((String) entity.getAttribute(AtlasClient.NAME), response.getGuidAssignments().get(entity.getGuid()));
+        }
+    }
+
+    private String guid(String name) {
+        return guids.get(name);
+    }
+
+    private String relation(String from, String to) {
+        return guid(from) + "->" + guid(to);
+    }
+
+    private void assertEntities(AtlasLineageInfo lineage, String... names) {
+        Set<String> expected = new HashSet<>();
+
+        for (String name : names) {
+            expected.add(guid(name));
+        }
+
+        assertEquals(lineage.getGuidEntityMap().keySet(), expected);
+    }
+
+    private void assertRelations(AtlasLineageInfo lineage, String... expected) {
+        Set<String> actual = new HashSet<>();
+
+        for (LineageRelation relation : lineage.getRelations()) {
+            actual.add(relation.getFromEntityId() + "->" + relation.getToEntityId());
+        }
+
+        assertEquals(actual, new HashSet<>(Arrays.asList(expected)));
+        assertEquals(lineage.getRelations().size(), expected.length);
+    }
+}
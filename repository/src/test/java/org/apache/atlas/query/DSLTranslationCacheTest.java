@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class DSLTranslationCacheTest {
+    @Test
+    public void literalsComparedWithAttributesAreReplaced() {
+        DSLTranslationCache.NormalizedQuery query = DSLTranslationCache.normalize("hive_table  where name = 'tbl1' and  owner like \"ad*\"");
+
+        assertEquals(query.text, "hive_table where name = ?' and owner like \"ad*\"");
+        assertEquals(query.values, Collections.singletonList("'tbl1'"));
+
+        query = DSLTranslationCache.normalize("from 'hive_table' where db.name='db1' and createTime > '2017-01-01' and retention lt \"10\" and name eq 'a'");
+
+        assertEquals(query.text, "from 'hive_table' where db.name=?' and createTime > '2017-01-01' and retention lt \"10\" and name eq ?'");
+        assertEquals(query.values, Arrays.asList("'db1'", "'a'"));
+
+        query = DSLTranslationCache.normalize("hive_table where hive_eq 'x'");
+
+        assertEquals(query.values.size(), 0);
+
+        assertNull(DSLTranslationCache.normalize("hive_table where name = 'tbl1"));
+        assertNull(DSLTranslationCache.normalize("hive_table -- comment"));
+    }
+
+    @Test
+    public void templateIsCreatedOnlyWhenValuesAreFoundOnce() {
+        GremlinQuery gremlinQuery = new GremlinQuery("g.V().has('__typeName', 'hive_table').has('name', eq('tbl1')).has('owner', eq('admin')).limit(25).toList()", true);
+
+        DSLTranslationCache.Template template = DSLTranslationCache.Template.create(gremlinQuery, Arrays.asList("'admin'", "'tbl1'"));
+
+        assertNotNull(template);
+
+        GremlinQuery filled = template.toGremlinQuery(Arrays.asList("'hive'", "'tbl2'"));
+
+        assertEquals(filled.queryStr(), "g.V().has('__typeName', 'hive_table').has('name', eq('tbl2')).has('owner', eq('hive')).limit(25).toList()");
+        assertEquals(filled.hasSelectList(), true);
+
+        assertNull(DSLTranslationCache.Template.create(gremlinQuery, Collections.singletonList("'hive_table_x'")));
+        assertNull(DSLTranslationCache.Template.create(new GremlinQuery("g.V().has('name', 'a').has('qualifiedName', 'a')", false), Collections.singletonList("'a'")));
+        assertNull(DSLTranslationCache.Template.create(gremlinQuery, Arrays.asList("'tbl1'", "'tbl1'")));
+    }
+
+    @Test
+    public void translationIsReusedUntilTypeDefsChange() throws Exception {
+        TestDSLTranslationCache cache = new TestDSLTranslationCache(10);
+
+        assertEquals(cache.translate("hive_table where name = 'tbl1'", null, 0, 25).queryStr(), "g.V().has('name', eq('tbl1')).range(0, 25)");
+        assertEquals(cache.translate("hive_table where name = 'tbl2'", null, 0, 25).queryStr(), "g.V().has('name', eq('tbl2')).range(0, 25)");
+        assertEquals(cache.translationCount, 1);
+
+        assertEquals(cache.translate("hive_table where name = 'tbl2'", null, 25, 25).queryStr(), "g.V().has('name', eq('tbl2')).range(25, 50)");
+        assertEquals(cache.translationCount, 2);
+
+        cache.onChange(null);
+
+        assertEquals(cache.translate("hive_table where name = 'tbl3'", null, 0, 25).queryStr(), "g.V().has('name', eq('tbl3')).range(0, 25)");
+        assertEquals(cache.translationCount, 3);
+
+        assertEquals(cache.getMetrics().get(DSLTranslationCache.METRIC_HITS).longValue(), 1L);
+        assertEquals(cache.getMetrics().get(DSLTranslationCache.METRIC_MISSES).longValue(), 3L);
+        assertEquals(cache.getMetrics().get(DSLTranslationCache.METRIC_INVALIDATIONS).longValue(), 1L);
+        assertEquals(cache.getMetrics().get(DSLTranslationCache.METRIC_SIZE).longValue(), 1L);
+    }
+
+    // translates "<type> where name = '<value>'" without the type registry
+    private static class TestDSLTranslationCache extends DSLTranslationCache {
+        int translationCount = 0;
+
+        TestDSLTranslationCache(int cacheSize) {
+            super(cacheSize);
+        }
+
+        @Override
+        GremlinQuery doTranslate(String query, AtlasTypeRegistry typeRegistry, int offset, int limit) {
+            translationCount++;
+
+            String value = query.substring(query.indexOf('\''));
+
+            return new GremlinQuery("g.V().has('name', eq(" + value + ")).range(" + offset + ", " + (offset + limit) + ")", false);
+        }
+    }
+}
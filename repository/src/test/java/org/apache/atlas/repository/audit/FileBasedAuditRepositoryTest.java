@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditAction;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class FileBasedAuditRepositoryTest extends AuditRepositoryTestBase {
+    private File auditDir;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        auditDir        = Files.createTempDirectory("audit").toFile();
+        eventRepository = startRepository(auditDir, 64 * 1024, 1024 * 1024);
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        ((FileBasedAuditRepository) eventRepository).stop();
+
+        FileUtils.deleteDirectory(auditDir);
+    }
+
+    @Test
+    public void eventsAreListedAfterRestart() throws Exception {
+        File                     dir        = Files.createTempDirectory("audit").toFile();
+        FileBasedAuditRepository repository = startRepository(dir, 1024, 1024 * 1024);
+        long                     ts         = System.currentTimeMillis();
+
+        try {
+            for (int i = 0; i < 20; i++) {
+                repository.putEventsV2(createEvent("guid1", ts + i, "details" + i), createEvent("guid2", ts + i, "details" + i));
+            }
+
+            assertTrue(repository.getSegmentCount() > 1);
+
+            repository.stop();
+
+            // incomplete record at the end, as if the server stopped in the middle of an append
+            File[] segmentFiles = dir.listFiles();
+
+            Arrays.sort(segmentFiles);
+
+            try (FileOutputStream out = new FileOutputStream(segmentFiles[segmentFiles.length - 1], true)) {
+                out.write(new byte[] { 0, 0, 1, 0, 1, 2, 3 });
+            }
+
+            repository = startRepository(dir, 1024, 1024 * 1024);
+
+            List<EntityAuditEventV2> events = repository.listEventsV2("guid1", null, (short) 5);
+
+            assertEquals(events.size(), 5);
+            assertEquals(events.get(0).getDetails(), "details19");
+            assertEquals(events.get(4).getDetails(), "details15");
+
+            events = repository.listEventsV2("guid1", events.get(4).getEventKey(), (short) 100);
+
+            assertEquals(events.size(), 16);
+            assertEquals(events.get(0).getDetails(), "details15");
+            assertEquals(events.get(15).getDetails(), "details0");
+
+            repository.putEventsV2(createEvent("guid1", ts + 20, "details20"));
+
+            assertEquals(repository.listEventsV2("guid1", null, (short) 1).get(0).getDetails(), "details20");
+        } finally {
+            repository.stop();
+
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void oldestSegmentsAreDeletedWhenMaxSizeIsExceeded() throws Exception {
+        File                     dir        = Files.createTempDirectory("audit").toFile();
+        FileBasedAuditRepository repository = startRepository(dir, 1024, 4 * 1024);
+        long                     ts         = System.currentTimeMillis();
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                repository.putEventsV2(createEvent("guid1", ts + i, "details" + i));
+            }
+
+            repository.compact();
+
+            assertTrue(repository.getSegmentCount() <= 5);
+
+            List<EntityAuditEventV2> events = repository.listEventsV2("guid1", null, (short) 100);
+
+            assertTrue(events.size() < 100);
+            assertEquals(events.get(0).getDetails(), "details99");
+            assertEquals(events.get(events.size() - 1).getDetails(), "details" + (100 - events.size()));
+        } finally {
+            repository.stop();
+
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void segmentsWithReplacedEventsAreRewritten() throws Exception {
+        File                     dir        = Files.createTempDirectory("audit").toFile();
+        FileBasedAuditRepository repository = startRepository(dir, 1024, 1024 * 1024);
+        long                     ts         = System.currentTimeMillis();
+
+        try {
+            repository.putEventsV2(createEvent("guid1", ts, "first"));
+
+            // same key - replaces the earlier event
+            for (int i = 0; i < 50; i++) {
+                repository.putEventsV2(createEvent("guid2", ts, "details" + i));
+            }
+
+            int segmentCount = repository.getSegmentCount();
+
+            repository.compact();
+
+            assertTrue(repository.getSegmentCount() < segmentCount);
+            assertEquals(repository.listEventsV2("guid1", null, (short) 10).get(0).getDetails(), "first");
+            assertEquals(repository.listEventsV2("guid2", null, (short) 10).size(), 1);
+            assertEquals(repository.listEventsV2("guid2", null, (short) 10).get(0).getDetails(), "details49");
+        } finally {
+            repository.stop();
+
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void latestEventIsListedAfterRewriteAndRestart() throws Exception {
+        File                           dir        = Files.createTempDirectory("audit").toFile();
+        final FileBasedAuditRepository repository = startRepository(dir, 1024, 1024 * 1024);
+        final long                     ts         = System.currentTimeMillis();
+        final int                      numEvents  = 500;
+        ExecutorService                executor   = Executors.newSingleThreadExecutor();
+        FileBasedAuditRepository       restarted  = null;
+
+        try {
+            // same key - every event replaces the earlier one, making the segments candidates for rewrite
+            Future<?> future = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < numEvents; i++) {
+                        repository.putEventsV2(createEvent("guid1", ts, "details" + i));
+                    }
+
+                    return null;
+                }
+            });
+
+            while (!future.isDone()) {
+                repository.compact();
+            }
+
+            future.get();
+
+            repository.compact();
+
+            assertEquals(repository.listEventsV2("guid1", null, (short) 10).get(0).getDetails(), "details" + (numEvents - 1));
+
+            repository.stop();
+
+            restarted = startRepository(dir, 1024, 1024 * 1024);
+
+            List<EntityAuditEventV2> events = restarted.listEventsV2("guid1", null, (short) 10);
+
+            assertEquals(events.size(), 1);
+            assertEquals(events.get(0).getDetails(), "details" + (numEvents - 1));
+        } finally {
+            executor.shutdown();
+
+            if (restarted != null) {
+                restarted.stop();
+            } else {
+                repository.stop();
+            }
+
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void concurrentAppendsAreListed() throws Exception {
+        final FileBasedAuditRepository repository = (FileBasedAuditRepository) eventRepository;
+        final long                     ts         = System.currentTimeMillis();
+        ExecutorService                executor   = Executors.newFixedThreadPool(4);
+        List<Future<?>>                futures    = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 4; t++) {
+                final String guid = "concurrent" + t;
+
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < 200; i++) {
+                            repository.putEventsV2(createEvent(guid, ts + i, "details" + i));
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int t = 0; t < 4; t++) {
+            List<EntityAuditEventV2> events = repository.listEventsV2("concurrent" + t, null, (short) 1000);
+
+            assertEquals(events.size(), 200);
+            assertEquals(events.get(0).getDetails(), "details199");
+        }
+    }
+
+    private static FileBasedAuditRepository startRepository(File dir, long segmentSize, long maxSize) throws Exception {
+        Configuration            configuration = new BaseConfiguration();
+        FileBasedAuditRepository ret           = new FileBasedAuditRepository();
+
+        configuration.setProperty(FileBasedAuditRepository.CONFIG_DIR, dir.getAbsolutePath());
+        configuration.setProperty(FileBasedAuditRepository.CONFIG_SEGMENT_SIZE_BYTES, segmentSize);
+        configuration.setProperty(FileBasedAuditRepository.CONFIG_MAX_SIZE_BYTES, maxSize);
+
+        ret.startInternal(configuration);
+
+        return ret;
+    }
+
+    private static EntityAuditEventV2 createEvent(String guid, long ts, String details) {
+        return new EntityAuditEventV2(guid, ts, "user1", EntityAuditAction.ENTITY_UPDATE, details, null);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditAction;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HBaseAuditEventWriterTest {
+    private File            walDir;
+    private BufferedMutator mutator;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        walDir  = Files.createTempDirectory("audit-wal").toFile();
+        mutator = mock(BufferedMutator.class);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(walDir);
+    }
+
+    @Test
+    public void eventsAreWrittenInBackground() throws Exception {
+        HBaseAuditEventWriter writer = createWriter(100);
+
+        writer.start();
+
+        assertTrue(writer.put(Arrays.asList(createEvent("guid1"), createEvent("guid2"))));
+        assertTrue(writer.put(Collections.singletonList(createEvent("guid3"))));
+        assertTrue(writer.flush(10000));
+
+        verify(mutator, times(2)).mutate(anyListOf(Mutation.class));
+        verify(mutator).flush();
+
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_WRITTEN).longValue(), 3);
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_QUEUE_DEPTH).longValue(), 0);
+
+        // write-ahead log is deleted once the events are written
+        assertTrue(AuditWriteAheadLog.getSegmentFiles(walDir).isEmpty());
+
+        writer.stop(10000);
+
+        verify(mutator).close();
+        assertFalse(writer.put(Collections.singletonList(createEvent("guid4"))));
+    }
+
+    @Test
+    public void failedWritesAreRetried() throws Exception {
+        doThrow(new IOException("test failure")).doNothing().when(mutator).flush();
+
+        HBaseAuditEventWriter writer = createWriter(100);
+
+        writer.start();
+
+        assertTrue(writer.put(Arrays.asList(createEvent("guid1"), createEvent("guid2"))));
+        assertTrue(writer.flush(10000));
+
+        // mutations are sent again with the retry
+        verify(mutator, times(2)).mutate(anyListOf(Mutation.class));
+        verify(mutator, times(2)).flush();
+
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_WRITTEN).longValue(), 2);
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_RETRY_COUNT).longValue(), 1);
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_QUEUE_DEPTH).longValue(), 0);
+
+        // write-ahead log is deleted once the retry succeeds
+        assertTrue(AuditWriteAheadLog.getSegmentFiles(walDir).isEmpty());
+
+        writer.stop(10000);
+
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_FAILED).longValue(), 0);
+    }
+
+    @Test
+    public void unwrittenEventsAreRetainedInWriteAheadLog() throws Exception {
+        doNothing().doThrow(new IOException("test failure")).when(mutator).flush();
+
+        // a segment per append
+        HBaseAuditEventWriter writer = new HBaseAuditEventWriter(mutator, new AuditWriteAheadLog(walDir, 1), 3, 100, 60000, 10, 100);
+
+        writer.start();
+
+        assertTrue(writer.put(Collections.singletonList(createEvent("guid1"))));
+        assertTrue(writer.flush(10000));
+        assertTrue(AuditWriteAheadLog.getSegmentFiles(walDir).isEmpty());
+
+        assertTrue(writer.put(Arrays.asList(createEvent("guid2"), createEvent("guid3"))));
+        assertFalse(writer.flush(500));
+
+        // events being retried count against the queue size
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_QUEUE_DEPTH).longValue(), 2);
+        assertFalse(writer.put(Arrays.asList(createEvent("guid4"), createEvent("guid5"))));
+        assertTrue(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_RETRY_COUNT) > 0);
+
+        writer.stop(10000);
+
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_WRITTEN).longValue(), 1);
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_FAILED).longValue(), 2);
+
+        // only the segment with events not written is retained
+        List<File> segmentFiles = AuditWriteAheadLog.getSegmentFiles(walDir);
+
+        assertEquals(segmentFiles.size(), 1);
+
+        List<EntityAuditEventV2> events = AuditWriteAheadLog.readEvents(segmentFiles.get(0));
+
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(0).getEntityId(), "guid2");
+        assertEquals(events.get(1).getEntityId(), "guid3");
+        assertEquals(events.get(1).getAction(), EntityAuditAction.ENTITY_UPDATE);
+    }
+
+    @Test
+    public void eventsAreRejectedWhenQueueIsFull() throws Exception {
+        HBaseAuditEventWriter writer = createWriter(2);
+
+        assertTrue(writer.put(Arrays.asList(createEvent("guid1"), createEvent("guid2"))));
+        assertFalse(writer.put(Collections.singletonList(createEvent("guid3"))));
+
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_QUEUE_DEPTH).longValue(), 2);
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_REJECTED).longValue(), 1);
+
+        // queued events are written on stop
+        writer.start();
+        writer.stop(10000);
+
+        assertEquals(writer.getMetrics().get(HBaseAuditEventWriter.METRIC_EVENTS_WRITTEN).longValue(), 2);
+    }
+
+    private HBaseAuditEventWriter createWriter(int maxQueueSize) throws IOException {
+        return new HBaseAuditEventWriter(mutator, new AuditWriteAheadLog(walDir, 1024 * 1024), maxQueueSize, 100, 60000, 10, 100);
+    }
+
+    private static EntityAuditEventV2 createEvent(String guid) {
+        return new EntityAuditEventV2(guid, System.currentTimeMillis(), "user1", EntityAuditAction.ENTITY_UPDATE, "details", null);
+    }
+}
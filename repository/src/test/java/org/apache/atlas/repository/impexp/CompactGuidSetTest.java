@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class CompactGuidSetTest {
+    @Test
+    public void addContainsRemove() {
+        CompactGuidSet guids = new CompactGuidSet();
+        String         guid  = UUID.randomUUID().toString();
+
+        assertTrue(guids.add(guid));
+        assertFalse(guids.add(guid));
+        assertTrue(guids.contains(guid));
+        assertFalse(guids.contains(guid.toUpperCase()));
+        assertEquals(guids.size(), 1);
+
+        assertTrue(guids.remove(guid));
+        assertFalse(guids.remove(guid));
+        assertFalse(guids.contains(guid));
+        assertTrue(guids.isEmpty());
+    }
+
+    @Test
+    public void nonUuidGuids() {
+        CompactGuidSet guids = new CompactGuidSet();
+
+        assertTrue(guids.add("-12345"));
+        assertTrue(guids.add("00000000-0000-0000-0000-000000000000"));
+        assertTrue(guids.add(UUID.randomUUID().toString().toUpperCase()));
+        assertEquals(guids.size(), 3);
+
+        assertTrue(guids.contains("-12345"));
+        assertTrue(guids.contains("00000000-0000-0000-0000-000000000000"));
+        assertFalse(guids.contains("-123456"));
+    }
+
+    @Test
+    public void behavesAsHashSet() {
+        Random         random   = new Random(0);
+        CompactGuidSet guids    = new CompactGuidSet(16);
+        Set<String>    expected = new HashSet<>();
+        List<String>   values   = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            values.add(UUID.randomUUID().toString());
+        }
+
+        for (int i = 0; i < 50000; i++) {
+            String guid = values.get(random.nextInt(values.size()));
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(guids.add(guid), expected.add(guid));
+                    break;
+
+                case 1:
+                    assertEquals(guids.remove(guid), expected.remove(guid));
+                    break;
+
+                default:
+                    assertEquals(guids.contains(guid), expected.contains(guid));
+            }
+
+            assertEquals(guids.size(), expected.size());
+        }
+
+        guids.clear();
+
+        assertTrue(guids.isEmpty());
+    }
+}
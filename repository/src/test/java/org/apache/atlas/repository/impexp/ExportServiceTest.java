@@ -178,7 +178,7 @@ public class ExportServiceTest {
         final String userName = "admin";
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ZipSink zipSink = new ZipSink(baos);
+        ZipSink zipSink = exportService.createZipSink(baos);
         AtlasExportResult result = exportService.run(zipSink, request, userName, hostName, requestingIP);
 
         zipSink.close();
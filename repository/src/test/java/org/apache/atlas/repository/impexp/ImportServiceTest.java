@@ -24,6 +24,7 @@ import org.apache.atlas.TestModules;
 import org.apache.atlas.TestUtilsV2;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportRequest;
+import org.apache.atlas.model.impexp.AtlasImportResult;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.runner.LocalSolrRunner;
 import org.apache.atlas.store.AtlasTypeDefStore;
@@ -50,6 +51,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 
 @Guice(modules = TestModules.TestOnlyModule.class)
 public class ImportServiceTest {
@@ -215,6 +217,27 @@ public class ImportServiceTest {
         runImportWithParameters(importService, request, zipSource);
     }
 
+    @DataProvider(name = "stocks")
+    public static Object[][] getDataFromStocks(ITestContext context) throws IOException {
+        return getZipSource("stocks.zip");
+    }
+
+    @Test(dataProvider = "stocks")
+    public void importInBatches(ZipSource zipSource) throws AtlasBaseException, IOException {
+        loadBaseModel();
+        loadHiveModel();
+
+        AtlasImportRequest request = getDefaultImportRequest();
+
+        request.setOption("batchSize", "5");
+
+        AtlasImportResult result = runImportWithParameters(importService, request, zipSource);
+
+        assertNotNull(result.getMetrics().get("batch:count"));
+        assertTrue(result.getMetrics().get("batch:count") > 0);
+        assertTrue(result.getProcessedEntities().size() > 0);
+    }
+
     @Test
     public void importServiceProcessesIOException() {
         ImportService importService = new ImportService(typeDefStore, typeRegistry, null);
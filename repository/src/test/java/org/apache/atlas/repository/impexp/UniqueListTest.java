@@ -20,6 +20,8 @@ package org.apache.atlas.repository.impexp;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+
 import static org.testng.Assert.assertEquals;
 
 public class UniqueListTest {
@@ -66,4 +68,19 @@ public class UniqueListTest {
         assertEquals(2, uniqueList2.size());
         assertEquals(firstElement, removedElement);
     }
+
+    @Test
+    public void removeFirst_RemovesInOrder() {
+        ExportService.UniqueList<String> uniqueList2 = new ExportService.UniqueList<>();
+        uniqueList2.addAll(uniqueList);
+
+        assertEquals(uniqueList2.removeFirst(2), Arrays.asList(firstElement, "def"));
+        assertEquals(uniqueList2.size(), 1);
+
+        uniqueList2.add(firstElement);
+
+        assertEquals(uniqueList2.size(), 2);
+        assertEquals(uniqueList2.removeFirst(5), Arrays.asList("ghi", firstElement));
+        assertEquals(uniqueList2.size(), 0);
+    }
 }
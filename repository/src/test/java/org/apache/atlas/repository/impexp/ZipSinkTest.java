@@ -23,6 +23,7 @@ import org.apache.atlas.model.impexp.AtlasExportRequest;
 import org.apache.atlas.model.impexp.AtlasExportResult;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.type.AtlasType;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -30,6 +31,7 @@ import org.testng.annotations.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -179,6 +181,63 @@ public class ZipSinkTest {
         zs.close();
     }
 
+    @Test
+    public void writesEntriesUsingWriterThread() throws AtlasBaseException, IOException {
+        final int max_entries = 50;
+        ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
+        ZipSink zs = new ZipSink(byteOutputStream, 2);
+
+        zs.setExportOrder(defaultExportOrder);
+        for (int i = 0; i < max_entries; i++) {
+            AtlasEntity entity = new AtlasEntity();
+            entity.setGuid(String.format(knownEntityGuidFormat, i));
+
+            zs.add(new AtlasEntity.AtlasEntityWithExtInfo(entity));
+            assertTrue(zs.hasEntity(entity.getGuid()));
+        }
+        zs.close();
+
+        ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(byteOutputStream.toByteArray()));
+        ZipEntry entry = zipStream.getNextEntry();
+
+        assertEquals(entry.getName().replace(".json", ""), ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString());
+        for (int i = 0; i < max_entries; i++) {
+            entry = zipStream.getNextEntry();
+
+            assertEquals(entry.getName().replace(".json", ""), String.format(knownEntityGuidFormat, i));
+            assertTrue(getZipEntryAsStream(zipStream).contains(String.format(knownEntityGuidFormat, i)));
+        }
+        assertNull(zipStream.getNextEntry());
+    }
+
+    @Test
+    public void closeFailsOnErrorWritingQueuedEntries() throws AtlasBaseException {
+        final int[]  bytesAllowed = { 64 };
+        OutputStream failingStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                if (--bytesAllowed[0] < 0) {
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        ZipSink zs = new ZipSink(failingStream, 2);
+
+        // the write fails on the writer thread, after the last entry is queued
+        zs.setTypesDef(new AtlasTypesDef());
+
+        try {
+            zs.close();
+
+            fail("close() should fail when a queued entry could not be written");
+        } catch (AtlasBaseException excp) {
+            assertTrue(excp.getCause() instanceof IOException);
+        }
+
+        // subsequent calls have no effect
+        zs.close();
+    }
+
     private void addReferredEntities(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo, int maxEntries) {
 
         for (int i = 1; i <= maxEntries; i++) {
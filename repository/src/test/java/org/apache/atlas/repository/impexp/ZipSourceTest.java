@@ -44,6 +44,13 @@ public class ZipSourceTest {
         return new Object[][] {{ new ZipSource(fs) }};
     }
 
+    @DataProvider(name = "zipFileStocksUsingTempFile")
+    public static Object[][] getDataFromZipFileUsingTempFile() throws IOException {
+        FileInputStream fs = ZipFileResourceTestUtils.getFileInputStream("stocks.zip");
+
+        return new Object[][] {{ ZipSource.fromStreamUsingTempFile(fs, null, null) }};
+    }
+
     @DataProvider(name = "zipFileStocksFloat")
     public static Object[][] getDataFromZipFileWithLongFloats() throws IOException {
         FileInputStream fs = ZipFileResourceTestUtils.getFileInputStream("stocks-float.zip");
@@ -82,6 +89,14 @@ public class ZipSourceTest {
         verifyGuidRemovalOnImportComplete(zipSource, creationOrder.get(0));
     }
 
+    @Test(dataProvider = "zipFileStocksUsingTempFile")
+    public void examineContentsUsingTempFile_BehavesAsExpected(ZipSource zipSource) throws IOException, AtlasBaseException {
+        examineContents_BehavesAsExpected(zipSource);
+        iteratorBehavor_WorksAsExpected(zipSource);
+
+        zipSource.close();
+    }
+
     private void useCreationOrderToFetchEntities(ZipSource zipSource, List<String> creationOrder) {
         for (String guid : creationOrder) {
             AtlasEntity e = zipSource.getByGuid(guid);
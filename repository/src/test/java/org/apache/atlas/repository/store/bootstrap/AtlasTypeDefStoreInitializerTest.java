@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.bootstrap;
+
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.store.bootstrap.AtlasTypesBootstrapState.BootstrapFile;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasTypeDefStoreInitializerTest {
+    private static final String MODEL_FILE = "0000-Area0" + File.separator + "0010-base_model.json";
+    private static final String PATCH_FILE = "0000-Area0" + File.separator + "patches" + File.separator + "001-base_model_add_attribute.json";
+
+    private File   atlasHomeDir;
+    private String prevAtlasHome;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        atlasHomeDir  = Files.createTempDirectory("atlas-home").toFile();
+        prevAtlasHome = System.getProperty("atlas.home");
+
+        System.setProperty("atlas.home", atlasHomeDir.getAbsolutePath());
+
+        writeFile(MODEL_FILE, AtlasType.toJson(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+                                                                 Collections.singletonList(new AtlasEntityDef("test_entity", null, "1.0")))));
+        writeFile(PATCH_FILE, "{ \"patches\": [ { \"action\": \"ADD_ATTRIBUTE\", \"typeName\": \"test_entity\", \"applyToVersion\": \"1.0\", \"updateToVersion\": \"1.1\"," +
+                              " \"attributeDefs\": [ { \"name\": \"attr1\", \"typeName\": \"string\", \"cardinality\": \"SINGLE\", \"isOptional\": true } ] } ] }");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (prevAtlasHome != null) {
+            System.setProperty("atlas.home", prevAtlasHome);
+        } else {
+            System.clearProperty("atlas.home");
+        }
+
+        FileUtils.deleteDirectory(atlasHomeDir);
+    }
+
+    @Test
+    public void unchangedFilesAreSkipped() throws Exception {
+        AtlasTypeRegistry        typeRegistry   = new AtlasTypeRegistry();
+        AtlasTypeDefStore        typeDefStore   = createTypeDefStore(typeRegistry);
+        AtlasTypesBootstrapState bootstrapState = mock(AtlasTypesBootstrapState.class);
+        PropertiesConfiguration  conf           = new PropertiesConfiguration();
+
+        conf.setProperty(AtlasTypeDefStoreInitializer.BOOTSTRAP_THREADS_PROPERTY, 2);
+
+        when(bootstrapState.getFiles()).thenReturn(Collections.<String, BootstrapFile>emptyMap());
+
+        AtlasTypeDefStoreInitializer initializer = new AtlasTypeDefStoreInitializer(typeDefStore, typeRegistry, conf, bootstrapState);
+
+        initializer.init();
+
+        verify(typeDefStore, times(1)).createUpdateTypesDef(any(AtlasTypesDef.class), any(AtlasTypesDef.class));
+        verify(typeDefStore, times(1)).updateEntityDefByName(anyString(), any(AtlasEntityDef.class));
+
+        Map<String, BootstrapFile> files = getSavedFiles(bootstrapState, 1);
+
+        assertEquals(files.keySet().size(), 2);
+        assertEquals(files.get(MODEL_FILE).getTypeNames(), Collections.singletonList("test_entity"));
+        assertEquals(files.get(PATCH_FILE).getTypeNames(), Collections.singletonList("test_entity"));
+
+        // no change in files: neither types nor patches are loaded again
+        when(bootstrapState.getFiles()).thenReturn(files);
+
+        initializer.init();
+
+        verify(typeDefStore, times(1)).createUpdateTypesDef(any(AtlasTypesDef.class), any(AtlasTypesDef.class));
+        verify(typeDefStore, times(1)).updateEntityDefByName(anyString(), any(AtlasEntityDef.class));
+        assertEquals(getSavedFiles(bootstrapState, 2), files);
+
+        // changed model file is loaded again; with no type created/updated, unchanged patches are still skipped
+        writeFile(MODEL_FILE, new String(Files.readAllBytes(new File(atlasHomeDir, "models" + File.separator + MODEL_FILE).toPath()), StandardCharsets.UTF_8) + "\n");
+
+        initializer.init();
+
+        Map<String, BootstrapFile> updatedFiles = getSavedFiles(bootstrapState, 3);
+
+        verify(typeDefStore, times(1)).createUpdateTypesDef(any(AtlasTypesDef.class), any(AtlasTypesDef.class));
+        verify(typeDefStore, times(1)).updateEntityDefByName(anyString(), any(AtlasEntityDef.class));
+        assertNotEquals(updatedFiles.get(MODEL_FILE).getDigest(), files.get(MODEL_FILE).getDigest());
+        assertEquals(updatedFiles.get(PATCH_FILE).getDigest(), files.get(PATCH_FILE).getDigest());
+
+        // file whose types are not registered is loaded again, even when unchanged
+        AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.removeTypeByName("test_entity");
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        when(bootstrapState.getFiles()).thenReturn(updatedFiles);
+
+        initializer.init();
+
+        verify(typeDefStore, times(2)).createUpdateTypesDef(any(AtlasTypesDef.class), any(AtlasTypesDef.class));
+        verify(typeDefStore, times(2)).updateEntityDefByName(anyString(), any(AtlasEntityDef.class));
+        assertTrue(typeRegistry.isRegisteredType("test_entity"));
+    }
+
+    // type-def store that registers created types in the registry
+    private static AtlasTypeDefStore createTypeDefStore(final AtlasTypeRegistry typeRegistry) throws Exception {
+        AtlasTypeDefStore ret = mock(AtlasTypeDefStore.class);
+
+        doAnswer(invocation -> {
+            AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.addTypes((AtlasTypesDef) invocation.getArguments()[0]);
+
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+            return null;
+        }).when(ret).createUpdateTypesDef(any(AtlasTypesDef.class), any(AtlasTypesDef.class));
+
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, BootstrapFile> getSavedFiles(AtlasTypesBootstrapState bootstrapState, int saveCount) {
+        ArgumentCaptor<Map> files = ArgumentCaptor.forClass(Map.class);
+
+        verify(bootstrapState, times(saveCount)).save(files.capture(), any(AtlasTypeRegistry.class));
+
+        return files.getValue();
+    }
+
+    private void writeFile(String fileName, String content) throws Exception {
+        File file = new File(atlasHomeDir, "models" + File.separator + fileName);
+
+        file.getParentFile().mkdirs();
+
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
@@ -546,6 +547,49 @@ public abstract class AtlasRelationshipStoreV1Test {
         verifyRelationshipAttributeList(a2Entity, "manyB", ImmutableList.of(getAtlasObjectId(b1)));
     }
 
+    @Test
+    public void testRelationshipCrudUpdatesEndEntities() throws Exception {
+        AtlasEntity a1 = new AtlasEntity("A");
+        a1.setAttribute(NAME, "a1_hash_name");
+
+        AtlasEntity b1 = new AtlasEntity("B");
+        b1.setAttribute(NAME, "b1_hash_name");
+
+        AtlasEntitiesWithExtInfo entitiesWithExtInfo = new AtlasEntitiesWithExtInfo();
+        entitiesWithExtInfo.addEntity(a1);
+        entitiesWithExtInfo.addEntity(b1);
+
+        init();
+        entityStore.createOrUpdate(new AtlasEntityStream(entitiesWithExtInfo), false);
+
+        assertNotNull(getContentHash(a1.getGuid()));
+        assertNotNull(getContentHash(b1.getGuid()));
+
+        // create: unchanged resubmit of the ends must not be skipped due to the hash computed before the relationship
+        init();
+        AtlasRelationship relationship = relationshipStore.create(new AtlasRelationship("TypeA_to_TypeB_on_manyB", getAtlasObjectId(a1), getAtlasObjectId(b1)));
+
+        verifyEndEntitiesUpdated(a1, b1);
+
+        init();
+        entityStore.createOrUpdate(new AtlasEntityStream(entitiesWithExtInfo), false);
+
+        // update
+        init();
+        relationshipStore.update(relationship);
+
+        verifyEndEntitiesUpdated(a1, b1);
+
+        init();
+        entityStore.createOrUpdate(new AtlasEntityStream(entitiesWithExtInfo), false);
+
+        // delete
+        init();
+        relationshipStore.deleteById(relationship.getGuid());
+
+        verifyEndEntitiesUpdated(a1, b1);
+    }
+
     protected abstract void verifyRelationshipAttributeUpdate_NonComposite_OneToOne(AtlasEntity a1, AtlasEntity b);
 
     protected abstract void verifyRelationshipAttributeUpdate_NonComposite_OneToMany(AtlasEntity entity) throws Exception;
@@ -556,6 +600,23 @@ public abstract class AtlasRelationshipStoreV1Test {
 
     protected abstract void verifyRelationshipAttributeUpdate_OneToOne_Sibling(AtlasEntity e1, AtlasEntity e2, AtlasEntity e3) throws Exception;
 
+    private static void verifyEndEntitiesUpdated(AtlasEntity end1, AtlasEntity end2) {
+        List<String> updatedGuids = new ArrayList<>();
+
+        for (AtlasObjectId objectId : RequestContextV1.get().getUpdatedEntities()) {
+            updatedGuids.add(objectId.getGuid());
+        }
+
+        assertTrue(updatedGuids.contains(end1.getGuid()));
+        assertTrue(updatedGuids.contains(end2.getGuid()));
+        assertNull(getContentHash(end1.getGuid()));
+        assertNull(getContentHash(end2.getGuid()));
+    }
+
+    private static String getContentHash(String guid) {
+        return EntityContentHash.getHash(AtlasGraphUtilsV1.findByGuid(guid));
+    }
+
     protected static void assertObjectIdsContains(List<AtlasObjectId> objectIds, AtlasObjectId objectId) {
         assertTrue(CollectionUtils.isNotEmpty(objectIds));
         assertTrue(objectIds.contains(objectId));
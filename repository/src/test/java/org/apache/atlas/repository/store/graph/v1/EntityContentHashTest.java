@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+public class EntityContentHashTest {
+    private static final String DB_GUID = "5e5b4d1c-3f2a-4a4e-9d8b-0b1f2c3d4e5f";
+
+    @Test
+    public void hashIsIndependentOfMapAndSetOrder() throws Exception {
+        Map<String, String> params1 = new LinkedHashMap<>();
+        Map<String, String> params2 = new LinkedHashMap<>();
+
+        params1.put("k1", "v1");
+        params1.put("k2", "v2");
+        params2.put("k2", "v2");
+        params2.put("k1", "v1");
+
+        AtlasEntity entity1 = createTable("tbl1", params1);
+        AtlasEntity entity2 = createTable("tbl1", params2);
+
+        entity1.setAttribute("tags", new LinkedHashSet<>(Arrays.asList("a", "b")));
+        entity2.setAttribute("tags", new LinkedHashSet<>(Arrays.asList("b", "a")));
+
+        assertEquals(EntityContentHash.compute(entity1, null), EntityContentHash.compute(entity2, null));
+    }
+
+    @Test
+    public void hashChangesWithAttributeValue() throws Exception {
+        AtlasEntity entity1 = createTable("tbl1", null);
+        AtlasEntity entity2 = createTable("tbl2", null);
+
+        assertNotEquals(EntityContentHash.compute(entity1, null), EntityContentHash.compute(entity2, null));
+
+        entity2.setAttribute("name", "tbl1");
+        entity2.setAttribute("qualifiedName", "db1.tbl1@cl1");
+
+        assertEquals(EntityContentHash.compute(entity1, null), EntityContentHash.compute(entity2, null));
+
+        entity2.setAttribute("columns", Arrays.asList("c2", "c1")); // order of list elements is significant
+        entity1.setAttribute("columns", Arrays.asList("c1", "c2"));
+
+        assertNotEquals(EntityContentHash.compute(entity1, null), EntityContentHash.compute(entity2, null));
+    }
+
+    @Test
+    public void referencesAreReplacedByResolvedGuid() throws Exception {
+        AtlasVertex dbVertex = mock(AtlasVertex.class);
+
+        when(dbVertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(DB_GUID);
+
+        EntityMutationContext context = mock(EntityMutationContext.class);
+
+        when(context.getVertex("-100")).thenReturn(dbVertex);
+
+        AtlasEntity entity1 = createTable("tbl1", null);
+        AtlasEntity entity2 = createTable("tbl1", null);
+        AtlasEntity entity3 = createTable("tbl1", null);
+
+        entity1.setAttribute("db", new AtlasObjectId("-100", "hive_db"));
+        entity2.setAttribute("db", new AtlasObjectId(DB_GUID, "hive_db"));
+        entity3.setAttribute("db", new AtlasObjectId("-200", "hive_db"));
+
+        assertEquals(EntityContentHash.compute(entity1, context), EntityContentHash.compute(entity2, context));
+        assertNotEquals(EntityContentHash.compute(entity1, context), EntityContentHash.compute(entity3, context));
+    }
+
+    private AtlasEntity createTable(String name, Map<String, String> parameters) {
+        AtlasEntity ret = new AtlasEntity("hive_table");
+
+        ret.setAttribute("name", name);
+        ret.setAttribute("qualifiedName", "db1." + name + "@cl1");
+        ret.setAttribute("parameters", parameters != null ? parameters : new HashMap<String, String>());
+
+        return ret;
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class EntityRetrieverCacheTest {
+    private static final String GUID = "0c5a4ac6-4d4c-4b0e-9f5f-1b3e5e1c2d3f";
+
+    @AfterMethod
+    public void clearRequestContext() {
+        RequestContextV1.clear();
+    }
+
+    @Test
+    public void headerIsCachedForRequest() {
+        EntityRetrieverCache cache  = new EntityRetrieverCache(10, 0, 0);
+        AtlasVertex          vertex = createVertex(GUID, 1L, 100L);
+
+        assertNull(cache.getEntityHeader(vertex, null));
+
+        cache.putEntityHeader(vertex, null, createHeader(GUID));
+
+        AtlasEntityHeader header = cache.getEntityHeader(vertex, Collections.<String>emptySet());
+
+        assertNotNull(header);
+        assertEquals(header.getAttribute("qualifiedName"), "db1@cl1");
+
+        // callers get a copy, and can update it without affecting the cache
+        header.setAttribute("qualifiedName", "db2@cl1");
+
+        assertEquals(cache.getEntityHeader(vertex, null).getAttribute("qualifiedName"), "db1@cl1");
+        assertNotSame(cache.getEntityHeader(vertex, null), cache.getEntityHeader(vertex, null));
+
+        // headers with additional attributes are cached separately
+        assertNull(cache.getEntityHeader(vertex, Collections.singleton("owner")));
+
+        RequestContextV1.clear();
+
+        assertNull(cache.getEntityHeader(vertex, null));
+
+        Map<String, Long> metrics = cache.getMetrics();
+
+        assertEquals(metrics.get(EntityRetrieverCache.METRIC_REQUEST_CACHE_HITS).longValue(), 4);
+        assertEquals(metrics.get(EntityRetrieverCache.METRIC_REQUEST_CACHE_MISSES).longValue(), 3);
+    }
+
+    @Test
+    public void entityWithExtInfoIsCopied() {
+        EntityRetrieverCache   cache  = new EntityRetrieverCache(10, 0, 0);
+        AtlasVertex            vertex = createVertex(GUID, 1L, 100L);
+        AtlasEntity            table  = new AtlasEntity("hive_table", "qualifiedName", "db1.tbl1@cl1");
+        AtlasEntity            column = new AtlasEntity("hive_column", "qualifiedName", "db1.tbl1.col1@cl1");
+        AtlasEntityWithExtInfo entity = new AtlasEntityWithExtInfo(table);
+
+        table.setGuid(GUID);
+        table.setAttribute("columns", new ArrayList<>(Collections.singletonList(new AtlasObjectId(column.getGuid(), "hive_column"))));
+        table.setRelationshipAttribute("db", new AtlasRelatedObjectId("db-guid", "hive_db", "rel-guid", null));
+        table.setClassifications(new ArrayList<>(Collections.singletonList(new AtlasClassification("PII"))));
+        entity.addReferredEntity(column);
+
+        cache.putEntityWithExtInfo(vertex, entity);
+
+        // updates to the instance added to the cache, or returned by the cache, must not affect later reads
+        table.setAttribute("qualifiedName", "db1.tbl2@cl1");
+
+        AtlasEntityWithExtInfo cached = cache.getEntityWithExtInfo(vertex);
+
+        assertEquals(cached.getEntity().getAttribute("qualifiedName"), "db1.tbl1@cl1");
+
+        ((List<AtlasObjectId>) cached.getEntity().getAttribute("columns")).clear();
+        ((AtlasObjectId) cached.getEntity().getRelationshipAttribute("db")).setGuid("other-guid");
+        cached.getEntity().getClassifications().get(0).setAttribute("level", "high");
+        cached.getReferredEntity(column.getGuid()).setAttribute("qualifiedName", "db1.tbl1.col2@cl1");
+        cached.getEntity().setGuid(null);
+
+        AtlasEntityWithExtInfo cachedAgain = cache.getEntityWithExtInfo(vertex);
+
+        assertNotSame(cachedAgain, cached);
+        assertEquals(cachedAgain.getEntity().getGuid(), GUID);
+        assertEquals(((List<AtlasObjectId>) cachedAgain.getEntity().getAttribute("columns")).size(), 1);
+        assertEquals(((AtlasObjectId) cachedAgain.getEntity().getRelationshipAttribute("db")).getGuid(), "db-guid");
+        assertTrue(cachedAgain.getEntity().getRelationshipAttribute("db") instanceof AtlasRelatedObjectId);
+        assertNull(cachedAgain.getEntity().getClassifications().get(0).getAttribute("level"));
+        assertEquals(cachedAgain.getReferredEntity(column.getGuid()).getAttribute("qualifiedName"), "db1.tbl1.col1@cl1");
+    }
+
+    @Test
+    public void staleEntryIsNotReturned() {
+        EntityRetrieverCache cache  = new EntityRetrieverCache(10, 10, 60000);
+        AtlasVertex          vertex = createVertex(GUID, 1L, 100L);
+
+        cache.putEntityHeader(vertex, null, createHeader(GUID));
+
+        assertNotNull(cache.getEntityHeader(vertex, null));
+
+        when(vertex.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class)).thenReturn(200L);
+
+        assertNull(cache.getEntityHeader(vertex, null));
+    }
+
+    @Test
+    public void sharedEntryIsUsedAcrossRequestsUntilInvalidated() {
+        EntityRetrieverCache cache  = new EntityRetrieverCache(10, 10, 60000);
+        AtlasVertex          vertex = createVertex(GUID, 1L, 100L);
+
+        cache.putEntityHeader(vertex, null, createHeader(GUID));
+
+        RequestContextV1.clear();
+
+        assertNotNull(cache.getEntityHeader(vertex, null));
+
+        cache.invalidate(GUID);
+
+        assertNull(cache.getEntityHeader(vertex, null));
+
+        Map<String, Long> metrics = cache.getMetrics();
+
+        assertEquals(metrics.get(EntityRetrieverCache.METRIC_SHARED_CACHE_HITS).longValue(), 1);
+        assertEquals(metrics.get(EntityRetrieverCache.METRIC_SHARED_CACHE_MISSES).longValue(), 1);
+        assertEquals(metrics.get(EntityRetrieverCache.METRIC_SHARED_CACHE_SIZE).longValue(), 0);
+        assertEquals(metrics.get(EntityRetrieverCache.METRIC_INVALIDATIONS).longValue(), 1);
+    }
+
+    private AtlasVertex createVertex(String guid, Long version, Long modificationTimestamp) {
+        AtlasVertex vertex = mock(AtlasVertex.class);
+
+        when(vertex.getId()).thenReturn(guid); // used in debug logs
+        when(vertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(guid);
+        when(vertex.getProperty(Constants.VERSION_PROPERTY_KEY, Long.class)).thenReturn(version);
+        when(vertex.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class)).thenReturn(modificationTimestamp);
+
+        return vertex;
+    }
+
+    private AtlasEntityHeader createHeader(String guid) {
+        Map<String, Object> attributes = new HashMap<>();
+
+        attributes.put("qualifiedName", "db1@cl1");
+
+        return new AtlasEntityHeader("hive_db", guid, attributes);
+    }
+}
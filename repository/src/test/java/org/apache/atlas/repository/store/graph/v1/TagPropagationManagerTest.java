@@ -0,0 +1,386 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasPropagationTask;
+import org.apache.atlas.model.instance.AtlasPropagationTask.Status;
+import org.apache.atlas.model.instance.AtlasPropagationTask.TaskType;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasEnumDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
+import org.apache.atlas.model.typedef.AtlasStructDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.model.typedef.AtlasRelationshipDef.PropagateTags.ONE_TO_TWO;
+import static org.apache.atlas.model.typedef.AtlasRelationshipDef.RelationshipCategory.ASSOCIATION;
+import static org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality.SET;
+import static org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality.SINGLE;
+import static org.apache.atlas.repository.Constants.PROPAGATED_TRAIT_NAMES_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_GUID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_PROPAGATED_GUIDS_LABEL;
+import static org.apache.atlas.type.AtlasTypeUtil.createClassTypeDef;
+import static org.apache.atlas.type.AtlasTypeUtil.createTraitTypeDef;
+import static org.apache.atlas.type.AtlasTypeUtil.createUniqueRequiredAttrDef;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.HardDeleteModule.class)
+public class TagPropagationManagerTest {
+    private static final String DATASET_TYPE      = "tp_dataset";
+    private static final String LINEAGE_TYPE      = "tp_dataset_lineage";
+    private static final String TAG_TYPE          = "tp_tag";
+    private static final long   TASK_WAIT_TIME_MS = 60 * 1000;
+
+    @Inject
+    AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    AtlasGraph graph;
+
+    @Inject
+    DeleteHandlerV1 deleteHandler;
+
+    @Inject
+    EntityGraphMapper graphMapper;
+
+    @Inject
+    AtlasInstanceConverter instanceConverter;
+
+    @Inject
+    TagPropagationManager tagPropagationManager;
+
+    @Inject
+    TransactionRunner transactionRunner;
+
+    AtlasEntityChangeNotifier mockChangeNotifier = mock(AtlasEntityChangeNotifier.class);
+    AtlasEntityStore          entityStore;
+    AtlasRelationshipStore    relationshipStore;
+    TagPropagationManager     asyncPropagationManager;
+    AtlasEntityStore          asyncEntityStore;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        new GraphBackedSearchIndexer(typeRegistry);
+
+        typeDefStore.createTypesDef(getTypesDef());
+
+        entityStore       = new AtlasEntityStoreV1(deleteHandler, typeRegistry, mockChangeNotifier, graphMapper);
+        relationshipStore = new AtlasRelationshipStoreV1(typeRegistry, deleteHandler);
+
+        // batch-size of 1, to have propagations added/removed over multiple batches
+        Configuration conf = new BaseConfiguration();
+
+        conf.setProperty(TagPropagationManager.PROPAGATION_ASYNC_ENABLED, true);
+        conf.setProperty(TagPropagationManager.PROPAGATION_BATCH_SIZE, 1);
+
+        asyncPropagationManager = new TagPropagationManager(graph, typeRegistry, mockChangeNotifier, instanceConverter, conf);
+
+        DeleteHandlerV1   asyncDeleteHandler = new HardDeleteHandlerV1(typeRegistry, asyncPropagationManager);
+        EntityGraphMapper asyncGraphMapper   = new EntityGraphMapper(asyncDeleteHandler, typeRegistry, graph, new AtlasRelationshipStoreV1(typeRegistry, asyncDeleteHandler),
+                                                                     mockChangeNotifier, instanceConverter, asyncPropagationManager);
+
+        asyncEntityStore = new AtlasEntityStoreV1(asyncDeleteHandler, typeRegistry, mockChangeNotifier, asyncGraphMapper);
+    }
+
+    @BeforeMethod
+    public void init() {
+        RequestContextV1.clear();
+        RequestContextV1.get().setUser(TestUtilsV2.TEST_USER, null);
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        asyncPropagationManager.stop();
+
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testSyncPropagation() throws Exception {
+        final List<String> guids = createLineage("sync", 3);
+
+        assertFalse(tagPropagationManager.isAsyncEnabled());
+
+        transactionRunner.run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                entityStore.addClassifications(guids.get(0), Collections.singletonList(new AtlasClassification(TAG_TYPE)));
+
+                return null;
+            }
+        });
+
+        // propagated in the same transaction, without a task
+        assertPropagated(guids.subList(1, guids.size()), true);
+        assertTrue(tagPropagationManager.getPropagationTasks(guids.get(0), TAG_TYPE).isEmpty());
+
+        transactionRunner.run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                entityStore.deleteClassifications(guids.get(0), Collections.singletonList(TAG_TYPE));
+
+                return null;
+            }
+        });
+
+        assertPropagated(guids.subList(1, guids.size()), false);
+        assertTrue(tagPropagationManager.getPropagationTasks(guids.get(0), TAG_TYPE).isEmpty());
+    }
+
+    @Test
+    public void testAsyncPropagation() throws Exception {
+        final List<String> guids              = createLineage("async", 3);
+        final List<Long>   modificationTimes = getModificationTimestamps(guids.subList(1, guids.size()));
+
+        transactionRunner.run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                asyncEntityStore.addClassifications(guids.get(0), Collections.singletonList(new AtlasClassification(TAG_TYPE)));
+
+                return null;
+            }
+        });
+
+        AtlasPropagationTask addTask = waitForTask(guids.get(0), 0);
+
+        assertEquals(addTask.getType(), TaskType.ADD);
+        assertEquals(addTask.getStatus(), Status.COMPLETE);
+        assertEquals(addTask.getTotalCount(), 2);
+        assertEquals(addTask.getProcessedCount(), 2);
+        assertPropagated(guids.subList(1, guids.size()), true);
+
+        // entities with propagated classification are marked as modified, so that cached entries are no longer used
+        List<Long> propagatedModificationTimes = getModificationTimestamps(guids.subList(1, guids.size()));
+
+        for (int i = 0; i < modificationTimes.size(); i++) {
+            assertTrue(propagatedModificationTimes.get(i) > modificationTimes.get(i));
+        }
+
+        // classification vertex is removed along with its edges; the task removes propagations from entities recorded in it
+        transactionRunner.run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                asyncEntityStore.deleteClassifications(guids.get(0), Collections.singletonList(TAG_TYPE));
+
+                return null;
+            }
+        });
+
+        AtlasPropagationTask deleteTask = waitForTask(guids.get(0), 1);
+
+        assertEquals(deleteTask.getType(), TaskType.DELETE);
+        assertEquals(deleteTask.getStatus(), Status.COMPLETE);
+        assertEquals(deleteTask.getTotalCount(), 2);
+        assertEquals(deleteTask.getProcessedCount(), 2);
+        assertEquals(getPropagatedGuidsChunkCount(deleteTask.getGuid()), 0);
+        assertPropagated(guids.subList(1, guids.size()), false);
+
+        // tasks are retained until the retention period
+        assertEquals(asyncPropagationManager.purgeTasks(System.currentTimeMillis() - 60 * 1000), 0);
+        assertEquals(getPropagationTasks(guids.get(0)).size(), 2);
+
+        assertEquals(asyncPropagationManager.purgeTasks(System.currentTimeMillis() + 1), 2);
+        assertTrue(getPropagationTasks(guids.get(0)).isEmpty());
+    }
+
+    private List<String> createLineage(String namePrefix, int count) throws Exception {
+        final AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+        for (int i = 0; i < count; i++) {
+            entities.addEntity(new AtlasEntity(DATASET_TYPE, "name", namePrefix + "_" + i));
+        }
+
+        EntityMutationResponse response = transactionRunner.run(new Callable<EntityMutationResponse>() {
+            @Override
+            public EntityMutationResponse call() throws Exception {
+                return entityStore.createOrUpdate(new AtlasEntityStream(entities), false);
+            }
+        });
+
+        final List<String> ret = new ArrayList<>();
+
+        for (AtlasEntity entity : entities.getEntities()) {
+            ret.add(response.getGuidAssignments().get(entity.getGuid()));
+        }
+
+        // ret[0] -> ret[1] -> ... : classifications propagate from each entity to the ones after it
+        transactionRunner.run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (int i = 1; i < ret.size(); i++) {
+                    relationshipStore.create(new AtlasRelationship(LINEAGE_TYPE, new AtlasObjectId(ret.get(i - 1), DATASET_TYPE), new AtlasObjectId(ret.get(i), DATASET_TYPE)));
+                }
+
+                return null;
+            }
+        });
+
+        return ret;
+    }
+
+    private AtlasPropagationTask waitForTask(String entityGuid, int taskIdx) throws Exception {
+        long waitUntil = System.currentTimeMillis() + TASK_WAIT_TIME_MS;
+
+        while (true) {
+            List<AtlasPropagationTask> tasks = getPropagationTasks(entityGuid);
+
+            if (tasks.size() > taskIdx) {
+                AtlasPropagationTask task = tasks.get(taskIdx);
+
+                if (task.getStatus() == Status.COMPLETE || task.getStatus() == Status.FAILED) {
+                    return task;
+                }
+            }
+
+            if (System.currentTimeMillis() > waitUntil) {
+                throw new AssertionError("propagation task #" + taskIdx + " of entity " + entityGuid + " did not complete in " + TASK_WAIT_TIME_MS + "ms");
+            }
+
+            Thread.sleep(100);
+        }
+    }
+
+    private List<AtlasPropagationTask> getPropagationTasks(final String entityGuid) throws Exception {
+        // run in a new transaction, to see updates committed by the task worker
+        return transactionRunner.run(new Callable<List<AtlasPropagationTask>>() {
+            @Override
+            public List<AtlasPropagationTask> call() throws Exception {
+                return asyncPropagationManager.getPropagationTasks(entityGuid, TAG_TYPE);
+            }
+        });
+    }
+
+    private void assertPropagated(final List<String> guids, final boolean expected) throws Exception {
+        transactionRunner.run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (String guid : guids) {
+                    AtlasVertex        vertex          = AtlasGraphUtilsV1.findByGuid(guid);
+                    List<String>       propagatedEdges = GraphHelper.getTraitNames(vertex, true);
+                    Collection<String> propagatedNames = vertex.getPropertyValues(PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, String.class);
+
+                    assertEquals(propagatedEdges.contains(TAG_TYPE), expected, guid);
+                    assertEquals(propagatedNames != null && propagatedNames.contains(TAG_TYPE), expected, guid);
+                }
+
+                return null;
+            }
+        });
+    }
+
+    private List<Long> getModificationTimestamps(final List<String> guids) throws Exception {
+        return transactionRunner.run(new Callable<List<Long>>() {
+            @Override
+            public List<Long> call() throws Exception {
+                List<Long> ret = new ArrayList<>();
+
+                for (String guid : guids) {
+                    ret.add(GraphHelper.getModifiedTime(AtlasGraphUtilsV1.findByGuid(guid)));
+                }
+
+                return ret;
+            }
+        });
+    }
+
+    private int getPropagatedGuidsChunkCount(final String taskGuid) throws Exception {
+        return transactionRunner.run(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                AtlasVertex taskVertex = (AtlasVertex) graph.query().has(TASK_GUID_PROPERTY_KEY, taskGuid).vertices().iterator().next();
+                int         ret        = 0;
+
+                for (Object ignored : taskVertex.getEdges(AtlasEdgeDirection.OUT, TASK_PROPAGATED_GUIDS_LABEL)) {
+                    ret++;
+                }
+
+                return ret;
+            }
+        });
+    }
+
+    private static AtlasTypesDef getTypesDef() throws AtlasBaseException {
+        AtlasEntityDef         datasetType = createClassTypeDef(DATASET_TYPE, Collections.<String>emptySet(), createUniqueRequiredAttrDef("name", "string"));
+        AtlasClassificationDef tagType     = createTraitTypeDef(TAG_TYPE, Collections.<String>emptySet());
+        AtlasRelationshipDef   lineageType = new AtlasRelationshipDef(LINEAGE_TYPE, LINEAGE_TYPE, "1.0", ASSOCIATION, ONE_TO_TWO,
+                                                                      new AtlasRelationshipEndDef(DATASET_TYPE, "downstream", SET),
+                                                                      new AtlasRelationshipEndDef(DATASET_TYPE, "upstream", SINGLE));
+
+        return new AtlasTypesDef(Collections.<AtlasEnumDef>emptyList(), Collections.<AtlasStructDef>emptyList(), Collections.singletonList(tagType),
+                                 Collections.singletonList(datasetType), Collections.singletonList(lineageType));
+    }
+
+    /**
+     * Runs the given callable in a graph transaction; instances are created by Guice, which adds the transaction interceptor.
+     */
+    public static class TransactionRunner {
+        @GraphTransaction
+        public <T> T run(Callable<T> callable) throws Exception {
+            return callable.call();
+        }
+    }
+}
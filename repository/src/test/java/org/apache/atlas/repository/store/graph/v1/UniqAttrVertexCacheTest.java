@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class UniqAttrVertexCacheTest {
+    private static final String VERTEX_ID      = "4096";
+    private static final String QNAME          = "db1.tbl1@cl1";
+    private static final String QNAME_PROPERTY = "Referenceable.qualifiedName";
+
+    private AtlasGraph      graph;
+    private AtlasEntityType tableType;
+    private AtlasAttribute  qNameAttribute;
+    private AtlasVertex     vertex;
+
+    @BeforeMethod
+    public void setup() {
+        qNameAttribute = mock(AtlasAttribute.class);
+
+        when(qNameAttribute.getName()).thenReturn("qualifiedName");
+        when(qNameAttribute.getVertexPropertyName()).thenReturn(QNAME_PROPERTY);
+
+        tableType = mock(AtlasEntityType.class);
+
+        when(tableType.getTypeName()).thenReturn("hive_table");
+        when(tableType.getTypeAndAllSubTypes()).thenReturn(Collections.singleton("hive_table"));
+        when(tableType.getAllSuperTypes()).thenReturn(new HashSet<>(Collections.singleton("DataSet")));
+        when(tableType.getUniqAttributes()).thenReturn(Collections.singletonMap("qualifiedName", qNameAttribute));
+
+        vertex = mock(AtlasVertex.class);
+
+        when(vertex.getId()).thenReturn(VERTEX_ID);
+        when(vertex.exists()).thenReturn(true);
+        when(vertex.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn("ACTIVE");
+        when(vertex.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, String.class)).thenReturn("hive_table");
+        when(vertex.getProperty(QNAME_PROPERTY, Object.class)).thenReturn(QNAME);
+
+        graph = mock(AtlasGraph.class);
+
+        when(graph.getVertex(VERTEX_ID)).thenReturn(vertex);
+    }
+
+    @Test
+    public void cachedVertexIsReturned() {
+        UniqAttrVertexCache cache = new UniqAttrVertexCache(graph, 10);
+
+        assertNull(cache.getVertex(tableType, qNameAttribute, QNAME));
+
+        cache.put(tableType, qNameAttribute, QNAME, vertex);
+
+        assertSame(cache.getVertex(tableType, qNameAttribute, QNAME), vertex);
+
+        Map<String, Long> metrics = cache.getMetrics();
+
+        assertEquals(metrics.get(UniqAttrVertexCache.METRIC_HITS).longValue(), 1);
+        assertEquals(metrics.get(UniqAttrVertexCache.METRIC_MISSES).longValue(), 1);
+        assertEquals(metrics.get(UniqAttrVertexCache.METRIC_SIZE).longValue(), 1);
+    }
+
+    @Test
+    public void vertexOfDeletedEntityIsNotReturned() {
+        UniqAttrVertexCache cache = new UniqAttrVertexCache(graph, 10);
+
+        cache.put(tableType, qNameAttribute, QNAME, vertex);
+
+        when(vertex.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn("DELETED");
+
+        assertNull(cache.getVertex(tableType, qNameAttribute, QNAME));
+        assertEquals(cache.getMetrics().get(UniqAttrVertexCache.METRIC_STALE_ENTRIES).longValue(), 1);
+        assertEquals(cache.getMetrics().get(UniqAttrVertexCache.METRIC_SIZE).longValue(), 0);
+    }
+
+    @Test
+    public void entryIsInvalidatedOnlyWhenUniqueAttributeChanges() {
+        UniqAttrVertexCache cache = new UniqAttrVertexCache(graph, 10);
+
+        cache.put(tableType, qNameAttribute, QNAME, vertex);
+
+        cache.invalidate(tableType, vertex, Collections.<String, Object>singletonMap("qualifiedName", QNAME));
+        cache.invalidate(tableType, vertex, Collections.<String, Object>singletonMap("owner", "user1"));
+
+        assertSame(cache.getVertex(tableType, qNameAttribute, QNAME), vertex);
+
+        cache.invalidate(tableType, vertex, Collections.<String, Object>singletonMap("qualifiedName", "db1.tbl2@cl1"));
+
+        assertEquals(cache.getMetrics().get(UniqAttrVertexCache.METRIC_SIZE).longValue(), 0);
+    }
+}
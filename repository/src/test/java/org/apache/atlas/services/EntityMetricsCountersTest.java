@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.apache.atlas.services.MetricsService.ENTITY;
+import static org.apache.atlas.services.MetricsService.GENERAL;
+import static org.apache.atlas.services.MetricsService.TAG;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class EntityMetricsCountersTest {
+    @Test
+    public void countsAreSetFromScanAndAdjustedOnNotifications() {
+        EntityMetricsCounters counters = new EntityMetricsCounters(createTypeRegistry(), true);
+
+        assertFalse(counters.isInitialized());
+
+        counters.reset(createScanMetrics());
+
+        assertTrue(counters.isInitialized());
+        assertMetric(counters, GENERAL, "entityCount", 5);
+        assertMetric(counters, GENERAL, "typeUnusedCount", 2); // computed from type registry: hive_column, hive_process
+        assertMetric(counters, ENTITY, "hive_table", 3);
+        assertMetric(counters, ENTITY, "entityTagged", 1);
+        assertMetric(counters, TAG, "PII", 1);
+
+        AtlasEntity table = createEntity("hive_table", "t1", new AtlasClassification("PII"), new AtlasClassification("PII"));
+
+        counters.onEntitiesAdded(Arrays.asList(table, createEntity("hive_db", "d1")), false);
+
+        assertMetric(counters, GENERAL, "entityCount", 7);
+        assertMetric(counters, ENTITY, "hive_table", 4);
+        assertMetric(counters, ENTITY, "hive_db", 3);
+        assertMetric(counters, ENTITY, "entityTagged", 2);
+        assertMetric(counters, TAG, "PII", 3);
+
+        // propagated classification isn't a new classification instance
+        AtlasClassification propagated = new AtlasClassification("PII");
+
+        propagated.setEntityGuid("t1");
+
+        counters.onClassificationsAdded(createEntity("hive_column", "c1", propagated), Collections.singletonList(propagated));
+
+        assertMetric(counters, TAG, "PII", 3);
+        assertMetric(counters, ENTITY, "entityTagged", 2);
+        assertMetric(counters, GENERAL, "typeUnusedCount", 2);
+
+        counters.onEntitiesAdded(Collections.singletonList(createEntity("hive_column", "c2")), false);
+
+        assertMetric(counters, GENERAL, "typeUnusedCount", 1);
+
+        AtlasEntity db = createEntity("hive_db", "d1", new AtlasClassification("FINANCE"));
+
+        counters.onClassificationsAdded(db, db.getClassifications());
+
+        assertMetric(counters, TAG, "FINANCE", 1);
+        assertMetric(counters, ENTITY, "entityTagged", 3);
+
+        // soft-delete: entity is still counted, as deleted
+        counters.onEntitiesDeleted(Collections.singletonList(table), false);
+
+        assertMetric(counters, GENERAL, "entityCount", 7);
+        assertMetric(counters, GENERAL, "entityDeleted", 1);
+        assertMetric(counters, ENTITY, "hive_table", 4);
+        assertMetric(counters, TAG, "PII", 3);
+
+        assertFalse(counters.isReconcileNeeded());
+
+        counters.onClassificationsDeleted(db, Collections.singletonList("FINANCE"));
+
+        assertTrue(counters.isReconcileNeeded());
+
+        counters.reset(createScanMetrics());
+
+        assertFalse(counters.isReconcileNeeded());
+        assertMetric(counters, GENERAL, "entityCount", 5);
+        assertNull(counters.getMetrics().getMetric(TAG, "FINANCE"));
+    }
+
+    @Test
+    public void hardDeleteRemovesEntityAndClassifications() {
+        EntityMetricsCounters counters = new EntityMetricsCounters(createTypeRegistry(), false);
+
+        counters.reset(createScanMetrics());
+
+        long version = counters.getVersion();
+
+        AtlasEntity table = createEntity("hive_table", "t1", new AtlasClassification("PII"));
+
+        counters.onEntitiesDeleted(Collections.singletonList(table), false);
+
+        assertTrue(counters.getVersion() != version);
+        assertMetric(counters, GENERAL, "entityCount", 4);
+        assertMetric(counters, GENERAL, "typeUnusedCount", 2);
+
+        counters.onEntitiesDeleted(Arrays.asList(createEntity("hive_db", "d1"), createEntity("hive_db", "d2")), false);
+
+        assertMetric(counters, GENERAL, "typeUnusedCount", 3);
+        assertMetric(counters, GENERAL, "entityCount", 2);
+        assertMetric(counters, GENERAL, "entityDeleted", 0);
+        assertMetric(counters, ENTITY, "hive_table", 2);
+        assertMetric(counters, ENTITY, "entityTagged", 0);
+        assertNull(counters.getMetrics().getMetric(TAG, "PII"));
+    }
+
+    private static void assertMetric(EntityMetricsCounters counters, String group, String name, long expected) {
+        assertEquals(counters.getMetrics().getMetric(group, name).longValue(), expected, group + "." + name);
+    }
+
+    private static AtlasMetrics createScanMetrics() {
+        AtlasMetrics ret = new AtlasMetrics();
+
+        ret.addData(GENERAL, "entityCount", 5);
+        ret.addData(GENERAL, "entityDeleted", 0);
+        ret.addData(GENERAL, "typeUnusedCount", 7);
+        ret.addData(GENERAL, "typeCount", 20);
+        ret.addData(ENTITY, "hive_table", 3);
+        ret.addData(ENTITY, "hive_db", 2);
+        ret.addData(ENTITY, "entityTagged", 1);
+        ret.addData(TAG, "PII", 1);
+
+        return ret;
+    }
+
+    private static AtlasEntity createEntity(String typeName, String guid, AtlasClassification... classifications) {
+        AtlasEntity ret = new AtlasEntity(typeName);
+
+        ret.setGuid(guid);
+        ret.setClassifications(Arrays.asList(classifications));
+
+        return ret;
+    }
+
+    private static AtlasTypeRegistry createTypeRegistry() {
+        AtlasTypeRegistry ret        = mock(AtlasTypeRegistry.class);
+        AtlasEntityType   entityType = mock(AtlasEntityType.class);
+
+        when(entityType.getAllSuperTypes()).thenReturn(new HashSet<>(Arrays.asList("Referenceable", "DataSet")));
+        when(ret.getEntityTypeByName("hive_table")).thenReturn(entityType);
+        when(ret.getEntityTypeByName("hive_db")).thenReturn(entityType);
+        when(ret.getAllEntityDefNames()).thenReturn(Arrays.asList("hive_table", "hive_db", "hive_column", "hive_process"));
+
+        return ret;
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.atlas.services;
 
 import org.apache.atlas.TestModules;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.metrics.AtlasMetrics;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.runner.LocalSolrRunner;
@@ -44,6 +45,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 
 @Guice(modules = TestModules.TestOnlyModule.class)
 public class MetricsServiceTest {
@@ -65,6 +67,7 @@ public class MetricsServiceTest {
             mockMapList.add(mockMap);
 
             when(mockConfig.getInt(anyString(), anyInt())).thenReturn(5);
+            when(mockConfig.getBoolean(anyString(), anyBoolean())).thenReturn(true);
             assertEquals(mockConfig.getInt("test", 1), 5);
             when(mockConfig.getString(anyString(), anyString()))
                     .thenReturn("count()", "count()", "count()", "count()", "count()", "toList()", "count()", "toList()");
@@ -140,4 +143,43 @@ public class MetricsServiceTest {
         metricsService.getMetrics(true);
         verify(mockGraph, atLeastOnce()).executeGremlinScript(anyString(), anyBoolean());
     }
+
+    @Test
+    public void testGetMetricsFromCounters() throws AtlasBaseException {
+        AtlasGraph            graph        = mock(AtlasGraph.class);
+        AtlasTypeRegistry     typeRegistry = mock(AtlasTypeRegistry.class);
+        EntityMetricsCounters counters     = new EntityMetricsCounters(typeRegistry, true);
+        MetricsService        service      = new MetricsService(mockConfig, graph, typeRegistry, null, counters);
+
+        when(typeRegistry.getAllEntityDefNames()).thenReturn(Arrays.asList("a", "b", "c", "d"));
+
+        when(graph.executeGremlinScript(anyString(), eq(false))).thenReturn(mockCount);
+
+        // counters are initialized by the first scan
+        service.getMetrics(false);
+
+        verify(graph, atLeastOnce()).executeGremlinScript(anyString(), anyBoolean());
+        assertTrue(counters.isInitialized());
+
+        reset(graph);
+
+        counters.onEntitiesDeleted(Arrays.asList(new AtlasEntity("a"), new AtlasEntity("b")), false);
+
+        AtlasMetrics metrics = service.getMetrics(false);
+
+        verifyZeroInteractions(graph);
+        assertEquals(metrics.getMetric("general", "entityCount").longValue(), 10L);
+        assertEquals(metrics.getMetric("general", "entityDeleted").longValue(), 12L);
+        assertEquals(metrics.getMetric("general", "typeCount").intValue(), 0);
+        assertEquals(metrics.getMetric("general", "typeUnusedCount").longValue(), 1L); // type "d" has no entities
+
+        // ignoreCache runs a full scan, which reconciles the counters
+        when(graph.executeGremlinScript(anyString(), eq(false))).thenReturn(mockCount);
+
+        metrics = service.getMetrics(true);
+
+        verify(graph, atLeastOnce()).executeGremlinScript(anyString(), anyBoolean());
+        assertEquals(metrics.getMetric("general", "entityDeleted").longValue(), 10L);
+        assertEquals(counters.getMetrics().getMetric("general", "entityDeleted").longValue(), 10L);
+    }
 }
@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 public class RequestContextV1 {
     private static final Logger LOG = LoggerFactory.getLogger(RequestContextV1.class);
@@ -33,6 +34,7 @@ public class RequestContextV1 {
     private final Map<String, AtlasObjectId>          updatedEntities = new HashMap<>();
     private final Map<String, AtlasObjectId>          deletedEntities = new HashMap<>();
     private final Map<String, AtlasEntityWithExtInfo> entityCacheV2   = new HashMap<>();
+    private final Map<String, Object>                 requestCaches   = new HashMap<>();
     private final long                                requestTime     = System.currentTimeMillis();
 
     private String      user;
@@ -61,6 +63,7 @@ public class RequestContextV1 {
             instance.updatedEntities.clear();
             instance.deletedEntities.clear();
             instance.entityCacheV2.clear();
+            instance.requestCaches.clear();
         }
 
         CURRENT_CONTEXT.remove();
@@ -101,6 +104,27 @@ public class RequestContextV1 {
         }
     }
 
+    /**
+     * Returns the cache registered under the given name for this request, creating it if necessary. The cache is
+     * discarded when the request context is cleared.
+     *
+     * @param name name of the cache
+     * @param creator creates the cache when it is not yet registered for this request
+     * @return the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getRequestCache(String name, Supplier<T> creator) {
+        Object ret = requestCaches.get(name);
+
+        if (ret == null) {
+            ret = creator.get();
+
+            requestCaches.put(name, ret);
+        }
+
+        return (T) ret;
+    }
+
     public Collection<AtlasObjectId> getUpdatedEntities() {
         return updatedEntities.values();
     }
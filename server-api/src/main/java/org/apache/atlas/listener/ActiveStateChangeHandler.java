@@ -31,7 +31,9 @@ public interface ActiveStateChangeHandler {
         GRAPH_BACKED_SEARCH_INDEXER(1),
         TYPEDEF_STORE_INITIALIZER(2),
         DEFAULT_METADATA_SERVICE(3),
-        NOTIFICATION_HOOK_CONSUMER(4);
+        NOTIFICATION_HOOK_CONSUMER(4),
+        TAG_PROPAGATION_MANAGER(5),
+        METRICS_SERVICE(6);
 
 
         private final int order;
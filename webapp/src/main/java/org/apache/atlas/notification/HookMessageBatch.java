@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.AtlasStruct;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Entities from a sequence of create/full-update hook notifications, merged to be applied in a single createOrUpdate()
+ * call. An entity that appears in more than one message (same type and unique attributes) is added once, with
+ * attributes of later messages overriding those of earlier ones - same as applying the messages one after another;
+ * references to its guid in later messages are updated to the guid used in the batch.
+ *
+ * A message is not added to the batch if it can't be merged safely: when sent by a different user, when its guids
+ * collide with those of different entities in the batch, or when an entity to be merged has classifications.
+ */
+class HookMessageBatch {
+    private final AtlasTypeRegistry                         typeRegistry;
+    private final List<AtlasKafkaMessage<HookNotification>> messages      = new ArrayList<>();
+    private final AtlasEntitiesWithExtInfo                  entities      = new AtlasEntitiesWithExtInfo();
+    private final Map<String, AtlasEntity>                  entitiesByKey = new HashMap<>();
+    private final Map<String, String>                       keysByGuid    = new HashMap<>();
+    private       String                                    user;
+
+    HookMessageBatch(AtlasTypeRegistry typeRegistry) {
+        this.typeRegistry = typeRegistry;
+    }
+
+    public List<AtlasKafkaMessage<HookNotification>> getMessages() {
+        return messages;
+    }
+
+    public AtlasEntitiesWithExtInfo getEntities() {
+        return entities;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    /**
+     * @return false if the message can't be merged with the messages already in the batch; the batch is not updated
+     */
+    public boolean add(AtlasKafkaMessage<HookNotification> kafkaMsg, AtlasEntitiesWithExtInfo msgEntities) {
+        String msgUser = kafkaMsg.getMessage().getUser();
+
+        if (!messages.isEmpty() && !StringUtils.equals(user, msgUser)) {
+            return false;
+        }
+
+        List<AtlasEntity>   msgEntityList = getAllEntities(msgEntities);
+        Map<String, String> guidAliases   = new HashMap<>();
+
+        for (AtlasEntity entity : msgEntityList) {
+            String key         = getKey(entity);
+            String existingKey = keysByGuid.get(entity.getGuid());
+
+            if (existingKey != null && !existingKey.equals(key)) {
+                return false;
+            }
+
+            AtlasEntity existing = entitiesByKey.get(key);
+
+            if (existing != null) {
+                if (CollectionUtils.isNotEmpty(existing.getClassifications()) || CollectionUtils.isNotEmpty(entity.getClassifications())) {
+                    return false;
+                }
+
+                if (!StringUtils.equals(existing.getGuid(), entity.getGuid())) {
+                    guidAliases.put(entity.getGuid(), existing.getGuid());
+                }
+            }
+        }
+
+        messages.add(kafkaMsg);
+
+        user = msgUser;
+
+        for (AtlasEntity entity : msgEntityList) {
+            String      key        = getKey(entity);
+            AtlasEntity existing   = entitiesByKey.get(key);
+            boolean     isReferred = msgEntities.getReferredEntity(entity.getGuid()) == entity;
+
+            if (existing == null) {
+                AtlasEntity copy = copyOf(entity, guidAliases);
+
+                if (isReferred) {
+                    entities.addReferredEntity(copy);
+                } else {
+                    entities.addEntity(copy);
+                }
+
+                entitiesByKey.put(key, copy);
+                keysByGuid.put(copy.getGuid(), key);
+            } else {
+                mergeInto(existing, entity, guidAliases);
+            }
+        }
+
+        return true;
+    }
+
+    private String getKey(AtlasEntity entity) {
+        AtlasEntityType     entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+        Map<String, Object> uniqAttrs  = new TreeMap<>();
+
+        if (entityType != null && MapUtils.isNotEmpty(entityType.getUniqAttributes()) && entity.getAttributes() != null) {
+            for (String attrName : entityType.getUniqAttributes().keySet()) {
+                Object attrValue = entity.getAttribute(attrName);
+
+                if (attrValue != null) {
+                    uniqAttrs.put(attrName, attrValue);
+                }
+            }
+        }
+
+        return uniqAttrs.isEmpty() ? entity.getTypeName() + ":guid=" + entity.getGuid() : entity.getTypeName() + ":" + uniqAttrs;
+    }
+
+    private static List<AtlasEntity> getAllEntities(AtlasEntitiesWithExtInfo entities) {
+        List<AtlasEntity> ret = new ArrayList<>();
+
+        if (entities.getEntities() != null) {
+            ret.addAll(entities.getEntities());
+        }
+
+        if (entities.getReferredEntities() != null) {
+            ret.addAll(entities.getReferredEntities().values());
+        }
+
+        return ret;
+    }
+
+    private static AtlasEntity copyOf(AtlasEntity entity, Map<String, String> guidAliases) {
+        AtlasEntity ret = new AtlasEntity(entity.getTypeName());
+
+        ret.setGuid(entity.getGuid());
+        ret.setStatus(entity.getStatus());
+        ret.setCreatedBy(entity.getCreatedBy());
+        ret.setUpdatedBy(entity.getUpdatedBy());
+        ret.setCreateTime(entity.getCreateTime());
+        ret.setUpdateTime(entity.getUpdateTime());
+        ret.setVersion(entity.getVersion());
+        ret.setClassifications(entity.getClassifications());
+        ret.setAttributes(copyAttributes(entity.getAttributes(), guidAliases));
+        ret.setRelationshipAttributes(copyAttributes(entity.getRelationshipAttributes(), guidAliases));
+
+        return ret;
+    }
+
+    private static void mergeInto(AtlasEntity target, AtlasEntity entity, Map<String, String> guidAliases) {
+        if (entity.getAttributes() != null) {
+            if (target.getAttributes() == null) {
+                target.setAttributes(new HashMap<String, Object>());
+            }
+
+            target.getAttributes().putAll(copyAttributes(entity.getAttributes(), guidAliases));
+        }
+
+        if (entity.getRelationshipAttributes() != null) {
+            if (target.getRelationshipAttributes() == null) {
+                target.setRelationshipAttributes(new HashMap<String, Object>());
+            }
+
+            target.getRelationshipAttributes().putAll(copyAttributes(entity.getRelationshipAttributes(), guidAliases));
+        }
+    }
+
+    private static Map<String, Object> copyAttributes(Map<String, Object> attributes, Map<String, String> guidAliases) {
+        if (attributes == null) {
+            return null;
+        }
+
+        Map<String, Object> ret = new HashMap<>(attributes.size());
+
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            ret.put(entry.getKey(), guidAliases.isEmpty() ? entry.getValue() : replaceGuids(entry.getValue(), guidAliases));
+        }
+
+        return ret;
+    }
+
+    // returns a copy of the given attribute value, with references to aliased guids replaced
+    private static Object replaceGuids(Object value, Map<String, String> guidAliases) {
+        final Object ret;
+
+        if (value instanceof AtlasObjectId) {
+            AtlasObjectId objId = (AtlasObjectId) value;
+            String        guid  = guidAliases.get(objId.getGuid());
+
+            if (guid != null) {
+                objId = new AtlasObjectId(objId);
+
+                objId.setGuid(guid);
+            }
+
+            ret = objId;
+        } else if (value instanceof AtlasStruct && !(value instanceof AtlasEntity)) {
+            AtlasStruct struct = new AtlasStruct(((AtlasStruct) value).getTypeName());
+
+            struct.setAttributes(copyAttributes(((AtlasStruct) value).getAttributes(), guidAliases));
+
+            ret = struct;
+        } else if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (AtlasObjectId.KEY_GUID.equals(entry.getKey()) && guidAliases.containsKey(entry.getValue())) {
+                    map.put(entry.getKey(), guidAliases.get(entry.getValue()));
+                } else {
+                    map.put(entry.getKey(), replaceGuids(entry.getValue(), guidAliases));
+                }
+            }
+
+            ret = map;
+        } else if (value instanceof Set) {
+            Set<Object> set = new LinkedHashSet<>();
+
+            for (Object element : (Collection<?>) value) {
+                set.add(replaceGuids(element, guidAliases));
+            }
+
+            ret = set;
+        } else if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+
+            for (Object element : (Collection<?>) value) {
+                list.add(replaceGuids(element, guidAliases));
+            }
+
+            ret = list;
+        } else {
+            ret = value;
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,413 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributes hook messages received by a consumer to a pool of worker threads. Messages are routed by the entity they
+ * refer to, hence messages for an entity are processed in the order they were received, while messages for unrelated
+ * entities are processed in parallel. A message that refers to entities routed to different workers - for example,
+ * a table created along with its columns - is processed only after all messages received earlier are completed, and
+ * before any message received later is queued; this keeps such messages ordered with respect to every entity in them.
+ *
+ * Since messages are completed out of order, the offset that can be committed for a partition is the lowest offset
+ * still being processed - or, when none is, the offset after the last message received. Offsets are to be committed
+ * by the thread that reads from the consumer.
+ */
+class HookMessageDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(HookMessageDispatcher.class);
+
+    private static final String QUALIFIED_NAME = "qualifiedName";
+    private static final String GUID           = "guid";
+
+    interface MessageHandler {
+        void handle(List<AtlasKafkaMessage<HookNotification>> messages) throws Exception;
+    }
+
+    private final MessageHandler                                           handler;
+    private final int                                                      maxMessagesPerCall;
+    private final List<BlockingQueue<AtlasKafkaMessage<HookNotification>>> queues;
+    private final ExecutorService                                          workers;
+    private final Map<Integer, PartitionOffsets>                           partitionOffsets = new HashMap<>();
+    private int                                                            inFlightCount    = 0;
+    private volatile boolean                                               isStopped        = false;
+
+    HookMessageDispatcher(String name, int numWorkers, int queueSize, int maxMessagesPerCall, MessageHandler handler) {
+        this.handler            = handler;
+        this.maxMessagesPerCall = Math.max(maxMessagesPerCall, 1);
+        this.queues             = new ArrayList<>(numWorkers);
+        this.workers            = Executors.newFixedThreadPool(numWorkers, new ThreadFactoryBuilder().setNameFormat(name + " worker-%d").setDaemon(true).build());
+
+        for (int i = 0; i < numWorkers; i++) {
+            BlockingQueue<AtlasKafkaMessage<HookNotification>> queue = new ArrayBlockingQueue<>(queueSize);
+
+            queues.add(queue);
+
+            workers.submit(new Worker(queue));
+        }
+    }
+
+    /**
+     * Queues the message to the worker for its entities; blocks while the worker's queue is full. A message whose
+     * entities are routed to more than one worker is processed in the calling thread, once all earlier messages are
+     * completed.
+     */
+    public void dispatch(AtlasKafkaMessage<HookNotification> kafkaMsg) throws InterruptedException {
+        Set<Integer> workerIdxs = new HashSet<>();
+
+        for (String routingKey : getRoutingKeys(kafkaMsg.getMessage())) {
+            workerIdxs.add((routingKey.hashCode() & Integer.MAX_VALUE) % queues.size());
+        }
+
+        boolean isOrderedAcrossWorkers = workerIdxs.size() > 1;
+
+        synchronized (partitionOffsets) {
+            if (isOrderedAcrossWorkers) {
+                while (inFlightCount > 0 && !isStopped) {
+                    partitionOffsets.wait(100);
+                }
+            }
+
+            if (isStopped) {
+                LOG.warn("dispatcher stopped; ignoring message at offset {} of partition {}", kafkaMsg.getOffset(), kafkaMsg.getPartition());
+
+                return;
+            }
+
+            PartitionOffsets offsets = partitionOffsets.get(kafkaMsg.getPartition());
+
+            if (offsets == null) {
+                offsets = new PartitionOffsets();
+
+                partitionOffsets.put(kafkaMsg.getPartition(), offsets);
+            }
+
+            offsets.add(kafkaMsg.getOffset());
+
+            inFlightCount++;
+        }
+
+        if (isOrderedAcrossWorkers) {
+            List<AtlasKafkaMessage<HookNotification>> messages = new ArrayList<>(1);
+
+            messages.add(kafkaMsg);
+
+            process(messages);
+        } else {
+            queues.get(workerIdxs.iterator().next()).put(kafkaMsg);
+        }
+    }
+
+    /**
+     * @return offset to commit for each partition whose low-water mark advanced since the previous call
+     */
+    public Map<Integer, Long> getOffsetsToCommit() {
+        Map<Integer, Long> ret = new HashMap<>();
+
+        synchronized (partitionOffsets) {
+            for (Map.Entry<Integer, PartitionOffsets> entry : partitionOffsets.entrySet()) {
+                Long offset = entry.getValue().getOffsetToCommit();
+
+                if (offset != null) {
+                    ret.put(entry.getKey(), offset);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Stops the workers after the messages being processed are completed; messages still in queues are not processed.
+     */
+    public void stop() {
+        isStopped = true;
+
+        workers.shutdown();
+
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOG.warn("Timed out waiting for hook message workers to complete");
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for hook message workers to complete");
+        }
+    }
+
+    private void process(List<AtlasKafkaMessage<HookNotification>> messages) {
+        try {
+            handler.handle(messages);
+        } catch (InterruptedException e) {
+            LOG.info("interrupted while processing {} hook messages", messages.size());
+
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            LOG.error("failed to process {} hook messages", messages.size(), t);
+        } finally {
+            // failed messages are not retried beyond the retries in handler, same as when processed inline
+            for (AtlasKafkaMessage<HookNotification> kafkaMsg : messages) {
+                complete(kafkaMsg);
+            }
+        }
+    }
+
+    private void complete(AtlasKafkaMessage<HookNotification> kafkaMsg) {
+        synchronized (partitionOffsets) {
+            PartitionOffsets offsets = partitionOffsets.get(kafkaMsg.getPartition());
+
+            if (offsets != null) {
+                offsets.remove(kafkaMsg.getOffset());
+            }
+
+            inFlightCount--;
+
+            if (inFlightCount == 0) {
+                partitionOffsets.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Keys of the entities the message creates, updates or deletes - including referred entities sent along with the
+     * message. Every key is built from the entity's type name and the unique attribute the message identifies it by:
+     * qualifiedName when present, else guid. An entity referred to by different unique attributes in different
+     * messages - for example by guid in one and by qualifiedName in another - gets different keys, hence messages
+     * for it might be processed in parallel; hooks refer to entities by qualifiedName.
+     */
+    static Set<String> getRoutingKeys(HookNotification message) {
+        Set<String> ret = new LinkedHashSet<>();
+
+        switch (message.getType()) {
+            case ENTITY_CREATE:
+            case ENTITY_FULL_UPDATE:
+                addKeys(((EntityCreateRequest) message).getEntities(), ret);
+            break;
+
+            case ENTITY_PARTIAL_UPDATE: {
+                EntityPartialUpdateRequest request = (EntityPartialUpdateRequest) message;
+
+                ret.add(getKey(request.getTypeName(), request.getAttribute(), request.getAttributeValue()));
+
+                if (request.getEntity() != null && request.getEntity().getValues() != null) {
+                    addKeys(request.getEntity().getValues().values(), ret);
+                }
+            }
+            break;
+
+            case ENTITY_DELETE: {
+                EntityDeleteRequest request = (EntityDeleteRequest) message;
+
+                ret.add(getKey(request.getTypeName(), request.getAttribute(), request.getAttributeValue()));
+            }
+            break;
+
+            case ENTITY_CREATE_V2:
+            case ENTITY_FULL_UPDATE_V2: {
+                AtlasEntitiesWithExtInfo entities = message instanceof EntityCreateRequestV2 ? ((EntityCreateRequestV2) message).getEntities()
+                                                                                              : ((EntityUpdateRequestV2) message).getEntities();
+
+                if (entities != null) {
+                    if (entities.getEntities() != null) {
+                        for (AtlasEntity entity : entities.getEntities()) {
+                            ret.add(getKey(entity));
+                        }
+                    }
+
+                    if (entities.getReferredEntities() != null) {
+                        for (AtlasEntity entity : entities.getReferredEntities().values()) {
+                            ret.add(getKey(entity));
+                        }
+                    }
+                }
+            }
+            break;
+
+            case ENTITY_PARTIAL_UPDATE_V2:
+                ret.add(getKey(((EntityPartialUpdateRequestV2) message).getEntityId()));
+            break;
+
+            case ENTITY_DELETE_V2: {
+                List<AtlasObjectId> entities = ((EntityDeleteRequestV2) message).getEntities();
+
+                if (entities != null) {
+                    for (AtlasObjectId objectId : entities) {
+                        ret.add(getKey(objectId));
+                    }
+                }
+            }
+            break;
+        }
+
+        ret.remove(null);
+
+        return ret.isEmpty() ? Collections.singleton(message.getType().name()) : ret;
+    }
+
+    // nested entities in attributes of v1 entities are created/updated along with the entity
+    private static void addKeys(Object value, Set<String> keys) {
+        if (value instanceof Referenceable) {
+            Referenceable entity = (Referenceable) value;
+            Object        qName  = entity.get(QUALIFIED_NAME);
+
+            if (qName != null) {
+                keys.add(getKey(entity.getTypeName(), QUALIFIED_NAME, qName));
+            } else if (entity.getId() != null) {
+                keys.add(getKey(entity.getTypeName(), GUID, entity.getId()._getId()));
+            }
+
+            if (entity.getValues() != null) {
+                addKeys(entity.getValues().values(), keys);
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                addKeys(element, keys);
+            }
+        } else if (value instanceof Map) {
+            addKeys(((Map) value).values(), keys);
+        }
+    }
+
+    private static String getKey(AtlasEntity entity) {
+        Object qName = entity.getAttributes() != null ? entity.getAttribute(QUALIFIED_NAME) : null;
+
+        return qName != null ? getKey(entity.getTypeName(), QUALIFIED_NAME, qName) : getKey(entity.getTypeName(), GUID, entity.getGuid());
+    }
+
+    private static String getKey(AtlasObjectId objectId) {
+        if (objectId == null) {
+            return null;
+        }
+
+        if (MapUtils.isNotEmpty(objectId.getUniqueAttributes())) {
+            Object qName = objectId.getUniqueAttributes().get(QUALIFIED_NAME);
+
+            if (qName != null) {
+                return getKey(objectId.getTypeName(), QUALIFIED_NAME, qName);
+            }
+
+            Map.Entry<String, Object> uniqAttr = objectId.getUniqueAttributes().entrySet().iterator().next();
+
+            return getKey(objectId.getTypeName(), uniqAttr.getKey(), uniqAttr.getValue());
+        }
+
+        return getKey(objectId.getTypeName(), GUID, objectId.getGuid());
+    }
+
+    private static String getKey(String typeName, String attrName, Object attrValue) {
+        return attrValue != null ? (typeName + ":" + attrName + "=" + attrValue) : null;
+    }
+
+    private class Worker implements Runnable {
+        private final BlockingQueue<AtlasKafkaMessage<HookNotification>> queue;
+
+        Worker(BlockingQueue<AtlasKafkaMessage<HookNotification>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            List<AtlasKafkaMessage<HookNotification>> messages = new ArrayList<>(maxMessagesPerCall);
+
+            while (!isStopped) {
+                AtlasKafkaMessage<HookNotification> kafkaMsg;
+
+                try {
+                    kafkaMsg = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    LOG.info("hook message worker interrupted");
+
+                    break;
+                }
+
+                if (kafkaMsg == null) {
+                    continue;
+                }
+
+                messages.add(kafkaMsg);
+
+                queue.drainTo(messages, maxMessagesPerCall - 1);
+
+                process(messages);
+
+                messages.clear();
+            }
+        }
+    }
+
+    private static class PartitionOffsets {
+        private final TreeSet<Long> inProgress      = new TreeSet<>();
+        private       long          nextOffset      = -1;
+        private       long          committedOffset = -1;
+
+        void add(long offset) {
+            inProgress.add(offset);
+
+            nextOffset = Math.max(nextOffset, offset + 1);
+        }
+
+        void remove(long offset) {
+            inProgress.remove(offset);
+        }
+
+        Long getOffsetToCommit() {
+            long offset = inProgress.isEmpty() ? nextOffset : inProgress.first();
+
+            if (offset > committedOffset) {
+                committedOffset = offset;
+
+                return offset;
+            }
+
+            return null;
+        }
+    }
+}
@@ -54,6 +54,7 @@ import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.atlas.web.filters.AuditFilter;
 import org.apache.atlas.web.filters.AuditFilter.AuditLog;
 import org.apache.atlas.web.service.ServiceState;
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
@@ -90,6 +91,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_RETRY_INTERVAL           = "atlas.notification.consumer.retry.interval";
     public static final String CONSUMER_MIN_RETRY_INTERVAL       = "atlas.notification.consumer.min.retry.interval";
     public static final String CONSUMER_MAX_RETRY_INTERVAL       = "atlas.notification.consumer.max.retry.interval";
+    public static final String CONSUMER_BATCH_SIZE               = "atlas.notification.hook.batch.size";
+    public static final String CONSUMER_BATCH_MAX_WAIT_MS        = "atlas.notification.hook.batch.max.wait.ms";
+    public static final String CONSUMER_WORKER_THREADS           = "atlas.notification.hook.worker.threads";
+    public static final String CONSUMER_WORKER_QUEUE_SIZE        = "atlas.notification.hook.worker.queue.size";
 
     public static final int SERVER_READY_WAIT_TIME_MS = 1000;
 
@@ -101,6 +106,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final int                    failedMsgCacheSize;
     private final int                    minWaitDuration;
     private final int                    maxWaitDuration;
+    private final int                    batchSize;
+    private final int                    batchMaxWaitMs;
+    private final int                    workerThreads;
+    private final int                    workerQueueSize;
 
     private NotificationInterface notificationInterface;
     private ExecutorService       executors;
@@ -128,6 +137,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         consumerRetryInterval = applicationProperties.getInt(CONSUMER_RETRY_INTERVAL, 500);
         minWaitDuration       = applicationProperties.getInt(CONSUMER_MIN_RETRY_INTERVAL, consumerRetryInterval); // 500 ms  by default
         maxWaitDuration       = applicationProperties.getInt(CONSUMER_MAX_RETRY_INTERVAL, minWaitDuration * 60);  //  30 sec by default
+        batchSize             = applicationProperties.getInt(CONSUMER_BATCH_SIZE, 1); // messages are processed one at a time by default
+        batchMaxWaitMs        = applicationProperties.getInt(CONSUMER_BATCH_MAX_WAIT_MS, 100);
+        workerThreads         = applicationProperties.getInt(CONSUMER_WORKER_THREADS, 1); // messages are processed in the consumer thread by default
+        workerQueueSize       = applicationProperties.getInt(CONSUMER_WORKER_QUEUE_SIZE, 1000);
     }
 
     @Override
@@ -296,6 +309,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         private final AtomicBoolean                          shouldRun      = new AtomicBoolean(false);
         private final List<HookNotification>                 failedMessages = new ArrayList<>();
         private final AdaptiveWaiter                         adaptiveWaiter = new AdaptiveWaiter(minWaitDuration, maxWaitDuration, minWaitDuration);
+        private volatile HookMessageDispatcher               dispatcher;
 
         public HookConsumer(NotificationConsumer<HookNotification> consumer) {
             super("atlas-hook-consumer-thread", false);
@@ -313,13 +327,42 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 return;
             }
 
+            if (workerThreads > 1) {
+                LOG.info("processing messages in {} worker threads", workerThreads);
+
+                dispatcher = new HookMessageDispatcher(THREADNAME_PREFIX, workerThreads, workerQueueSize, batchSize, new HookMessageDispatcher.MessageHandler() {
+                    @Override
+                    public void handle(List<AtlasKafkaMessage<HookNotification>> messages) throws Exception {
+                        if (batchSize > 1) {
+                            handleMessages(messages);
+                        } else {
+                            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                                handleMessage(msg);
+                            }
+                        }
+                    }
+                });
+            }
+
             try {
                 while (shouldRun.get()) {
                     try {
-                        List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
+                        if (dispatcher != null) {
+                            List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
 
-                        for (AtlasKafkaMessage<HookNotification> msg : messages) {
-                            handleMessage(msg);
+                            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                                dispatcher.dispatch(msg);
+                            }
+
+                            commitProcessedOffsets();
+                        } else if (batchSize > 1) {
+                            handleMessages(receiveBatch());
+                        } else {
+                            List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
+
+                            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                                handleMessage(msg);
+                            }
                         }
                     } catch (IllegalStateException ex) {
                         adaptiveWaiter.pause(ex);
@@ -334,6 +377,14 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     }
                 }
             } finally {
+                if (dispatcher != null) {
+                    dispatcher.stop();
+
+                    commitProcessedOffsets();
+
+                    dispatcher = null;
+                }
+
                 if (consumer != null) {
                     LOG.info("closing NotificationConsumer");
 
@@ -523,10 +574,12 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                             isFailedMsg = true;
 
-                            failedMessages.add(message);
+                            synchronized (failedMessages) {
+                                failedMessages.add(message);
 
-                            if (failedMessages.size() >= failedMsgCacheSize) {
-                                recordFailedMessages();
+                                if (failedMessages.size() >= failedMsgCacheSize) {
+                                    recordFailedMessages();
+                                }
                             }
                             return;
                         }
@@ -548,23 +601,222 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             }
         }
 
-        private void recordFailedMessages() {
-            //logging failed messages
-            for (HookNotification message : failedMessages) {
-                FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", AbstractNotification.getMessageJson(message));
+        /**
+         * Receives messages until batchSize messages are received, or batchMaxWaitMs elapses after the first message.
+         */
+        private List<AtlasKafkaMessage<HookNotification>> receiveBatch() {
+            List<AtlasKafkaMessage<HookNotification>> ret      = new ArrayList<>(consumer.receive());
+            long                                      deadline = System.currentTimeMillis() + batchMaxWaitMs;
+
+            while (!ret.isEmpty() && ret.size() < batchSize && shouldRun.get()) {
+                long waitMs = deadline - System.currentTimeMillis();
+
+                if (waitMs <= 0) {
+                    break;
+                }
+
+                List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive(waitMs);
+
+                if (messages.isEmpty()) {
+                    break;
+                }
+
+                ret.addAll(messages);
+            }
+
+            return ret;
+        }
+
+        /**
+         * Merges consecutive create/full-update messages into batches that are applied in one transaction. Other
+         * messages, and messages that can't be merged with the current batch, are processed after the batch.
+         */
+        @VisibleForTesting
+        void handleMessages(List<AtlasKafkaMessage<HookNotification>> kafkaMessages) throws AtlasServiceException, AtlasException {
+            HookMessageBatch batch = new HookMessageBatch(typeRegistry);
+
+            for (AtlasKafkaMessage<HookNotification> kafkaMsg : kafkaMessages) {
+                AtlasEntitiesWithExtInfo entities = getEntitiesToBatch(kafkaMsg.getMessage());
+
+                if (entities == null) {
+                    handleBatch(batch);
+
+                    batch = new HookMessageBatch(typeRegistry);
+
+                    handleMessage(kafkaMsg);
+                } else if (batch.size() >= batchSize || !batch.add(kafkaMsg, entities)) {
+                    handleBatch(batch);
+
+                    batch = new HookMessageBatch(typeRegistry);
+
+                    batch.add(kafkaMsg, entities);
+                }
+            }
+
+            handleBatch(batch);
+        }
+
+        private void handleBatch(HookMessageBatch batch) throws AtlasServiceException, AtlasException {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            if (batch.size() == 1) {
+                handleMessage(batch.getMessages().get(0));
+
+                return;
+            }
+
+            AtlasPerfTracer perf      = null;
+            long            startTime = System.currentTimeMillis();
+            boolean         isSuccess = false;
+
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "handleBatch(" + batch.size() + ")");
+            }
+
+            try {
+                RequestContextV1.get().setUser(batch.getUser(), null);
+
+                atlasEntityStore.createOrUpdate(new AtlasEntityStream(batch.getEntities()), false);
+
+                isSuccess = true;
+            } catch (Throwable e) {
+                LOG.warn("Error handling batch of {} messages. Will process them one at a time", batch.size(), e);
+            } finally {
+                RequestContextV1.clear();
+
+                AtlasPerfTracer.log(perf);
+            }
+
+            if (isSuccess) {
+                long timeTaken = System.currentTimeMillis() - startTime;
+
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : batch.getMessages()) {
+                    AuditLog auditLog = createAuditLog(kafkaMsg.getMessage());
+
+                    auditLog.setHttpStatus(SC_OK);
+                    auditLog.setTimeTaken(timeTaken);
+
+                    AuditFilter.audit(auditLog);
+                }
+
+                commit(batch.getMessages());
+            } else {
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : batch.getMessages()) {
+                    handleMessage(kafkaMsg);
+                }
+            }
+        }
+
+        // returns null if the message can't be part of a batch
+        private AtlasEntitiesWithExtInfo getEntitiesToBatch(HookNotification message) {
+            AtlasEntitiesWithExtInfo ret = null;
+
+            try {
+                RequestContextV1.get().setUser(message.getUser(), null);
+
+                switch (message.getType()) {
+                    case ENTITY_CREATE:
+                        ret = instanceConverter.toAtlasEntities(((EntityCreateRequest) message).getEntities());
+                    break;
+
+                    case ENTITY_FULL_UPDATE:
+                        ret = instanceConverter.toAtlasEntities(((EntityUpdateRequest) message).getEntities());
+                    break;
+
+                    case ENTITY_CREATE_V2:
+                        ret = ((EntityCreateRequestV2) message).getEntities();
+                    break;
+
+                    case ENTITY_FULL_UPDATE_V2:
+                        ret = ((EntityUpdateRequestV2) message).getEntities();
+                    break;
+                }
+            } catch (Throwable e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("failed to convert entities in message {}. Will be processed individually", message.getType().name(), e);
+                }
+
+                ret = null;
+            } finally {
+                RequestContextV1.clear();
             }
 
-            failedMessages.clear();
+            return ret != null && CollectionUtils.isNotEmpty(ret.getEntities()) ? ret : null;
+        }
+
+        private AuditLog createAuditLog(HookNotification message) {
+            switch (message.getType()) {
+                case ENTITY_CREATE:
+                    return new AuditLog(message.getUser(), THREADNAME_PREFIX,
+                                        AtlasClient.API_V1.CREATE_ENTITY.getMethod(),
+                                        AtlasClient.API_V1.CREATE_ENTITY.getNormalizedPath());
+
+                case ENTITY_CREATE_V2:
+                    return new AuditLog(message.getUser(), THREADNAME_PREFIX,
+                                        AtlasClientV2.API_V2.CREATE_ENTITY.getMethod(),
+                                        AtlasClientV2.API_V2.CREATE_ENTITY.getNormalizedPath());
+
+                default:
+                    return new AuditLog(message.getUser(), THREADNAME_PREFIX,
+                                        AtlasClientV2.API_V2.UPDATE_ENTITY.getMethod(),
+                                        AtlasClientV2.API_V2.UPDATE_ENTITY.getNormalizedPath());
+            }
+        }
+
+        private void recordFailedMessages() {
+            synchronized (failedMessages) {
+                //logging failed messages
+                for (HookNotification message : failedMessages) {
+                    FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", AbstractNotification.getMessageJson(message));
+                }
+
+                failedMessages.clear();
+            }
         }
 
         private void commit(AtlasKafkaMessage<HookNotification> kafkaMessage) {
             recordFailedMessages();
 
+            if (dispatcher != null) { // offsets are committed by the consumer thread, up to the lowest offset being processed
+                return;
+            }
+
             TopicPartition partition = new TopicPartition("ATLAS_HOOK", kafkaMessage.getPartition());
 
             consumer.commit(partition, kafkaMessage.getOffset() + 1);
         }
 
+        // commits the highest offset of each partition
+        private void commit(List<AtlasKafkaMessage<HookNotification>> kafkaMessages) {
+            recordFailedMessages();
+
+            if (dispatcher != null) { // offsets are committed by the consumer thread, up to the lowest offset being processed
+                return;
+            }
+
+            Map<Integer, Long> offsets = new HashMap<>();
+
+            for (AtlasKafkaMessage<HookNotification> kafkaMessage : kafkaMessages) {
+                Long offset = offsets.get(kafkaMessage.getPartition());
+
+                if (offset == null || offset < kafkaMessage.getOffset()) {
+                    offsets.put(kafkaMessage.getPartition(), kafkaMessage.getOffset());
+                }
+            }
+
+            for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+                consumer.commit(new TopicPartition("ATLAS_HOOK", entry.getKey()), entry.getValue() + 1);
+            }
+        }
+
+        private void commitProcessedOffsets() {
+            for (Map.Entry<Integer, Long> entry : dispatcher.getOffsetsToCommit().entrySet()) {
+                consumer.commit(new TopicPartition("ATLAS_HOOK", entry.getKey()), entry.getValue());
+            }
+        }
+
         boolean serverAvailable(Timer timer) {
             try {
                 while (serviceState.getState() != ServiceState.ServiceStateValue.ACTIVE) {
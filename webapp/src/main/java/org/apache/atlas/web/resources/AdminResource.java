@@ -37,6 +37,7 @@ import org.apache.atlas.repository.impexp.ExportService;
 import org.apache.atlas.repository.impexp.ImportService;
 import org.apache.atlas.repository.impexp.ZipSink;
 import org.apache.atlas.repository.impexp.ZipSource;
+import org.apache.atlas.repository.store.graph.v1.EntityRetrieverCache;
 import org.apache.atlas.services.MetricsService;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -297,6 +298,25 @@ public class AdminResource {
         return metrics;
     }
 
+    @GET
+    @Path("cache/metrics")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, Map<String, Long>> getCacheMetrics() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.getCacheMetrics()");
+        }
+
+        Map<String, Map<String, Long>> ret = new HashMap<>();
+
+        ret.put("entityCache", EntityRetrieverCache.getInstance().getMetrics());
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.getCacheMetrics()");
+        }
+
+        return ret;
+    }
+
     private void releaseExportImportLock() {
         importExportOperationLock.unlock();
     }
@@ -315,13 +335,11 @@ public class AdminResource {
 
         ZipSink exportSink = null;
         try {
-            exportSink = new ZipSink(httpServletResponse.getOutputStream());
+            exportSink = exportService.createZipSink(httpServletResponse.getOutputStream());
             AtlasExportResult result = exportService.run(exportSink, request, Servlets.getUserName(httpServletRequest),
                                                          Servlets.getHostName(httpServletRequest),
                                                          AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
 
-            exportSink.close();
-
             httpServletResponse.addHeader("Content-Encoding","gzip");
             httpServletResponse.setContentType("application/zip");
             httpServletResponse.setHeader("Content-Disposition",
@@ -364,7 +382,7 @@ public class AdminResource {
 
         try {
             AtlasImportRequest request = AtlasType.fromJson(jsonData, AtlasImportRequest.class);
-            ZipSource zipSource = new ZipSource(inputStream);
+            ZipSource zipSource = importService.createZipSource(inputStream);
 
             result = importService.run(zipSource, request, Servlets.getUserName(httpServletRequest),
                     Servlets.getHostName(httpServletRequest),
@@ -167,6 +167,8 @@ public class DiscoveryREST {
      * @param classification limit the result to only entities tagged with the given classification or or its sub-types
      * @param limit          limit the result set to only include the specified number of entries
      * @param offset         start offset of the result set (useful for pagination)
+     * @param continuationToken token returned with the previous page of results; when given, the search continues from
+     *                          where that page ended and offset is ignored
      * @return Search results
      * @throws AtlasBaseException
      * @HTTP 200 On successful FullText lookup with some results, might return an empty list if execution succeeded
@@ -182,7 +184,8 @@ public class DiscoveryREST {
                                               @QueryParam("classification")         String  classification,
                                               @QueryParam("excludeDeletedEntities") boolean excludeDeletedEntities,
                                               @QueryParam("limit")                  int     limit,
-                                              @QueryParam("offset")                 int     offset) throws AtlasBaseException {
+                                              @QueryParam("offset")                 int     offset,
+                                              @QueryParam("continuationToken")      String  continuationToken) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
         Servlets.validateQueryParamLength("classification", classification);
         if (StringUtils.isNotEmpty(query) && query.length() > maxFullTextQueryLength) {
@@ -204,6 +207,7 @@ public class DiscoveryREST {
             searchParameters.setExcludeDeletedEntities(excludeDeletedEntities);
             searchParameters.setLimit(limit);
             searchParameters.setOffset(offset);
+            searchParameters.setContinuationToken(continuationToken);
 
             return atlasDiscoveryService.searchWithParameters(searchParameters);
         } finally {
@@ -25,6 +25,7 @@ import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.instance.AtlasClassification;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasPropagationTask;
 import org.apache.atlas.model.instance.ClassificationAssociateRequest;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
@@ -33,6 +34,7 @@ import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v1.AtlasEntityStream;
 import org.apache.atlas.repository.store.graph.v1.EntityStream;
+import org.apache.atlas.repository.store.graph.v1.TagPropagationManager;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -82,15 +84,17 @@ public class EntityREST {
     private final AtlasEntityStore       entitiesStore;
     private final EntityAuditRepository  auditRepository;
     private final AtlasInstanceConverter instanceConverter;
+    private final TagPropagationManager  tagPropagationManager;
 
 
     @Inject
-    public EntityREST(AtlasTypeRegistry typeRegistry, AtlasEntityStore entitiesStore,
-                      EntityAuditRepository auditRepository, AtlasInstanceConverter instanceConverter) {
-        this.typeRegistry      = typeRegistry;
-        this.entitiesStore     = entitiesStore;
-        this.auditRepository   = auditRepository;
-        this.instanceConverter = instanceConverter;
+    public EntityREST(AtlasTypeRegistry typeRegistry, AtlasEntityStore entitiesStore, EntityAuditRepository auditRepository,
+                      AtlasInstanceConverter instanceConverter, TagPropagationManager tagPropagationManager) {
+        this.typeRegistry          = typeRegistry;
+        this.entitiesStore         = entitiesStore;
+        this.auditRepository       = auditRepository;
+        this.instanceConverter     = instanceConverter;
+        this.tagPropagationManager = tagPropagationManager;
     }
 
     /**
@@ -358,6 +362,38 @@ public class EntityREST {
         }
     }
 
+    /**
+     * Gets the status of background tasks that add or remove propagations of a classification of the given entity.
+     * @param guid globally unique identifier for the entity
+     * @param classificationName name of the classification
+     * @return propagation tasks for the classification, in the order they were created
+     */
+    @GET
+    @Path("/guid/{guid}/classification/{classificationName}/propagation")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public List<AtlasPropagationTask> getClassificationPropagation(@PathParam("guid") String guid, @PathParam("classificationName") final String classificationName) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("guid", guid);
+        Servlets.validateQueryParamLength("classificationName", classificationName);
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getClassificationPropagation(" + guid + "," + classificationName + ")");
+            }
+
+            if (StringUtils.isEmpty(guid)) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+            }
+
+            ensureClassificationType(classificationName);
+
+            return tagPropagationManager.getPropagationTasks(guid, classificationName);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     /**
      * Gets the list of classifications for a given entity represented by a guid.
      * @param guid globally unique identifier for the entity
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageBatchTest {
+    private AtlasTypeRegistry typeRegistry;
+
+    @BeforeMethod
+    public void setup() {
+        AtlasEntityType entityType    = mock(AtlasEntityType.class);
+        AtlasAttribute  qualifiedName = mock(AtlasAttribute.class);
+
+        when(entityType.getUniqAttributes()).thenReturn(Collections.singletonMap("qualifiedName", qualifiedName));
+
+        typeRegistry = mock(AtlasTypeRegistry.class);
+
+        when(typeRegistry.getEntityTypeByName("hive_db")).thenReturn(entityType);
+        when(typeRegistry.getEntityTypeByName("hive_table")).thenReturn(entityType);
+    }
+
+    @Test
+    public void entitiesWithSameUniqueAttributesAreMerged() {
+        HookMessageBatch batch = new HookMessageBatch(typeRegistry);
+        AtlasEntity      db1   = createEntity("hive_db", "-1", "db1@cl1");
+        AtlasEntity      db2   = createEntity("hive_db", "-2", "db1@cl1");
+        AtlasEntity      tbl   = createEntity("hive_table", "-3", "db1.tbl1@cl1");
+
+        db1.setAttribute("owner", "user1");
+        db2.setAttribute("description", "test db");
+        tbl.setAttribute("db", new AtlasObjectId("-2", "hive_db"));
+
+        assertTrue(batch.add(createMessage("user1", 1, db1), entities(db1)));
+        assertTrue(batch.add(createMessage("user1", 2, db2, tbl), entities(db2, tbl)));
+
+        assertEquals(batch.size(), 2);
+        assertEquals(batch.getEntities().getEntities().size(), 2);
+
+        AtlasEntity mergedDb = batch.getEntities().getEntities().get(0);
+
+        assertEquals(mergedDb.getGuid(), "-1");
+        assertEquals(mergedDb.getAttribute("owner"), "user1");
+        assertEquals(mergedDb.getAttribute("description"), "test db");
+
+        // reference to the merged entity is updated, without changing the message
+        assertEquals(((AtlasObjectId) batch.getEntities().getEntities().get(1).getAttribute("db")).getGuid(), "-1");
+        assertEquals(((AtlasObjectId) tbl.getAttribute("db")).getGuid(), "-2");
+        assertEquals(db1.getAttribute("description"), null);
+    }
+
+    @Test
+    public void incompatibleMessagesAreNotAdded() {
+        HookMessageBatch batch = new HookMessageBatch(typeRegistry);
+        AtlasEntity      db1   = createEntity("hive_db", "-1", "db1@cl1");
+
+        assertTrue(batch.add(createMessage("user1", 1, db1), entities(db1)));
+
+        // different user
+        AtlasEntity db2 = createEntity("hive_db", "-2", "db2@cl1");
+
+        assertFalse(batch.add(createMessage("user2", 2, db2), entities(db2)));
+
+        // same guid used for a different entity
+        AtlasEntity db3 = createEntity("hive_db", "-1", "db3@cl1");
+
+        assertFalse(batch.add(createMessage("user1", 3, db3), entities(db3)));
+
+        // entity to merge has classifications
+        AtlasEntity db4 = createEntity("hive_db", "-4", "db1@cl1");
+
+        db4.setClassifications(Collections.singletonList(new AtlasClassification("PII")));
+
+        assertFalse(batch.add(createMessage("user1", 4, db4), entities(db4)));
+
+        assertEquals(batch.size(), 1);
+        assertEquals(batch.getEntities().getEntities().size(), 1);
+    }
+
+    private AtlasEntity createEntity(String typeName, String guid, String qualifiedName) {
+        AtlasEntity ret = new AtlasEntity(typeName, "qualifiedName", qualifiedName);
+
+        ret.setGuid(guid);
+
+        return ret;
+    }
+
+    private AtlasEntitiesWithExtInfo entities(AtlasEntity... entities) {
+        return new AtlasEntitiesWithExtInfo(Arrays.asList(entities));
+    }
+
+    private AtlasKafkaMessage<HookNotification> createMessage(String user, long offset, AtlasEntity... entities) {
+        return new AtlasKafkaMessage<HookNotification>(new EntityCreateRequestV2(user, entities(entities)), offset, 0);
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageDispatcherTest {
+    @Test
+    public void messagesForAnEntityAreProcessedInOrder() throws Exception {
+        final int                   numMessages = 200;
+        final CountDownLatch        latch       = new CountDownLatch(numMessages);
+        final List<Long>            db1Offsets  = Collections.synchronizedList(new ArrayList<Long>());
+        final HookMessageDispatcher dispatcher  = new HookMessageDispatcher("test", 4, 10, 5, new HookMessageDispatcher.MessageHandler() {
+            @Override
+            public void handle(List<AtlasKafkaMessage<HookNotification>> messages) {
+                for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                    if (HookMessageDispatcher.getRoutingKeys(msg.getMessage()).contains("hive_db:qualifiedName=db1@cl1")) {
+                        db1Offsets.add(msg.getOffset());
+                    }
+
+                    latch.countDown();
+                }
+            }
+        });
+
+        try {
+            for (int i = 0; i < numMessages; i++) {
+                String qualifiedName = (i % 2 == 0) ? "db1@cl1" : ("tmp_db" + i + "@cl1");
+
+                dispatcher.dispatch(new AtlasKafkaMessage<>(createUpdateMessage(qualifiedName), i, 0));
+            }
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.stop();
+        }
+
+        assertEquals(db1Offsets.size(), numMessages / 2);
+
+        for (int i = 1; i < db1Offsets.size(); i++) {
+            assertTrue(db1Offsets.get(i - 1) < db1Offsets.get(i));
+        }
+
+        Map<Integer, Long> offsets = dispatcher.getOffsetsToCommit();
+
+        assertEquals(offsets.get(0).longValue(), numMessages);
+        assertTrue(dispatcher.getOffsetsToCommit().isEmpty());
+    }
+
+    @Test
+    public void offsetIsNotCommittedPastMessageInProgress() throws Exception {
+        final CountDownLatch        started    = new CountDownLatch(1);
+        final CountDownLatch        release    = new CountDownLatch(1);
+        final HookMessageDispatcher dispatcher = new HookMessageDispatcher("test", 2, 10, 1, new HookMessageDispatcher.MessageHandler() {
+            @Override
+            public void handle(List<AtlasKafkaMessage<HookNotification>> messages) throws Exception {
+                if (messages.get(0).getOffset() == 5) {
+                    started.countDown();
+                    release.await();
+                }
+            }
+        });
+
+        try {
+            dispatcher.dispatch(new AtlasKafkaMessage<>(createUpdateMessage("db1@cl1"), 5, 1));
+
+            assertTrue(started.await(30, TimeUnit.SECONDS));
+
+            assertEquals(dispatcher.getOffsetsToCommit().get(1).longValue(), 5);
+
+            release.countDown();
+        } finally {
+            dispatcher.stop();
+        }
+
+        assertEquals(dispatcher.getOffsetsToCommit().get(1).longValue(), 6);
+    }
+
+    @Test
+    public void messageForEntitiesInDifferentWorkersIsProcessedInOrder() throws Exception {
+        final int                   numMessages = 100;
+        final long                  tableOffset = numMessages / 2;
+        final CountDownLatch        latch       = new CountDownLatch(numMessages + 1);
+        final List<Long>            offsets     = Collections.synchronizedList(new ArrayList<Long>());
+        final HookMessageDispatcher dispatcher  = new HookMessageDispatcher("test", 4, 10, 5, new HookMessageDispatcher.MessageHandler() {
+            @Override
+            public void handle(List<AtlasKafkaMessage<HookNotification>> messages) throws Exception {
+                for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                    offsets.add(msg.getOffset());
+
+                    latch.countDown();
+                }
+
+                Thread.sleep(1);
+            }
+        });
+
+        AtlasEntity table = new AtlasEntity("hive_table", "qualifiedName", "db1.tbl1@cl1");
+
+        table.setAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", "db1@cl1"));
+
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+        entities.addEntity(table);
+
+        for (int i = 0; i < 10; i++) {
+            entities.addEntity(new AtlasEntity("hive_column", "qualifiedName", "db1.tbl1.col" + i + "@cl1"));
+        }
+
+        HookNotification tableMessage = new EntityUpdateRequestV2("user1", entities);
+
+        assertTrue(HookMessageDispatcher.getRoutingKeys(tableMessage).size() > 4);
+
+        try {
+            for (long i = 0; i < numMessages; i++) {
+                if (i == tableOffset) {
+                    dispatcher.dispatch(new AtlasKafkaMessage<>(tableMessage, tableOffset, 0));
+                }
+
+                dispatcher.dispatch(new AtlasKafkaMessage<>(createUpdateMessage("db" + i + "@cl1"), i < tableOffset ? i : (i + 1), 0));
+            }
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.stop();
+        }
+
+        int tableIdx = offsets.indexOf(tableOffset);
+
+        for (int i = 0; i < offsets.size(); i++) {
+            if (i < tableIdx) {
+                assertTrue(offsets.get(i) < tableOffset, "offset " + offsets.get(i) + " processed before " + tableOffset);
+            } else if (i > tableIdx) {
+                assertTrue(offsets.get(i) > tableOffset, "offset " + offsets.get(i) + " processed after " + tableOffset);
+            }
+        }
+
+        assertEquals(dispatcher.getOffsetsToCommit().get(0).longValue(), numMessages + 1);
+    }
+
+    @Test
+    public void routingKeyUsesUniqueAttribute() {
+        AtlasObjectId objectId = new AtlasObjectId("hive_table", "qualifiedName", "db1.tbl1@cl1");
+        Referenceable table    = new Referenceable("hive_table");
+
+        table.set("qualifiedName", "db1.tbl1@cl1");
+
+        Set<String> tableKey = Collections.singleton("hive_table:qualifiedName=db1.tbl1@cl1");
+
+        // key of an entity is the same for every message type
+        assertEquals(HookMessageDispatcher.getRoutingKeys(new EntityDeleteRequestV2("user1", Collections.singletonList(objectId))), tableKey);
+        assertEquals(HookMessageDispatcher.getRoutingKeys(new EntityCreateRequest("user1", table)), tableKey);
+        assertEquals(HookMessageDispatcher.getRoutingKeys(new EntityPartialUpdateRequest("user1", "hive_table", "qualifiedName", "db1.tbl1@cl1", new Referenceable("hive_table"))), tableKey);
+        assertEquals(HookMessageDispatcher.getRoutingKeys(new EntityDeleteRequest("user1", "hive_table", "qualifiedName", "db1.tbl1@cl1")), tableKey);
+        assertEquals(HookMessageDispatcher.getRoutingKeys(createUpdateMessage("db1@cl1")), Collections.singleton("hive_db:qualifiedName=db1@cl1"));
+
+        // nested v1 entities and v2 referred entities are included
+        Referenceable column = new Referenceable("hive_column");
+
+        column.set("qualifiedName", "db1.tbl1.col1@cl1");
+        table.set("columns", Collections.singletonList(column));
+
+        assertEquals(HookMessageDispatcher.getRoutingKeys(new EntityCreateRequest("user1", table)),
+                     new HashSet<>(Arrays.asList("hive_table:qualifiedName=db1.tbl1@cl1", "hive_column:qualifiedName=db1.tbl1.col1@cl1")));
+
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo(new AtlasEntity("hive_table", "qualifiedName", "db1.tbl1@cl1"));
+
+        entities.addReferredEntity(new AtlasEntity("hive_db", "qualifiedName", "db1@cl1"));
+
+        assertEquals(HookMessageDispatcher.getRoutingKeys(new EntityUpdateRequestV2("user1", entities)),
+                     new HashSet<>(Arrays.asList("hive_table:qualifiedName=db1.tbl1@cl1", "hive_db:qualifiedName=db1@cl1")));
+    }
+
+    private HookNotification createUpdateMessage(String qualifiedName) {
+        AtlasEntity entity = new AtlasEntity("hive_db", "qualifiedName", qualifiedName);
+
+        return new EntityUpdateRequestV2("user1", new AtlasEntitiesWithExtInfo(entity));
+    }
+}